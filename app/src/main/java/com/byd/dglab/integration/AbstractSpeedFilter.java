@@ -0,0 +1,103 @@
+package com.byd.dglab.integration;
+
+/**
+ * 车速滤波器基类
+ * 负责时间戳处理和延迟/抖动的在线测量，子类只需实现滤波本身
+ */
+public abstract class AbstractSpeedFilter implements SpeedFilter {
+
+    /** 统计量的指数衰减系数（约64个采样的观测窗口） */
+    private static final double METRICS_DECAY = 1.0 / 64;
+
+    /** 输入变化率的平滑系数，抑制测量噪声对延迟估计的低估 */
+    private static final double SLOPE_DECAY = 1.0 / 8;
+
+    // 上一个采样
+    private boolean hasPrevious;
+    private long previousTimestampMs;
+    private double previousInput;
+
+    // 最近两个输出，用于计算二阶差分
+    private int outputCount;
+    private double lastOutput;
+    private double secondLastOutput;
+
+    // 延迟估计：E[误差 * 斜率] / E[斜率^2]
+    private boolean hasSlope;
+    private double slope;
+    private double errorSlopeMean;
+    private double slopeSquareMean;
+
+    // 抖动估计：E[二阶差分^2]
+    private double secondDiffSquareMean;
+
+    @Override
+    public final double filter(double speedKmH, long timestampMs) {
+        long deltaMs = hasPrevious ? timestampMs - previousTimestampMs : 0;
+        double output = apply(speedKmH, deltaMs);
+
+        // 测量延迟
+        if (hasPrevious && deltaMs > 0) {
+            double rawSlope = (speedKmH - previousInput) / deltaMs;
+            if (hasSlope) {
+                slope += (rawSlope - slope) * SLOPE_DECAY;
+            } else {
+                hasSlope = true;
+                slope = rawSlope;
+            }
+            double error = speedKmH - output;
+            errorSlopeMean += (error * slope - errorSlopeMean) * METRICS_DECAY;
+            slopeSquareMean += (slope * slope - slopeSquareMean) * METRICS_DECAY;
+        }
+
+        // 测量抖动
+        if (outputCount >= 2) {
+            double secondDiff = output - 2 * lastOutput + secondLastOutput;
+            secondDiffSquareMean += (secondDiff * secondDiff - secondDiffSquareMean) * METRICS_DECAY;
+        } else {
+            outputCount++;
+        }
+        secondLastOutput = lastOutput;
+        lastOutput = output;
+
+        hasPrevious = true;
+        previousTimestampMs = timestampMs;
+        previousInput = speedKmH;
+        return output;
+    }
+
+    @Override
+    public final void reset() {
+        hasPrevious = false;
+        outputCount = 0;
+        hasSlope = false;
+        slope = 0;
+        errorSlopeMean = 0;
+        slopeSquareMean = 0;
+        secondDiffSquareMean = 0;
+        resetState();
+    }
+
+    @Override
+    public double getLagMs() {
+        return slopeSquareMean > 0 ? errorSlopeMean / slopeSquareMean : 0;
+    }
+
+    @Override
+    public double getJitter() {
+        return Math.sqrt(secondDiffSquareMean);
+    }
+
+    /**
+     * 滤波计算
+     * @param speedKmH 车速（km/h）
+     * @param deltaMs 距上一个采样的时间（毫秒），第一个采样为0
+     * @return 滤波后的车速（km/h）
+     */
+    protected abstract double apply(double speedKmH, long deltaMs);
+
+    /**
+     * 清空滤波状态
+     */
+    protected abstract void resetState();
+}
@@ -0,0 +1,60 @@
+package com.byd.dglab.integration;
+
+/**
+ * 加减速调制器
+ * 由导数估计器得到加速度，按调制参数计算每个采样的强度调整量，
+ * 并在减速度首次越过阈值时触发定长的急刹车脉冲；只在采样线程上使用
+ */
+class AccelerationModulator {
+
+    private final DerivativeEstimator estimator = new DerivativeEstimator();
+
+    private boolean braking;
+    private long pulseEndMs;
+    private boolean pulseActive;
+
+    /**
+     * 处理一个采样
+     * @param speedKmH 原始车速（km/h）
+     * @param timestampMs 采样时间戳（毫秒）
+     * @param config 调制参数
+     * @return 强度调整量
+     */
+    int update(double speedKmH, long timestampMs, ModulationConfig config) {
+        estimator.update(speedKmH, timestampMs);
+        if (!config.isEnabled()) {
+            pulseActive = false;
+            return 0;
+        }
+
+        double acceleration = estimator.getAcceleration();
+        int adjustment = config.adjustmentFor(acceleration);
+
+        // 急刹车脉冲：只在进入急刹车状态的采样触发一次
+        boolean hardBraking = config.getBrakeThreshold() > 0 && acceleration <= -config.getBrakeThreshold();
+        if (hardBraking && !braking) {
+            pulseActive = true;
+            pulseEndMs = timestampMs + config.getBrakePulseDurationMs();
+        }
+        braking = hardBraking;
+
+        if (pulseActive) {
+            if (timestampMs < pulseEndMs) {
+                adjustment += config.getBrakePulseIntensity();
+            } else {
+                pulseActive = false;
+            }
+        }
+        return adjustment;
+    }
+
+    DerivativeEstimator getEstimator() {
+        return estimator;
+    }
+
+    void reset() {
+        estimator.reset();
+        braking = false;
+        pulseActive = false;
+    }
+}
@@ -0,0 +1,161 @@
+package com.byd.dglab.integration;
+
+/**
+ * 发送拥塞监测
+ * 根据WebSocket客户端发送队列中尚未写入网络的帧数判断链路是否拥塞，进入和解除使用不同阈值避免来回切换；
+ * 记录拥塞次数、持续时间和被丢弃或推迟的命令数，用于区分网络卡顿和设备问题
+ *
+ * 状态只在发送线程上更新，统计值可以从任意线程读取
+ */
+public class BackpressureMonitor {
+
+    private volatile int policy = Constants.DEFAULT_BACKPRESSURE_POLICY;
+    private volatile int highWatermark = Constants.BACKPRESSURE_HIGH_WATERMARK;
+    private volatile int lowWatermark = Constants.BACKPRESSURE_LOW_WATERMARK;
+
+    private volatile boolean congested;
+    private volatile int queuedFrames;
+    private volatile long congestedSinceMs;
+
+    // 统计
+    private volatile int maxQueuedFrames;
+    private volatile long congestionCount;
+    private volatile long totalCongestedMs;
+    private volatile long droppedCount;
+    private volatile long deferredCount;
+
+    /**
+     * 用当前发送队列长度更新拥塞状态
+     * @param frames 发送队列中的帧数
+     * @param nowMs 当前时间（毫秒）
+     * @return 拥塞状态发生变化时返回true
+     */
+    public boolean update(int frames, long nowMs) {
+        queuedFrames = frames;
+        if (frames > maxQueuedFrames) {
+            maxQueuedFrames = frames;
+        }
+
+        if (!congested && frames >= highWatermark) {
+            congested = true;
+            congestedSinceMs = nowMs;
+            congestionCount++;
+            return true;
+        }
+        if (congested && frames <= lowWatermark) {
+            congested = false;
+            totalCongestedMs += nowMs - congestedSinceMs;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 连接断开时清除拥塞状态
+     * @param nowMs 当前时间（毫秒）
+     */
+    public void reset(long nowMs) {
+        if (congested) {
+            congested = false;
+            totalCongestedMs += nowMs - congestedSinceMs;
+        }
+        queuedFrames = 0;
+    }
+
+    /**
+     * 记录一条因拥塞被丢弃的命令
+     */
+    public void recordDropped() {
+        droppedCount++;
+    }
+
+    /**
+     * 记录一条因拥塞被推迟的命令
+     */
+    public void recordDeferred() {
+        deferredCount++;
+    }
+
+    /**
+     * 设置拥塞时的处理策略
+     * @param newPolicy {@link Constants#BACKPRESSURE_DROP}、{@link Constants#BACKPRESSURE_REDUCE_RATE}
+     *                  或{@link Constants#BACKPRESSURE_COARSEN_DEADBAND}
+     */
+    public void setPolicy(int newPolicy) {
+        if (newPolicy != Constants.BACKPRESSURE_DROP
+                && newPolicy != Constants.BACKPRESSURE_REDUCE_RATE
+                && newPolicy != Constants.BACKPRESSURE_COARSEN_DEADBAND) {
+            throw new IllegalArgumentException("Unknown backpressure policy: " + newPolicy);
+        }
+        this.policy = newPolicy;
+    }
+
+    public int getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 设置拥塞判定阈值
+     * @param newHighWatermark 发送队列达到该帧数时判定为拥塞
+     * @param newLowWatermark 发送队列不超过该帧数时解除拥塞
+     */
+    public void setWatermarks(int newHighWatermark, int newLowWatermark) {
+        if (newLowWatermark < 0 || newHighWatermark <= newLowWatermark) {
+            throw new IllegalArgumentException("High watermark must be above low watermark");
+        }
+        this.highWatermark = newHighWatermark;
+        this.lowWatermark = newLowWatermark;
+    }
+
+    /**
+     * 是否处于拥塞状态
+     * @return 拥塞时返回true
+     */
+    public boolean isCongested() {
+        return congested;
+    }
+
+    /**
+     * 获取最近一次检查时发送队列中的帧数
+     * @return 帧数
+     */
+    public int getQueuedFrames() {
+        return queuedFrames;
+    }
+
+    /**
+     * 获取累计拥塞时长，包括正在持续的拥塞
+     * @param nowMs 当前时间（毫秒）
+     * @return 拥塞时长（毫秒）
+     */
+    public long getCongestedMs(long nowMs) {
+        return congested ? totalCongestedMs + nowMs - congestedSinceMs : totalCongestedMs;
+    }
+
+    public long getCongestionCount() {
+        return congestionCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getDeferredCount() {
+        return deferredCount;
+    }
+
+    public int getMaxQueuedFrames() {
+        return maxQueuedFrames;
+    }
+
+    /**
+     * 获取统计信息（用于日志）
+     * @param nowMs 当前时间（毫秒）
+     * @return 统计信息
+     */
+    public String getStats(long nowMs) {
+        return String.format("%s, queued %d (max %d), congestions %d, congested %d ms, dropped %d, deferred %d",
+                congested ? "congested" : "clear", queuedFrames, maxQueuedFrames,
+                congestionCount, getCongestedMs(nowMs), droppedCount, deferredCount);
+    }
+}
@@ -0,0 +1,68 @@
+package com.byd.dglab.integration;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量转换的映射阶段
+ * 平滑和加减速调制已在调用线程上顺序完成，平滑后的车速到强度和频率的映射不依赖前后采样，按分块并行执行；
+ * 每个采样的计算与{@link SpeedToControlConverter#convert(double, long)}相同，结果逐位一致
+ */
+class BatchMappingTask extends RecursiveAction {
+
+    private final ConversionProfile profile;
+    private final boolean compiledMode;
+    private final double[] smoothedSpeeds;
+    private final int[] adjustments;
+    private final int[] intensity;
+    private final int[] frequency;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    BatchMappingTask(ConversionProfile profile, boolean compiledMode, double[] smoothedSpeeds, int[] adjustments,
+                     int[] intensity, int[] frequency, int from, int to, int chunkSize) {
+        this.profile = profile;
+        this.compiledMode = compiledMode;
+        this.smoothedSpeeds = smoothedSpeeds;
+        this.adjustments = adjustments;
+        this.intensity = intensity;
+        this.frequency = frequency;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            map(profile, compiledMode, smoothedSpeeds, adjustments, intensity, frequency, from, to);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        invokeAll(new BatchMappingTask(profile, compiledMode, smoothedSpeeds, adjustments, intensity, frequency,
+                        from, mid, chunkSize),
+                new BatchMappingTask(profile, compiledMode, smoothedSpeeds, adjustments, intensity, frequency,
+                        mid, to, chunkSize));
+    }
+
+    /**
+     * 在当前线程上映射一段采样
+     */
+    static void map(ConversionProfile profile, boolean compiledMode, double[] smoothedSpeeds, int[] adjustments,
+                    int[] intensity, int[] frequency, int from, int to) {
+        if (compiledMode) {
+            for (int i = from; i < to; i++) {
+                double speed = smoothedSpeeds[i];
+                intensity[i] = SpeedToControlConverter.adjustIntensity(profile.lookupIntensity(speed), adjustments[i]);
+                frequency[i] = profile.lookupFrequency(speed);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                double speed = smoothedSpeeds[i];
+                intensity[i] = SpeedToControlConverter.adjustIntensity(profile.computeIntensity(speed), adjustments[i]);
+                frequency[i] = profile.computeFrequency(speed);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.byd.dglab.integration;
+
+/**
+ * 紧凑二进制格式
+ * 第一个字节为命令类型，第二个字节为通道字符，之后为单字节数值：
+ * 强度  0x01, channel, intensity
+ * 脉冲  0x02, channel, frequency, intensity
+ * 波形  0x03, channel, count, 每段8字节（4个频率字节和4个强度字节）
+ */
+public class BinaryProtocolCodec implements WaveformCodec {
+
+    /** 命令类型：强度 */
+    public static final byte TYPE_STRENGTH = 0x01;
+
+    /** 命令类型：脉冲 */
+    public static final byte TYPE_PULSE = 0x02;
+
+    /** 命令类型：波形 */
+    public static final byte TYPE_WAVEFORM = 0x03;
+
+    @Override
+    public String getName() {
+        return ProtocolCodecs.BINARY;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsWaveform() {
+        return true;
+    }
+
+    @Override
+    public int encodeStrength(String channel, int intensity, byte[] out, int offset) {
+        out[offset] = TYPE_STRENGTH;
+        out[offset + 1] = channelByte(channel);
+        out[offset + 2] = (byte) intensity;
+        return 3;
+    }
+
+    @Override
+    public int encodePulse(String channel, int frequency, int intensity, byte[] out, int offset) {
+        out[offset] = TYPE_PULSE;
+        out[offset + 1] = channelByte(channel);
+        out[offset + 2] = (byte) frequency;
+        out[offset + 3] = (byte) intensity;
+        return 4;
+    }
+
+    @Override
+    public int encodeWaveform(String channel, byte[] segments, int segmentOffset, int count, byte[] out, int offset) {
+        out[offset] = TYPE_WAVEFORM;
+        out[offset + 1] = channelByte(channel);
+        out[offset + 2] = (byte) count;
+        int length = count * WaveformEncoder.SEGMENT_BYTES;
+        System.arraycopy(segments, segmentOffset * WaveformEncoder.SEGMENT_BYTES, out, offset + 3, length);
+        return 3 + length;
+    }
+
+    private static byte channelByte(String channel) {
+        char c = channel.charAt(0);
+        if (c >= 0x80) {
+            throw new IllegalArgumentException("Channel must be ASCII: " + channel);
+        }
+        return (byte) c;
+    }
+}
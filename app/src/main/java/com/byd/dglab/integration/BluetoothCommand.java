@@ -0,0 +1,38 @@
+package com.byd.dglab.integration;
+
+/**
+ * 解码后的B0/BF蓝牙指令
+ * 可变对象，由{@link BluetoothCommandCodec#decode}重复填充，避免每次解码分配对象
+ */
+public class BluetoothCommand {
+
+    /** 指令前缀（B0或BF） */
+    public String prefix;
+
+    /** 通道（A或B） */
+    public String channel;
+
+    /** 频率（Hz），B0指令没有该字段，为0 */
+    public int frequency;
+
+    /** 强度值 */
+    public int intensity;
+
+    /** 校验和 */
+    public int checksum;
+
+    /**
+     * 是否为BF指令
+     * @return BF指令返回true
+     */
+    public boolean isPulse() {
+        return Constants.BF_PREFIX.equals(prefix);
+    }
+
+    @Override
+    public String toString() {
+        return isPulse()
+                ? BluetoothCommandCodec.toBFString(channel, frequency, intensity)
+                : BluetoothCommandCodec.toB0String(channel, intensity);
+    }
+}
@@ -0,0 +1,304 @@
+package com.byd.dglab.integration;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * B0/BF蓝牙指令编解码器
+ * 直接将指令写入调用方提供的byte[]或ByteBuffer，校验和按基本类型计算，每帧不分配对象
+ *
+ * 指令格式：
+ * B0,<channel>,<intensity>,<checksum>;
+ * BF,<channel>,<frequency>,<intensity>,<checksum>;
+ * 校验和为通道首字符与各数值之和对256取模
+ */
+public final class BluetoothCommandCodec {
+
+    /** 单字符通道的B0指令最大长度 */
+    public static final int MAX_B0_LENGTH = 2 + 1 + 1 + 1 + 11 + 1 + 4 + 1;
+
+    /** 单字符通道的BF指令最大长度 */
+    public static final int MAX_BF_LENGTH = 2 + 1 + 1 + 1 + 11 + 1 + 11 + 1 + 4 + 1;
+
+    private static final byte SEPARATOR = (byte) Constants.COMMAND_SEPARATOR.charAt(0);
+    private static final byte END = (byte) Constants.END_MARKER.charAt(0);
+
+    // 解析失败标记
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private BluetoothCommandCodec() {
+    }
+
+    /**
+     * 计算B0指令校验和
+     * @param channel 通道首字符
+     * @param intensity 强度值
+     * @return 校验和
+     */
+    public static int checksum(char channel, int intensity) {
+        return (channel + intensity) % 256;
+    }
+
+    /**
+     * 计算BF指令校验和
+     * @param channel 通道首字符
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值
+     * @return 校验和
+     */
+    public static int checksum(char channel, int frequency, int intensity) {
+        return (channel + frequency + intensity) % 256;
+    }
+
+    /**
+     * 编码B0指令
+     * @param channel 通道（A或B），只能包含ASCII字符
+     * @param intensity 强度值
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    public static int encodeB0(String channel, int intensity, byte[] out, int offset) {
+        int checksum = checksum(channel.charAt(0), intensity);
+        int position = putPrefix(out, offset, Constants.B0_PREFIX, channel);
+        position = putInt(out, position, intensity);
+        out[position++] = SEPARATOR;
+        position = putInt(out, position, checksum);
+        out[position++] = END;
+        return position - offset;
+    }
+
+    /**
+     * 编码BF指令
+     * @param channel 通道（A或B），只能包含ASCII字符
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    public static int encodeBF(String channel, int frequency, int intensity, byte[] out, int offset) {
+        int checksum = checksum(channel.charAt(0), frequency, intensity);
+        int position = putPrefix(out, offset, Constants.BF_PREFIX, channel);
+        position = putInt(out, position, frequency);
+        out[position++] = SEPARATOR;
+        position = putInt(out, position, intensity);
+        out[position++] = SEPARATOR;
+        position = putInt(out, position, checksum);
+        out[position++] = END;
+        return position - offset;
+    }
+
+    /**
+     * 编码B0指令到ByteBuffer的当前位置
+     * @param channel 通道（A或B），只能包含ASCII字符
+     * @param intensity 强度值
+     * @param out 输出缓冲区，需要有底层数组
+     */
+    public static void encodeB0(String channel, int intensity, ByteBuffer out) {
+        int length = encodeB0(channel, intensity, out.array(), out.arrayOffset() + out.position());
+        out.position(out.position() + length);
+    }
+
+    /**
+     * 编码BF指令到ByteBuffer的当前位置
+     * @param channel 通道（A或B），只能包含ASCII字符
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值
+     * @param out 输出缓冲区，需要有底层数组
+     */
+    public static void encodeBF(String channel, int frequency, int intensity, ByteBuffer out) {
+        int length = encodeBF(channel, frequency, intensity, out.array(), out.arrayOffset() + out.position());
+        out.position(out.position() + length);
+    }
+
+    /**
+     * 生成B0指令字符串（兼容原有字符串接口）
+     * @param channel 通道（A或B）
+     * @param intensity 强度值
+     * @return B0指令字符串
+     */
+    public static String toB0String(String channel, int intensity) {
+        return new StringBuilder(MAX_B0_LENGTH)
+                .append(Constants.B0_PREFIX).append(Constants.COMMAND_SEPARATOR)
+                .append(channel).append(Constants.COMMAND_SEPARATOR)
+                .append(intensity).append(Constants.COMMAND_SEPARATOR)
+                .append(checksum(firstChar(channel), intensity)).append(Constants.END_MARKER)
+                .toString();
+    }
+
+    /**
+     * 生成BF指令字符串（兼容原有字符串接口）
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值
+     * @return BF指令字符串
+     */
+    public static String toBFString(String channel, int frequency, int intensity) {
+        return new StringBuilder(MAX_BF_LENGTH)
+                .append(Constants.BF_PREFIX).append(Constants.COMMAND_SEPARATOR)
+                .append(channel).append(Constants.COMMAND_SEPARATOR)
+                .append(frequency).append(Constants.COMMAND_SEPARATOR)
+                .append(intensity).append(Constants.COMMAND_SEPARATOR)
+                .append(checksum(firstChar(channel), frequency, intensity)).append(Constants.END_MARKER)
+                .toString();
+    }
+
+    /**
+     * 解码B0/BF指令
+     * @param in 输入数组
+     * @param offset 起始位置
+     * @param length 指令长度（包括结束符）
+     * @param out 解码结果
+     * @return 格式正确且校验和一致返回true
+     */
+    public static boolean decode(byte[] in, int offset, int length, BluetoothCommand out) {
+        int end = offset + length;
+        if (length < 3 || in[end - 1] != END || in[offset] != 'B' || in[offset + 2] != SEPARATOR) {
+            return false;
+        }
+
+        boolean pulse;
+        if (in[offset + 1] == '0') {
+            pulse = false;
+        } else if (in[offset + 1] == 'F') {
+            pulse = true;
+        } else {
+            return false;
+        }
+
+        // 通道
+        int channelStart = offset + 3;
+        int channelEnd = indexOf(in, channelStart, end, SEPARATOR);
+        if (channelEnd <= channelStart) {
+            return false;
+        }
+
+        // 数值字段：BF指令先是频率，然后是强度，最后是校验和
+        int position = channelEnd + 1;
+        long frequency = 0;
+        if (pulse) {
+            int frequencyEnd = indexOf(in, position, end - 1, SEPARATOR);
+            frequency = parseInt(in, position, frequencyEnd);
+            position = frequencyEnd + 1;
+        }
+        int intensityEnd = indexOf(in, position, end - 1, SEPARATOR);
+        long intensity = parseInt(in, position, intensityEnd);
+        long checksum = parseInt(in, intensityEnd + 1, end - 1);
+        if (frequency == INVALID || intensity == INVALID || checksum == INVALID) {
+            return false;
+        }
+
+        char first = (char) in[channelStart];
+        int expected = pulse
+                ? checksum(first, (int) frequency, (int) intensity)
+                : checksum(first, (int) intensity);
+        if (checksum != expected) {
+            return false;
+        }
+
+        out.prefix = pulse ? Constants.BF_PREFIX : Constants.B0_PREFIX;
+        out.channel = channelOf(in, channelStart, channelEnd);
+        out.frequency = (int) frequency;
+        out.intensity = (int) intensity;
+        out.checksum = (int) checksum;
+        return true;
+    }
+
+    /**
+     * 通道首字符，与原有实现一致，通道为null时不计入校验和
+     */
+    private static char firstChar(String channel) {
+        return channel != null ? channel.charAt(0) : 0;
+    }
+
+    private static int putPrefix(byte[] out, int position, String prefix, String channel) {
+        out[position++] = (byte) prefix.charAt(0);
+        out[position++] = (byte) prefix.charAt(1);
+        out[position++] = SEPARATOR;
+        for (int i = 0; i < channel.length(); i++) {
+            char c = channel.charAt(i);
+            if (c >= 0x80) {
+                throw new IllegalArgumentException("Channel must be ASCII: " + channel);
+            }
+            out[position++] = (byte) c;
+        }
+        out[position++] = SEPARATOR;
+        return position;
+    }
+
+    /**
+     * 按十进制写入整数
+     * @return 写入后的位置
+     */
+    private static int putInt(byte[] out, int position, int value) {
+        long remaining = value;
+        if (remaining < 0) {
+            out[position++] = '-';
+            remaining = -remaining;
+        }
+
+        int digits = 1;
+        for (long limit = 10; limit <= remaining; limit *= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            out[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * 解析十进制整数
+     * 只接受规范形式，保证解码后重新编码得到相同的字节
+     * @return 整数值，格式错误或超出int范围时返回{@link #INVALID}
+     */
+    private static long parseInt(byte[] in, int start, int end) {
+        if (start < 0 || end < 0) {
+            return INVALID;
+        }
+        boolean negative = start < end && in[start] == '-';
+        int position = negative ? start + 1 : start;
+        if (position >= end || end - position > 10) {
+            return INVALID;
+        }
+        // 只接受编码器输出的规范形式：没有多余的前导0，没有负0
+        if (in[position] == '0' && (end - position > 1 || negative)) {
+            return INVALID;
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = in[position] - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? INVALID : value;
+    }
+
+    private static int indexOf(byte[] in, int start, int end, byte target) {
+        for (int i = start; i < end; i++) {
+            if (in[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String channelOf(byte[] in, int start, int end) {
+        if (end - start == 1) {
+            if (in[start] == Constants.CHANNEL_A.charAt(0)) {
+                return Constants.CHANNEL_A;
+            }
+            if (in[start] == Constants.CHANNEL_B.charAt(0)) {
+                return Constants.CHANNEL_B;
+            }
+        }
+        return new String(in, start, end - start, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,33 @@
+package com.byd.dglab.integration;
+
+/**
+ * V2蓝牙风格文本格式
+ * 强度命令编码为B0指令，脉冲命令编码为BF指令；不支持波形，波形调度模式下改为发送BF指令
+ */
+public class BluetoothTextCodec implements ProtocolCodec {
+
+    @Override
+    public String getName() {
+        return ProtocolCodecs.V2_BLUETOOTH;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsWaveform() {
+        return false;
+    }
+
+    @Override
+    public int encodeStrength(String channel, int intensity, byte[] out, int offset) {
+        return BluetoothCommandCodec.encodeB0(channel, intensity, out, offset);
+    }
+
+    @Override
+    public int encodePulse(String channel, int frequency, int intensity, byte[] out, int offset) {
+        return BluetoothCommandCodec.encodeBF(channel, frequency, intensity, out, offset);
+    }
+}
@@ -0,0 +1,132 @@
+package com.byd.dglab.integration;
+
+import android.util.Log;
+import org.java_websocket.client.DnsResolver;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 带缓存的DNS解析
+ * 解析结果按主机名缓存一段时间，重连时不再等待DNS查询；
+ * 缓存过期后重新查询，查询失败（例如信号很差）时继续使用过期的结果
+ *
+ * 解析在WebSocket客户端的连接线程上执行，可以从任意线程调用
+ */
+public class CachingDnsResolver implements DnsResolver {
+
+    private static final String TAG = Constants.LOG_TAG + "_Dns";
+
+    private static final CachingDnsResolver SHARED = new CachingDnsResolver(Clock.SYSTEM, Constants.DNS_CACHE_TTL_MS);
+
+    private final Clock clock;
+    private final long ttlMs;
+    private final Map<String, Entry> cache = new HashMap<>();
+
+    // 统计
+    private volatile long hitCount;
+    private volatile long missCount;
+    private volatile long staleCount;
+
+    /**
+     * @param clock 时钟
+     * @param ttlMs 缓存时长（毫秒）
+     */
+    public CachingDnsResolver(Clock clock, long ttlMs) {
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * 获取所有连接共享的实例
+     * @return 共享实例
+     */
+    public static CachingDnsResolver getShared() {
+        return SHARED;
+    }
+
+    @Override
+    public InetAddress resolve(URI uri) throws UnknownHostException {
+        return resolve(uri.getHost());
+    }
+
+    /**
+     * 解析主机名
+     * @param host 主机名
+     * @return 地址，保留主机名用于TLS的SNI和证书校验
+     * @throws UnknownHostException 查询失败且没有缓存时抛出
+     */
+    public InetAddress resolve(String host) throws UnknownHostException {
+        long now = clock.uptimeMillis();
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(host);
+            if (entry != null && now < entry.expiresAtMs) {
+                hitCount++;
+                return entry.address;
+            }
+        }
+
+        missCount++;
+        try {
+            InetAddress address = lookup(host);
+            synchronized (cache) {
+                cache.put(host, new Entry(address, now + ttlMs));
+            }
+            return address;
+        } catch (UnknownHostException e) {
+            if (entry == null) {
+                throw e;
+            }
+            staleCount++;
+            Log.w(TAG, "Lookup of " + host + " failed, using cached address " + entry.address.getHostAddress());
+            return entry.address;
+        }
+    }
+
+    /**
+     * 查询DNS
+     * @param host 主机名
+     * @return 地址
+     */
+    protected InetAddress lookup(String host) throws UnknownHostException {
+        return InetAddress.getByName(host);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 获取查询失败时使用过期结果的次数
+     * @return 次数
+     */
+    public long getStaleCount() {
+        return staleCount;
+    }
+
+    private static final class Entry {
+        final InetAddress address;
+        final long expiresAtMs;
+
+        Entry(InetAddress address, long expiresAtMs) {
+            this.address = address;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.byd.dglab.integration;
+
+/**
+ * 通道配置
+ * 不可变，描述单个输出通道的转换曲线、附加滤波、强度/频率的缩放和偏移以及启用状态，
+ * 作为转换器快照的一部分发布
+ */
+public final class ChannelConfig {
+
+    private final String channel;
+    private final boolean enabled;
+    private final ConversionProfile profile;
+    private final FilterConfig filterConfig;
+    private final double intensityScale;
+    private final int intensityOffset;
+    private final double frequencyScale;
+    private final int frequencyOffset;
+
+    /**
+     * @param channel 通道标识（A或B）
+     * @param enabled 是否输出
+     * @param profile 通道专用的转换配置，null表示使用转换器的公共配置
+     * @param filterConfig 在公共平滑结果上追加的通道滤波器参数，null表示不追加
+     * @param intensityScale 强度缩放系数
+     * @param intensityOffset 强度偏移
+     * @param frequencyScale 频率缩放系数
+     * @param frequencyOffset 频率偏移（Hz）
+     */
+    public ChannelConfig(String channel, boolean enabled, ConversionProfile profile, FilterConfig filterConfig,
+                         double intensityScale, int intensityOffset, double frequencyScale, int frequencyOffset) {
+        if (channel == null || channel.isEmpty()) {
+            throw new IllegalArgumentException("Channel must not be empty");
+        }
+        if (Double.isNaN(intensityScale) || Double.isInfinite(intensityScale)
+                || Double.isNaN(frequencyScale) || Double.isInfinite(frequencyScale)) {
+            throw new IllegalArgumentException("Invalid channel scale");
+        }
+        if (filterConfig != null) {
+            filterConfig.validate();
+        }
+        this.channel = channel;
+        this.enabled = enabled;
+        this.profile = profile;
+        this.filterConfig = filterConfig;
+        this.intensityScale = intensityScale;
+        this.intensityOffset = intensityOffset;
+        this.frequencyScale = frequencyScale;
+        this.frequencyOffset = frequencyOffset;
+    }
+
+    /**
+     * 创建直通配置：使用公共转换配置，不追加滤波，不缩放
+     * @param channel 通道标识（A或B）
+     * @return 通道配置
+     */
+    public static ChannelConfig passThrough(String channel) {
+        return new ChannelConfig(channel, true, null, null, 1.0, 0, 1.0, 0);
+    }
+
+    /**
+     * 复制并修改启用状态
+     * @param newEnabled 是否输出
+     * @return 新的通道配置
+     */
+    public ChannelConfig withEnabled(boolean newEnabled) {
+        return new ChannelConfig(channel, newEnabled, profile, filterConfig,
+                intensityScale, intensityOffset, frequencyScale, frequencyOffset);
+    }
+
+    /**
+     * 对强度应用缩放和偏移
+     * @param intensity 曲线输出的强度
+     * @return 调整后的强度（0-200）
+     */
+    int transformIntensity(int intensity) {
+        if (intensityScale == 1.0 && intensityOffset == 0) {
+            return intensity;
+        }
+        long value = Math.round(intensity * intensityScale) + intensityOffset;
+        return (int) Math.max(Constants.INTENSITY_MIN, Math.min(Constants.INTENSITY_MAX, value));
+    }
+
+    /**
+     * 对频率应用缩放和偏移
+     * @param frequency 曲线输出的频率
+     * @return 调整后的频率（10-240 Hz）
+     */
+    int transformFrequency(int frequency) {
+        if (frequencyScale == 1.0 && frequencyOffset == 0) {
+            return frequency;
+        }
+        long value = Math.round(frequency * frequencyScale) + frequencyOffset;
+        return (int) Math.max(Constants.FREQUENCY_MIN, Math.min(Constants.FREQUENCY_MAX, value));
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ConversionProfile getProfile() {
+        return profile;
+    }
+
+    public FilterConfig getFilterConfig() {
+        return filterConfig;
+    }
+}
@@ -0,0 +1,55 @@
+package com.byd.dglab.integration;
+
+/**
+ * 多通道转换结果
+ * 由转换器复用，一次调用填充所有通道的控制帧，只在采样线程上读取
+ */
+public final class ChannelFrames {
+
+    private String[] channels = new String[0];
+    private long[] frames = new long[0];
+    private int count;
+
+    /**
+     * 准备写入指定数量的通道
+     * @param channelCount 通道数
+     */
+    void reset(int channelCount) {
+        if (frames.length < channelCount) {
+            channels = new String[channelCount];
+            frames = new long[channelCount];
+        }
+        count = channelCount;
+    }
+
+    void set(int index, String channel, long frame) {
+        channels[index] = channel;
+        frames[index] = frame;
+    }
+
+    /**
+     * 获取通道数
+     * @return 通道数
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 获取通道标识
+     * @param index 序号
+     * @return 通道标识（A或B）
+     */
+    public String getChannel(int index) {
+        return channels[index];
+    }
+
+    /**
+     * 获取控制帧
+     * @param index 序号
+     * @return 控制帧，通道未启用时为{@link ControlFrame#NONE}
+     */
+    public long getFrame(int index) {
+        return frames[index];
+    }
+}
@@ -0,0 +1,73 @@
+package com.byd.dglab.integration;
+
+import android.util.Log;
+
+/**
+ * 通道转换流水线
+ * 在转换器的公共平滑结果上，按通道配置进行附加滤波、查表和缩放偏移，
+ * 只在采样线程上使用，不产生对象分配
+ */
+class ChannelPipeline {
+
+    private static final String TAG = Constants.LOG_TAG + "_Channel";
+
+    private ChannelConfig config;
+    private SpeedFilter filter;
+
+    ChannelPipeline(ChannelConfig config) {
+        configure(config);
+    }
+
+    /**
+     * 应用新的通道配置
+     * 附加滤波器类型不变时就地修改参数，保留滤波状态
+     * @param newConfig 新的通道配置
+     */
+    void configure(ChannelConfig newConfig) {
+        FilterConfig filterConfig = newConfig.getFilterConfig();
+        if (filterConfig == null) {
+            filter = null;
+        } else if (filter == null || !filterConfig.reconfigure(filter)) {
+            filter = filterConfig.create();
+        }
+        config = newConfig;
+        Log.d(TAG, "Channel " + newConfig.getChannel() + " configured, enabled=" + newConfig.isEnabled());
+    }
+
+    /**
+     * 处理一个采样
+     * @param smoothedSpeed 公共平滑后的车速（km/h）
+     * @param timestampMs 采样时间戳（毫秒）
+     * @param sharedProfile 转换器的公共转换配置
+     * @param compiledMode 是否使用查找表
+     * @param intensityAdjustment 加减速调制的强度调整量
+     * @return 控制帧，通道未启用时返回{@link ControlFrame#NONE}
+     */
+    long process(double smoothedSpeed, long timestampMs, ConversionProfile sharedProfile, boolean compiledMode,
+                 int intensityAdjustment) {
+        if (!config.isEnabled()) {
+            return ControlFrame.NONE;
+        }
+
+        double speed = filter != null ? filter.filter(smoothedSpeed, timestampMs) : smoothedSpeed;
+        ConversionProfile profile = config.getProfile() != null ? config.getProfile() : sharedProfile;
+
+        int intensity;
+        int frequency;
+        if (compiledMode) {
+            intensity = profile.lookupIntensity(speed);
+            frequency = profile.lookupFrequency(speed);
+        } else {
+            intensity = profile.computeIntensity(speed);
+            frequency = profile.computeFrequency(speed);
+        }
+        if (intensityAdjustment != 0) {
+            intensity = SpeedToControlConverter.adjustIntensity(intensity, intensityAdjustment);
+        }
+        return ControlFrame.pack(config.transformIntensity(intensity), config.transformFrequency(frequency));
+    }
+
+    ChannelConfig getConfig() {
+        return config;
+    }
+}
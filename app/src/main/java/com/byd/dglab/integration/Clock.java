@@ -0,0 +1,19 @@
+package com.byd.dglab.integration;
+
+import android.os.SystemClock;
+
+/**
+ * 单调时钟接口
+ * 需要计时的策略类通过该接口取时间，可以换成虚拟时钟按需推进
+ */
+public interface Clock {
+
+    /** 系统单调时钟（uptimeMillis），与Handler的定时基准一致 */
+    Clock SYSTEM = SystemClock::uptimeMillis;
+
+    /**
+     * 获取当前时间
+     * @return 当前时间（毫秒）
+     */
+    long uptimeMillis();
+}
@@ -0,0 +1,320 @@
+package com.byd.dglab.integration;
+
+import android.util.Log;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 脉冲命令缓存
+ * 命令空间有界（2个通道 × 231个频率 × 201个强度），每种组合的JSON命令只生成一次，
+ * 之后直接返回同一个String实例及其UTF-8字节，发送路径上不再格式化或编码
+ *
+ * 缓存按估算的内存占用设置上限，超出时使用时钟（二次机会）算法淘汰；
+ * 可以在后台线程按当前转换配置预先填充，所有方法线程安全
+ */
+public class CommandCache {
+
+    private static final String TAG = Constants.LOG_TAG + "_CommandCache";
+
+    private static final int FREQUENCY_COUNT = Constants.FREQUENCY_MAX - Constants.FREQUENCY_MIN + 1;
+    private static final int INTENSITY_COUNT = Constants.INTENSITY_MAX - Constants.INTENSITY_MIN + 1;
+    private static final int CHANNEL_STRIDE = FREQUENCY_COUNT * INTENSITY_COUNT;
+
+    /** 命令空间大小 */
+    public static final int SPACE_SIZE = 2 * CHANNEL_STRIDE;
+
+    // 单个条目的固定开销估算：String对象、字节数组头和两个数组中的引用
+    private static final int ENTRY_OVERHEAD_BYTES = 24 + 16 + 16 + 8;
+
+    // 按组合索引的命令及其UTF-8字节
+    private final String[] commands = new String[SPACE_SIZE];
+    private final byte[][] commandBytes = new byte[SPACE_SIZE][];
+
+    // 时钟淘汰：已占用组合的环形列表，以及按组合索引的访问位
+    private final int[] clockSlots;
+    private final boolean[] referenced = new boolean[SPACE_SIZE];
+    private int clockHand;
+    private int size;
+
+    private final long maxBytes;
+    private final long indexBytes;
+    private long entryBytes;
+
+    private final JsonCommandEncoder encoder = new JsonCommandEncoder();
+
+    // 统计
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private volatile Thread prefillThread;
+
+    public CommandCache() {
+        this(Constants.COMMAND_CACHE_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes 缓存条目的内存上限（字节，估算值）
+     */
+    public CommandCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+
+        // 单个命令至少约80字节，据此限制时钟列表的长度
+        int maxEntries = (int) Math.min(SPACE_SIZE, maxBytes / (ENTRY_OVERHEAD_BYTES + 2 * 64) + 1);
+        this.clockSlots = new int[maxEntries];
+        this.indexBytes = 2L * 4 * SPACE_SIZE + SPACE_SIZE + 4L * maxEntries;
+    }
+
+    /**
+     * 获取脉冲命令
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz），已限制在有效范围内
+     * @param intensity 强度值，已限制在有效范围内
+     * @return JSON命令字符串，组合不在缓存范围内时返回null
+     */
+    public synchronized String getPulseCommand(String channel, int frequency, int intensity) {
+        int slot = slotFor(channel, frequency, intensity);
+        return slot >= 0 ? commands[lookup(slot, channel, frequency, intensity)] : null;
+    }
+
+    /**
+     * 获取脉冲命令的UTF-8字节
+     * 返回的数组被缓存共享，调用方不能修改
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz），已限制在有效范围内
+     * @param intensity 强度值，已限制在有效范围内
+     * @return UTF-8字节，组合不在缓存范围内时返回null
+     */
+    public synchronized byte[] getPulseCommandBytes(String channel, int frequency, int intensity) {
+        int slot = slotFor(channel, frequency, intensity);
+        return slot >= 0 ? commandBytes[lookup(slot, channel, frequency, intensity)] : null;
+    }
+
+    /**
+     * 计算组合索引
+     * @return 索引，不在缓存范围内时返回-1
+     */
+    private static int slotFor(String channel, int frequency, int intensity) {
+        int channelIndex;
+        if (Constants.CHANNEL_A.equals(channel)) {
+            channelIndex = 0;
+        } else if (Constants.CHANNEL_B.equals(channel)) {
+            channelIndex = 1;
+        } else {
+            return -1;
+        }
+
+        int frequencyIndex = frequency - Constants.FREQUENCY_MIN;
+        int intensityIndex = intensity - Constants.INTENSITY_MIN;
+        if (frequencyIndex < 0 || frequencyIndex >= FREQUENCY_COUNT
+                || intensityIndex < 0 || intensityIndex >= INTENSITY_COUNT) {
+            return -1;
+        }
+        return channelIndex * CHANNEL_STRIDE + frequencyIndex * INTENSITY_COUNT + intensityIndex;
+    }
+
+    /**
+     * 查找条目，不存在时生成并放入缓存
+     * @return 组合索引
+     */
+    private int lookup(int slot, String channel, int frequency, int intensity) {
+        if (commands[slot] != null) {
+            hitCount++;
+            referenced[slot] = true;
+            return slot;
+        }
+        missCount++;
+        insert(slot, channel, frequency, intensity);
+        return slot;
+    }
+
+    private void insert(int slot, String channel, int frequency, int intensity) {
+        String command = encoder.encodePulse(channel, frequency, intensity);
+        byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        long cost = entryCost(command, bytes);
+
+        while (size > 0 && (entryBytes + cost > maxBytes || size == clockSlots.length)) {
+            evict();
+        }
+
+        commands[slot] = command;
+        commandBytes[slot] = bytes;
+        entryBytes += cost;
+
+        // 新条目插入到时钟指针之前，最后才会被检查
+        clockSlots[(clockHand + size) % clockSlots.length] = slot;
+        referenced[slot] = false;
+        size++;
+    }
+
+    /**
+     * 时钟淘汰：跳过并清除访问位为真的条目，淘汰第一个访问位为假的条目
+     */
+    private void evict() {
+        while (referenced[clockSlots[clockHand]]) {
+            referenced[clockSlots[clockHand]] = false;
+            // 将刚获得二次机会的条目移到队尾
+            clockSlots[(clockHand + size) % clockSlots.length] = clockSlots[clockHand];
+            clockHand = (clockHand + 1) % clockSlots.length;
+        }
+
+        int slot = clockSlots[clockHand];
+        entryBytes -= entryCost(commands[slot], commandBytes[slot]);
+        commands[slot] = null;
+        commandBytes[slot] = null;
+        clockHand = (clockHand + 1) % clockSlots.length;
+        size--;
+        evictionCount++;
+    }
+
+    private static long entryCost(String command, byte[] bytes) {
+        // String内容按每字符1字节（压缩字符串）估算
+        return ENTRY_OVERHEAD_BYTES + command.length() + bytes.length;
+    }
+
+    /**
+     * 按转换配置填充缓存，直到覆盖配置可能输出的全部命令或达到内存上限
+     * 先填充查表得到的组合，再按加减速调整量从小到大向两侧扩展强度，每个组合两个通道都填充；
+     * 预填充的条目不计入命中率，也不淘汰已有条目
+     * @param profile 当前的转换配置
+     */
+    public void prefill(ConversionProfile profile) {
+        long start = System.currentTimeMillis();
+        long[] frames = profile.getOutputFrames();
+        String[] channels = {Constants.CHANNEL_A, Constants.CHANNEL_B};
+        // 调整量依次为0、+1、-1、+2、-2……，超出强度范围的组合跳过
+        for (int offset = 0; offset < INTENSITY_COUNT; offset++) {
+            boolean inRange = false;
+            for (int sign = 1; sign >= -1; sign -= 2) {
+                if (offset == 0 && sign < 0) {
+                    continue;
+                }
+                for (long frame : frames) {
+                    int intensity = ControlFrame.intensity(frame) + sign * offset;
+                    if (intensity < Constants.INTENSITY_MIN || intensity > Constants.INTENSITY_MAX) {
+                        continue;
+                    }
+                    inRange = true;
+                    int frequency = ControlFrame.frequency(frame);
+                    for (String channel : channels) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        synchronized (this) {
+                            if (isFull()) {
+                                Log.d(TAG, "Prefill stopped at memory cap, " + size + " entries, adjustment "
+                                        + (sign * offset));
+                                return;
+                            }
+                            int slot = slotFor(channel, frequency, intensity);
+                            if (commands[slot] == null) {
+                                insert(slot, channel, frequency, intensity);
+                            }
+                        }
+                    }
+                }
+            }
+            if (!inRange) {
+                break;
+            }
+        }
+        Log.d(TAG, "Prefill completed in " + (System.currentTimeMillis() - start) + " ms, " + getSize() + " entries");
+    }
+
+    /**
+     * 在低优先级后台线程上按转换配置预填充缓存
+     * 正在进行的预填充先停止；缓存已满时不再填充，新配置的命令由时钟淘汰逐步替换
+     * @param profile 当前的转换配置
+     */
+    public void startPrefill(ConversionProfile profile) {
+        stopPrefill();
+        Thread thread = new Thread(() -> prefill(profile), "CommandCachePrefill");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setDaemon(true);
+        prefillThread = thread;
+        thread.start();
+    }
+
+    /**
+     * 停止后台预填充
+     */
+    public void stopPrefill() {
+        Thread thread = prefillThread;
+        if (thread != null) {
+            thread.interrupt();
+            prefillThread = null;
+        }
+    }
+
+    private boolean isFull() {
+        // 预留一个最大条目的空间，避免预填充触发淘汰
+        return size == clockSlots.length || entryBytes + ENTRY_OVERHEAD_BYTES + 2 * 128 > maxBytes;
+    }
+
+    /**
+     * 清空缓存和统计
+     */
+    public synchronized void clear() {
+        for (int i = 0, position = clockHand; i < size; i++) {
+            int slot = clockSlots[position];
+            commands[slot] = null;
+            commandBytes[slot] = null;
+            referenced[slot] = false;
+            position = (position + 1) % clockSlots.length;
+        }
+        size = 0;
+        clockHand = 0;
+        entryBytes = 0;
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * 获取缓存的条目数
+     * @return 条目数
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * 获取估算的内存占用，包括索引数组
+     * @return 字节数
+     */
+    public synchronized long getFootprintBytes() {
+        return indexBytes + entryBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 获取命中率
+     * @return 0-1之间的比例
+     */
+    public synchronized double getHitRatio() {
+        long total = hitCount + missCount;
+        return total > 0 ? (double) hitCount / total : 0;
+    }
+
+    /**
+     * 获取统计信息
+     * @return 可读的统计字符串
+     */
+    public synchronized String getStats() {
+        return String.format("entries %d/%d, footprint %d KB, hit ratio %.1f%%, evictions %d",
+                size, SPACE_SIZE, (indexBytes + entryBytes) / 1024, getHitRatio() * 100, evictionCount);
+    }
+}
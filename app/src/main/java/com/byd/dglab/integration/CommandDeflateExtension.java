@@ -0,0 +1,66 @@
+package com.byd.dglab.integration;
+
+import org.java_websocket.extensions.ExtensionRequestData;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import java.util.zip.Deflater;
+
+/**
+ * 控制命令使用的permessage-deflate扩展
+ * WebSocket库自带的实现握手时总是声明客户端不保留压缩上下文，每条消息后重建默认级别的Deflater，
+ * 几十字节的命令几乎压缩不了；为每个连接复制扩展时还会丢失压缩级别和阈值
+ *
+ * 这里只要求服务器不保留上下文，客户端跨消息保留压缩上下文，重复的字段名和数值只需几个字节；
+ * 服务器在响应中要求客户端不保留上下文时，改为每条消息后重置
+ */
+public class CommandDeflateExtension extends PerMessageDeflateExtension {
+
+    private static final String EXTENSION_NAME = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+
+    private final int level;
+
+    /**
+     * @param level 压缩级别
+     * @param threshold 短于该字节数的消息不压缩
+     */
+    public CommandDeflateExtension(int level, int threshold) {
+        this.level = level;
+        setDeflater(new Deflater(level, true));
+        setThreshold(threshold);
+        // 库在发送端按该标志决定每条消息后是否重建Deflater
+        setServerNoContextTakeover(false);
+    }
+
+    @Override
+    public String getProvidedExtensionAsClient() {
+        return EXTENSION_NAME + "; " + SERVER_NO_CONTEXT_TAKEOVER;
+    }
+
+    @Override
+    public boolean acceptProvidedExtensionAsClient(String inputExtension) {
+        for (String extension : inputExtension.split(",")) {
+            ExtensionRequestData data = ExtensionRequestData.parseExtensionRequest(extension);
+            if (!EXTENSION_NAME.equalsIgnoreCase(data.getExtensionName())) {
+                continue;
+            }
+            setServerNoContextTakeover(data.getExtensionParameters().containsKey(CLIENT_NO_CONTEXT_TAKEOVER));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public IExtension copyInstance() {
+        return new CommandDeflateExtension(level, getThreshold());
+    }
+
+    /**
+     * 是否跨消息保留压缩上下文
+     * @return 握手前或服务器允许时返回true
+     */
+    public boolean isContextTakeover() {
+        return !isServerNoContextTakeover();
+    }
+}
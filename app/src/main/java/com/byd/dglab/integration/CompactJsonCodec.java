@@ -0,0 +1,41 @@
+package com.byd.dglab.integration;
+
+/**
+ * SOCKET V3紧凑JSON格式
+ * 结构与V3 JSON相同，字段名和消息类型缩写为单个字母，脉冲命令约短一半；
+ * 只用于握手时协商了{@link Constants#COMPACT_SUBPROTOCOL}子协议的服务器
+ */
+public class CompactJsonCodec implements WaveformCodec {
+
+    private final JsonCommandEncoder encoder = new JsonCommandEncoder(true);
+
+    @Override
+    public String getName() {
+        return ProtocolCodecs.V3_COMPACT;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsWaveform() {
+        return true;
+    }
+
+    @Override
+    public int encodeStrength(String channel, int intensity, byte[] out, int offset) {
+        return encoder.encodeStrength(channel, intensity, out, offset);
+    }
+
+    @Override
+    public int encodePulse(String channel, int frequency, int intensity, byte[] out, int offset) {
+        return encoder.encodePulse(channel, frequency, intensity, out, offset);
+    }
+
+    @Override
+    public int encodeWaveform(String channel, byte[] segments, int segmentOffset, int count, byte[] out, int offset) {
+        return encoder.encodeWaveform(channel, segments, segmentOffset, count, out, offset);
+    }
+}
@@ -10,14 +10,65 @@ public class Constants {
     /** DG-LAB SOCKET服务器地址 */
     public static final String SOCKET_SERVER_URL = "wss://ws.dg-lab.cn:8443";
 
+    /** 多个服务器地址之间的分隔符 */
+    public static final String SERVER_URL_SEPARATOR = ",";
+
     /** 连接超时时间（毫秒） */
     public static final int CONNECTION_TIMEOUT_MS = 10000;
 
-    /** 重连间隔时间（毫秒） */
-    public static final int RECONNECT_INTERVAL_MS = 5000;
+    /** 竞速连接时，前一个地址在该时长内没有连上就同时连接下一个地址（毫秒） */
+    public static final long ENDPOINT_RACE_DELAY_MS = 250;
+
+    /** 连接保持超过该时长后断开时立即重连，不等待退避（毫秒） */
+    public static final long STABLE_CONNECTION_MS = 10000;
+
+    /** 重连退避的初始间隔（毫秒），每次失败翻倍，实际间隔在0到该值之间随机 */
+    public static final long RECONNECT_BASE_DELAY_MS = 1000;
+
+    /** 重连退避间隔上限（毫秒） */
+    public static final long RECONNECT_MAX_DELAY_MS = 60000;
+
+    /** 连续失败达到该次数后熔断，停止完整连接，改为定期探测 */
+    public static final int CIRCUIT_FAILURE_THRESHOLD = 6;
+
+    /** 熔断期间的探测间隔（毫秒） */
+    public static final long CIRCUIT_PROBE_INTERVAL_MS = 30000;
+
+    /** 探测时TCP连接的超时时间（毫秒） */
+    public static final int CIRCUIT_PROBE_TIMEOUT_MS = 3000;
+
+    /** JSON心跳间隔（毫秒） */
+    public static final long HEARTBEAT_INTERVAL_MS = 30000;
+
+    /** ping间隔下限（毫秒），链路波动大或丢失pong时使用 */
+    public static final long PING_INTERVAL_MIN_MS = 2000;
+
+    /** ping间隔上限（毫秒），链路稳定时使用 */
+    public static final long PING_INTERVAL_MAX_MS = 8000;
+
+    /** 等待pong的超时下限（毫秒） */
+    public static final long PONG_TIMEOUT_MIN_MS = 1000;
+
+    /** 等待pong的超时上限（毫秒） */
+    public static final long PONG_TIMEOUT_MAX_MS = 5000;
+
+    /** 超过该时长没有收到任何数据时判定连接已断开（毫秒），需大于ping间隔上限与pong超时上限之和 */
+    public static final long DEAD_LINK_TIMEOUT_MS = 15000;
+
+    /** TLS客户端会话缓存条目数 */
+    public static final int TLS_SESSION_CACHE_SIZE = 16;
+
+    /** TLS客户端会话缓存有效期（秒），实际能否恢复还取决于服务器 */
+    public static final int TLS_SESSION_TIMEOUT_S = 24 * 60 * 60;
+
+    /** DNS解析结果缓存时长（毫秒） */
+    public static final long DNS_CACHE_TTL_MS = 5 * 60 * 1000;
+
+    /** 是否默认预热备用连接 */
+    public static final boolean STANDBY_PREWARM_ENABLED = false;
 
-    /** 最大重连次数 */
-    public static final int MAX_RECONNECT_ATTEMPTS = 5;
+    /** 预热间隔（毫秒），保持DNS缓存和TLS会话新鲜 */
+    public static final long STANDBY_PREWARM_INTERVAL_MS = 4 * 60 * 1000;
 
     // ==================== 数据范围 ====================
     /** 强度最小值 */
@@ -66,6 +117,12 @@ public class Constants {
     /** 高速段频率范围 */
     public static final int[] HIGH_SPEED_FREQUENCY_RANGE = {80, 150};
 
+    /** 查找表默认精度（每km/h的分桶数，必须为2的幂） */
+    public static final int LOOKUP_TABLE_BUCKETS_PER_KMH = 8;
+
+    /** 查找表允许的最大分桶精度（每km/h），自定义曲线的控制点车速取整到该精度，落在分桶边界上 */
+    public static final int LOOKUP_TABLE_MAX_BUCKETS_PER_KMH = 256;
+
     // ==================== 协议常量 ====================
     /** 消息类型：强度控制 */
     public static final String MSG_TYPE_STRENGTH = "strength";
@@ -79,12 +136,109 @@ public class Constants {
     /** 消息类型：心跳 */
     public static final String MSG_TYPE_HEARTBEAT = "heartbeat";
 
+    /** 消息类型：波形数据 */
+    public static final String MSG_TYPE_WAVEFORM = "waveform";
+
     /** 通道A标识 */
     public static final String CHANNEL_A = "A";
 
     /** 通道B标识 */
     public static final String CHANNEL_B = "B";
 
+    // ==================== V3波形常量 ====================
+    /** 每个波形段的播放时长（毫秒） */
+    public static final int WAVEFORM_SEGMENT_MS = 100;
+
+    /** 每个波形段包含的频率/强度点数（每点25毫秒） */
+    public static final int WAVEFORM_POINTS_PER_SEGMENT = 4;
+
+    /** 波形脉冲周期最小值（毫秒） */
+    public static final int WAVEFORM_PERIOD_MIN_MS = 10;
+
+    /** 波形脉冲周期最大值（毫秒） */
+    public static final int WAVEFORM_PERIOD_MAX_MS = 1000;
+
+    /** 波形强度最大值（百分比） */
+    public static final int WAVEFORM_INTENSITY_MAX = 100;
+
+    /** 每条消息最多包含的波形段数 */
+    public static final int WAVEFORM_MAX_SEGMENTS_PER_MESSAGE = 100;
+
+    /** 是否默认以波形段方式发送控制值，需要服务器支持波形命令 */
+    public static final boolean WAVEFORM_SCHEDULING_ENABLED = false;
+
+    /** 设备端波形队列的目标预留时长（毫秒） */
+    public static final int WAVEFORM_LOOK_AHEAD_MS = 1500;
+
+    /** 设备端波形队列低于该时长时补充（毫秒），与预留时长相差不少于一个车速更新间隔，补充频率不超过车速更新频率 */
+    public static final int WAVEFORM_REFILL_THRESHOLD_MS = 500;
+
+    /**
+     * 目标强度下降期间设备端波形队列的预留时长上限（毫秒）
+     * 波形命令只能追加，设备不能清空已排队的波形段，强度下降要等队列中的旧波形播放完才生效
+     */
+    public static final int WAVEFORM_DOWNWARD_LOOK_AHEAD_MS = 5 * WAVEFORM_SEGMENT_MS;
+
+    /** 目标值没有变化时推迟补充，直到设备端波形队列低于该时长（毫秒） */
+    public static final int WAVEFORM_LOW_WATER_MS = 2 * WAVEFORM_SEGMENT_MS;
+
+    /** 超过该时长没有新的控制值时停止补充波形（毫秒），需大于控制帧保活间隔 */
+    public static final long WAVEFORM_TARGET_TIMEOUT_MS = 2 * Constants.EMIT_KEEP_ALIVE_MS;
+
+    // ==================== 编码格式 ====================
+    /** 默认控制命令编码格式 */
+    public static final String DEFAULT_PROTOCOL = ProtocolCodecs.V3_JSON;
+
+    /** 命令编码缓冲区大小（字节），足够容纳一条最长的波形命令 */
+    public static final int SEND_BUFFER_SIZE = 4096;
+
+    /** 是否在握手时请求permessage-deflate压缩，服务器不支持时不压缩 */
+    public static final boolean WS_COMPRESSION_ENABLED = true;
+
+    /** 压缩级别，命令很短，默认级别的耗时可以忽略，比最快级别少约三成字节 */
+    public static final int DEFLATE_COMPRESSION_LEVEL = java.util.zip.Deflater.DEFAULT_COMPRESSION;
+
+    /** 短于该字节数的消息不压缩；保留压缩上下文时很短的命令也能压缩，因此不设下限 */
+    public static final int DEFLATE_THRESHOLD_BYTES = 0;
+
+    /** 是否在握手时提供紧凑JSON子协议，服务器接受时改用{@link ProtocolCodecs#V3_COMPACT}格式 */
+    public static final boolean COMPACT_WIRE_ENABLED = false;
+
+    /** 紧凑JSON格式的WebSocket子协议名称 */
+    public static final String COMPACT_SUBPROTOCOL = "dglab-compact.v1";
+
+    // ==================== 拥塞控制 ====================
+    /** 拥塞策略：丢弃非关键控制帧（强度归零的帧始终发送） */
+    public static final int BACKPRESSURE_DROP = 0;
+
+    /** 拥塞策略：降低发送频率，期间只保留每个通道最新的控制帧 */
+    public static final int BACKPRESSURE_REDUCE_RATE = 1;
+
+    /** 拥塞策略：加大控制帧死区，只发送较大的变化 */
+    public static final int BACKPRESSURE_COARSEN_DEADBAND = 2;
+
+    /** 默认拥塞策略 */
+    public static final int DEFAULT_BACKPRESSURE_POLICY = BACKPRESSURE_REDUCE_RATE;
+
+    /** 发送队列达到该帧数时判定为拥塞 */
+    public static final int BACKPRESSURE_HIGH_WATERMARK = 4;
+
+    /** 发送队列不超过该帧数时解除拥塞 */
+    public static final int BACKPRESSURE_LOW_WATERMARK = 0;
+
+    /** 降低发送频率时的最小发送间隔（毫秒） */
+    public static final long BACKPRESSURE_REDUCED_INTERVAL_MS = 1000;
+
+    /** 加大死区时的放大倍数 */
+    public static final int BACKPRESSURE_DEADBAND_SCALE = 4;
+
+    // ==================== 发送线程 ====================
+    /** 转换、编码和发送所在线程的名称 */
+    public static final String IO_THREAD_NAME = "DGLAB-IO";
+
+    /** 发送线程优先级，高于普通后台线程，避免与界面绘制争抢时被延后 */
+    public static final int IO_THREAD_PRIORITY = android.os.Process.THREAD_PRIORITY_DISPLAY;
+
     // ==================== 蓝牙协议常量 ====================
     /** B0指令前缀 */
     public static final String B0_PREFIX = "B0";
@@ -117,6 +271,12 @@ public class Constants {
     /** SharedPreferences中WebSocket地址的键 */
     public static final String PREF_WEBSOCKET_URL = "websocket_url";
 
+    /** SharedPreferences中转换配置JSON的键 */
+    public static final String PREF_CONVERSION_PROFILE = "conversion_profile";
+
+    /** 应用私有目录中转换配置文件的文件名 */
+    public static final String PROFILE_FILE_NAME = "conversion_profile.json";
+
     // ==================== 其他常量 ====================
     /** 日志标签 */
     public static final String LOG_TAG = "BYD_DGLAB";
@@ -124,6 +284,54 @@ public class Constants {
     /** 数据平滑窗口大小 */
     public static final int SMOOTHING_WINDOW_SIZE = 5;
 
+    /** 指数移动平均滤波时间常数（毫秒） */
+    public static final double EMA_TIME_CONSTANT_MS = 1000;
+
+    /** 中值滤波窗口大小 */
+    public static final int MEDIAN_WINDOW_SIZE = 3;
+
+    /** One-Euro滤波最小截止频率（Hz） */
+    public static final double ONE_EURO_MIN_CUTOFF_HZ = 0.3;
+
+    /** One-Euro滤波截止频率随变化率增加的系数 */
+    public static final double ONE_EURO_BETA = 0.05;
+
+    /** One-Euro滤波变化率截止频率（Hz） */
+    public static final double ONE_EURO_DERIVATIVE_CUTOFF_HZ = 1.0;
+
+    /** 卡尔曼滤波过程噪声谱密度 */
+    public static final double KALMAN_PROCESS_NOISE = 4.0;
+
+    /** 卡尔曼滤波测量噪声方差 */
+    public static final double KALMAN_MEASUREMENT_NOISE = 1.0;
+
+    /** 加速度估计的车速修正增益 */
+    public static final double DERIVATIVE_ALPHA = 0.5;
+
+    /** 加速度估计的加速度修正增益 */
+    public static final double DERIVATIVE_BETA = 0.2;
+
+    /** 加速度估计的加加速度修正增益 */
+    public static final double DERIVATIVE_GAMMA = 0.02;
+
+    /** 加速度估计允许的最大采样间隔（毫秒），超过后重新开始估计 */
+    public static final long DERIVATIVE_MAX_GAP_MS = 5000;
+
+    /** 强度变化达到该值才发送 */
+    public static final int EMIT_INTENSITY_DEADBAND = 1;
+
+    /** 频率变化达到该值才发送（Hz） */
+    public static final int EMIT_FREQUENCY_DEADBAND = 1;
+
+    /** 控制帧没有变化时的重发间隔（毫秒） */
+    public static final long EMIT_KEEP_ALIVE_MS = 5000;
+
+    /** 批量转换时每个并行分块的采样数 */
+    public static final int BATCH_CHUNK_SIZE = 8192;
+
+    /** 脉冲命令缓存的默认内存上限（字节） */
+    public static final long COMMAND_CACHE_MAX_BYTES = 2 * 1024 * 1024;
+
     /** 更新间隔（毫秒） */
     public static final int UPDATE_INTERVAL_MS = 1000;
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.byd.dglab.integration;
+
+/**
+ * 控制帧
+ * 将一次转换得到的强度和频率打包为一个long，避免每个采样分配对象
+ *
+ * 位布局：0-15位为强度，16-31位为频率
+ */
+public final class ControlFrame {
+
+    /** 无输出（通道未启用） */
+    public static final long NONE = -1L;
+
+    private static final int FIELD_MASK = 0xFFFF;
+    private static final int FREQUENCY_SHIFT = 16;
+
+    private ControlFrame() {
+    }
+
+    /**
+     * 打包控制帧
+     * @param intensity 强度值（0-200）
+     * @param frequency 频率值（Hz）
+     * @return 打包后的控制帧
+     */
+    public static long pack(int intensity, int frequency) {
+        return ((long) (frequency & FIELD_MASK) << FREQUENCY_SHIFT) | (intensity & FIELD_MASK);
+    }
+
+    /**
+     * 是否有输出
+     * @param frame 控制帧
+     * @return 不是{@link #NONE}时返回true
+     */
+    public static boolean isPresent(long frame) {
+        return frame != NONE;
+    }
+
+    /**
+     * 取出强度
+     * @param frame 控制帧
+     * @return 强度值
+     */
+    public static int intensity(long frame) {
+        return (int) (frame & FIELD_MASK);
+    }
+
+    /**
+     * 取出频率
+     * @param frame 控制帧
+     * @return 频率值（Hz）
+     */
+    public static int frequency(long frame) {
+        return (int) ((frame >>> FREQUENCY_SHIFT) & FIELD_MASK);
+    }
+
+    /**
+     * 转换为可读字符串（仅用于日志）
+     * @param frame 控制帧
+     * @return 字符串
+     */
+    public static String toString(long frame) {
+        return "Intensity " + intensity(frame) + ", Frequency " + frequency(frame) + " Hz";
+    }
+}
@@ -0,0 +1,235 @@
+package com.byd.dglab.integration;
+
+import java.util.Arrays;
+
+/**
+ * 转换曲线定义
+ * 由若干（车速, 取值）控制点组成，支持分段线性、单调三次样条和指数三种插值方式，
+ * 由Gson从JSON解析，编译为查找表后才在采样路径上使用
+ *
+ * 三种插值在相邻控制点之间都单调（单调样条的切线保证区间内没有极值），控制点即为查找表的分段点；
+ * 控制点车速取整到{@link Constants#LOOKUP_TABLE_MAX_BUCKETS_PER_KMH}分之一km/h，落在查找表的分桶边界上
+ *
+ * JSON格式示例：{"type":"spline","points":[[0,0],[30,50],[80,120],[120,200]]}
+ */
+public class ConversionCurve {
+
+    /** 分段线性插值 */
+    public static final String TYPE_LINEAR = "linear";
+
+    /** 单调三次样条插值（Fritsch-Carlson） */
+    public static final String TYPE_SPLINE = "spline";
+
+    /** 分段指数插值，shape为正时先缓后急，为负时先急后缓 */
+    public static final String TYPE_EXPONENTIAL = "exponential";
+
+    private String type = TYPE_LINEAR;
+    private double[][] points;
+    private double shape;
+
+    // 校验后准备的插值数据，不参与序列化
+    private transient double[] speeds;
+    private transient double[] values;
+    private transient double[] tangents;
+
+    public ConversionCurve() {
+    }
+
+    /**
+     * @param type 插值方式
+     * @param points 控制点，每个元素为{车速, 取值}
+     * @param shape 指数曲线的形状系数，其他类型忽略
+     */
+    public ConversionCurve(String type, double[][] points, double shape) {
+        this.type = type;
+        this.points = points;
+        this.shape = shape;
+    }
+
+    /**
+     * 校验曲线并准备插值数据
+     * @param minValue 允许的最小取值
+     * @param maxValue 允许的最大取值
+     * @throws IllegalArgumentException 曲线无效时抛出
+     */
+    void prepare(int minValue, int maxValue) {
+        if (!TYPE_LINEAR.equals(type) && !TYPE_SPLINE.equals(type) && !TYPE_EXPONENTIAL.equals(type)) {
+            throw new IllegalArgumentException("Unknown curve type: " + type);
+        }
+        if (points == null || points.length < 2) {
+            throw new IllegalArgumentException("Curve needs at least 2 points");
+        }
+        if (Double.isNaN(shape) || Double.isInfinite(shape)) {
+            throw new IllegalArgumentException("Invalid curve shape: " + shape);
+        }
+
+        int n = points.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (points[i] == null || points[i].length != 2) {
+                throw new IllegalArgumentException("Point " + i + " must be [speed, value]");
+            }
+            x[i] = snapSpeed(points[i][0]);
+            y[i] = points[i][1];
+            if (!(x[i] >= Constants.SPEED_MIN && x[i] <= Constants.SPEED_MAX)) {
+                throw new IllegalArgumentException("Point " + i + " speed out of range: " + x[i]);
+            }
+            if (!(y[i] >= minValue && y[i] <= maxValue)) {
+                throw new IllegalArgumentException("Point " + i + " value out of range: " + y[i]);
+            }
+            if (i > 0 && !(x[i] > x[i - 1])) {
+                throw new IllegalArgumentException("Point speeds must be strictly increasing at " + i);
+            }
+        }
+
+        speeds = x;
+        values = y;
+        tangents = TYPE_SPLINE.equals(type) ? monotoneTangents(x, y) : null;
+    }
+
+    /**
+     * 控制点车速取整到查找表最高精度的分桶边界
+     */
+    private static double snapSpeed(double speedKmH) {
+        return Math.round(speedKmH * Constants.LOOKUP_TABLE_MAX_BUCKETS_PER_KMH)
+                / (double) Constants.LOOKUP_TABLE_MAX_BUCKETS_PER_KMH;
+    }
+
+    /**
+     * 获取查找表的分段点：控制点车速，以及样条区间内的极值点（单调样条没有，仅作保护）
+     * 相邻分段点之间曲线单调
+     * @return 升序排列的车速（km/h）
+     */
+    double[] breakpoints() {
+        int n = speeds.length;
+        double[] result = new double[n + 2 * (n - 1)];
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            result[count++] = speeds[k];
+            if (tangents == null || k == n - 1) {
+                continue;
+            }
+
+            // 三次Hermite插值对t的导数 a*t^2 + b*t + c 在(0, 1)内的根
+            double width = speeds[k + 1] - speeds[k];
+            double y0 = values[k];
+            double y1 = values[k + 1];
+            double m0 = width * tangents[k];
+            double m1 = width * tangents[k + 1];
+            double a = 6 * y0 + 3 * m0 - 6 * y1 + 3 * m1;
+            double b = -6 * y0 - 4 * m0 + 6 * y1 - 2 * m1;
+            double c = m0;
+            double first = Double.NaN;
+            double second = Double.NaN;
+            if (a == 0) {
+                if (b != 0) {
+                    first = -c / b;
+                }
+            } else {
+                double discriminant = b * b - 4 * a * c;
+                if (discriminant >= 0) {
+                    double root = Math.sqrt(discriminant);
+                    first = Math.min((-b - root) / (2 * a), (-b + root) / (2 * a));
+                    second = Math.max((-b - root) / (2 * a), (-b + root) / (2 * a));
+                }
+            }
+            if (first > 0 && first < 1) {
+                result[count++] = speeds[k] + first * width;
+            }
+            if (second > 0 && second < 1 && second != first) {
+                result[count++] = speeds[k] + second * width;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 计算曲线取值
+     * 控制点范围之外保持端点取值
+     * @param speedKmH 车速（km/h）
+     * @return 曲线取值
+     */
+    double evaluate(double speedKmH) {
+        int last = speeds.length - 1;
+        if (!(speedKmH > speeds[0])) {
+            // 包括NaN，按最低车速处理
+            return values[0];
+        }
+        if (speedKmH >= speeds[last]) {
+            return values[last];
+        }
+
+        // 控制点数量很少，线性查找即可
+        int k = 0;
+        while (speedKmH >= speeds[k + 1]) {
+            k++;
+        }
+
+        double width = speeds[k + 1] - speeds[k];
+        double t = (speedKmH - speeds[k]) / width;
+        double y0 = values[k];
+        double y1 = values[k + 1];
+
+        if (tangents != null) {
+            // 三次Hermite插值
+            double t2 = t * t;
+            double t3 = t2 * t;
+            return (2 * t3 - 3 * t2 + 1) * y0
+                    + (t3 - 2 * t2 + t) * width * tangents[k]
+                    + (-2 * t3 + 3 * t2) * y1
+                    + (t3 - t2) * width * tangents[k + 1];
+        }
+        if (TYPE_EXPONENTIAL.equals(type) && shape != 0) {
+            return y0 + (y1 - y0) * Math.expm1(shape * t) / Math.expm1(shape);
+        }
+        return y0 + (y1 - y0) * t;
+    }
+
+    /**
+     * Fritsch-Carlson单调三次样条切线
+     */
+    private static double[] monotoneTangents(double[] x, double[] y) {
+        int n = x.length;
+        double[] secants = new double[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            secants[i] = (y[i + 1] - y[i]) / (x[i + 1] - x[i]);
+        }
+
+        double[] m = new double[n];
+        m[0] = secants[0];
+        m[n - 1] = secants[n - 2];
+        for (int i = 1; i < n - 1; i++) {
+            m[i] = secants[i - 1] * secants[i] <= 0 ? 0 : (secants[i - 1] + secants[i]) / 2;
+        }
+
+        for (int i = 0; i < n - 1; i++) {
+            if (secants[i] == 0) {
+                m[i] = 0;
+                m[i + 1] = 0;
+                continue;
+            }
+            double a = m[i] / secants[i];
+            double b = m[i + 1] / secants[i];
+            double h = a * a + b * b;
+            if (h > 9) {
+                double scale = 3 / Math.sqrt(h);
+                m[i] = scale * a * secants[i];
+                m[i + 1] = scale * b * secants[i];
+            }
+        }
+        return m;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double[][] getPoints() {
+        return points;
+    }
+
+    public double getShape() {
+        return shape;
+    }
+}
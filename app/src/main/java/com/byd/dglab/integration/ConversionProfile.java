@@ -0,0 +1,168 @@
+package com.byd.dglab.integration;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * 编译后的转换配置
+ * 持有强度和频率的映射函数及其查找表，创建时一次性编译，之后不可变，
+ * 每个采样的开销与曲线复杂度无关；曲线无法精确编译为查找表时编译失败，不会在采样路径上改为直接计算，
+ * 由{@link ConversionProfileLoader}回退到内置配置
+ */
+public final class ConversionProfile {
+
+    /** 内置配置：Constants中定义的三段线性映射 */
+    public static final ConversionProfile BUILT_IN = new ConversionProfile("built-in",
+            SpeedToControlConverter::mapSpeedToIntensity,
+            SpeedToControlConverter::mapSpeedToFrequency,
+            new double[] {Constants.LOW_SPEED_THRESHOLD, Constants.MEDIUM_SPEED_THRESHOLD,
+                    Constants.HIGH_SPEED_THRESHOLD},
+            new double[] {Constants.LOW_SPEED_THRESHOLD, Constants.MEDIUM_SPEED_THRESHOLD,
+                    Constants.HIGH_SPEED_THRESHOLD},
+            null);
+
+    private final String name;
+    private final DoubleToIntFunction intensityMapping;
+    private final DoubleToIntFunction frequencyMapping;
+    private final SpeedLookupTable intensityTable;
+    private final SpeedLookupTable frequencyTable;
+    private final FilterConfig filterConfig;
+
+    /**
+     * @param intensityBreakpoints 强度映射的分段点，相邻分段点之间映射单调
+     * @param frequencyBreakpoints 频率映射的分段点，相邻分段点之间映射单调
+     * @throws IllegalArgumentException 映射无法精确编译为查找表时抛出
+     */
+    private ConversionProfile(String name, DoubleToIntFunction intensityMapping,
+                              DoubleToIntFunction frequencyMapping, double[] intensityBreakpoints,
+                              double[] frequencyBreakpoints, FilterConfig filterConfig) {
+        this.name = name;
+        this.filterConfig = filterConfig;
+        this.intensityMapping = intensityMapping;
+        this.frequencyMapping = frequencyMapping;
+        this.intensityTable = compileTable(name, "intensity", intensityMapping, intensityBreakpoints);
+        this.frequencyTable = compileTable(name, "frequency", frequencyMapping, frequencyBreakpoints);
+    }
+
+    private static SpeedLookupTable compileTable(String name, String parameter, DoubleToIntFunction mapping,
+                                                 double[] breakpoints) {
+        try {
+            return SpeedLookupTable.compile(mapping, Constants.SPEED_MAX, breakpoints);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Profile " + name + " " + parameter + " curve cannot be compiled: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 校验并编译配置定义
+     * @param definition 配置定义
+     * @return 编译后的配置
+     * @throws IllegalArgumentException 配置无效或无法精确编译为查找表时抛出
+     */
+    public static ConversionProfile compile(ProfileDefinition definition) {
+        if (definition == null || definition.getIntensity() == null || definition.getFrequency() == null) {
+            throw new IllegalArgumentException("Profile must define both intensity and frequency curves");
+        }
+
+        ConversionCurve intensity = definition.getIntensity();
+        ConversionCurve frequency = definition.getFrequency();
+        intensity.prepare(Constants.INTENSITY_MIN, Constants.INTENSITY_MAX);
+        frequency.prepare(Constants.FREQUENCY_MIN, Constants.FREQUENCY_MAX);
+        if (definition.getFilter() != null) {
+            definition.getFilter().validate();
+        }
+
+        String name = definition.getName() != null ? definition.getName() : "custom";
+        return new ConversionProfile(name,
+                speed -> roundToRange(intensity.evaluate(speed), Constants.INTENSITY_MIN, Constants.INTENSITY_MAX),
+                speed -> roundToRange(frequency.evaluate(speed), Constants.FREQUENCY_MIN, Constants.FREQUENCY_MAX),
+                intensity.breakpoints(), frequency.breakpoints(), definition.getFilter());
+    }
+
+    private static int roundToRange(double value, int min, int max) {
+        return Math.max(min, Math.min(max, (int) Math.round(value)));
+    }
+
+    /**
+     * 查表得到强度
+     * @param smoothedSpeed 平滑后的车速（km/h）
+     * @return 强度值
+     */
+    public int lookupIntensity(double smoothedSpeed) {
+        return intensityTable.lookup(smoothedSpeed);
+    }
+
+    /**
+     * 查表得到频率
+     * @param smoothedSpeed 平滑后的车速（km/h）
+     * @return 频率值（Hz）
+     */
+    public int lookupFrequency(double smoothedSpeed) {
+        return frequencyTable.lookup(smoothedSpeed);
+    }
+
+    /**
+     * 列出查表可以得到的全部强度和频率组合（不含加减速调整量）
+     * 两个查找表的取值只在桶起点和跳变点处变化，在这些车速和表范围上限处查表即可得到全部组合
+     * @return 控制帧，去重，按首次出现的车速从低到高排列
+     */
+    public long[] getOutputFrames() {
+        double[] intensitySpeeds = intensityTable.getChangeSpeeds();
+        double[] frequencySpeeds = frequencyTable.getChangeSpeeds();
+        double[] speeds = Arrays.copyOf(intensitySpeeds, intensitySpeeds.length + frequencySpeeds.length + 1);
+        System.arraycopy(frequencySpeeds, 0, speeds, intensitySpeeds.length, frequencySpeeds.length);
+        speeds[speeds.length - 1] = Constants.SPEED_MAX;
+        Arrays.sort(speeds);
+
+        int intensityCount = Constants.INTENSITY_MAX - Constants.INTENSITY_MIN + 1;
+        BitSet seen = new BitSet();
+        long[] frames = new long[speeds.length];
+        int count = 0;
+        for (double speed : speeds) {
+            int intensity = lookupIntensity(speed);
+            int frequency = lookupFrequency(speed);
+            int key = (frequency - Constants.FREQUENCY_MIN) * intensityCount + intensity - Constants.INTENSITY_MIN;
+            if (!seen.get(key)) {
+                seen.set(key);
+                frames[count++] = ControlFrame.pack(intensity, frequency);
+            }
+        }
+        return Arrays.copyOf(frames, count);
+    }
+
+    /**
+     * 直接计算强度（不查表）
+     * @param smoothedSpeed 平滑后的车速（km/h）
+     * @return 强度值
+     */
+    public int computeIntensity(double smoothedSpeed) {
+        return intensityMapping.applyAsInt(smoothedSpeed);
+    }
+
+    /**
+     * 直接计算频率（不查表）
+     * @param smoothedSpeed 平滑后的车速（km/h）
+     * @return 频率值（Hz）
+     */
+    public int computeFrequency(double smoothedSpeed) {
+        return frequencyMapping.applyAsInt(smoothedSpeed);
+    }
+
+    /**
+     * 获取配置自带的滤波器参数
+     * @return 滤波器参数，未定义时为null
+     */
+    public FilterConfig getFilterConfig() {
+        return filterConfig;
+    }
+
+    /**
+     * 获取配置名称
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+}
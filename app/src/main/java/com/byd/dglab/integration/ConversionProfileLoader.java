@@ -0,0 +1,117 @@
+package com.byd.dglab.integration;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 转换配置加载器
+ * 从JSON文件或SharedPreferences读取配置并编译，配置缺失、校验失败或曲线无法精确编译为查找表时回退到内置配置
+ */
+public final class ConversionProfileLoader {
+
+    private static final String TAG = Constants.LOG_TAG + "_Profile";
+    private static final Gson GSON = new Gson();
+
+    private ConversionProfileLoader() {
+    }
+
+    /**
+     * 解析并编译JSON配置
+     * @param json 配置JSON
+     * @return 编译后的配置
+     * @throws IllegalArgumentException JSON无效或配置校验失败时抛出
+     */
+    public static ConversionProfile parse(String json) {
+        try {
+            return ConversionProfile.compile(GSON.fromJson(json, ProfileDefinition.class));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed profile JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从JSON字符串加载配置
+     * @param json 配置JSON
+     * @return 编译后的配置，失败时返回内置配置
+     */
+    public static ConversionProfile loadFromJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return ConversionProfile.BUILT_IN;
+        }
+        try {
+            ConversionProfile profile = parse(json);
+            Log.d(TAG, "Loaded conversion profile: " + profile.getName());
+            return profile;
+        } catch (Exception e) {
+            Log.w(TAG, "Invalid conversion profile, falling back to built-in: " + e.getMessage());
+            return ConversionProfile.BUILT_IN;
+        }
+    }
+
+    /**
+     * 从JSON文件加载配置
+     * @param file 配置文件
+     * @return 编译后的配置，文件不存在或无效时返回内置配置
+     */
+    public static ConversionProfile loadFromFile(File file) {
+        if (file == null || !file.isFile()) {
+            return ConversionProfile.BUILT_IN;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            ConversionProfile profile = ConversionProfile.compile(GSON.fromJson(reader, ProfileDefinition.class));
+            Log.d(TAG, "Loaded conversion profile from " + file + ": " + profile.getName());
+            return profile;
+        } catch (Exception e) {
+            Log.w(TAG, "Invalid conversion profile file " + file + ", falling back to built-in: " + e.getMessage());
+            return ConversionProfile.BUILT_IN;
+        }
+    }
+
+    /**
+     * 从SharedPreferences加载配置
+     * @param preferences SharedPreferences
+     * @return 编译后的配置，未保存或无效时返回内置配置
+     */
+    public static ConversionProfile loadFromPreferences(SharedPreferences preferences) {
+        return loadFromJson(preferences.getString(Constants.PREF_CONVERSION_PROFILE, null));
+    }
+
+    /**
+     * 依次尝试配置文件和SharedPreferences
+     * @param file 配置文件
+     * @param preferences SharedPreferences
+     * @return 编译后的配置，都不可用时返回内置配置
+     */
+    public static ConversionProfile load(File file, SharedPreferences preferences) {
+        ConversionProfile profile = loadFromFile(file);
+        if (profile == ConversionProfile.BUILT_IN) {
+            profile = loadFromPreferences(preferences);
+        }
+        return profile;
+    }
+
+    /**
+     * 校验并保存配置到SharedPreferences
+     * @param preferences SharedPreferences
+     * @param json 配置JSON
+     * @return 校验通过并保存返回true
+     */
+    public static boolean saveToPreferences(SharedPreferences preferences, String json) {
+        try {
+            parse(json);
+        } catch (Exception e) {
+            Log.w(TAG, "Refusing to save invalid conversion profile: " + e.getMessage());
+            return false;
+        }
+        preferences.edit().putString(Constants.PREF_CONVERSION_PROFILE, json).apply();
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package com.byd.dglab.integration;
+
+/**
+ * 转换器快照
+ * 将编译后的转换配置和滤波器参数打包为一个不可变对象，
+ * 通过原子引用整体发布，采样线程无锁读取，替换时不需要暂停采样
+ */
+public final class ConverterSnapshot {
+
+    private final ConversionProfile profile;
+    private final FilterConfig filterConfig;
+    private final ChannelConfig[] channels;
+    private final ModulationConfig modulationConfig;
+
+    public ConverterSnapshot(ConversionProfile profile, FilterConfig filterConfig) {
+        this(profile, filterConfig, new ChannelConfig[] {
+                ChannelConfig.passThrough(Constants.CHANNEL_A),
+                ChannelConfig.passThrough(Constants.CHANNEL_B)
+        });
+    }
+
+    /**
+     * @param profile 公共转换配置
+     * @param filterConfig 公共平滑滤波器参数
+     * @param channels 各输出通道的配置
+     */
+    public ConverterSnapshot(ConversionProfile profile, FilterConfig filterConfig, ChannelConfig[] channels) {
+        this(profile, filterConfig, channels, ModulationConfig.DISABLED);
+    }
+
+    /**
+     * @param profile 公共转换配置
+     * @param filterConfig 公共平滑滤波器参数
+     * @param channels 各输出通道的配置
+     * @param modulationConfig 加减速调制参数
+     */
+    public ConverterSnapshot(ConversionProfile profile, FilterConfig filterConfig, ChannelConfig[] channels,
+                             ModulationConfig modulationConfig) {
+        if (profile == null || filterConfig == null || channels == null || modulationConfig == null) {
+            throw new IllegalArgumentException("Snapshot requires a profile, a filter config, channels and modulation");
+        }
+        for (ChannelConfig channel : channels) {
+            if (channel == null) {
+                throw new IllegalArgumentException("Channel config must not be null");
+            }
+        }
+        this.profile = profile;
+        this.filterConfig = filterConfig;
+        this.channels = channels.clone();
+        this.modulationConfig = modulationConfig;
+    }
+
+    /**
+     * 替换转换配置
+     * 配置自带滤波器参数时一并替换，否则沿用当前滤波器参数
+     * @param newProfile 新的转换配置
+     * @return 新快照
+     */
+    public ConverterSnapshot withProfile(ConversionProfile newProfile) {
+        FilterConfig newFilter = newProfile.getFilterConfig() != null ? newProfile.getFilterConfig() : filterConfig;
+        return new ConverterSnapshot(newProfile, newFilter, channels, modulationConfig);
+    }
+
+    /**
+     * 替换滤波器参数
+     * @param newFilterConfig 新的滤波器参数
+     * @return 新快照
+     */
+    public ConverterSnapshot withFilterConfig(FilterConfig newFilterConfig) {
+        return new ConverterSnapshot(profile, newFilterConfig, channels, modulationConfig);
+    }
+
+    /**
+     * 替换通道配置
+     * @param newChannels 各输出通道的配置
+     * @return 新快照
+     */
+    public ConverterSnapshot withChannels(ChannelConfig... newChannels) {
+        return new ConverterSnapshot(profile, filterConfig, newChannels, modulationConfig);
+    }
+
+    /**
+     * 替换单个通道的配置
+     * @param newChannel 通道配置，按通道标识匹配，不存在时追加
+     * @return 新快照
+     */
+    public ConverterSnapshot withChannel(ChannelConfig newChannel) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].getChannel().equals(newChannel.getChannel())) {
+                ChannelConfig[] updated = channels.clone();
+                updated[i] = newChannel;
+                return new ConverterSnapshot(profile, filterConfig, updated, modulationConfig);
+            }
+        }
+        ChannelConfig[] updated = new ChannelConfig[channels.length + 1];
+        System.arraycopy(channels, 0, updated, 0, channels.length);
+        updated[channels.length] = newChannel;
+        return new ConverterSnapshot(profile, filterConfig, updated, modulationConfig);
+    }
+
+    /**
+     * 替换加减速调制参数
+     * @param newModulationConfig 新的调制参数
+     * @return 新快照
+     */
+    public ConverterSnapshot withModulationConfig(ModulationConfig newModulationConfig) {
+        return new ConverterSnapshot(profile, filterConfig, channels, newModulationConfig);
+    }
+
+    public ConversionProfile getProfile() {
+        return profile;
+    }
+
+    public FilterConfig getFilterConfig() {
+        return filterConfig;
+    }
+
+    public ModulationConfig getModulationConfig() {
+        return modulationConfig;
+    }
+
+    public int getChannelCount() {
+        return channels.length;
+    }
+
+    public ChannelConfig getChannel(int index) {
+        return channels[index];
+    }
+}
@@ -0,0 +1,108 @@
+package com.byd.dglab.integration;
+
+/**
+ * 加速度/加加速度估计器
+ * 对带时间戳的车速采样使用alpha-beta-gamma跟踪滤波（匀加加速度模型）增量估计一阶和二阶导数，
+ * 固定增益保证噪声放大有界，不做原始差分；每个采样O(1)且不产生对象分配
+ */
+public class DerivativeEstimator {
+
+    /** km/h每秒换算为m/s² */
+    private static final double KMH_PER_SECOND_TO_MS2 = 1 / 3.6;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private boolean initialized;
+    private long lastTimestampMs;
+
+    // 状态：车速（km/h）、加速度（km/h每秒）、加加速度（km/h每平方秒）
+    private double speed;
+    private double rate;
+    private double rateOfRate;
+
+    public DerivativeEstimator() {
+        this(Constants.DERIVATIVE_ALPHA, Constants.DERIVATIVE_BETA, Constants.DERIVATIVE_GAMMA);
+    }
+
+    /**
+     * @param alpha 车速修正增益
+     * @param beta 加速度修正增益
+     * @param gamma 加加速度修正增益
+     */
+    public DerivativeEstimator(double alpha, double beta, double gamma) {
+        // alpha-beta-gamma滤波的稳定区间
+        if (!(alpha > 0 && alpha < 2) || !(beta > 0 && beta < 4 - 2 * alpha)
+                || !(gamma > 0 && gamma < 4 * alpha * beta / (2 - alpha))) {
+            throw new IllegalArgumentException("Unstable alpha-beta-gamma gains");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+    }
+
+    /**
+     * 加入新采样
+     * 时间戳不递增的采样被忽略，采样间隔过长时重新开始估计
+     * @param speedKmH 车速（km/h）
+     * @param timestampMs 采样时间戳（毫秒）
+     */
+    public void update(double speedKmH, long timestampMs) {
+        if (Double.isNaN(speedKmH) || Double.isInfinite(speedKmH)) {
+            return;
+        }
+        long deltaMs = timestampMs - lastTimestampMs;
+        if (!initialized || deltaMs > Constants.DERIVATIVE_MAX_GAP_MS) {
+            initialized = true;
+            lastTimestampMs = timestampMs;
+            speed = speedKmH;
+            rate = 0;
+            rateOfRate = 0;
+            return;
+        }
+        if (deltaMs <= 0) {
+            return;
+        }
+        lastTimestampMs = timestampMs;
+
+        double dt = deltaMs / 1000.0;
+        double dt2 = dt * dt;
+
+        // 预测
+        double predictedSpeed = speed + rate * dt + rateOfRate * dt2 / 2;
+        double predictedRate = rate + rateOfRate * dt;
+
+        // 修正
+        double residual = speedKmH - predictedSpeed;
+        speed = predictedSpeed + alpha * residual;
+        rate = predictedRate + beta * residual / dt;
+        rateOfRate += 2 * gamma * residual / dt2;
+    }
+
+    /**
+     * 获取加速度估计
+     * @return 加速度（m/s²），减速为负
+     */
+    public double getAcceleration() {
+        return rate * KMH_PER_SECOND_TO_MS2;
+    }
+
+    /**
+     * 获取加加速度估计
+     * @return 加加速度（m/s³）
+     */
+    public double getJerk() {
+        return rateOfRate * KMH_PER_SECOND_TO_MS2;
+    }
+
+    /**
+     * 清空估计状态
+     */
+    public void reset() {
+        initialized = false;
+        speed = 0;
+        rate = 0;
+        rateOfRate = 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.byd.dglab.integration;
+
+/**
+ * 指数移动平均滤波器
+ * 按时间常数计算平滑系数，采样间隔不均匀时仍保持一致的平滑程度
+ * 对匀变速输入的延迟约等于时间常数
+ */
+public class ExponentialMovingAverageFilter extends AbstractSpeedFilter {
+
+    private double timeConstantMs;
+
+    private boolean initialized;
+    private double value;
+
+    public ExponentialMovingAverageFilter() {
+        this(Constants.EMA_TIME_CONSTANT_MS);
+    }
+
+    /**
+     * @param timeConstantMs 时间常数（毫秒）
+     */
+    public ExponentialMovingAverageFilter(double timeConstantMs) {
+        setTimeConstantMs(timeConstantMs);
+    }
+
+    /**
+     * 修改时间常数，保留当前滤波状态
+     * @param timeConstantMs 时间常数（毫秒）
+     */
+    public void setTimeConstantMs(double timeConstantMs) {
+        if (!(timeConstantMs > 0)) {
+            throw new IllegalArgumentException("Time constant must be positive: " + timeConstantMs);
+        }
+        this.timeConstantMs = timeConstantMs;
+    }
+
+    @Override
+    protected double apply(double speedKmH, long deltaMs) {
+        if (!initialized) {
+            initialized = true;
+            value = speedKmH;
+        } else if (deltaMs > 0) {
+            double alpha = 1 - Math.exp(-deltaMs / timeConstantMs);
+            value += alpha * (speedKmH - value);
+        }
+        return value;
+    }
+
+    @Override
+    protected void resetState() {
+        initialized = false;
+        value = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "EMA(" + timeConstantMs + "ms)";
+    }
+
+    /**
+     * 获取时间常数
+     * @return 时间常数（毫秒）
+     */
+    public double getTimeConstantMs() {
+        return timeConstantMs;
+    }
+}
@@ -0,0 +1,167 @@
+package com.byd.dglab.integration;
+
+/**
+ * 车速滤波器参数
+ * 不可变，可由Gson从转换配置JSON的filter字段解析，
+ * 转换器在采样线程上据此创建滤波器或就地修改同类滤波器的参数（保留滤波状态）
+ *
+ * JSON格式示例：{"type":"oneEuro","minCutoffHz":0.3,"beta":0.05}
+ */
+public final class FilterConfig {
+
+    /** 移动平均滤波 */
+    public static final String TYPE_MOVING_AVERAGE = "movingAverage";
+
+    /** 指数移动平均滤波 */
+    public static final String TYPE_EMA = "ema";
+
+    /** 滑动中值滤波 */
+    public static final String TYPE_MEDIAN = "median";
+
+    /** One-Euro滤波 */
+    public static final String TYPE_ONE_EURO = "oneEuro";
+
+    /** 卡尔曼滤波 */
+    public static final String TYPE_KALMAN = "kalman";
+
+    /** 默认参数：5点移动平均 */
+    public static final FilterConfig DEFAULT = movingAverage(Constants.SMOOTHING_WINDOW_SIZE);
+
+    private String type = TYPE_MOVING_AVERAGE;
+    // 0表示JSON中没有给出，按滤波器类型使用各自的默认窗口
+    private int windowSize;
+    private double timeConstantMs = Constants.EMA_TIME_CONSTANT_MS;
+    private double minCutoffHz = Constants.ONE_EURO_MIN_CUTOFF_HZ;
+    private double beta = Constants.ONE_EURO_BETA;
+    private double derivativeCutoffHz = Constants.ONE_EURO_DERIVATIVE_CUTOFF_HZ;
+    private double processNoise = Constants.KALMAN_PROCESS_NOISE;
+    private double measurementNoise = Constants.KALMAN_MEASUREMENT_NOISE;
+
+    private FilterConfig() {
+    }
+
+    private FilterConfig(String type) {
+        this.type = type;
+    }
+
+    public static FilterConfig movingAverage(int windowSize) {
+        FilterConfig config = new FilterConfig(TYPE_MOVING_AVERAGE);
+        config.windowSize = windowSize;
+        return config;
+    }
+
+    public static FilterConfig ema(double timeConstantMs) {
+        FilterConfig config = new FilterConfig(TYPE_EMA);
+        config.timeConstantMs = timeConstantMs;
+        return config;
+    }
+
+    public static FilterConfig median(int windowSize) {
+        FilterConfig config = new FilterConfig(TYPE_MEDIAN);
+        config.windowSize = windowSize;
+        return config;
+    }
+
+    public static FilterConfig oneEuro(double minCutoffHz, double beta, double derivativeCutoffHz) {
+        FilterConfig config = new FilterConfig(TYPE_ONE_EURO);
+        config.minCutoffHz = minCutoffHz;
+        config.beta = beta;
+        config.derivativeCutoffHz = derivativeCutoffHz;
+        return config;
+    }
+
+    public static FilterConfig kalman(double processNoise, double measurementNoise) {
+        FilterConfig config = new FilterConfig(TYPE_KALMAN);
+        config.processNoise = processNoise;
+        config.measurementNoise = measurementNoise;
+        return config;
+    }
+
+    /**
+     * 按参数创建新的滤波器
+     * @return 滤波器
+     * @throws IllegalArgumentException 类型未知或参数无效时抛出
+     */
+    public SpeedFilter create() {
+        switch (String.valueOf(type)) {
+            case TYPE_MOVING_AVERAGE:
+                return new MovingAverageFilter(getWindowSize());
+            case TYPE_EMA:
+                return new ExponentialMovingAverageFilter(timeConstantMs);
+            case TYPE_MEDIAN:
+                return new StreamingMedianFilter(getWindowSize());
+            case TYPE_ONE_EURO:
+                return new OneEuroFilter(minCutoffHz, beta, derivativeCutoffHz);
+            case TYPE_KALMAN:
+                return new KalmanSpeedFilter(processNoise, measurementNoise);
+            default:
+                throw new IllegalArgumentException("Unknown filter type: " + type);
+        }
+    }
+
+    /**
+     * 就地修改同类滤波器的参数
+     * @param filter 当前滤波器
+     * @return 类型相同并已修改返回true，类型不同返回false
+     */
+    public boolean reconfigure(SpeedFilter filter) {
+        switch (String.valueOf(type)) {
+            case TYPE_MOVING_AVERAGE:
+                if (filter instanceof MovingAverageFilter) {
+                    ((MovingAverageFilter) filter).setWindowSize(getWindowSize());
+                    return true;
+                }
+                return false;
+            case TYPE_EMA:
+                if (filter instanceof ExponentialMovingAverageFilter) {
+                    ((ExponentialMovingAverageFilter) filter).setTimeConstantMs(timeConstantMs);
+                    return true;
+                }
+                return false;
+            case TYPE_MEDIAN:
+                if (filter instanceof StreamingMedianFilter) {
+                    ((StreamingMedianFilter) filter).setWindowSize(getWindowSize());
+                    return true;
+                }
+                return false;
+            case TYPE_ONE_EURO:
+                if (filter instanceof OneEuroFilter) {
+                    ((OneEuroFilter) filter).setParameters(minCutoffHz, beta, derivativeCutoffHz);
+                    return true;
+                }
+                return false;
+            case TYPE_KALMAN:
+                if (filter instanceof KalmanSpeedFilter) {
+                    ((KalmanSpeedFilter) filter).setNoise(processNoise, measurementNoise);
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 校验参数
+     * @throws IllegalArgumentException 类型未知或参数无效时抛出
+     */
+    public void validate() {
+        create();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * 获取窗口大小
+     * 没有给出时移动平均使用{@link Constants#SMOOTHING_WINDOW_SIZE}，中值使用{@link Constants#MEDIAN_WINDOW_SIZE}
+     * @return 窗口大小
+     */
+    public int getWindowSize() {
+        if (windowSize != 0) {
+            return windowSize;
+        }
+        return TYPE_MEDIAN.equals(type) ? Constants.MEDIAN_WINDOW_SIZE : Constants.SMOOTHING_WINDOW_SIZE;
+    }
+}
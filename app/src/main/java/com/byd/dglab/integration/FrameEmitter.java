@@ -0,0 +1,212 @@
+package com.byd.dglab.integration;
+
+import android.util.Log;
+
+/**
+ * 控制帧发送器
+ * 位于转换器和WebSocket服务之间，记录每个通道最后发送的控制帧，
+ * 只有强度或频率的变化超过死区，或距上次发送超过保活间隔时才发送，减少重复的WebSocket流量；
+ * 强度降到0的帧总是立即发送
+ * 只在采样线程上调用，不产生对象分配（新通道首次出现时除外）
+ */
+public class FrameEmitter {
+
+    private static final String TAG = Constants.LOG_TAG + "_Emitter";
+
+    private volatile int intensityDeadband;
+    private volatile int frequencyDeadband;
+    // 死区放大倍数，链路拥塞时大于1
+    private volatile int deadbandScale = 1;
+    private volatile long keepAliveMs;
+
+    // 每个通道最后发送的控制帧和发送时间
+    private String[] channels = new String[0];
+    private long[] lastFrames = new long[0];
+    private long[] lastSentMs = new long[0];
+
+    // 统计
+    private volatile long sentCount;
+    private volatile long suppressedCount;
+
+    public FrameEmitter() {
+        this(Constants.EMIT_INTENSITY_DEADBAND, Constants.EMIT_FREQUENCY_DEADBAND, Constants.EMIT_KEEP_ALIVE_MS);
+    }
+
+    /**
+     * @param intensityDeadband 强度变化达到该值才发送
+     * @param frequencyDeadband 频率变化达到该值才发送（Hz）
+     * @param keepAliveMs 保活间隔（毫秒），超过后即使没有变化也重新发送
+     */
+    public FrameEmitter(int intensityDeadband, int frequencyDeadband, long keepAliveMs) {
+        setDeadband(intensityDeadband, frequencyDeadband);
+        setKeepAliveMs(keepAliveMs);
+    }
+
+    /**
+     * 发送所有通道中需要更新的控制帧
+     * @param frames 转换器输出的各通道控制帧
+     * @param nowMs 当前时间（毫秒）
+     * @param sink 命令接收方
+     * @return 本次实际发送的帧数
+     */
+    public int emit(ChannelFrames frames, long nowMs, PulseCommandSink sink) {
+        int sent = 0;
+        for (int i = 0; i < frames.size(); i++) {
+            if (emit(frames.getChannel(i), frames.getFrame(i), nowMs, sink)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * 发送单个通道的控制帧（需要时）
+     * @param channel 通道（A或B）
+     * @param frame 控制帧，{@link ControlFrame#NONE}表示通道未启用
+     * @param nowMs 当前时间（毫秒）
+     * @param sink 命令接收方
+     * @return 实际发送返回true
+     */
+    public boolean emit(String channel, long frame, long nowMs, PulseCommandSink sink) {
+        int slot = slotFor(channel);
+
+        // 通道停用：忘记最后发送的帧，重新启用时立即发送
+        if (!ControlFrame.isPresent(frame)) {
+            lastFrames[slot] = ControlFrame.NONE;
+            return false;
+        }
+
+        long last = lastFrames[slot];
+        int scale = deadbandScale;
+        // 强度降到0（停止输出）不受死区、放大倍数和保活间隔限制，总是立即发送
+        boolean stopping = ControlFrame.intensity(frame) == Constants.INTENSITY_MIN
+                && (!ControlFrame.isPresent(last) || ControlFrame.intensity(last) != Constants.INTENSITY_MIN);
+        if (!stopping && ControlFrame.isPresent(last)
+                && Math.abs(ControlFrame.intensity(frame) - ControlFrame.intensity(last)) < intensityDeadband * scale
+                && Math.abs(ControlFrame.frequency(frame) - ControlFrame.frequency(last)) < frequencyDeadband * scale
+                && nowMs - lastSentMs[slot] < keepAliveMs) {
+            suppressedCount++;
+            return false;
+        }
+
+        sink.sendPulseCommand(channel, ControlFrame.frequency(frame), ControlFrame.intensity(frame));
+        lastFrames[slot] = frame;
+        lastSentMs[slot] = nowMs;
+        sentCount++;
+        return true;
+    }
+
+    private int slotFor(String channel) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].equals(channel)) {
+                return i;
+            }
+        }
+
+        int slot = channels.length;
+        String[] newChannels = new String[slot + 1];
+        long[] newFrames = new long[slot + 1];
+        long[] newSentMs = new long[slot + 1];
+        System.arraycopy(channels, 0, newChannels, 0, slot);
+        System.arraycopy(lastFrames, 0, newFrames, 0, slot);
+        System.arraycopy(lastSentMs, 0, newSentMs, 0, slot);
+        newChannels[slot] = channel;
+        newFrames[slot] = ControlFrame.NONE;
+        channels = newChannels;
+        lastFrames = newFrames;
+        lastSentMs = newSentMs;
+        return slot;
+    }
+
+    /**
+     * 清空最后发送的帧
+     * 连接重新建立后调用，保证设备马上收到当前状态
+     */
+    public void invalidate() {
+        for (int i = 0; i < lastFrames.length; i++) {
+            lastFrames[i] = ControlFrame.NONE;
+        }
+        Log.d(TAG, "Last sent frames invalidated");
+    }
+
+    /**
+     * 设置死区
+     * @param newIntensityDeadband 强度死区
+     * @param newFrequencyDeadband 频率死区（Hz）
+     */
+    public void setDeadband(int newIntensityDeadband, int newFrequencyDeadband) {
+        if (newIntensityDeadband < 1 || newFrequencyDeadband < 1) {
+            throw new IllegalArgumentException("Deadband must be at least 1");
+        }
+        this.intensityDeadband = newIntensityDeadband;
+        this.frequencyDeadband = newFrequencyDeadband;
+    }
+
+    /**
+     * 设置死区放大倍数
+     * 链路拥塞时临时加大死区，只发送较大的变化；恢复时设回1
+     * @param scale 放大倍数
+     */
+    public void setDeadbandScale(int scale) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("Deadband scale must be at least 1");
+        }
+        this.deadbandScale = scale;
+    }
+
+    public int getDeadbandScale() {
+        return deadbandScale;
+    }
+
+    /**
+     * 设置保活间隔
+     * @param newKeepAliveMs 保活间隔（毫秒）
+     */
+    public void setKeepAliveMs(long newKeepAliveMs) {
+        if (newKeepAliveMs < 0) {
+            throw new IllegalArgumentException("Keep-alive interval must not be negative");
+        }
+        this.keepAliveMs = newKeepAliveMs;
+    }
+
+    public int getIntensityDeadband() {
+        return intensityDeadband;
+    }
+
+    public int getFrequencyDeadband() {
+        return frequencyDeadband;
+    }
+
+    /**
+     * 获取已发送的帧数
+     * @return 帧数
+     */
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * 获取被抑制的帧数
+     * @return 帧数
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    /**
+     * 获取被抑制帧的比例
+     * @return 0-1之间的比例
+     */
+    public double getSuppressionRatio() {
+        long total = sentCount + suppressedCount;
+        return total > 0 ? (double) suppressedCount / total : 0;
+    }
+
+    /**
+     * 清零统计
+     */
+    public void resetCounters() {
+        sentCount = 0;
+        suppressedCount = 0;
+    }
+}
@@ -0,0 +1,271 @@
+package com.byd.dglab.integration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SOCKET V3协议JSON命令编码器
+ * 直接将固定结构的命令写入复用的StringBuilder，不构建JsonObject树，不装箱；
+ * 输出与Gson默认设置（HTML安全转义、不输出null字段）序列化的结果逐字节一致
+ * 紧凑模式下结构相同，字段名和消息类型缩写为单个字母，供协商了紧凑子协议的服务器使用
+ * 非线程安全，每个使用线程持有自己的实例
+ */
+public class JsonCommandEncoder {
+
+    private static final String STRENGTH_PREFIX = "{\"type\":\"" + Constants.MSG_TYPE_STRENGTH + "\",\"data\":{";
+    private static final String PULSE_PREFIX = "{\"type\":\"" + Constants.MSG_TYPE_PULSE + "\",\"data\":{";
+    private static final String WAVEFORM_PREFIX = "{\"type\":\"" + Constants.MSG_TYPE_WAVEFORM + "\",\"data\":{";
+    private static final String CHANNEL_KEY = "\"channel\":\"";
+    private static final String FREQUENCY_KEY = "\"frequency\":";
+    private static final String INTENSITY_KEY = "\"intensity\":";
+    private static final String SEGMENTS_KEY = "\"segments\":[";
+    private static final String SUFFIX = "}}";
+
+    // 紧凑模式：type→t、data→d、channel→c、frequency→f、intensity→i、segments→s，消息类型取首字母
+    private static final String COMPACT_STRENGTH_PREFIX = "{\"t\":\"s\",\"d\":{";
+    private static final String COMPACT_PULSE_PREFIX = "{\"t\":\"p\",\"d\":{";
+    private static final String COMPACT_WAVEFORM_PREFIX = "{\"t\":\"w\",\"d\":{";
+    private static final String COMPACT_CHANNEL_KEY = "\"c\":\"";
+    private static final String COMPACT_FREQUENCY_KEY = "\"f\":";
+    private static final String COMPACT_INTENSITY_KEY = "\"i\":";
+    private static final String COMPACT_SEGMENTS_KEY = "\"s\":[";
+
+    // 字符转义表，与Gson JsonWriter的HTML安全模式相同，null表示原样输出
+    private static final String[] REPLACEMENT_CHARS = new String[128];
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+        }
+        REPLACEMENT_CHARS['"'] = "\\\"";
+        REPLACEMENT_CHARS['\\'] = "\\\\";
+        REPLACEMENT_CHARS['\t'] = "\\t";
+        REPLACEMENT_CHARS['\b'] = "\\b";
+        REPLACEMENT_CHARS['\n'] = "\\n";
+        REPLACEMENT_CHARS['\r'] = "\\r";
+        REPLACEMENT_CHARS['\f'] = "\\f";
+        REPLACEMENT_CHARS['<'] = "\\u003c";
+        REPLACEMENT_CHARS['>'] = "\\u003e";
+        REPLACEMENT_CHARS['&'] = "\\u0026";
+        REPLACEMENT_CHARS['='] = "\\u003d";
+        REPLACEMENT_CHARS['\''] = "\\u0027";
+    }
+
+    private final StringBuilder buffer = new StringBuilder(64);
+    private final String strengthPrefix;
+    private final String pulsePrefix;
+    private final String waveformPrefix;
+    private final String channelKey;
+    private final String frequencyKey;
+    private final String intensityKey;
+    private final String segmentsKey;
+
+    public JsonCommandEncoder() {
+        this(false);
+    }
+
+    /**
+     * @param compact 是否使用缩写的字段名
+     */
+    public JsonCommandEncoder(boolean compact) {
+        strengthPrefix = compact ? COMPACT_STRENGTH_PREFIX : STRENGTH_PREFIX;
+        pulsePrefix = compact ? COMPACT_PULSE_PREFIX : PULSE_PREFIX;
+        waveformPrefix = compact ? COMPACT_WAVEFORM_PREFIX : WAVEFORM_PREFIX;
+        channelKey = compact ? COMPACT_CHANNEL_KEY : CHANNEL_KEY;
+        frequencyKey = compact ? COMPACT_FREQUENCY_KEY : FREQUENCY_KEY;
+        intensityKey = compact ? COMPACT_INTENSITY_KEY : INTENSITY_KEY;
+        segmentsKey = compact ? COMPACT_SEGMENTS_KEY : SEGMENTS_KEY;
+    }
+
+    /**
+     * 编码强度控制命令
+     * @param channel 通道（A或B）
+     * @param intensity 强度值，调用方负责限制范围
+     * @return JSON命令字符串
+     */
+    public String encodeStrength(String channel, int intensity) {
+        buildStrength(channel, intensity);
+        return buffer.toString();
+    }
+
+    /**
+     * 编码强度控制命令到字节数组（UTF-8）
+     * @param channel 通道（A或B）
+     * @param intensity 强度值，调用方负责限制范围
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    public int encodeStrength(String channel, int intensity, byte[] out, int offset) {
+        buildStrength(channel, intensity);
+        return copyTo(out, offset);
+    }
+
+    private void buildStrength(String channel, int intensity) {
+        buffer.setLength(0);
+        buffer.append(strengthPrefix);
+        if (appendChannel(channel)) {
+            buffer.append(',');
+        }
+        buffer.append(intensityKey).append(intensity).append(SUFFIX);
+    }
+
+    /**
+     * 编码脉冲控制命令
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz），调用方负责限制范围
+     * @param intensity 强度值，调用方负责限制范围
+     * @return JSON命令字符串
+     */
+    public String encodePulse(String channel, int frequency, int intensity) {
+        buildPulse(channel, frequency, intensity);
+        return buffer.toString();
+    }
+
+    /**
+     * 编码脉冲控制命令到字节数组（UTF-8）
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz），调用方负责限制范围
+     * @param intensity 强度值，调用方负责限制范围
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    public int encodePulse(String channel, int frequency, int intensity, byte[] out, int offset) {
+        buildPulse(channel, frequency, intensity);
+        return copyTo(out, offset);
+    }
+
+    private void buildPulse(String channel, int frequency, int intensity) {
+        buffer.setLength(0);
+        buffer.append(pulsePrefix);
+        if (appendChannel(channel)) {
+            buffer.append(',');
+        }
+        buffer.append(frequencyKey).append(frequency)
+                .append(',').append(intensityKey).append(intensity)
+                .append(SUFFIX);
+    }
+
+    /**
+     * 编码波形命令
+     * @param channel 通道（A或B）
+     * @param segments 十六进制波形段
+     * @param offset 第一个波形段的位置
+     * @param count 波形段数
+     * @return JSON命令字符串
+     */
+    public String encodeWaveform(String channel, String[] segments, int offset, int count) {
+        buildWaveform(channel, segments, offset, count);
+        return buffer.toString();
+    }
+
+    /**
+     * 编码波形命令到字节数组（UTF-8）
+     * 波形段直接以大写十六进制写入，与{@link WaveformGenerator#nextSegment(int, int)}的字符串一致
+     * @param channel 通道（A或B）
+     * @param segments 波形段字节，每段{@link WaveformEncoder#SEGMENT_BYTES}字节
+     * @param segmentOffset 第一个波形段的序号
+     * @param count 波形段数
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    public int encodeWaveform(String channel, byte[] segments, int segmentOffset, int count, byte[] out, int offset) {
+        buffer.setLength(0);
+        buffer.append(waveformPrefix);
+        if (appendChannel(channel)) {
+            buffer.append(',');
+        }
+        buffer.append(segmentsKey);
+        for (int i = segmentOffset; i < segmentOffset + count; i++) {
+            if (i > segmentOffset) {
+                buffer.append(',');
+            }
+            buffer.append('"');
+            WaveformEncoder.appendHex(segments, i * WaveformEncoder.SEGMENT_BYTES, WaveformEncoder.SEGMENT_BYTES, buffer);
+            buffer.append('"');
+        }
+        buffer.append(']').append(SUFFIX);
+        return copyTo(out, offset);
+    }
+
+    private void buildWaveform(String channel, String[] segments, int offset, int count) {
+        buffer.setLength(0);
+        buffer.append(waveformPrefix);
+        if (appendChannel(channel)) {
+            buffer.append(',');
+        }
+        buffer.append(segmentsKey);
+        for (int i = offset; i < offset + count; i++) {
+            if (i > offset) {
+                buffer.append(',');
+            }
+            buffer.append('"');
+            appendEscaped(buffer, segments[i]);
+            buffer.append('"');
+        }
+        buffer.append(']').append(SUFFIX);
+    }
+
+    /**
+     * 将缓冲区内容按UTF-8写入字节数组
+     * 命令通常只包含ASCII字符，逐字符复制；含非ASCII字符（只可能来自通道）时整体编码
+     * @return 写入的字节数
+     */
+    private int copyTo(byte[] out, int offset) {
+        int length = buffer.length();
+        for (int i = 0; i < length; i++) {
+            char c = buffer.charAt(i);
+            if (c >= 0x80) {
+                byte[] utf8 = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(utf8, 0, out, offset, utf8.length);
+                return utf8.length;
+            }
+            out[offset + i] = (byte) c;
+        }
+        return length;
+    }
+
+    /**
+     * 写入通道字段
+     * 与Gson一致，通道为null时不输出该字段
+     * @return 写入了字段返回true
+     */
+    private boolean appendChannel(String channel) {
+        if (channel == null) {
+            return false;
+        }
+        buffer.append(channelKey);
+        appendEscaped(buffer, channel);
+        buffer.append('"');
+        return true;
+    }
+
+    /**
+     * 按JSON字符串规则写入转义后的内容
+     * @param out 输出
+     * @param value 原始字符串
+     */
+    static void appendEscaped(StringBuilder out, String value) {
+        int last = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c < 128) {
+                replacement = REPLACEMENT_CHARS[c];
+                if (replacement == null) {
+                    continue;
+                }
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            out.append(value, last, i).append(replacement);
+            last = i + 1;
+        }
+        out.append(value, last, length);
+    }
+}
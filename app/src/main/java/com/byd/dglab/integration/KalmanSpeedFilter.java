@@ -0,0 +1,109 @@
+package com.byd.dglab.integration;
+
+/**
+ * 一维匀速模型卡尔曼滤波器
+ * 状态为车速和车速变化率，按白噪声加加速度建模过程噪声，
+ * 用标量展开2x2矩阵运算，不产生对象分配
+ */
+public class KalmanSpeedFilter extends AbstractSpeedFilter {
+
+    // 过程噪声谱密度（(km/h)^2/s^3）和测量噪声方差（(km/h)^2）
+    private double processNoise;
+    private double measurementNoise;
+
+    private boolean initialized;
+
+    // 状态：车速（km/h）和变化率（km/h每秒）
+    private double speed;
+    private double rate;
+
+    // 协方差矩阵 [[p00, p01], [p01, p11]]
+    private double p00;
+    private double p01;
+    private double p11;
+
+    public KalmanSpeedFilter() {
+        this(Constants.KALMAN_PROCESS_NOISE, Constants.KALMAN_MEASUREMENT_NOISE);
+    }
+
+    /**
+     * @param processNoise 过程噪声谱密度，越大跟随越快
+     * @param measurementNoise 测量噪声方差，越大输出越平滑
+     */
+    public KalmanSpeedFilter(double processNoise, double measurementNoise) {
+        setNoise(processNoise, measurementNoise);
+    }
+
+    /**
+     * 修改噪声参数，保留当前状态估计
+     * @param processNoise 过程噪声谱密度
+     * @param measurementNoise 测量噪声方差
+     */
+    public void setNoise(double processNoise, double measurementNoise) {
+        if (!(processNoise > 0) || !(measurementNoise > 0)) {
+            throw new IllegalArgumentException("Kalman noise parameters must be positive");
+        }
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+    }
+
+    @Override
+    protected double apply(double speedKmH, long deltaMs) {
+        if (!initialized) {
+            initialized = true;
+            speed = speedKmH;
+            rate = 0;
+            p00 = measurementNoise;
+            p01 = 0;
+            p11 = measurementNoise;
+            return speed;
+        }
+        if (Double.isNaN(speedKmH)) {
+            return speed;
+        }
+
+        // 预测
+        double dt = Math.max(deltaMs, 0) / 1000.0;
+        speed += rate * dt;
+        double dt2 = dt * dt;
+        double q = processNoise;
+        double n00 = p00 + 2 * dt * p01 + dt2 * p11 + q * dt2 * dt / 3;
+        double n01 = p01 + dt * p11 + q * dt2 / 2;
+        double n11 = p11 + q * dt;
+
+        // 更新
+        double innovation = speedKmH - speed;
+        double s = n00 + measurementNoise;
+        double k0 = n00 / s;
+        double k1 = n01 / s;
+        speed += k0 * innovation;
+        rate += k1 * innovation;
+        p00 = (1 - k0) * n00;
+        p01 = (1 - k0) * n01;
+        p11 = n11 - k1 * n01;
+        return speed;
+    }
+
+    /**
+     * 获取估计的车速变化率
+     * @return 变化率（km/h每秒）
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    @Override
+    protected void resetState() {
+        initialized = false;
+        speed = 0;
+        rate = 0;
+        p00 = 0;
+        p01 = 0;
+        p11 = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "Kalman(q=" + processNoise + ", r=" + measurementNoise + ")";
+    }
+}
@@ -3,7 +3,13 @@ package com.byd.dglab.integration;
 import android.Manifest;
 import android.content.pm.PackageManager;
 import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
 import android.os.Bundle;
+import android.os.FileObserver;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -17,6 +23,9 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import com.google.zxing.integration.android.IntentIntegrator;
 import com.google.zxing.integration.android.IntentResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 主活动类
@@ -47,8 +56,20 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
 
     // 服务组件
     private SpeedDataService speedDataService;
-    private WebSocketService webSocketService;
+    // 主线程上替换，发送线程上读取
+    private volatile WebSocketService webSocketService;
     private SpeedToControlConverter converter;
+    private FrameEmitter frameEmitter;
+    private CommandCache commandCache;
+    private FileObserver profileObserver;
+    private ConnectivityManager.NetworkCallback networkCallback;
+
+    // 采样、转换和发送所在的线程，界面卡顿不影响命令发送
+    private HandlerThread ioThread;
+    private Handler ioHandler;
+
+    // 等待主线程显示的最新状态，主线程处理前的多次更新只显示最后一次
+    private final AtomicReference<DisplayUpdate> pendingDisplay = new AtomicReference<>();
 
     // 权限请求码
     private static final int PERMISSION_REQUEST_CODE = 100;
@@ -56,6 +77,7 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
     private static final int BYD_PERMISSION_REQUEST_CODE = 102;
     private static final String PREFS_NAME = "WebSocketConfig";
     private static final String KEY_SERVER_URL = "server_url";
+    private static final String KEY_ACTIVE_ENDPOINT = "active_endpoint";
     private static final String KEY_DISCLAIMER_SHOWN = "disclaimer_shown";
 
     // BYD车机权限列表 - 根据文档，只有这些类需要申请动态权限
@@ -189,17 +211,35 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
      */
     private void initializeServices() {
         try {
-            // 创建转换器
+            // 启动发送线程
+            ioThread = new HandlerThread(Constants.IO_THREAD_NAME, Constants.IO_THREAD_PRIORITY);
+            ioThread.start();
+            ioHandler = new Handler(ioThread.getLooper());
+
+            // 创建转换器和控制帧发送器
             converter = new SpeedToControlConverter();
+            frameEmitter = new FrameEmitter();
+
+            // 加载转换配置（配置文件优先，其次SharedPreferences，无效时使用内置配置）
+            converter.setProfile(ConversionProfileLoader.load(
+                    new java.io.File(getFilesDir(), Constants.PROFILE_FILE_NAME), sharedPreferences));
+            startProfileObserver();
+
+            // 命令缓存按当前配置在后台预填充，在多个WebSocket连接之间共享
+            commandCache = new CommandCache();
+            commandCache.startPrefill(converter.getProfile());
 
             // 获取当前配置的WebSocket地址
             String serverUrl = sharedPreferences.getString(KEY_SERVER_URL, Constants.SOCKET_SERVER_URL);
 
-            // 创建车速数据服务
-            speedDataService = new SpeedDataService(this, this);
+            // 创建车速数据服务，车速直接回调到发送线程
+            speedDataService = new SpeedDataService(this, this, ioThread.getLooper());
 
-            // 创建WebSocket服务（使用配置的地址）
-            webSocketService = new WebSocketService(this, serverUrl);
+            // 创建WebSocket服务（使用配置的地址，可以是逗号分隔的多个地址）
+            webSocketService = createWebSocketService(parseServerUrls(serverUrl));
+
+            // 网络恢复时立即重连
+            registerNetworkCallback();
 
             // 初始化数据源选择
             initializeDataSourceSelection();
@@ -212,6 +252,54 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
         }
     }
 
+    /**
+     * 监听默认网络
+     * 网络恢复时通知WebSocket服务跳过退避等待立即重连
+     */
+    private void registerNetworkCallback() {
+        try {
+            ConnectivityManager connectivityManager = (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
+            networkCallback = new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    Log.d(TAG, "Network available: " + network);
+                    WebSocketService service = webSocketService;
+                    if (service != null) {
+                        service.onNetworkAvailable();
+                    }
+                }
+            };
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        } catch (Exception e) {
+            networkCallback = null;
+            Log.e(TAG, "Error registering network callback", e);
+        }
+    }
+
+    /**
+     * 监听配置文件变化
+     * 文件写入完成后重新编译并发布到转换器，采样不中断，滤波状态保持不变
+     */
+    private void startProfileObserver() {
+        java.io.File profileFile = new java.io.File(getFilesDir(), Constants.PROFILE_FILE_NAME);
+        profileObserver = new FileObserver(getFilesDir().getPath(),
+                FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO) {
+            @Override
+            public void onEvent(int event, String path) {
+                if (Constants.PROFILE_FILE_NAME.equals(path)) {
+                    ConversionProfile profile = ConversionProfileLoader.loadFromFile(profileFile);
+                    converter.setProfile(profile);
+                    CommandCache cache = commandCache;
+                    if (cache != null) {
+                        cache.startPrefill(profile);
+                    }
+                    runOnUiThread(() -> addLogEntry("转换配置已更新: " + profile.getName()));
+                }
+            }
+        };
+        profileObserver.startWatching();
+    }
+
     /**
      * 初始化数据源选择UI和事件监听
      */
@@ -369,10 +457,18 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
             return;
         }
 
-        // 验证URL格式
-        if (!isValidWebSocketUrl(url)) {
-            Toast.makeText(this, "无效的WebSocket地址格式", Toast.LENGTH_SHORT).show();
-            addLogEntry("错误：无效的WebSocket地址 - " + url);
+        // 验证URL格式，多个地址用逗号分隔
+        List<String> urls = parseServerUrls(url);
+        for (String endpoint : urls) {
+            if (!isValidWebSocketUrl(endpoint)) {
+                Toast.makeText(this, "无效的WebSocket地址格式", Toast.LENGTH_SHORT).show();
+                addLogEntry("错误：无效的WebSocket地址 - " + endpoint);
+                return;
+            }
+        }
+        if (urls.isEmpty()) {
+            Toast.makeText(this, "请输入WebSocket地址", Toast.LENGTH_SHORT).show();
+            addLogEntry("错误：WebSocket地址为空");
             return;
         }
 
@@ -383,10 +479,9 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
 
         // 重新初始化WebSocket服务
         try {
-            if (webSocketService.isConnected()) {
-                webSocketService.disconnect();
-            }
-            webSocketService = new WebSocketService(this, url);
+            // 旧服务可能正在等待重连，直接释放
+            webSocketService.release();
+            webSocketService = createWebSocketService(urls);
             Toast.makeText(this, "WebSocket地址已更新", Toast.LENGTH_SHORT).show();
             addLogEntry("WebSocket地址已保存并更新: " + url);
         } catch (Exception e) {
@@ -395,6 +490,33 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
         }
     }
 
+    /**
+     * 创建WebSocket服务，优先连接上次连上的地址
+     */
+    private WebSocketService createWebSocketService(List<String> urls) {
+        WebSocketService service = new WebSocketService(this, urls, ioThread.getLooper());
+        service.setCommandCache(commandCache);
+        String lastEndpoint = sharedPreferences.getString(KEY_ACTIVE_ENDPOINT, null);
+        if (lastEndpoint != null) {
+            service.setPreferredEndpoint(lastEndpoint);
+        }
+        return service;
+    }
+
+    /**
+     * 拆分逗号分隔的WebSocket地址，忽略空项
+     */
+    private static List<String> parseServerUrls(String text) {
+        List<String> urls = new ArrayList<>();
+        for (String part : text.split(Constants.SERVER_URL_SEPARATOR)) {
+            String url = part.trim();
+            if (!url.isEmpty()) {
+                urls.add(url);
+            }
+        }
+        return urls;
+    }
+
     /**
      * 验证WebSocket地址格式
      */
@@ -414,32 +536,140 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
 
     /**
      * 车速变化回调
+     * 在发送线程上执行：转换和发送不经过主线程，界面只接收合并后的显示更新
      */
     @Override
     public void onSpeedChanged(double speedKmH) {
-        runOnUiThread(() -> {
-            // 更新UI显示
-            speedTextView.setText(String.format("%.1f", speedKmH));
+        // 转换为各通道的控制参数（共用一次平滑计算）
+        ChannelFrames frames = converter.convertChannels(speedKmH);
+
+        // 发送控制命令（已连接或正在重连），没有变化的帧被抑制；链路拥塞时按策略加大死区。
+        // 重连期间也要放入邮箱，否则连上后只能发送断开前的旧帧
+        WebSocketService service = webSocketService;
+        frameEmitter.setDeadbandScale(service.shouldCoarsenDeadband() ? Constants.BACKPRESSURE_DEADBAND_SCALE : 1);
+        if (service.isAcceptingCommands()) {
+            frameEmitter.emit(frames, SystemClock.elapsedRealtime(), service);
+        }
 
-            // 转换为控制参数
-            int intensity = converter.convertSpeedToIntensity(speedKmH);
-            int frequency = converter.convertSpeedToFrequency(speedKmH);
+        // 界面显示第一个启用通道的参数
+        int intensity = Constants.INTENSITY_MIN;
+        int frequency = Constants.FREQUENCY_MIN;
+        for (int i = 0; i < frames.size(); i++) {
+            long frame = frames.getFrame(i);
+            if (ControlFrame.isPresent(frame)) {
+                intensity = ControlFrame.intensity(frame);
+                frequency = ControlFrame.frequency(frame);
+                break;
+            }
+        }
 
-            intensityTextView.setText(String.valueOf(intensity));
-            frequencyTextView.setText(String.valueOf(frequency));
+        // 只在发送线程上读取统计数值，格式化留给主线程
+        DisplayUpdate update = new DisplayUpdate(speedKmH, intensity, frequency);
+        update.fromByd = speedDataService.isSpeedFromBYD();
+        update.sentCount = frameEmitter.getSentCount();
+        update.suppressedCount = frameEmitter.getSuppressedCount();
+        update.coalescedCount = service.getPulseMailbox().getCoalescedCount();
+
+        // 波形调度模式下显示设备端队列深度和欠载次数
+        WaveformScheduler scheduler = service.getWaveformScheduler();
+        if (scheduler.isRunning()) {
+            update.waveformRunning = true;
+            update.queueDepthMs = scheduler.getQueueDepthMs(frames.size() > 0 ? frames.getChannel(0) : Constants.CHANNEL_A);
+            update.underrunCount = scheduler.getUnderrunCount();
+        }
 
-            // 发送控制命令（如果已连接）
-            if (webSocketService.isConnected()) {
-                webSocketService.sendPulseCommand(Constants.CHANNEL_A, frequency, intensity);
-                webSocketService.sendPulseCommand(Constants.CHANNEL_B, frequency, intensity);
-            }
+        // 显示平滑往返时延
+        RttEstimator rtt = service.getRttEstimator();
+        if (service.isConnected() && rtt.hasSamples()) {
+            update.hasRtt = true;
+            update.smoothedRttMs = rtt.getSmoothedRttMs();
+            update.rttVarianceMs = rtt.getRttVarianceMs();
+        }
 
-            // 获取当前数据源
-            String dataSource = speedDataService.isSpeedFromBYD() ? "BYD" : "GPS";
+        // 链路拥塞时显示发送队列长度，区分网络卡顿和设备问题
+        BackpressureMonitor backpressure = service.getBackpressureMonitor();
+        if (backpressure.isCongested()) {
+            update.congested = true;
+            update.queuedFrames = backpressure.getQueuedFrames();
+            update.droppedCount = backpressure.getDroppedCount();
+            update.deferredCount = backpressure.getDeferredCount();
+        }
 
-            addLogEntry(String.format("车速更新: %.1f km/h (来自%s) -> 强度:%d, 频率:%d Hz",
-                    speedKmH, dataSource, intensity, frequency));
-        });
+        publishDisplay(update);
+    }
+
+    /**
+     * 发布显示状态
+     * 主线程还没有处理上一次更新时只替换内容，不再投递新的任务
+     */
+    private void publishDisplay(DisplayUpdate update) {
+        if (pendingDisplay.getAndSet(update) == null) {
+            runOnUiThread(this::applyDisplayUpdate);
+        }
+    }
+
+    /**
+     * 在主线程上显示最新状态
+     */
+    private void applyDisplayUpdate() {
+        DisplayUpdate update = pendingDisplay.getAndSet(null);
+        if (update == null) {
+            return;
+        }
+        speedTextView.setText(String.format("%.1f", update.speedKmH));
+        intensityTextView.setText(String.valueOf(update.intensity));
+        frequencyTextView.setText(String.valueOf(update.frequency));
+        addLogEntry(formatLogEntry(update));
+    }
+
+    /**
+     * 生成车速更新的日志内容，在主线程上执行
+     */
+    private static String formatLogEntry(DisplayUpdate update) {
+        StringBuilder entry = new StringBuilder(String.format("车速更新: %.1f km/h (来自%s) -> 强度:%d, 频率:%d Hz (已发送%d, 已抑制%d, 已合并%d)",
+                update.speedKmH, update.fromByd ? "BYD" : "GPS", update.intensity, update.frequency,
+                update.sentCount, update.suppressedCount, update.coalescedCount));
+        if (update.waveformRunning) {
+            entry.append(String.format(" 波形队列:%d ms, 欠载%d", update.queueDepthMs, update.underrunCount));
+        }
+        if (update.hasRtt) {
+            entry.append(String.format(" RTT:%.0f±%.0f ms", update.smoothedRttMs, update.rttVarianceMs));
+        }
+        if (update.congested) {
+            entry.append(String.format(" 网络拥塞:队列%d帧, 丢弃%d, 推迟%d",
+                    update.queuedFrames, update.droppedCount, update.deferredCount));
+        }
+        return entry.toString();
+    }
+
+    /**
+     * 一次车速更新的显示内容
+     * 发送线程只填入数值，日志文字在主线程上生成
+     */
+    private static final class DisplayUpdate {
+        final double speedKmH;
+        final int intensity;
+        final int frequency;
+        boolean fromByd;
+        long sentCount;
+        long suppressedCount;
+        long coalescedCount;
+        boolean waveformRunning;
+        long queueDepthMs;
+        long underrunCount;
+        boolean hasRtt;
+        double smoothedRttMs;
+        double rttVarianceMs;
+        boolean congested;
+        int queuedFrames;
+        long droppedCount;
+        long deferredCount;
+
+        DisplayUpdate(double speedKmH, int intensity, int frequency) {
+            this.speedKmH = speedKmH;
+            this.intensity = intensity;
+            this.frequency = frequency;
+        }
     }
 
 
@@ -461,15 +691,35 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
         runOnUiThread(() -> {
             if ("connection".equals(responseType)) {
                 if ("opened".equals(responseData)) {
+                    // 新连接上立即发送当前状态，发送器只在发送线程上访问
+                    ioHandler.post(frameEmitter::invalidate);
                     updateStatus("已连接");
                     connectButton.setEnabled(false);
                     disconnectButton.setEnabled(true);
-                    addLogEntry("成功连接到DG-LAB服务器");
+                    String endpoint = webSocketService.getActiveEndpoint();
+                    addLogEntry("成功连接到DG-LAB服务器 " + endpoint + " (连接耗时" + webSocketService.getLastConnectMs()
+                            + " ms, 切换" + webSocketService.getFailoverCount() + "次, 格式" + webSocketService.getProtocol()
+                            + (webSocketService.isCompressionActive() ? ", 已压缩)" : ")"));
+                    // 记住连上的地址，下次启动时最先尝试
+                    if (endpoint != null) {
+                        sharedPreferences.edit().putString(KEY_ACTIVE_ENDPOINT, endpoint).apply();
+                    }
+                } else if ("dead".equals(responseData)) {
+                    addLogEntry("连接无响应，已断开: RTT " + webSocketService.getRttEstimator().getStats());
                 } else if ("closed".equals(responseData)) {
                     updateStatus("未连接");
                     connectButton.setEnabled(true);
                     disconnectButton.setEnabled(false);
-                    addLogEntry("连接已断开");
+                    addLogEntry("连接已断开: " + webSocketService.getWireStats());
+                }
+            } else if (WebSocketService.RESPONSE_CONGESTION.equals(responseType)) {
+                BackpressureMonitor backpressure = webSocketService.getBackpressureMonitor();
+                if (WebSocketService.CONGESTION_CONGESTED.equals(responseData)) {
+                    addLogEntry("网络拥塞: " + backpressure.getStats(SystemClock.uptimeMillis()));
+                } else {
+                    // 拥塞期间可能丢弃了控制帧，恢复后立即发送当前状态
+                    ioHandler.post(frameEmitter::invalidate);
+                    addLogEntry("网络恢复: " + backpressure.getStats(SystemClock.uptimeMillis()));
                 }
             } else {
                 addLogEntry("收到响应: " + responseType);
@@ -599,11 +849,29 @@ public class MainActivity extends AppCompatActivity implements SpeedChangeListen
         super.onDestroy();
 
         // 停止服务
+        if (profileObserver != null) {
+            profileObserver.stopWatching();
+        }
         if (speedDataService != null) {
             speedDataService.stop();
         }
+        if (networkCallback != null) {
+            try {
+                ((ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE)).unregisterNetworkCallback(networkCallback);
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering network callback", e);
+            }
+        }
         if (webSocketService != null) {
-            webSocketService.disconnect();
+            webSocketService.release();
+        }
+        if (ioThread != null) {
+            // 先处理完已投递的断开连接任务再退出
+            ioThread.quitSafely();
+        }
+        if (commandCache != null) {
+            commandCache.stopPrefill();
+            Log.d(TAG, "Command cache: " + commandCache.getStats());
         }
 
         Log.d(TAG, "MainActivity destroyed");
@@ -0,0 +1,76 @@
+package com.byd.dglab.integration;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.protocols.IProtocol;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 统计发送字节数的WebSocket协议草案
+ * 在压缩扩展处理之后、写入网络之前累计每个发出帧的大小（含帧头和掩码），即实际上线的字节数；
+ * WebSocket库为每个连接复制一份草案保存协商结果，复制出的实例与原实例共用计数
+ *
+ * 帧可能在发送线程或WebSocket读线程（pong、关闭帧）上创建，计数可以从任意线程读取
+ */
+public class MeteredDraft extends Draft_6455 {
+
+    private final AtomicLong wireBytes;
+    private final AtomicLong frameCount;
+
+    /**
+     * @param extensions 握手时提供的扩展
+     * @param protocols 握手时提供的子协议，需包含空子协议才能接受不选择子协议的服务器
+     */
+    public MeteredDraft(List<IExtension> extensions, List<IProtocol> protocols) {
+        this(extensions, protocols, new AtomicLong(), new AtomicLong());
+    }
+
+    private MeteredDraft(List<IExtension> extensions, List<IProtocol> protocols,
+                         AtomicLong wireBytes, AtomicLong frameCount) {
+        super(extensions, protocols);
+        this.wireBytes = wireBytes;
+        this.frameCount = frameCount;
+    }
+
+    @Override
+    public ByteBuffer createBinaryFrame(Framedata framedata) {
+        ByteBuffer frame = super.createBinaryFrame(framedata);
+        wireBytes.addAndGet(frame.remaining());
+        frameCount.incrementAndGet();
+        return frame;
+    }
+
+    @Override
+    public Draft copyInstance() {
+        List<IExtension> extensions = new ArrayList<>();
+        for (IExtension extension : getKnownExtensions()) {
+            extensions.add(extension.copyInstance());
+        }
+        List<IProtocol> protocols = new ArrayList<>();
+        for (IProtocol protocol : getKnownProtocols()) {
+            protocols.add(protocol.copyInstance());
+        }
+        return new MeteredDraft(extensions, protocols, wireBytes, frameCount);
+    }
+
+    /**
+     * 获取已发出的字节数
+     * @return 字节数
+     */
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    /**
+     * 获取已发出的帧数，包括ping、pong和关闭帧
+     * @return 帧数
+     */
+    public long getFrameCount() {
+        return frameCount.get();
+    }
+}
@@ -0,0 +1,87 @@
+package com.byd.dglab.integration;
+
+/**
+ * 加减速调制参数
+ * 不可变，根据加速度对强度追加增强或减弱量，并在急刹车时输出一个短时脉冲，
+ * 作为转换器快照的一部分发布；默认关闭
+ */
+public final class ModulationConfig {
+
+    /** 关闭调制 */
+    public static final ModulationConfig DISABLED = new ModulationConfig(0, 0, 0, 0, 0, 0, 0);
+
+    private final double accelerationGain;
+    private final double decelerationGain;
+    private final double deadband;
+    private final int maxAdjustment;
+    private final double brakeThreshold;
+    private final int brakePulseIntensity;
+    private final long brakePulseDurationMs;
+
+    /**
+     * @param accelerationGain 加速时每m/s²（超出死区部分）增加的强度
+     * @param decelerationGain 减速时每m/s²（超出死区部分）增加的强度，为负时减弱输出
+     * @param deadband 加速度死区（m/s²）
+     * @param maxAdjustment 加减速调整量的绝对值上限
+     * @param brakeThreshold 触发急刹车脉冲的减速度（m/s²，正数），0表示不触发
+     * @param brakePulseIntensity 急刹车脉冲增加的强度
+     * @param brakePulseDurationMs 急刹车脉冲持续时间（毫秒）
+     */
+    public ModulationConfig(double accelerationGain, double decelerationGain, double deadband, int maxAdjustment,
+                            double brakeThreshold, int brakePulseIntensity, long brakePulseDurationMs) {
+        if (!isFinite(accelerationGain) || !isFinite(decelerationGain) || !(deadband >= 0) || maxAdjustment < 0
+                || !(brakeThreshold >= 0) || brakePulseDurationMs < 0) {
+            throw new IllegalArgumentException("Invalid modulation parameters");
+        }
+        this.accelerationGain = accelerationGain;
+        this.decelerationGain = decelerationGain;
+        this.deadband = deadband;
+        this.maxAdjustment = maxAdjustment;
+        this.brakeThreshold = brakeThreshold;
+        this.brakePulseIntensity = brakePulseIntensity;
+        this.brakePulseDurationMs = brakePulseDurationMs;
+    }
+
+    private static boolean isFinite(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+
+    /**
+     * 是否启用
+     * @return 任一调制项生效时返回true
+     */
+    public boolean isEnabled() {
+        return (maxAdjustment > 0 && (accelerationGain != 0 || decelerationGain != 0))
+                || (brakeThreshold > 0 && brakePulseIntensity != 0 && brakePulseDurationMs > 0);
+    }
+
+    /**
+     * 计算加减速调整量（不含急刹车脉冲）
+     * @param acceleration 加速度（m/s²）
+     * @return 强度调整量
+     */
+    int adjustmentFor(double acceleration) {
+        double adjustment;
+        if (acceleration > deadband) {
+            adjustment = accelerationGain * (acceleration - deadband);
+        } else if (acceleration < -deadband) {
+            adjustment = decelerationGain * (-deadband - acceleration);
+        } else {
+            return 0;
+        }
+        adjustment = Math.max(-maxAdjustment, Math.min(maxAdjustment, adjustment));
+        return (int) Math.round(adjustment);
+    }
+
+    public double getBrakeThreshold() {
+        return brakeThreshold;
+    }
+
+    public int getBrakePulseIntensity() {
+        return brakePulseIntensity;
+    }
+
+    public long getBrakePulseDurationMs() {
+        return brakePulseDurationMs;
+    }
+}
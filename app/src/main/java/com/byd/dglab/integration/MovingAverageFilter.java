@@ -0,0 +1,123 @@
+package com.byd.dglab.integration;
+
+/**
+ * 移动平均滤波器
+ * 使用double环形缓冲区和累加和实现，每次更新O(1)且不产生对象分配
+ * 对均匀采样的匀变速输入，延迟约为(窗口大小-1)/2个采样间隔
+ */
+public class MovingAverageFilter extends AbstractSpeedFilter {
+
+    // 环形缓冲区，容量不小于窗口大小
+    private double[] window;
+    private int windowSize;
+
+    // 下一个写入位置和当前有效采样数
+    private int head;
+    private int count;
+
+    // 窗口内采样的累加和
+    private double sum;
+
+    public MovingAverageFilter() {
+        this(Constants.SMOOTHING_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize 窗口大小（采样数）
+     */
+    public MovingAverageFilter(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.window = new double[windowSize];
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    protected double apply(double value, long deltaMs) {
+        if (count == windowSize) {
+            sum -= window[head];
+        } else {
+            count++;
+        }
+        window[head] = value;
+        sum += value;
+
+        head++;
+        if (head == windowSize) {
+            head = 0;
+            // 每绕回一圈重新求和一次，消除增减累加带来的浮点误差
+            if (count == windowSize) {
+                resum();
+            }
+        }
+        return sum / count;
+    }
+
+    /**
+     * 修改窗口大小
+     * 保留最新的采样，不会丢失平滑历史
+     * @param newSize 新的窗口大小（采样数）
+     */
+    public void setWindowSize(int newSize) {
+        if (newSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + newSize);
+        }
+        if (newSize == windowSize) {
+            return;
+        }
+
+        // 按从旧到新的顺序取出最新的采样
+        int keep = Math.min(count, newSize);
+        double[] resized = new double[Math.max(newSize, window.length)];
+        for (int i = 0; i < keep; i++) {
+            int index = head - keep + i;
+            if (index < 0) {
+                index += windowSize;
+            }
+            resized[i] = window[index];
+        }
+
+        window = resized;
+        windowSize = newSize;
+        count = keep;
+        head = keep == newSize ? 0 : keep;
+        resum();
+    }
+
+    /**
+     * 获取窗口大小
+     * @return 窗口大小（采样数）
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * 获取当前窗口内的采样数
+     * @return 采样数
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return "MovingAverage(" + windowSize + ")";
+    }
+
+    @Override
+    protected void resetState() {
+        head = 0;
+        count = 0;
+        sum = 0;
+    }
+
+    private void resum() {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += window[i];
+        }
+        sum = total;
+    }
+}
@@ -0,0 +1,86 @@
+package com.byd.dglab.integration;
+
+/**
+ * One-Euro滤波器
+ * 截止频率随车速变化率自适应：匀速时截止频率低、输出平稳，加减速时截止频率升高、延迟减小
+ * 参见 Casiez et al., "1€ Filter", CHI 2012
+ */
+public class OneEuroFilter extends AbstractSpeedFilter {
+
+    private double minCutoffHz;
+    private double beta;
+    private double derivativeCutoffHz;
+
+    private boolean initialized;
+    private double value;
+    private double derivative;
+
+    public OneEuroFilter() {
+        this(Constants.ONE_EURO_MIN_CUTOFF_HZ, Constants.ONE_EURO_BETA, Constants.ONE_EURO_DERIVATIVE_CUTOFF_HZ);
+    }
+
+    /**
+     * @param minCutoffHz 最小截止频率（Hz），越小匀速时越平稳
+     * @param beta 截止频率随变化率（km/h每秒）增加的系数，越大加减速时延迟越小
+     * @param derivativeCutoffHz 变化率估计的截止频率（Hz）
+     */
+    public OneEuroFilter(double minCutoffHz, double beta, double derivativeCutoffHz) {
+        setParameters(minCutoffHz, beta, derivativeCutoffHz);
+    }
+
+    /**
+     * 修改滤波参数，保留当前滤波状态
+     * @param minCutoffHz 最小截止频率（Hz）
+     * @param beta 截止频率随变化率增加的系数
+     * @param derivativeCutoffHz 变化率估计的截止频率（Hz）
+     */
+    public void setParameters(double minCutoffHz, double beta, double derivativeCutoffHz) {
+        if (!(minCutoffHz > 0) || !(derivativeCutoffHz > 0) || !(beta >= 0)) {
+            throw new IllegalArgumentException("Invalid One-Euro parameters");
+        }
+        this.minCutoffHz = minCutoffHz;
+        this.beta = beta;
+        this.derivativeCutoffHz = derivativeCutoffHz;
+    }
+
+    @Override
+    protected double apply(double speedKmH, long deltaMs) {
+        if (!initialized) {
+            initialized = true;
+            value = speedKmH;
+            derivative = 0;
+            return value;
+        }
+        if (deltaMs <= 0) {
+            return value;
+        }
+
+        double deltaSeconds = deltaMs / 1000.0;
+
+        // 平滑变化率
+        double rawDerivative = (speedKmH - value) / deltaSeconds;
+        derivative += smoothingFactor(deltaSeconds, derivativeCutoffHz) * (rawDerivative - derivative);
+
+        // 按变化率调整截止频率
+        double cutoffHz = minCutoffHz + beta * Math.abs(derivative);
+        value += smoothingFactor(deltaSeconds, cutoffHz) * (speedKmH - value);
+        return value;
+    }
+
+    private static double smoothingFactor(double deltaSeconds, double cutoffHz) {
+        double tau = 1.0 / (2 * Math.PI * cutoffHz);
+        return 1.0 / (1.0 + tau / deltaSeconds);
+    }
+
+    @Override
+    protected void resetState() {
+        initialized = false;
+        value = 0;
+        derivative = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "OneEuro(" + minCutoffHz + "Hz, " + beta + ")";
+    }
+}
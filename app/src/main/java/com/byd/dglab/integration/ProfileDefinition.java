@@ -0,0 +1,48 @@
+package com.byd.dglab.integration;
+
+/**
+ * 转换配置定义
+ * 对应配置JSON的顶层结构，由Gson解析
+ *
+ * JSON格式示例：
+ * {"name":"comfort",
+ *  "intensity":{"type":"linear","points":[[0,0],[60,100],[120,160]]},
+ *  "frequency":{"type":"exponential","shape":1.5,"points":[[0,10],[120,150]]},
+ *  "filter":{"type":"oneEuro","minCutoffHz":0.3,"beta":0.05}}
+ */
+public class ProfileDefinition {
+
+    private String name;
+    private ConversionCurve intensity;
+    private ConversionCurve frequency;
+    private FilterConfig filter;
+
+    public ProfileDefinition() {
+    }
+
+    public ProfileDefinition(String name, ConversionCurve intensity, ConversionCurve frequency) {
+        this.name = name;
+        this.intensity = intensity;
+        this.frequency = frequency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ConversionCurve getIntensity() {
+        return intensity;
+    }
+
+    public ConversionCurve getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * 获取滤波器参数
+     * @return 滤波器参数，未定义时为null（沿用当前滤波器）
+     */
+    public FilterConfig getFilter() {
+        return filter;
+    }
+}
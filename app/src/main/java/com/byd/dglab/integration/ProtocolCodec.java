@@ -0,0 +1,47 @@
+package com.byd.dglab.integration;
+
+/**
+ * 控制命令编码接口
+ * 每种线上格式一个实现，命令直接写入调用方提供的字节数组，编码过程不产生中间字符串
+ * 调用方负责将数值限制在有效范围内；实现不要求线程安全，每个连接使用自己的实例
+ */
+public interface ProtocolCodec {
+    /**
+     * 获取格式名称
+     * @return 名称，见{@link ProtocolCodecs}
+     */
+    String getName();
+
+    /**
+     * 是否使用二进制帧
+     * @return 二进制帧返回true，文本帧（UTF-8）返回false
+     */
+    boolean isBinary();
+
+    /**
+     * 是否支持波形命令
+     * @return 支持时返回true，编码器同时实现{@link WaveformCodec}
+     */
+    boolean supportsWaveform();
+
+    /**
+     * 编码强度控制命令
+     * @param channel 通道（A或B）
+     * @param intensity 强度值（0-200）
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    int encodeStrength(String channel, int intensity, byte[] out, int offset);
+
+    /**
+     * 编码脉冲控制命令
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值（0-200）
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    int encodePulse(String channel, int frequency, int intensity, byte[] out, int offset);
+}
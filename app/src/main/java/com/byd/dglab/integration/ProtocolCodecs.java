@@ -0,0 +1,42 @@
+package com.byd.dglab.integration;
+
+/**
+ * 控制命令编码格式
+ */
+public final class ProtocolCodecs {
+
+    /** SOCKET V3 JSON格式 */
+    public static final String V3_JSON = "v3";
+
+    /** SOCKET V3紧凑JSON格式，字段名缩写 */
+    public static final String V3_COMPACT = "v3-compact";
+
+    /** V2蓝牙风格B0/BF文本格式 */
+    public static final String V2_BLUETOOTH = "v2";
+
+    /** 紧凑二进制格式 */
+    public static final String BINARY = "binary";
+
+    private ProtocolCodecs() {
+    }
+
+    /**
+     * 创建编码器
+     * @param name 格式名称
+     * @param commandCache 脉冲命令缓存，只有V3 JSON格式使用，可以为null
+     * @return 编码器
+     * @throws IllegalArgumentException 格式名称未知时抛出
+     */
+    public static ProtocolCodec create(String name, CommandCache commandCache) {
+        if (V3_JSON.equals(name)) {
+            return new V3JsonCodec(commandCache);
+        } else if (V3_COMPACT.equals(name)) {
+            return new CompactJsonCodec();
+        } else if (V2_BLUETOOTH.equals(name)) {
+            return new BluetoothTextCodec();
+        } else if (BINARY.equals(name)) {
+            return new BinaryProtocolCodec();
+        }
+        throw new IllegalArgumentException("Unknown protocol: " + name);
+    }
+}
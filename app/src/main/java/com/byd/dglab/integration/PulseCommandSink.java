@@ -0,0 +1,14 @@
+package com.byd.dglab.integration;
+
+/**
+ * 脉冲命令接收方接口
+ */
+public interface PulseCommandSink {
+    /**
+     * 发送脉冲控制命令
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值（0-200）
+     */
+    void sendPulseCommand(String channel, int frequency, int intensity);
+}
@@ -0,0 +1,169 @@
+package com.byd.dglab.integration;
+
+import android.os.Handler;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 脉冲命令邮箱
+ * 每个通道只保留一个待发送的控制帧：生产者用原子交换覆盖，发送线程只取出最新的帧。
+ * 发送线程忙或连接变慢时，多次更新合并为一次发送，设备不会播放过时的强度，内存占用固定
+ *
+ * 生产者可以在任意线程上调用{@link #offer}，无锁、不分配对象（新通道首次出现时除外）；
+ * 目标接收方只在构造时传入的Handler线程上调用
+ */
+public class PulseMailbox {
+
+    private final Handler handler;
+    private final PulseCommandSink target;
+
+    // 通道槽位，新通道出现时整体替换数组
+    private volatile Slot[] slots = new Slot[0];
+
+    // 统计
+    private final AtomicLong offeredCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * @param handler 发送线程的Handler
+     * @param target 取出的控制帧交给该接收方发送
+     */
+    public PulseMailbox(Handler handler, PulseCommandSink target) {
+        this.handler = handler;
+        this.target = target;
+    }
+
+    /**
+     * 放入通道的最新控制帧
+     * 槽位中还有未发送的帧时直接覆盖，不再投递新的发送任务
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz），调用方负责限制范围
+     * @param intensity 强度值，调用方负责限制范围
+     */
+    public void offer(String channel, int frequency, int intensity) {
+        Slot slot = slotFor(channel);
+        long previous = slot.pending.getAndSet(ControlFrame.pack(intensity, frequency));
+        offeredCount.incrementAndGet();
+        if (ControlFrame.isPresent(previous)) {
+            coalescedCount.incrementAndGet();
+        } else {
+            handler.post(slot.drain);
+        }
+    }
+
+    /**
+     * 推迟发送一个已取出的控制帧
+     * 只在发送线程上调用；推迟期间放入的新帧会替换它
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值
+     * @param delayMs 推迟时长（毫秒）
+     */
+    public void requeue(String channel, int frequency, int intensity, long delayMs) {
+        Slot slot = slotFor(channel);
+        if (slot.pending.compareAndSet(ControlFrame.NONE, ControlFrame.pack(intensity, frequency))) {
+            handler.postDelayed(slot.drain, delayMs);
+        } else {
+            // 已有更新的帧等待发送
+            coalescedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 保留一个无法发送的控制帧，不投递发送任务
+     * 只在发送线程上调用；保留期间放入的新帧会替换它，连接恢复后由{@link #redeliver}发送
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值
+     */
+    public void hold(String channel, int frequency, int intensity) {
+        Slot slot = slotFor(channel);
+        if (!slot.pending.compareAndSet(ControlFrame.NONE, ControlFrame.pack(intensity, frequency))) {
+            coalescedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 为所有保留着控制帧的槽位投递发送任务
+     * 只在发送线程上调用
+     */
+    public void redeliver() {
+        for (Slot slot : slots) {
+            if (ControlFrame.isPresent(slot.pending.get())) {
+                handler.removeCallbacks(slot.drain);
+                handler.post(slot.drain);
+            }
+        }
+    }
+
+    /**
+     * 丢弃所有未发送的控制帧
+     * 已投递的发送任务取到空槽位时不发送
+     */
+    public void clear() {
+        for (Slot slot : slots) {
+            slot.pending.set(ControlFrame.NONE);
+        }
+    }
+
+    /**
+     * 获取放入的控制帧总数
+     * @return 放入次数
+     */
+    public long getOfferedCount() {
+        return offeredCount.get();
+    }
+
+    /**
+     * 获取被后来的帧覆盖、没有发送的控制帧数
+     * @return 合并的帧数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private Slot slotFor(String channel) {
+        Slot[] current = slots;
+        for (Slot slot : current) {
+            if (slot.channel == null ? channel == null : slot.channel.equals(channel)) {
+                return slot;
+            }
+        }
+        return addSlot(channel);
+    }
+
+    private synchronized Slot addSlot(String channel) {
+        // 加锁后重新查找，其他线程可能已经添加
+        Slot[] current = slots;
+        for (Slot slot : current) {
+            if (slot.channel == null ? channel == null : slot.channel.equals(channel)) {
+                return slot;
+            }
+        }
+        Slot slot = new Slot(channel);
+        Slot[] grown = new Slot[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = slot;
+        slots = grown;
+        return slot;
+    }
+
+    /**
+     * 单个通道的待发送帧和发送任务
+     */
+    private final class Slot {
+        final String channel;
+        final AtomicLong pending = new AtomicLong(ControlFrame.NONE);
+        final Runnable drain = this::drain;
+
+        Slot(String channel) {
+            this.channel = channel;
+        }
+
+        private void drain() {
+            long frame = pending.getAndSet(ControlFrame.NONE);
+            if (ControlFrame.isPresent(frame)) {
+                target.sendPulseCommand(channel, ControlFrame.frequency(frame), ControlFrame.intensity(frame));
+            }
+        }
+    }
+}
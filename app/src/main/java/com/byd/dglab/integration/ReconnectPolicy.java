@@ -0,0 +1,179 @@
+package com.byd.dglab.integration;
+
+import java.util.Random;
+
+/**
+ * 重连策略
+ * 失败后按全抖动指数退避重连：等待时间在0到min(上限, 初始间隔 * 2^(失败次数-1))之间均匀随机，不限重连次数；
+ * 连续失败达到阈值后熔断，只按固定间隔做廉价的可达性探测，探测成功后再尝试一次完整连接（半开），
+ * 连接成功或系统报告网络恢复时回到正常状态
+ *
+ * 时间取自构造时传入的时钟，随机数来源可替换，便于用虚拟时钟验证；只在发送线程上调用
+ */
+public class ReconnectPolicy {
+
+    /** 正常状态：按退避间隔重连 */
+    public static final int STATE_CLOSED = 0;
+
+    /** 熔断状态：只定期探测 */
+    public static final int STATE_OPEN = 1;
+
+    /** 半开状态：探测成功，尝试一次完整连接 */
+    public static final int STATE_HALF_OPEN = 2;
+
+    private final Clock clock;
+    private final Random random;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int failureThreshold;
+    private final long probeIntervalMs;
+
+    private volatile int state = STATE_CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAtMs;
+
+    // 统计
+    private volatile long circuitOpenCount;
+    private volatile long probeCount;
+
+    public ReconnectPolicy() {
+        this(Clock.SYSTEM, new Random(), Constants.RECONNECT_BASE_DELAY_MS, Constants.RECONNECT_MAX_DELAY_MS,
+                Constants.CIRCUIT_FAILURE_THRESHOLD, Constants.CIRCUIT_PROBE_INTERVAL_MS);
+    }
+
+    /**
+     * @param clock 时钟
+     * @param random 退避抖动的随机数来源
+     * @param baseDelayMs 初始退避间隔（毫秒）
+     * @param maxDelayMs 退避间隔上限（毫秒）
+     * @param failureThreshold 连续失败达到该次数后熔断
+     * @param probeIntervalMs 熔断期间的探测间隔（毫秒）
+     */
+    public ReconnectPolicy(Clock clock, Random random, long baseDelayMs, long maxDelayMs,
+                           int failureThreshold, long probeIntervalMs) {
+        if (baseDelayMs <= 0 || maxDelayMs < baseDelayMs || failureThreshold < 1 || probeIntervalMs <= 0) {
+            throw new IllegalArgumentException("Invalid reconnect policy parameters");
+        }
+        this.clock = clock;
+        this.random = random;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.failureThreshold = failureThreshold;
+        this.probeIntervalMs = probeIntervalMs;
+    }
+
+    /**
+     * 记录一次连接失败或连接断开
+     * 半开状态下失败或连续失败达到阈值时熔断
+     */
+    public void onFailure() {
+        consecutiveFailures++;
+        if (state == STATE_HALF_OPEN || (state == STATE_CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = STATE_OPEN;
+            openedAtMs = clock.uptimeMillis();
+            circuitOpenCount++;
+        }
+    }
+
+    /**
+     * 记录连接成功
+     */
+    public void onConnected() {
+        consecutiveFailures = 0;
+        state = STATE_CLOSED;
+    }
+
+    /**
+     * 系统报告网络恢复
+     * 之前的失败多半由断网造成，清除退避和熔断，下一次重连立即进行
+     */
+    public void onNetworkAvailable() {
+        consecutiveFailures = 0;
+        state = STATE_CLOSED;
+    }
+
+    /**
+     * 记录一次探测结果
+     * @param reachable 服务器是否可达
+     */
+    public void onProbeResult(boolean reachable) {
+        probeCount++;
+        if (state != STATE_OPEN) {
+            return;
+        }
+        if (reachable) {
+            state = STATE_HALF_OPEN;
+        } else {
+            openedAtMs = clock.uptimeMillis();
+        }
+    }
+
+    /**
+     * 下一次操作（重连或探测）前需要等待的时间
+     * @return 等待时间（毫秒）
+     */
+    public long nextDelayMs() {
+        switch (state) {
+            case STATE_OPEN:
+                return Math.max(0, openedAtMs + probeIntervalMs - clock.uptimeMillis());
+
+            case STATE_HALF_OPEN:
+                return 0;
+
+            default:
+                if (consecutiveFailures == 0) {
+                    return 0;
+                }
+                // 全抖动：在0到指数退避值之间均匀随机，避免大量客户端同时重连
+                int shift = Math.min(consecutiveFailures - 1, 30);
+                long ceiling = Math.min(maxDelayMs, baseDelayMs << shift);
+                if (ceiling <= 0) {
+                    ceiling = maxDelayMs;
+                }
+                return (long) (random.nextDouble() * ceiling);
+        }
+    }
+
+    /**
+     * 下一次操作是否应该是探测而不是完整连接
+     * @return 熔断状态下返回true
+     */
+    public boolean shouldProbe() {
+        return state == STATE_OPEN;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * 获取连续失败次数
+     * @return 次数
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getCircuitOpenCount() {
+        return circuitOpenCount;
+    }
+
+    public long getProbeCount() {
+        return probeCount;
+    }
+
+    /**
+     * 获取状态名称（用于日志）
+     * @return 状态名称
+     */
+    public String getStateName() {
+        switch (state) {
+            case STATE_OPEN:
+                return "open";
+            case STATE_HALF_OPEN:
+                return "half-open";
+            default:
+                return "closed";
+        }
+    }
+}
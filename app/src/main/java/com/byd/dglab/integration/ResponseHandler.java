@@ -0,0 +1,42 @@
+package com.byd.dglab.integration;
+
+/**
+ * 服务器响应处理接口
+ * 由{@link ResponseParser}按响应类型分派，每个方法都带有原始消息，便于记录日志和转发
+ */
+public interface ResponseHandler {
+    /**
+     * 收到心跳响应
+     * @param message 原始消息
+     */
+    void onHeartbeat(String message);
+
+    /**
+     * 收到错误响应
+     * @param error 错误描述，可能为null
+     * @param message 原始消息
+     */
+    void onServerError(String error, String message);
+
+    /**
+     * 收到强度反馈
+     * @param channel 通道（A或B），可能为null
+     * @param intensity 强度值，消息中没有时为-1
+     * @param message 原始消息
+     */
+    void onStrengthFeedback(String channel, int intensity, String message);
+
+    /**
+     * 收到二维码绑定结果
+     * @param result 绑定结果，可能为null
+     * @param message 原始消息
+     */
+    void onBind(String result, String message);
+
+    /**
+     * 收到其他类型的响应
+     * @param type 响应类型，消息中没有类型时为null
+     * @param message 原始消息
+     */
+    void onUnknown(String type, String message);
+}
@@ -0,0 +1,121 @@
+package com.byd.dglab.integration;
+
+import android.util.Log;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * 服务器响应流式解析器
+ * 使用JsonReader顺序读取消息，只保留分派需要的字段，其余字段直接跳过，不构建JsonObject或Map，
+ * 读完后按type分派到{@link ResponseHandler}的对应方法
+ * 字段可以按任意顺序出现；无状态，可在多个线程上共用
+ */
+public class ResponseParser {
+
+    private static final String TAG = Constants.LOG_TAG + "_ResponseParser";
+
+    /** 响应类型：错误 */
+    public static final String TYPE_ERROR = "error";
+
+    /** 响应类型：绑定结果 */
+    public static final String TYPE_BIND = "bind";
+
+    /**
+     * 解析并分派响应
+     * @param message 原始JSON消息
+     * @param handler 响应处理器
+     * @return 解析成功返回true，格式错误时返回false且不调用处理器
+     */
+    public boolean parse(String message, ResponseHandler handler) {
+        String type = null;
+        String channel = null;
+        int intensity = -1;
+        String error = null;
+        String text = null;
+
+        try {
+            JsonReader reader = new JsonReader(new StringReader(message));
+            // 与Gson.fromJson一致，使用宽松模式
+            reader.setLenient(true);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type":
+                        type = readString(reader);
+                        break;
+                    case "error":
+                        error = readString(reader);
+                        break;
+                    case "message":
+                        text = readString(reader);
+                        break;
+                    case "data":
+                        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            // 只读取强度反馈需要的字段
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                String name = reader.nextName();
+                                if ("channel".equals(name)) {
+                                    channel = readString(reader);
+                                } else if ("intensity".equals(name) && reader.peek() == JsonToken.NUMBER) {
+                                    intensity = reader.nextInt();
+                                } else {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
+                        } else {
+                            text = readString(reader);
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new IllegalStateException("Trailing content after JSON object");
+            }
+
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            Log.e(TAG, "Error parsing JSON response", e);
+            return false;
+        }
+
+        if (Constants.MSG_TYPE_HEARTBEAT.equals(type)) {
+            handler.onHeartbeat(message);
+        } else if (TYPE_ERROR.equals(type)) {
+            handler.onServerError(error != null ? error : text, message);
+        } else if (Constants.MSG_TYPE_STRENGTH.equals(type)) {
+            handler.onStrengthFeedback(channel, intensity, message);
+        } else if (TYPE_BIND.equals(type)) {
+            handler.onBind(error != null ? error : text, message);
+        } else {
+            handler.onUnknown(type, message);
+        }
+        return true;
+    }
+
+    /**
+     * 读取字符串字段
+     * 数字和布尔值按字符串返回，null返回null，对象和数组跳过
+     */
+    private static String readString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.byd.dglab.integration;
+
+/**
+ * 往返时延估计
+ * 按RFC 6298的方法由ping/pong测得的样本计算平滑往返时延（SRTT）和时延波动（RTTVAR），
+ * 并据此给出等待pong的超时时间和下一次ping的间隔：链路稳定时拉长间隔，波动大或丢失pong时缩短间隔
+ *
+ * 只在发送线程上更新，估计值可以从任意线程读取
+ */
+public class RttEstimator {
+
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+
+    private volatile long sampleCount;
+    private volatile double smoothedRttMs;
+    private volatile double rttVarianceMs;
+    private volatile double lastRttMs;
+    private volatile double minRttMs;
+
+    /**
+     * 加入一个往返时延样本
+     * @param rttMs 往返时延（毫秒）
+     */
+    public void addSample(double rttMs) {
+        if (rttMs < 0) {
+            return;
+        }
+        if (sampleCount == 0) {
+            smoothedRttMs = rttMs;
+            rttVarianceMs = rttMs / 2;
+            minRttMs = rttMs;
+        } else {
+            rttVarianceMs = (1 - BETA) * rttVarianceMs + BETA * Math.abs(smoothedRttMs - rttMs);
+            smoothedRttMs = (1 - ALPHA) * smoothedRttMs + ALPHA * rttMs;
+            minRttMs = Math.min(minRttMs, rttMs);
+        }
+        lastRttMs = rttMs;
+        sampleCount++;
+    }
+
+    /**
+     * 连接重新建立时清除估计
+     */
+    public void reset() {
+        sampleCount = 0;
+        smoothedRttMs = 0;
+        rttVarianceMs = 0;
+        lastRttMs = 0;
+        minRttMs = 0;
+    }
+
+    /**
+     * 等待pong的超时时间
+     * SRTT + 4 * RTTVAR，限制在配置的范围内；没有样本时使用上限
+     * @return 超时时间（毫秒）
+     */
+    public long getPongTimeoutMs() {
+        if (sampleCount == 0) {
+            return Constants.PONG_TIMEOUT_MAX_MS;
+        }
+        long timeout = (long) Math.ceil(smoothedRttMs + 4 * rttVarianceMs);
+        return Math.max(Constants.PONG_TIMEOUT_MIN_MS, Math.min(Constants.PONG_TIMEOUT_MAX_MS, timeout));
+    }
+
+    /**
+     * 下一次ping的间隔
+     * 时延波动相对平滑时延越大间隔越短；没有样本或刚丢失过pong时使用下限
+     * @param missedPongs 连续丢失的pong数
+     * @return 间隔（毫秒）
+     */
+    public long getPingIntervalMs(int missedPongs) {
+        if (sampleCount == 0 || missedPongs > 0) {
+            return Constants.PING_INTERVAL_MIN_MS;
+        }
+        double jitter = Math.min(1.0, rttVarianceMs / Math.max(1.0, smoothedRttMs));
+        return Constants.PING_INTERVAL_MAX_MS
+                - Math.round((Constants.PING_INTERVAL_MAX_MS - Constants.PING_INTERVAL_MIN_MS) * jitter);
+    }
+
+    public boolean hasSamples() {
+        return sampleCount > 0;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public double getSmoothedRttMs() {
+        return smoothedRttMs;
+    }
+
+    public double getRttVarianceMs() {
+        return rttVarianceMs;
+    }
+
+    public double getLastRttMs() {
+        return lastRttMs;
+    }
+
+    public double getMinRttMs() {
+        return minRttMs;
+    }
+
+    /**
+     * 获取统计信息（用于日志）
+     * @return 统计信息
+     */
+    public String getStats() {
+        return String.format("srtt %.1f ms, rttvar %.1f ms, last %.1f ms, min %.1f ms, samples %d",
+                smoothedRttMs, rttVarianceMs, lastRttMs, minRttMs, sampleCount);
+    }
+}
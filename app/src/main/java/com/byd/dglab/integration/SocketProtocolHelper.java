@@ -15,8 +15,15 @@ public class SocketProtocolHelper {
     private static final String TAG = Constants.LOG_TAG + "_Protocol";
     private final Gson gson;
 
+    // 强度和脉冲命令的编码器，不构建JSON树
+    private final JsonCommandEncoder encoder;
+
+    // 可选的脉冲命令缓存
+    private volatile CommandCache commandCache;
+
     public SocketProtocolHelper() {
         this.gson = new Gson();
+        this.encoder = new JsonCommandEncoder();
     }
 
     /**
@@ -27,17 +34,8 @@ public class SocketProtocolHelper {
      */
     public String generateStrengthCommand(String channel, int intensity) {
         try {
-            JsonObject command = new JsonObject();
-            command.addProperty("type", Constants.MSG_TYPE_STRENGTH);
-
-            JsonObject data = new JsonObject();
-            data.addProperty("channel", channel);
-            data.addProperty("intensity", Math.max(Constants.INTENSITY_MIN,
+            String jsonCommand = encoder.encodeStrength(channel, Math.max(Constants.INTENSITY_MIN,
                     Math.min(Constants.INTENSITY_MAX, intensity)));
-
-            command.add("data", data);
-
-            String jsonCommand = gson.toJson(command);
             Log.d(TAG, "Generated strength command: " + jsonCommand);
             return jsonCommand;
 
@@ -56,19 +54,19 @@ public class SocketProtocolHelper {
      */
     public String generatePulseCommand(String channel, int frequency, int intensity) {
         try {
-            JsonObject command = new JsonObject();
-            command.addProperty("type", Constants.MSG_TYPE_PULSE);
-
-            JsonObject data = new JsonObject();
-            data.addProperty("channel", channel);
-            data.addProperty("frequency", Math.max(Constants.FREQUENCY_MIN,
-                    Math.min(Constants.FREQUENCY_MAX, frequency)));
-            data.addProperty("intensity", Math.max(Constants.INTENSITY_MIN,
-                    Math.min(Constants.INTENSITY_MAX, intensity)));
-
-            command.add("data", data);
+            int clampedFrequency = Math.max(Constants.FREQUENCY_MIN, Math.min(Constants.FREQUENCY_MAX, frequency));
+            int clampedIntensity = Math.max(Constants.INTENSITY_MIN, Math.min(Constants.INTENSITY_MAX, intensity));
+
+            // 缓存命中时直接返回，不格式化也不输出日志
+            CommandCache cache = commandCache;
+            if (cache != null) {
+                String cached = cache.getPulseCommand(channel, clampedFrequency, clampedIntensity);
+                if (cached != null) {
+                    return cached;
+                }
+            }
 
-            String jsonCommand = gson.toJson(command);
+            String jsonCommand = encoder.encodePulse(channel, clampedFrequency, clampedIntensity);
             Log.d(TAG, "Generated pulse command: " + jsonCommand);
             return jsonCommand;
 
@@ -78,6 +76,45 @@ public class SocketProtocolHelper {
         }
     }
 
+    /**
+     * 生成V3波形命令
+     * @param channel 通道（A或B）
+     * @param segments 十六进制波形段（每段100毫秒）
+     * @param offset 第一个波形段的位置
+     * @param count 波形段数，不超过{@link Constants#WAVEFORM_MAX_SEGMENTS_PER_MESSAGE}
+     * @return JSON命令字符串
+     */
+    public String generateWaveformCommand(String channel, String[] segments, int offset, int count) {
+        try {
+            if (count <= 0 || count > Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE) {
+                throw new IllegalArgumentException("Invalid waveform segment count: " + count);
+            }
+            String jsonCommand = encoder.encodeWaveform(channel, segments, offset, count);
+            Log.d(TAG, "Generated waveform command: " + jsonCommand);
+            return jsonCommand;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error generating waveform command", e);
+            return null;
+        }
+    }
+
+    /**
+     * 设置脉冲命令缓存
+     * @param cache 命令缓存，传入null关闭缓存
+     */
+    public void setCommandCache(CommandCache cache) {
+        this.commandCache = cache;
+    }
+
+    /**
+     * 获取脉冲命令缓存
+     * @return 命令缓存，未启用时返回null
+     */
+    public CommandCache getCommandCache() {
+        return commandCache;
+    }
+
     /**
      * 生成二维码绑定命令
      * @param qrCode 二维码字符串
@@ -121,6 +158,8 @@ public class SocketProtocolHelper {
 
     /**
      * 生成B0蓝牙指令（强度控制）
+     * 注意：改用{@link BluetoothCommandCodec}之前，格式串把分隔符当作%d输出，总是抛出异常并返回null；
+     * 现在返回有效的B0指令，调用方不能再依赖null跳过发送
      * @param channel 通道（A或B）
      * @param intensity 强度值（0-200）
      * @return B0指令字符串
@@ -128,16 +167,7 @@ public class SocketProtocolHelper {
     public String generateB0Command(String channel, int intensity) {
         try {
             // B0指令格式: B0,<channel>,<intensity>,<checksum>;
-            int checksum = calculateChecksum(channel, intensity);
-            String command = String.format("%s%s%s%d%s%d%s",
-                    Constants.B0_PREFIX,
-                    Constants.COMMAND_SEPARATOR,
-                    channel,
-                    Constants.COMMAND_SEPARATOR,
-                    intensity,
-                    Constants.COMMAND_SEPARATOR,
-                    checksum,
-                    Constants.END_MARKER);
+            String command = BluetoothCommandCodec.toB0String(channel, intensity);
 
             Log.d(TAG, "Generated B0 command: " + command);
             return command;
@@ -158,18 +188,7 @@ public class SocketProtocolHelper {
     public String generateBFCommand(String channel, int frequency, int intensity) {
         try {
             // BF指令格式: BF,<channel>,<frequency>,<intensity>,<checksum>;
-            int checksum = calculateChecksum(channel, frequency, intensity);
-            String command = String.format("%s%s%s%s%d%s%d%s%d%s",
-                    Constants.BF_PREFIX,
-                    Constants.COMMAND_SEPARATOR,
-                    channel,
-                    Constants.COMMAND_SEPARATOR,
-                    frequency,
-                    Constants.COMMAND_SEPARATOR,
-                    intensity,
-                    Constants.COMMAND_SEPARATOR,
-                    checksum,
-                    Constants.END_MARKER);
+            String command = BluetoothCommandCodec.toBFString(channel, frequency, intensity);
 
             Log.d(TAG, "Generated BF command: " + command);
             return command;
@@ -180,23 +199,6 @@ public class SocketProtocolHelper {
         }
     }
 
-    /**
-     * 计算校验和（简单求和）
-     * @param params 参数
-     * @return 校验和
-     */
-    private int calculateChecksum(Object... params) {
-        int sum = 0;
-        for (Object param : params) {
-            if (param instanceof String) {
-                sum += ((String) param).charAt(0);
-            } else if (param instanceof Integer) {
-                sum += (Integer) param;
-            }
-        }
-        return sum % 256; // 取模256
-    }
-
     /**
      * 将十六进制字符串转换为字节数组
      * @param hexString 十六进制字符串
@@ -204,13 +206,7 @@ public class SocketProtocolHelper {
      */
     public byte[] hexStringToByteArray(String hexString) {
         try {
-            int len = hexString.length();
-            byte[] data = new byte[len / 2];
-            for (int i = 0; i < len; i += 2) {
-                data[i / 2] = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
-                        + Character.digit(hexString.charAt(i + 1), 16));
-            }
-            return data;
+            return WaveformEncoder.decodeHex(hexString);
         } catch (Exception e) {
             Log.e(TAG, "Error converting hex string to byte array", e);
             return null;
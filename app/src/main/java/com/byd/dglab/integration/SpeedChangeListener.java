@@ -6,6 +6,7 @@ package com.byd.dglab.integration;
 public interface SpeedChangeListener {
     /**
      * 当车速发生变化时调用
+     * 在{@link SpeedDataService}构造时指定的线程上执行
      * @param speedKmH 当前车速（km/h）
      */
     void onSpeedChanged(double speedKmH);
@@ -41,18 +41,27 @@ public class SpeedDataService implements LocationListener {
     private boolean isBydApiAvailable = false;
 
     // 数据源模式
-    private int currentDataSourceMode = Constants.DATA_SOURCE_GPS_ONLY;
+    private volatile int currentDataSourceMode = Constants.DATA_SOURCE_GPS_ONLY;
     private int gpsSpeedForBydFallback = 0; // GPS速度用于BYD不可用时的降级
 
     // 当前车速
     private double currentSpeedKmh = 0.0;
     private long lastUpdateTime = 0;
-    private boolean speedFromBYD = false; // 标记当前速度来源
+    private volatile boolean speedFromBYD = false; // 标记当前速度来源
 
     public SpeedDataService(Context context, SpeedChangeListener listener) {
+        this(context, listener, Looper.getMainLooper());
+    }
+
+    /**
+     * @param context 上下文
+     * @param listener 车速监听器
+     * @param callbackLooper GPS定位更新和车速回调所在线程的Looper
+     */
+    public SpeedDataService(Context context, SpeedChangeListener listener, Looper callbackLooper) {
         this.context = context;
         this.listener = listener;
-        this.handler = new Handler(Looper.getMainLooper());
+        this.handler = new Handler(callbackLooper);
         this.sharedPreferences = context.getSharedPreferences(
                 context.getPackageName() + ".preferences",
                 Context.MODE_PRIVATE);
@@ -105,7 +114,8 @@ public class SpeedDataService implements LocationListener {
                                 LocationManager.GPS_PROVIDER,
                                 Constants.UPDATE_INTERVAL_MS,
                                 1, // 最小距离变化（米）
-                                this
+                                this,
+                                handler.getLooper()
                         );
 
                         Log.d(TAG, "GPS location updates requested");
@@ -0,0 +1,41 @@
+package com.byd.dglab.integration;
+
+/**
+ * 车速滤波器接口
+ * 所有实现都要求每个采样O(1)且不产生对象分配，并在线测量自身的延迟和抖动，便于选择滤波器
+ */
+public interface SpeedFilter {
+
+    /**
+     * 加入新采样并返回滤波后的车速
+     * @param speedKmH 车速（km/h）
+     * @param timestampMs 采样时间戳（毫秒，单调递增）
+     * @return 滤波后的车速（km/h）
+     */
+    double filter(double speedKmH, long timestampMs);
+
+    /**
+     * 清空滤波状态和测量统计
+     */
+    void reset();
+
+    /**
+     * 获取测量到的延迟
+     * 以输出误差在输入变化率上的最小二乘投影估计，对匀变速输入即为真实的时间滞后
+     * @return 延迟（毫秒）
+     */
+    double getLagMs();
+
+    /**
+     * 获取测量到的抖动
+     * 输出二阶差分的均方根，匀变速时为0，越小输出越平滑
+     * @return 抖动（km/h）
+     */
+    double getJitter();
+
+    /**
+     * 获取滤波器名称
+     * @return 名称
+     */
+    String getName();
+}
@@ -0,0 +1,211 @@
+package com.byd.dglab.integration;
+
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * 车速查找表
+ * 将车速到控制参数的映射函数预先编译为基本类型数组，运行时每次转换只需一次数组索引和一次比较
+ *
+ * 车速按 1/bucketsPerKmh km/h 分桶（分桶数为2的幂，索引计算没有舍入误差），
+ * 每个桶记录桶起点的取值、桶内唯一跳变点的车速和跳变后的取值，
+ * 因此对单调映射的查表结果与直接计算完全一致。
+ *
+ * 映射整体不必单调，但编译时需要给出分段点：相邻分段点之间映射单调（曲线的控制点和极值点）。
+ * 桶内的分段点处逐一取值检查，取值序列单调即说明整个桶单调，不需要取样；
+ * 不单调的桶提高精度重新编译，分段点都在最高精度的分桶边界上时，最高精度下每个桶都单调。
+ * 最高精度下仍无法精确表示时编译失败，不会退回到逐个采样直接计算
+ */
+public final class SpeedLookupTable {
+
+    private final int bucketsPerKmh;
+    private final double maxSpeed;
+
+    // 每个桶起点的取值
+    private final short[] lowValues;
+    // 每个桶跳变之后的取值
+    private final short[] highValues;
+    // 每个桶内取值跳变的车速，无跳变时为正无穷
+    private final double[] stepSpeeds;
+
+    // 超出表范围的取值
+    private final int underflowValue;
+    private final int overflowValue;
+    private final int nanValue;
+
+    private SpeedLookupTable(int bucketsPerKmh, double maxSpeed, short[] lowValues, short[] highValues,
+                             double[] stepSpeeds, int underflowValue, int overflowValue, int nanValue) {
+        this.bucketsPerKmh = bucketsPerKmh;
+        this.maxSpeed = maxSpeed;
+        this.lowValues = lowValues;
+        this.highValues = highValues;
+        this.stepSpeeds = stepSpeeds;
+        this.underflowValue = underflowValue;
+        this.overflowValue = overflowValue;
+        this.nanValue = nanValue;
+    }
+
+    /**
+     * 编译映射函数
+     * 从默认精度开始，如果某个桶内出现多次跳变或不单调则自动加倍精度重新编译
+     * @param mapping 车速到整数控制参数的映射
+     * @param maxSpeedKmH 查找表覆盖的最大车速（km/h），超出部分按该车速的取值处理
+     * @param breakpoints 升序排列的分段点车速（km/h），映射在相邻分段点之间（含两端）单调
+     * @return 编译后的查找表
+     * @throws IllegalArgumentException 最高精度下仍无法精确表示映射时抛出
+     */
+    public static SpeedLookupTable compile(DoubleToIntFunction mapping, int maxSpeedKmH, double[] breakpoints) {
+        for (int bucketsPerKmh = Constants.LOOKUP_TABLE_BUCKETS_PER_KMH;
+             bucketsPerKmh <= Constants.LOOKUP_TABLE_MAX_BUCKETS_PER_KMH; bucketsPerKmh <<= 1) {
+            SpeedLookupTable table = tryCompile(mapping, maxSpeedKmH, breakpoints, bucketsPerKmh);
+            if (table != null) {
+                return table;
+            }
+        }
+        throw new IllegalArgumentException("Mapping is too steep or not monotone enough to compile into a lookup table");
+    }
+
+    /**
+     * 按指定精度编译
+     * @return 查找表，精度不足以精确表示映射时返回null
+     */
+    private static SpeedLookupTable tryCompile(DoubleToIntFunction mapping, int maxSpeedKmH, double[] breakpoints,
+                                               int bucketsPerKmh) {
+        int bucketCount = maxSpeedKmH * bucketsPerKmh;
+        short[] lowValues = new short[bucketCount];
+        short[] highValues = new short[bucketCount];
+        double[] stepSpeeds = new double[bucketCount];
+
+        // 第一个可能落在当前桶内的分段点
+        int firstBreakpoint = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            double start = (double) i / bucketsPerKmh;
+            double last = Math.nextDown((double) (i + 1) / bucketsPerKmh);
+
+            int low = mapping.applyAsInt(start);
+            int high = mapping.applyAsInt(last);
+            if (low != (short) low || high != (short) high) {
+                throw new IllegalArgumentException("Mapped value out of range at " + start + " km/h");
+            }
+
+            // 二分查找跳变点要求桶内单调，在桶内的分段点处检查
+            while (firstBreakpoint < breakpoints.length && !(breakpoints[firstBreakpoint] > start)) {
+                firstBreakpoint++;
+            }
+            if (!isMonotone(mapping, breakpoints, firstBreakpoint, last, low, high)) {
+                return null;
+            }
+
+            lowValues[i] = (short) low;
+            highValues[i] = (short) high;
+            if (low == high) {
+                stepSpeeds[i] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+
+            // 在桶内按double的位模式二分查找第一个取值发生变化的车速
+            long lo = Double.doubleToLongBits(start);
+            long hi = Double.doubleToLongBits(last);
+            while (lo < hi) {
+                long mid = (lo + hi) >>> 1;
+                if (mapping.applyAsInt(Double.longBitsToDouble(mid)) != low) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            double step = Double.longBitsToDouble(lo);
+
+            // 桶内存在多次跳变，需要更高精度
+            if (mapping.applyAsInt(step) != high) {
+                return null;
+            }
+            stepSpeeds[i] = step;
+        }
+
+        return new SpeedLookupTable(bucketsPerKmh, maxSpeedKmH, lowValues, highValues, stepSpeeds,
+                mapping.applyAsInt(-Double.MIN_VALUE),
+                mapping.applyAsInt(maxSpeedKmH),
+                mapping.applyAsInt(Double.NaN));
+    }
+
+    /**
+     * 检查映射在桶内是否单调
+     * 相邻分段点之间映射单调，桶起点、桶内各分段点和桶终点的取值序列单调时整个桶单调；
+     * 两端取值相同时要求各分段点取值也相同
+     * @param from 第一个大于桶起点的分段点序号
+     * @return 单调时返回true
+     */
+    private static boolean isMonotone(DoubleToIntFunction mapping, double[] breakpoints, int from, double last,
+                                      int low, int high) {
+        int direction = Integer.compare(high, low);
+        int previous = low;
+        for (int k = from; k < breakpoints.length && breakpoints[k] <= last; k++) {
+            int value = mapping.applyAsInt(breakpoints[k]);
+            if (Integer.compare(value, previous) * direction < 0
+                    || Integer.compare(high, value) * direction < 0
+                    || (direction == 0 && value != low)) {
+                return false;
+            }
+            previous = value;
+        }
+        return true;
+    }
+
+    /**
+     * 查表
+     * @param speedKmH 车速（km/h）
+     * @return 映射后的控制参数
+     */
+    public int lookup(double speedKmH) {
+        if (speedKmH >= 0 && speedKmH < maxSpeed) {
+            int index = (int) (speedKmH * bucketsPerKmh);
+            return speedKmH < stepSpeeds[index] ? lowValues[index] : highValues[index];
+        }
+        if (speedKmH >= maxSpeed) {
+            return overflowValue;
+        }
+        if (speedKmH < 0) {
+            return underflowValue;
+        }
+        return nanValue;
+    }
+
+    /**
+     * 获取取值可能变化的车速：每个桶的起点和桶内的跳变点，升序排列
+     * 相邻两个车速之间（以及最后一个车速到表范围上限之间）查表结果不变
+     * @return 车速（km/h）
+     */
+    public double[] getChangeSpeeds() {
+        int count = lowValues.length;
+        for (double step : stepSpeeds) {
+            if (step != Double.POSITIVE_INFINITY) {
+                count++;
+            }
+        }
+        double[] speeds = new double[count];
+        int n = 0;
+        for (int i = 0; i < lowValues.length; i++) {
+            speeds[n++] = (double) i / bucketsPerKmh;
+            if (stepSpeeds[i] != Double.POSITIVE_INFINITY) {
+                speeds[n++] = stepSpeeds[i];
+            }
+        }
+        return speeds;
+    }
+
+    /**
+     * 获取分桶精度
+     * @return 每km/h的分桶数
+     */
+    public int getBucketsPerKmh() {
+        return bucketsPerKmh;
+    }
+
+    /**
+     * 获取查找表覆盖的最大车速
+     * @return 最大车速（km/h）
+     */
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+}
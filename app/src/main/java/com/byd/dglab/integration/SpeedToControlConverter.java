@@ -1,57 +1,266 @@
 package com.byd.dglab.integration;
 
+import android.os.SystemClock;
 import android.util.Log;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 车速到控制参数转换器
  * 将车速转换为DG-LAB设备的强度和频率参数
+ *
+ * 线程模型：转换方法只能在同一个采样线程上调用；转换配置和滤波器参数保存在不可变快照中，
+ * 可以从任意线程发布新快照，采样线程在下一个采样时无锁读取并生效，滤波状态保持不变
  */
 public class SpeedToControlConverter {
 
     private static final String TAG = Constants.LOG_TAG + "_Converter";
 
-    // 数据平滑队列
-    private final Queue<Double> speedHistory;
-    private final int smoothingWindowSize;
+    // 当前发布的转换配置和滤波器参数
+    private final AtomicReference<ConverterSnapshot> snapshot;
+
+    // 请求在下一个采样前清空平滑数据
+    private final AtomicBoolean resetRequested = new AtomicBoolean(false);
+
+    // 是否使用查找表
+    private final boolean compiledMode;
+
+    // 以下状态只在采样线程上读写
+    private volatile SpeedFilter smoother;
+    private FilterConfig appliedFilterConfig;
+    private boolean hasLastSample;
+    private double lastSmoothedSpeed;
+    private long lastTimestampMs;
+
+    // 加减速调制，以及最近一个采样的强度调整量
+    private final AccelerationModulator modulator = new AccelerationModulator();
+    private int intensityAdjustment;
+
+    // 通道流水线，与快照中的通道配置一一对应，只在采样线程上读写
+    private ChannelPipeline[] pipelines = new ChannelPipeline[0];
+    private ConverterSnapshot pipelinesSnapshot;
+    private final ChannelFrames channelFrames = new ChannelFrames();
 
     public SpeedToControlConverter() {
-        this.smoothingWindowSize = Constants.SMOOTHING_WINDOW_SIZE;
-        this.speedHistory = new LinkedList<>();
+        this(true);
     }
 
     /**
-     * 将车速转换为强度值
-     * 使用分段线性映射，低速、中速、高速段分别映射
+     * @param compiledMode true使用预编译查找表，false逐次计算分段线性映射
+     */
+    public SpeedToControlConverter(boolean compiledMode) {
+        this(FilterConfig.DEFAULT, compiledMode);
+    }
+
+    /**
+     * @param filterConfig 车速平滑滤波器参数
+     * @param compiledMode true使用预编译查找表，false逐次计算分段线性映射
+     */
+    public SpeedToControlConverter(FilterConfig filterConfig, boolean compiledMode) {
+        this.snapshot = new AtomicReference<>(new ConverterSnapshot(ConversionProfile.BUILT_IN, filterConfig));
+        this.smoother = filterConfig.create();
+        this.appliedFilterConfig = filterConfig;
+        this.compiledMode = compiledMode;
+    }
+
+    /**
+     * 将车速一次性转换为强度和频率
+     * 每个采样只进入平滑窗口一次，结果打包为控制帧，不产生对象分配
      * @param speedKmH 车速（km/h）
-     * @return 强度值（0-200）
+     * @return 控制帧，使用{@link ControlFrame}读取强度和频率
      */
-    public int convertSpeedToIntensity(double speedKmH) {
+    public long convert(double speedKmH) {
+        return convert(speedKmH, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * 将带时间戳的车速一次性转换为强度和频率
+     * @param speedKmH 车速（km/h）
+     * @param timestampMs 采样时间戳（毫秒，单调递增）
+     * @return 控制帧，使用{@link ControlFrame}读取强度和频率
+     */
+    public long convert(double speedKmH, long timestampMs) {
         try {
+            ConverterSnapshot currentSnapshot = snapshot.get();
+
             // 数据平滑处理
-            double smoothedSpeed = smoothSpeedData(speedKmH);
+            double smoothedSpeed = smooth(currentSnapshot, speedKmH, timestampMs);
 
             int intensity;
-            if (smoothedSpeed <= Constants.LOW_SPEED_THRESHOLD) {
-                // 低速段：0-30 km/h -> 0-50
-                intensity = mapValue(smoothedSpeed, 0, Constants.LOW_SPEED_THRESHOLD,
-                        Constants.LOW_SPEED_INTENSITY_RANGE[0], Constants.LOW_SPEED_INTENSITY_RANGE[1]);
-            } else if (smoothedSpeed <= Constants.MEDIUM_SPEED_THRESHOLD) {
-                // 中速段：30-80 km/h -> 50-120
-                intensity = mapValue(smoothedSpeed, Constants.LOW_SPEED_THRESHOLD, Constants.MEDIUM_SPEED_THRESHOLD,
-                        Constants.MEDIUM_SPEED_INTENSITY_RANGE[0], Constants.MEDIUM_SPEED_INTENSITY_RANGE[1]);
-            } else if (smoothedSpeed <= Constants.HIGH_SPEED_THRESHOLD) {
-                // 高速段：80-120 km/h -> 120-200
-                intensity = mapValue(smoothedSpeed, Constants.MEDIUM_SPEED_THRESHOLD, Constants.HIGH_SPEED_THRESHOLD,
-                        Constants.HIGH_SPEED_INTENSITY_RANGE[0], Constants.HIGH_SPEED_INTENSITY_RANGE[1]);
+            int frequency;
+            ConversionProfile current = currentSnapshot.getProfile();
+            if (compiledMode) {
+                intensity = current.lookupIntensity(smoothedSpeed);
+                frequency = current.lookupFrequency(smoothedSpeed);
             } else {
-                // 超高速：保持最大强度
-                intensity = Constants.INTENSITY_MAX;
+                intensity = current.computeIntensity(smoothedSpeed);
+                frequency = current.computeFrequency(smoothedSpeed);
             }
+            return ControlFrame.pack(adjustIntensity(intensity, intensityAdjustment), frequency);
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error converting speed", e);
+            return ControlFrame.pack(Constants.INTENSITY_MIN, Constants.FREQUENCY_MIN);
+        }
+    }
+
+    /**
+     * 批量转换录制的车速数据
+     * 结果以及转换器的滤波状态与逐个调用{@link #convert(double, long)}完全一致
+     * @param speeds 车速（km/h）
+     * @param timestamps 采样时间戳（毫秒，单调递增）
+     * @param intensity 输出强度值
+     * @param frequency 输出频率值
+     */
+    public void convertBatch(double[] speeds, long[] timestamps, int[] intensity, int[] frequency) {
+        convertBatch(speeds, timestamps, intensity, frequency, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 批量转换录制的车速数据
+     * 平滑、加减速调制和移动平均的累加和都依赖全部历史，在调用线程上按顺序执行，结果存入临时数组；
+     * 查表（或计算映射）和强度限幅各采样互不相关，超过一个分块时拆分到ForkJoin线程池并行执行。
+     * 两个阶段对每个采样的计算与逐个转换相同，结果逐位一致；
+     * 批量转换期间使用开始时的快照，期间发布的新配置从下一次转换生效
+     * @param speeds 车速（km/h）
+     * @param timestamps 采样时间戳（毫秒，单调递增）
+     * @param intensity 输出强度值
+     * @param frequency 输出频率值
+     * @param pool 执行映射阶段的线程池
+     */
+    public void convertBatch(double[] speeds, long[] timestamps, int[] intensity, int[] frequency, ForkJoinPool pool) {
+        int count = speeds.length;
+        if (timestamps.length != count || intensity.length < count || frequency.length < count) {
+            throw new IllegalArgumentException("Array lengths do not match: " + count + " speeds");
+        }
 
-            // 确保在有效范围内
-            intensity = Math.max(Constants.INTENSITY_MIN, Math.min(Constants.INTENSITY_MAX, intensity));
+        ConverterSnapshot currentSnapshot = snapshot.get();
+
+        // 顺序阶段：平滑和加减速调制
+        double[] smoothedSpeeds = new double[count];
+        int[] adjustments = new int[count];
+        for (int i = 0; i < count; i++) {
+            smoothedSpeeds[i] = smooth(currentSnapshot, speeds[i], timestamps[i]);
+            adjustments[i] = intensityAdjustment;
+        }
+
+        // 并行阶段：查表或计算映射，叠加调整量并限幅
+        ConversionProfile profile = currentSnapshot.getProfile();
+        if (count <= Constants.BATCH_CHUNK_SIZE) {
+            BatchMappingTask.map(profile, compiledMode, smoothedSpeeds, adjustments, intensity, frequency, 0, count);
+        } else {
+            pool.invoke(new BatchMappingTask(profile, compiledMode, smoothedSpeeds, adjustments, intensity, frequency,
+                    0, count, Constants.BATCH_CHUNK_SIZE));
+        }
+        Log.d(TAG, "Batch converted " + count + " samples");
+    }
+
+    /**
+     * 将车速转换为所有通道的控制帧
+     * 各通道共用一次平滑计算，再分别进行附加滤波、查表和缩放偏移
+     * @param speedKmH 车速（km/h）
+     * @return 各通道的控制帧，对象由转换器复用，只在下一次转换前有效
+     */
+    public ChannelFrames convertChannels(double speedKmH) {
+        return convertChannels(speedKmH, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * 将带时间戳的车速转换为所有通道的控制帧
+     * @param speedKmH 车速（km/h）
+     * @param timestampMs 采样时间戳（毫秒，单调递增）
+     * @return 各通道的控制帧，对象由转换器复用，只在下一次转换前有效
+     */
+    public ChannelFrames convertChannels(double speedKmH, long timestampMs) {
+        ConverterSnapshot currentSnapshot = snapshot.get();
+        syncPipelines(currentSnapshot);
+        channelFrames.reset(pipelines.length);
+
+        try {
+            // 所有通道共用一次平滑计算
+            double smoothedSpeed = smooth(currentSnapshot, speedKmH, timestampMs);
+
+            ConversionProfile profile = currentSnapshot.getProfile();
+            for (int i = 0; i < pipelines.length; i++) {
+                ChannelPipeline pipeline = pipelines[i];
+                channelFrames.set(i, pipeline.getConfig().getChannel(),
+                        pipeline.process(smoothedSpeed, timestampMs, profile, compiledMode, intensityAdjustment));
+            }
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error converting speed for channels", e);
+            long fallback = ControlFrame.pack(Constants.INTENSITY_MIN, Constants.FREQUENCY_MIN);
+            for (int i = 0; i < pipelines.length; i++) {
+                channelFrames.set(i, pipelines[i].getConfig().getChannel(), fallback);
+            }
+        }
+        return channelFrames;
+    }
+
+    /**
+     * 按快照同步通道流水线
+     * 通道标识不变的流水线被复用，保留其附加滤波状态
+     * @param current 当前快照
+     */
+    private void syncPipelines(ConverterSnapshot current) {
+        if (current == pipelinesSnapshot) {
+            return;
+        }
+
+        int count = current.getChannelCount();
+        boolean changed = count != pipelines.length;
+        for (int i = 0; !changed && i < count; i++) {
+            changed = pipelines[i].getConfig() != current.getChannel(i);
+        }
+
+        if (changed) {
+            ChannelPipeline[] updated = new ChannelPipeline[count];
+            for (int i = 0; i < count; i++) {
+                ChannelConfig config = current.getChannel(i);
+                ChannelPipeline existing = findPipeline(config.getChannel());
+                if (existing != null) {
+                    if (existing.getConfig() != config) {
+                        existing.configure(config);
+                    }
+                    updated[i] = existing;
+                } else {
+                    updated[i] = new ChannelPipeline(config);
+                }
+            }
+            pipelines = updated;
+        }
+        pipelinesSnapshot = current;
+    }
+
+    private ChannelPipeline findPipeline(String channel) {
+        for (ChannelPipeline pipeline : pipelines) {
+            if (pipeline.getConfig().getChannel().equals(channel)) {
+                return pipeline;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 将车速转换为强度值
+     * 使用分段线性映射，低速、中速、高速段分别映射
+     * 注意：每次调用都会向平滑窗口加入一个采样，同时需要强度和频率时应使用{@link #convert(double)}
+     * @param speedKmH 车速（km/h）
+     * @return 强度值（0-200）
+     */
+    public int convertSpeedToIntensity(double speedKmH) {
+        try {
+            ConverterSnapshot currentSnapshot = snapshot.get();
+
+            // 数据平滑处理
+            double smoothedSpeed = smooth(currentSnapshot, speedKmH, SystemClock.elapsedRealtime());
+
+            ConversionProfile profile = currentSnapshot.getProfile();
+            int intensity = compiledMode
+                    ? profile.lookupIntensity(smoothedSpeed)
+                    : profile.computeIntensity(smoothedSpeed);
+            intensity = adjustIntensity(intensity, intensityAdjustment);
 
             Log.d(TAG, String.format("Speed %.1f km/h -> Intensity %d", smoothedSpeed, intensity));
             return intensity;
@@ -65,34 +274,21 @@ public class SpeedToControlConverter {
     /**
      * 将车速转换为频率值
      * 使用分段线性映射，与强度类似但范围不同
+     * 注意：每次调用都会向平滑窗口加入一个采样，同时需要强度和频率时应使用{@link #convert(double)}
      * @param speedKmH 车速（km/h）
      * @return 频率值（10-240 Hz）
      */
     public int convertSpeedToFrequency(double speedKmH) {
         try {
-            // 数据平滑处理
-            double smoothedSpeed = smoothSpeedData(speedKmH);
+            ConverterSnapshot currentSnapshot = snapshot.get();
 
-            int frequency;
-            if (smoothedSpeed <= Constants.LOW_SPEED_THRESHOLD) {
-                // 低速段：0-30 km/h -> 10-30 Hz
-                frequency = mapValue(smoothedSpeed, 0, Constants.LOW_SPEED_THRESHOLD,
-                        Constants.LOW_SPEED_FREQUENCY_RANGE[0], Constants.LOW_SPEED_FREQUENCY_RANGE[1]);
-            } else if (smoothedSpeed <= Constants.MEDIUM_SPEED_THRESHOLD) {
-                // 中速段：30-80 km/h -> 30-80 Hz
-                frequency = mapValue(smoothedSpeed, Constants.LOW_SPEED_THRESHOLD, Constants.MEDIUM_SPEED_THRESHOLD,
-                        Constants.MEDIUM_SPEED_FREQUENCY_RANGE[0], Constants.MEDIUM_SPEED_FREQUENCY_RANGE[1]);
-            } else if (smoothedSpeed <= Constants.HIGH_SPEED_THRESHOLD) {
-                // 高速段：80-120 km/h -> 80-150 Hz
-                frequency = mapValue(smoothedSpeed, Constants.MEDIUM_SPEED_THRESHOLD, Constants.HIGH_SPEED_THRESHOLD,
-                        Constants.HIGH_SPEED_FREQUENCY_RANGE[0], Constants.HIGH_SPEED_FREQUENCY_RANGE[1]);
-            } else {
-                // 超高速：保持较高频率
-                frequency = Constants.HIGH_SPEED_FREQUENCY_RANGE[1];
-            }
+            // 数据平滑处理
+            double smoothedSpeed = smooth(currentSnapshot, speedKmH, SystemClock.elapsedRealtime());
 
-            // 确保在有效范围内
-            frequency = Math.max(Constants.FREQUENCY_MIN, Math.min(Constants.FREQUENCY_MAX, frequency));
+            ConversionProfile profile = currentSnapshot.getProfile();
+            int frequency = compiledMode
+                    ? profile.lookupFrequency(smoothedSpeed)
+                    : profile.computeFrequency(smoothedSpeed);
 
             Log.d(TAG, String.format("Speed %.1f km/h -> Frequency %d Hz", smoothedSpeed, frequency));
             return frequency;
@@ -103,6 +299,64 @@ public class SpeedToControlConverter {
         }
     }
 
+    /**
+     * 车速到强度的分段线性映射（不含平滑）
+     * 即内置转换配置，同时作为其查找表的编译来源
+     * @param smoothedSpeed 平滑后的车速（km/h）
+     * @return 强度值（0-200）
+     */
+    static int mapSpeedToIntensity(double smoothedSpeed) {
+        int intensity;
+        if (smoothedSpeed <= Constants.LOW_SPEED_THRESHOLD) {
+            // 低速段：0-30 km/h -> 0-50
+            intensity = mapValue(smoothedSpeed, 0, Constants.LOW_SPEED_THRESHOLD,
+                    Constants.LOW_SPEED_INTENSITY_RANGE[0], Constants.LOW_SPEED_INTENSITY_RANGE[1]);
+        } else if (smoothedSpeed <= Constants.MEDIUM_SPEED_THRESHOLD) {
+            // 中速段：30-80 km/h -> 50-120
+            intensity = mapValue(smoothedSpeed, Constants.LOW_SPEED_THRESHOLD, Constants.MEDIUM_SPEED_THRESHOLD,
+                    Constants.MEDIUM_SPEED_INTENSITY_RANGE[0], Constants.MEDIUM_SPEED_INTENSITY_RANGE[1]);
+        } else if (smoothedSpeed <= Constants.HIGH_SPEED_THRESHOLD) {
+            // 高速段：80-120 km/h -> 120-200
+            intensity = mapValue(smoothedSpeed, Constants.MEDIUM_SPEED_THRESHOLD, Constants.HIGH_SPEED_THRESHOLD,
+                    Constants.HIGH_SPEED_INTENSITY_RANGE[0], Constants.HIGH_SPEED_INTENSITY_RANGE[1]);
+        } else {
+            // 超高速：保持最大强度
+            intensity = Constants.INTENSITY_MAX;
+        }
+
+        // 确保在有效范围内
+        return Math.max(Constants.INTENSITY_MIN, Math.min(Constants.INTENSITY_MAX, intensity));
+    }
+
+    /**
+     * 车速到频率的分段线性映射（不含平滑）
+     * 即内置转换配置，同时作为其查找表的编译来源
+     * @param smoothedSpeed 平滑后的车速（km/h）
+     * @return 频率值（10-240 Hz）
+     */
+    static int mapSpeedToFrequency(double smoothedSpeed) {
+        int frequency;
+        if (smoothedSpeed <= Constants.LOW_SPEED_THRESHOLD) {
+            // 低速段：0-30 km/h -> 10-30 Hz
+            frequency = mapValue(smoothedSpeed, 0, Constants.LOW_SPEED_THRESHOLD,
+                    Constants.LOW_SPEED_FREQUENCY_RANGE[0], Constants.LOW_SPEED_FREQUENCY_RANGE[1]);
+        } else if (smoothedSpeed <= Constants.MEDIUM_SPEED_THRESHOLD) {
+            // 中速段：30-80 km/h -> 30-80 Hz
+            frequency = mapValue(smoothedSpeed, Constants.LOW_SPEED_THRESHOLD, Constants.MEDIUM_SPEED_THRESHOLD,
+                    Constants.MEDIUM_SPEED_FREQUENCY_RANGE[0], Constants.MEDIUM_SPEED_FREQUENCY_RANGE[1]);
+        } else if (smoothedSpeed <= Constants.HIGH_SPEED_THRESHOLD) {
+            // 高速段：80-120 km/h -> 80-150 Hz
+            frequency = mapValue(smoothedSpeed, Constants.MEDIUM_SPEED_THRESHOLD, Constants.HIGH_SPEED_THRESHOLD,
+                    Constants.HIGH_SPEED_FREQUENCY_RANGE[0], Constants.HIGH_SPEED_FREQUENCY_RANGE[1]);
+        } else {
+            // 超高速：保持较高频率
+            frequency = Constants.HIGH_SPEED_FREQUENCY_RANGE[1];
+        }
+
+        // 确保在有效范围内
+        return Math.max(Constants.FREQUENCY_MIN, Math.min(Constants.FREQUENCY_MAX, frequency));
+    }
+
     /**
      * 生成B0指令（基于车速）
      * @param speedKmH 车速（km/h）
@@ -111,8 +365,7 @@ public class SpeedToControlConverter {
      */
     public String generateB0Command(double speedKmH, String channel) {
         int intensity = convertSpeedToIntensity(speedKmH);
-        SocketProtocolHelper helper = new SocketProtocolHelper();
-        return helper.generateB0Command(channel, intensity);
+        return BluetoothCommandCodec.toB0String(channel, intensity);
     }
 
     /**
@@ -122,34 +375,70 @@ public class SpeedToControlConverter {
      * @return BF指令字符串
      */
     public String generateBFCommand(double speedKmH, String channel) {
-        int intensity = convertSpeedToIntensity(speedKmH);
-        int frequency = convertSpeedToFrequency(speedKmH);
-        SocketProtocolHelper helper = new SocketProtocolHelper();
-        return helper.generateBFCommand(channel, frequency, intensity);
+        long frame = convert(speedKmH);
+        return BluetoothCommandCodec.toBFString(channel, ControlFrame.frequency(frame), ControlFrame.intensity(frame));
     }
 
     /**
      * 数据平滑处理
-     * 使用移动平均滤波减少车速波动
+     * 先在采样线程上应用新发布的滤波器参数和重置请求，再进行滤波
+     * @param current 当前快照
      * @param newSpeed 新的车速值
+     * @param timestampMs 采样时间戳（毫秒）
      * @return 平滑后的车速值
      */
-    private double smoothSpeedData(double newSpeed) {
-        // 添加新数据到队列
-        speedHistory.add(newSpeed);
-
-        // 保持队列大小
-        while (speedHistory.size() > smoothingWindowSize) {
-            speedHistory.poll();
+    private double smooth(ConverterSnapshot current, double newSpeed, long timestampMs) {
+        if (current.getFilterConfig() != appliedFilterConfig) {
+            applyFilterConfig(current.getFilterConfig());
+        }
+        if (resetRequested.get() && resetRequested.compareAndSet(true, false)) {
+            smoother.reset();
+            modulator.reset();
+            hasLastSample = false;
         }
 
-        // 计算平均值
-        double sum = 0;
-        for (double speed : speedHistory) {
-            sum += speed;
+        // 加减速调制使用原始采样，由导数估计器自行抑制噪声
+        intensityAdjustment = modulator.update(newSpeed, timestampMs, current.getModulationConfig());
+
+        double smoothedSpeed = smoother.filter(newSpeed, timestampMs);
+        hasLastSample = true;
+        lastSmoothedSpeed = smoothedSpeed;
+        lastTimestampMs = timestampMs;
+        return smoothedSpeed;
+    }
+
+    /**
+     * 应用滤波器参数
+     * 同类滤波器就地修改参数并保留状态；类型不同时新建滤波器，并用上一个平滑结果预热以避免输出跳变
+     * @param config 新的滤波器参数
+     */
+    private void applyFilterConfig(FilterConfig config) {
+        try {
+            if (!config.reconfigure(smoother)) {
+                SpeedFilter replacement = config.create();
+                if (hasLastSample) {
+                    replacement.filter(lastSmoothedSpeed, lastTimestampMs);
+                }
+                smoother = replacement;
+            }
+            Log.d(TAG, "Speed filter set to " + smoother.getName());
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Invalid filter config, keeping " + smoother.getName(), e);
         }
+        appliedFilterConfig = config;
+    }
 
-        return sum / speedHistory.size();
+    /**
+     * 对强度叠加调整量并限制在有效范围内
+     * @param intensity 强度值
+     * @param adjustment 调整量
+     * @return 调整后的强度值（0-200）
+     */
+    static int adjustIntensity(int intensity, int adjustment) {
+        if (adjustment == 0) {
+            return intensity;
+        }
+        return Math.max(Constants.INTENSITY_MIN, Math.min(Constants.INTENSITY_MAX, intensity + adjustment));
     }
 
     /**
@@ -162,7 +451,7 @@ public class SpeedToControlConverter {
      * @param outMax 输出最大值
      * @return 映射后的值
      */
-    private int mapValue(double value, double inMin, double inMax, int outMin, int outMax) {
+    private static int mapValue(double value, double inMin, double inMax, int outMin, int outMax) {
         if (inMax == inMin) {
             return outMin;
         }
@@ -178,15 +467,147 @@ public class SpeedToControlConverter {
      * 用于重新开始数据收集
      */
     public void resetSmoothing() {
-        speedHistory.clear();
-        Log.d(TAG, "Speed smoothing data reset");
+        resetRequested.set(true);
+        Log.d(TAG, "Speed smoothing data reset requested");
     }
 
     /**
      * 获取当前平滑窗口大小
-     * @return 窗口大小
+     * @return 窗口大小，当前滤波器不是移动平均滤波器时返回0
      */
     public int getSmoothingWindowSize() {
-        return smoothingWindowSize;
+        FilterConfig config = snapshot.get().getFilterConfig();
+        return FilterConfig.TYPE_MOVING_AVERAGE.equals(config.getType()) ? config.getWindowSize() : 0;
+    }
+
+    /**
+     * 设置平滑窗口大小
+     * 使用移动平均滤波，可在运行时调整，保留最新的平滑历史
+     * @param windowSize 窗口大小（采样数）
+     */
+    public void setSmoothingWindowSize(int windowSize) {
+        setFilterConfig(FilterConfig.movingAverage(windowSize));
+    }
+
+    /**
+     * 获取当前快照
+     * @return 当前发布的转换配置和滤波器参数
+     */
+    public ConverterSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * 发布新快照
+     * 可从任意线程调用，下一个采样生效
+     * @param newSnapshot 新快照
+     */
+    public void publish(ConverterSnapshot newSnapshot) {
+        if (newSnapshot == null) {
+            throw new IllegalArgumentException("Snapshot must not be null");
+        }
+        snapshot.set(newSnapshot);
+    }
+
+    /**
+     * 获取当前转换配置
+     * @return 转换配置
+     */
+    public ConversionProfile getProfile() {
+        return snapshot.get().getProfile();
+    }
+
+    /**
+     * 更换转换配置
+     * 可从任意线程调用，配置自带滤波器参数时一并生效
+     * @param profile 已编译的转换配置，传入null时恢复内置配置
+     */
+    public void setProfile(ConversionProfile profile) {
+        ConversionProfile newProfile = profile != null ? profile : ConversionProfile.BUILT_IN;
+        snapshot.updateAndGet(current -> current.withProfile(newProfile));
+        Log.d(TAG, "Conversion profile set to " + newProfile.getName());
+    }
+
+    /**
+     * 更换滤波器参数
+     * 可从任意线程调用，同类滤波器保留滤波状态
+     * @param filterConfig 滤波器参数
+     * @throws IllegalArgumentException 参数无效时抛出
+     */
+    public void setFilterConfig(FilterConfig filterConfig) {
+        filterConfig.validate();
+        snapshot.updateAndGet(current -> current.withFilterConfig(filterConfig));
+    }
+
+    /**
+     * 更换单个通道的配置
+     * 可从任意线程调用，通道标识不存在时追加新通道
+     * @param channelConfig 通道配置
+     */
+    public void setChannelConfig(ChannelConfig channelConfig) {
+        snapshot.updateAndGet(current -> current.withChannel(channelConfig));
+        Log.d(TAG, "Channel " + channelConfig.getChannel() + " config updated");
+    }
+
+    /**
+     * 启用或停用通道
+     * @param channel 通道标识（A或B）
+     * @param enabled 是否输出
+     */
+    public void setChannelEnabled(String channel, boolean enabled) {
+        snapshot.updateAndGet(current -> {
+            for (int i = 0; i < current.getChannelCount(); i++) {
+                ChannelConfig config = current.getChannel(i);
+                if (config.getChannel().equals(channel)) {
+                    return current.withChannel(config.withEnabled(enabled));
+                }
+            }
+            return current.withChannel(ChannelConfig.passThrough(channel).withEnabled(enabled));
+        });
+    }
+
+    /**
+     * 更换加减速调制参数
+     * 可从任意线程调用
+     * @param modulationConfig 调制参数，{@link ModulationConfig#DISABLED}表示关闭
+     */
+    public void setModulationConfig(ModulationConfig modulationConfig) {
+        if (modulationConfig == null) {
+            throw new IllegalArgumentException("Modulation config must not be null");
+        }
+        snapshot.updateAndGet(current -> current.withModulationConfig(modulationConfig));
+    }
+
+    /**
+     * 获取最近的加速度估计
+     * @return 加速度（m/s²），减速为负
+     */
+    public double getAcceleration() {
+        return modulator.getEstimator().getAcceleration();
+    }
+
+    /**
+     * 获取最近的加加速度估计
+     * @return 加加速度（m/s³）
+     */
+    public double getJerk() {
+        return modulator.getEstimator().getJerk();
+    }
+
+    /**
+     * 获取当前车速滤波器
+     * 可通过{@link SpeedFilter#getLagMs()}和{@link SpeedFilter#getJitter()}比较不同滤波器
+     * @return 车速滤波器
+     */
+    public SpeedFilter getSpeedFilter() {
+        return smoother;
+    }
+
+    /**
+     * 是否使用查找表
+     * @return 查找表模式返回true
+     */
+    public boolean isCompiledMode() {
+        return compiledMode;
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.byd.dglab.integration;
+
+/**
+ * 滑动中值滤波器
+ * 剔除GPS跳点等孤立离群值，窗口内保持一个有序数组，
+ * 每次更新只移动窗口大小个元素（窗口固定且很小，因此为常数开销），不产生对象分配
+ */
+public class StreamingMedianFilter extends AbstractSpeedFilter {
+
+    /** 允许的最大窗口，保证每次更新的开销有界 */
+    public static final int MAX_WINDOW_SIZE = 31;
+
+    private int windowSize;
+
+    // 按到达顺序保存的环形缓冲区
+    private double[] arrival;
+    // 有序窗口
+    private double[] sorted;
+
+    private int head;
+    private int count;
+
+    public StreamingMedianFilter() {
+        this(Constants.MEDIAN_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize 窗口大小（采样数，1-31）
+     */
+    public StreamingMedianFilter(int windowSize) {
+        checkWindowSize(windowSize);
+        this.windowSize = windowSize;
+        this.arrival = new double[windowSize];
+        this.sorted = new double[windowSize];
+    }
+
+    /**
+     * 修改窗口大小
+     * 保留最新的采样，不会丢失滤波历史
+     * @param newSize 新的窗口大小（采样数，1-31）
+     */
+    public void setWindowSize(int newSize) {
+        checkWindowSize(newSize);
+        if (newSize == windowSize) {
+            return;
+        }
+
+        // 按从旧到新的顺序取出最新的采样，重新建立有序窗口
+        int keep = Math.min(count, newSize);
+        double[] newArrival = new double[newSize];
+        double[] newSorted = new double[newSize];
+        for (int i = 0; i < keep; i++) {
+            int index = head - keep + i;
+            if (index < 0) {
+                index += windowSize;
+            }
+            newArrival[i] = arrival[index];
+        }
+
+        arrival = newArrival;
+        sorted = newSorted;
+        windowSize = newSize;
+        count = 0;
+        for (int i = 0; i < keep; i++) {
+            insertSorted(newArrival[i], count++);
+        }
+        head = keep == newSize ? 0 : keep;
+    }
+
+    private static void checkWindowSize(int windowSize) {
+        if (windowSize < 1 || windowSize > MAX_WINDOW_SIZE) {
+            throw new IllegalArgumentException("Window size must be 1-" + MAX_WINDOW_SIZE + ": " + windowSize);
+        }
+    }
+
+    @Override
+    protected double apply(double speedKmH, long deltaMs) {
+        // NaN无法排序，直接丢弃
+        if (Double.isNaN(speedKmH)) {
+            return count == 0 ? speedKmH : median();
+        }
+
+        if (count == windowSize) {
+            removeSorted(arrival[head]);
+        } else {
+            count++;
+        }
+        arrival[head] = speedKmH;
+        head = head + 1 == windowSize ? 0 : head + 1;
+        insertSorted(speedKmH, count - 1);
+
+        return median();
+    }
+
+    /**
+     * 从有序窗口中删除一个值（窗口已满时调用）
+     */
+    private void removeSorted(double value) {
+        int index = 0;
+        while (index < windowSize - 1 && sorted[index] != value) {
+            index++;
+        }
+        System.arraycopy(sorted, index + 1, sorted, index, windowSize - 1 - index);
+    }
+
+    /**
+     * 将值插入有序窗口
+     * @param size 插入前的有效元素数
+     */
+    private void insertSorted(double value, int size) {
+        int index = size;
+        while (index > 0 && sorted[index - 1] > value) {
+            sorted[index] = sorted[index - 1];
+            index--;
+        }
+        sorted[index] = value;
+    }
+
+    private double median() {
+        int mid = count >> 1;
+        return (count & 1) == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) * 0.5;
+    }
+
+    @Override
+    protected void resetState() {
+        head = 0;
+        count = 0;
+    }
+
+    @Override
+    public String getName() {
+        return "Median(" + windowSize + ")";
+    }
+
+    /**
+     * 获取窗口大小
+     * @return 窗口大小（采样数）
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+}
@@ -0,0 +1,106 @@
+package com.byd.dglab.integration;
+
+import android.util.Log;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+/**
+ * 共享的TLS上下文
+ * 所有wss连接使用同一个SSLContext，客户端会话缓存在连接之间保留，重连时恢复会话，省去完整握手的往返
+ */
+public final class TlsSessionCache {
+
+    private static final String TAG = Constants.LOG_TAG + "_Tls";
+
+    private static SSLContext sslContext;
+    // 信任的证书，null表示系统信任的证书
+    private static TrustManager[] trustManagers;
+
+    // 统计
+    private static volatile long prewarmCount;
+    private static volatile long lastPrewarmHandshakeMs;
+
+    private TlsSessionCache() {
+    }
+
+    /**
+     * 获取共享的SSLSocketFactory
+     * @return SSLSocketFactory
+     * @throws GeneralSecurityException 无法创建TLS上下文时抛出
+     */
+    public static synchronized SSLSocketFactory getSocketFactory() throws GeneralSecurityException {
+        if (sslContext == null) {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagers, null);
+            SSLSessionContext sessions = context.getClientSessionContext();
+            sessions.setSessionCacheSize(Constants.TLS_SESSION_CACHE_SIZE);
+            sessions.setSessionTimeout(Constants.TLS_SESSION_TIMEOUT_S);
+            sslContext = context;
+        }
+        return sslContext.getSocketFactory();
+    }
+
+    /**
+     * 替换信任的证书，已缓存的会话一并丢弃
+     * 用于连接使用自签名证书的服务器（如本地测试服务器）
+     * @param newTrustManagers 信任管理器，null表示恢复系统信任的证书
+     */
+    static synchronized void setTrustManagers(TrustManager[] newTrustManagers) {
+        trustManagers = newTrustManagers;
+        sslContext = null;
+    }
+
+    /**
+     * 获取客户端会话缓存中的会话数
+     * @return 会话数，还没有创建TLS上下文时为0
+     */
+    public static synchronized int getCachedSessionCount() {
+        if (sslContext == null) {
+            return 0;
+        }
+        return Collections.list(sslContext.getClientSessionContext().getIds()).size();
+    }
+
+    /**
+     * 预热：解析地址并完成一次TLS握手后关闭，解析结果和会话进入缓存
+     * 阻塞调用，不能在发送线程上执行
+     * @param host 主机名
+     * @param port 端口
+     * @throws IOException 连接或握手失败时抛出
+     * @throws GeneralSecurityException 无法创建TLS上下文时抛出
+     */
+    public static void prewarm(String host, int port) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+        InetSocketAddress address = new InetSocketAddress(CachingDnsResolver.getShared().resolve(host), port);
+        try (SSLSocket socket = (SSLSocket) getSocketFactory().createSocket()) {
+            socket.connect(address, Constants.CONNECTION_TIMEOUT_MS);
+            SSLParameters parameters = socket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            socket.setSSLParameters(parameters);
+            socket.startHandshake();
+        }
+        lastPrewarmHandshakeMs = (System.nanoTime() - start) / 1_000_000;
+        prewarmCount++;
+        Log.d(TAG, "Prewarmed " + host + ":" + port + " in " + lastPrewarmHandshakeMs + " ms");
+    }
+
+    public static long getPrewarmCount() {
+        return prewarmCount;
+    }
+
+    /**
+     * 获取最近一次预热的耗时（DNS、TCP和TLS握手）
+     * @return 耗时（毫秒）
+     */
+    public static long getLastPrewarmHandshakeMs() {
+        return lastPrewarmHandshakeMs;
+    }
+}
@@ -0,0 +1,55 @@
+package com.byd.dglab.integration;
+
+/**
+ * SOCKET V3 JSON格式
+ * 与{@link SocketProtocolHelper}生成的JSON命令逐字节一致，脉冲命令可以从命令缓存直接复制
+ */
+public class V3JsonCodec implements WaveformCodec {
+
+    private final JsonCommandEncoder encoder = new JsonCommandEncoder();
+    private final CommandCache commandCache;
+
+    /**
+     * @param commandCache 脉冲命令缓存，可以为null
+     */
+    public V3JsonCodec(CommandCache commandCache) {
+        this.commandCache = commandCache;
+    }
+
+    @Override
+    public String getName() {
+        return ProtocolCodecs.V3_JSON;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsWaveform() {
+        return true;
+    }
+
+    @Override
+    public int encodeStrength(String channel, int intensity, byte[] out, int offset) {
+        return encoder.encodeStrength(channel, intensity, out, offset);
+    }
+
+    @Override
+    public int encodePulse(String channel, int frequency, int intensity, byte[] out, int offset) {
+        if (commandCache != null) {
+            byte[] cached = commandCache.getPulseCommandBytes(channel, frequency, intensity);
+            if (cached != null) {
+                System.arraycopy(cached, 0, out, offset, cached.length);
+                return cached.length;
+            }
+        }
+        return encoder.encodePulse(channel, frequency, intensity, out, offset);
+    }
+
+    @Override
+    public int encodeWaveform(String channel, byte[] segments, int segmentOffset, int count, byte[] out, int offset) {
+        return encoder.encodeWaveform(channel, segments, segmentOffset, count, out, offset);
+    }
+}
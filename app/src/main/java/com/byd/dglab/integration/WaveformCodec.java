@@ -0,0 +1,21 @@
+package com.byd.dglab.integration;
+
+/**
+ * 支持V3波形命令的编码接口
+ * 只有{@link ProtocolCodec#supportsWaveform()}返回true的格式实现该接口；
+ * 其他格式在波形调度模式下改为发送脉冲命令
+ */
+public interface WaveformCodec extends ProtocolCodec {
+
+    /**
+     * 编码波形命令
+     * @param channel 通道（A或B）
+     * @param segments 波形段字节（每段100毫秒，{@link WaveformEncoder#SEGMENT_BYTES}字节）
+     * @param segmentOffset 第一个波形段的序号
+     * @param count 波形段数，不超过{@link Constants#WAVEFORM_MAX_SEGMENTS_PER_MESSAGE}
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数
+     */
+    int encodeWaveform(String channel, byte[] segments, int segmentOffset, int count, byte[] out, int offset);
+}
@@ -0,0 +1,174 @@
+package com.byd.dglab.integration;
+
+/**
+ * DG-LAB V3波形编码
+ * 每个100毫秒的波形段由4个频率字节和4个强度字节组成，编码为16个十六进制字符，
+ * 例如"0A0A0A0A00000000"
+ *
+ * 频率字节由脉冲周期（毫秒）换算：10-100原样输出，101-600为(周期-100)/5+100，
+ * 601-1000为(周期-600)/10+200；强度字节为0-100的百分比
+ * 所有换算都预先计算为查找表
+ */
+public final class WaveformEncoder {
+
+    /** 每个波形段的字节数 */
+    public static final int SEGMENT_BYTES = Constants.WAVEFORM_POINTS_PER_SEGMENT * 2;
+
+    /** 每个波形段编码后的十六进制字符数 */
+    public static final int SEGMENT_HEX_LENGTH = SEGMENT_BYTES * 2;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // 十六进制字符到数值，非十六进制字符为-1
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    // 脉冲周期（毫秒）到频率字节
+    private static final byte[] FREQUENCY_BY_PERIOD = new byte[Constants.WAVEFORM_PERIOD_MAX_MS + 1];
+
+    // 频率（Hz）到频率字节
+    private static final byte[] FREQUENCY_BY_HZ = new byte[Constants.FREQUENCY_MAX + 1];
+
+    // 强度（0-200）到强度字节（0-100）
+    private static final byte[] INTENSITY_BY_VALUE = new byte[Constants.INTENSITY_MAX + 1];
+
+    static {
+        java.util.Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+            HEX_VALUES[Character.toLowerCase(HEX_DIGITS[i])] = (byte) i;
+        }
+
+        for (int period = 0; period <= Constants.WAVEFORM_PERIOD_MAX_MS; period++) {
+            FREQUENCY_BY_PERIOD[period] = (byte) computeFrequencyByte(period);
+        }
+        for (int hz = 0; hz <= Constants.FREQUENCY_MAX; hz++) {
+            int period = hz > 0 ? (int) Math.round(1000.0 / hz) : Constants.WAVEFORM_PERIOD_MAX_MS;
+            FREQUENCY_BY_HZ[hz] = FREQUENCY_BY_PERIOD[Math.min(period, Constants.WAVEFORM_PERIOD_MAX_MS)];
+        }
+        for (int intensity = 0; intensity <= Constants.INTENSITY_MAX; intensity++) {
+            INTENSITY_BY_VALUE[intensity] = (byte) Math.round(
+                    (double) intensity * Constants.WAVEFORM_INTENSITY_MAX / Constants.INTENSITY_MAX);
+        }
+    }
+
+    private WaveformEncoder() {
+    }
+
+    /**
+     * 按协议公式将脉冲周期换算为频率字节（仅用于生成查找表）
+     * @param periodMs 脉冲周期（毫秒）
+     * @return 频率字节（10-240）
+     */
+    static int computeFrequencyByte(int periodMs) {
+        int period = Math.max(Constants.WAVEFORM_PERIOD_MIN_MS, Math.min(Constants.WAVEFORM_PERIOD_MAX_MS, periodMs));
+        if (period <= 100) {
+            return period;
+        } else if (period <= 600) {
+            return (period - 100) / 5 + 100;
+        } else {
+            return (period - 600) / 10 + 200;
+        }
+    }
+
+    /**
+     * 脉冲周期换算为频率字节
+     * @param periodMs 脉冲周期（毫秒），超出10-1000时取边界值
+     * @return 频率字节（10-240）
+     */
+    public static int encodePeriod(int periodMs) {
+        if (periodMs < 0) {
+            periodMs = 0;
+        } else if (periodMs > Constants.WAVEFORM_PERIOD_MAX_MS) {
+            periodMs = Constants.WAVEFORM_PERIOD_MAX_MS;
+        }
+        return FREQUENCY_BY_PERIOD[periodMs] & 0xFF;
+    }
+
+    /**
+     * 频率换算为频率字节
+     * @param frequencyHz 频率（Hz），超出范围时取边界值
+     * @return 频率字节（10-240）
+     */
+    public static int encodeFrequency(int frequencyHz) {
+        if (frequencyHz < 0) {
+            frequencyHz = 0;
+        } else if (frequencyHz > Constants.FREQUENCY_MAX) {
+            frequencyHz = Constants.FREQUENCY_MAX;
+        }
+        return FREQUENCY_BY_HZ[frequencyHz] & 0xFF;
+    }
+
+    /**
+     * 强度换算为强度字节
+     * @param intensity 强度值（0-200），超出范围时取边界值
+     * @return 强度字节（0-100）
+     */
+    public static int encodeIntensity(int intensity) {
+        if (intensity < Constants.INTENSITY_MIN) {
+            intensity = Constants.INTENSITY_MIN;
+        } else if (intensity > Constants.INTENSITY_MAX) {
+            intensity = Constants.INTENSITY_MAX;
+        }
+        return INTENSITY_BY_VALUE[intensity];
+    }
+
+    /**
+     * 写入一个字节的两个十六进制字符
+     * @param out 输出
+     * @param value 字节值（0-255）
+     */
+    public static void appendHexByte(StringBuilder out, int value) {
+        out.append(HEX_DIGITS[(value >>> 4) & 0x0F]).append(HEX_DIGITS[value & 0x0F]);
+    }
+
+    /**
+     * 将字节数组编码为十六进制字符串
+     * @param data 字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     * @param out 输出
+     */
+    public static void appendHex(byte[] data, int offset, int length, StringBuilder out) {
+        for (int i = offset; i < offset + length; i++) {
+            appendHexByte(out, data[i]);
+        }
+    }
+
+    /**
+     * 将十六进制字符串解码到字节数组
+     * 字符数为奇数时忽略最后一个字符
+     * @param hex 十六进制字符串，大小写均可
+     * @param out 输出数组，长度不小于hex.length()/2
+     * @param offset 写入位置
+     * @return 写入的字节数
+     * @throws IllegalArgumentException 包含非十六进制字符时抛出
+     */
+    public static int decodeHex(CharSequence hex, byte[] out, int offset) {
+        int length = hex.length() / 2;
+        for (int i = 0; i < length; i++) {
+            int high = hexValue(hex.charAt(2 * i));
+            int low = hexValue(hex.charAt(2 * i + 1));
+            if ((high | low) < 0) {
+                throw new IllegalArgumentException("Invalid hex character near index " + 2 * i);
+            }
+            out[offset + i] = (byte) ((high << 4) | low);
+        }
+        return length;
+    }
+
+    /**
+     * 将十六进制字符串解码为字节数组
+     * @param hex 十六进制字符串，大小写均可
+     * @return 字节数组
+     * @throws IllegalArgumentException 包含非十六进制字符时抛出
+     */
+    public static byte[] decodeHex(CharSequence hex) {
+        byte[] data = new byte[hex.length() / 2];
+        decodeHex(hex, data, 0);
+        return data;
+    }
+
+    private static int hexValue(char c) {
+        return c < 128 ? HEX_VALUES[c] : -1;
+    }
+}
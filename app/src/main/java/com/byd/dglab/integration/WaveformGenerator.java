@@ -0,0 +1,107 @@
+package com.byd.dglab.integration;
+
+/**
+ * V3波形生成器
+ * 将目标（频率，强度）轨迹转换为100毫秒波形段，每段的4个点从上一段的终点线性插值到本段目标，
+ * 相邻的调用之间保持连续
+ * 非线程安全，每个通道使用一个实例
+ */
+public class WaveformGenerator {
+
+    private static final int POINTS = Constants.WAVEFORM_POINTS_PER_SEGMENT;
+
+    // 上一段终点的频率（Hz）和强度（0-200），还没有生成过波形段时为-1
+    private int lastFrequency = -1;
+    private int lastIntensity = -1;
+
+    // 十六进制输出使用的字节缓冲
+    private final byte[] segment = new byte[WaveformEncoder.SEGMENT_BYTES];
+
+    /**
+     * 生成一个波形段的字节：前4个为频率字节，后4个为强度字节
+     * @param frequency 本段结束时的目标频率（Hz）
+     * @param intensity 本段结束时的目标强度（0-200）
+     * @param out 输出数组
+     * @param offset 写入位置
+     * @return 写入的字节数，即{@link WaveformEncoder#SEGMENT_BYTES}
+     */
+    public int nextSegment(int frequency, int intensity, byte[] out, int offset) {
+        int startFrequency = lastFrequency >= 0 ? lastFrequency : frequency;
+        int startIntensity = lastIntensity >= 0 ? lastIntensity : intensity;
+
+        for (int point = 1; point <= POINTS; point++) {
+            int pointFrequency = startFrequency + Math.round((float) (frequency - startFrequency) * point / POINTS);
+            int pointIntensity = startIntensity + Math.round((float) (intensity - startIntensity) * point / POINTS);
+            out[offset + point - 1] = (byte) WaveformEncoder.encodeFrequency(pointFrequency);
+            out[offset + POINTS + point - 1] = (byte) WaveformEncoder.encodeIntensity(pointIntensity);
+        }
+
+        lastFrequency = frequency;
+        lastIntensity = intensity;
+        return WaveformEncoder.SEGMENT_BYTES;
+    }
+
+    /**
+     * 生成一个波形段
+     * @param frequency 本段结束时的目标频率（Hz）
+     * @param intensity 本段结束时的目标强度（0-200）
+     * @param out 写入16个十六进制字符
+     */
+    public void appendSegment(int frequency, int intensity, StringBuilder out) {
+        nextSegment(frequency, intensity, segment, 0);
+        WaveformEncoder.appendHex(segment, 0, segment.length, out);
+    }
+
+    /**
+     * 生成一个波形段
+     * @param frequency 本段结束时的目标频率（Hz）
+     * @param intensity 本段结束时的目标强度（0-200）
+     * @return 16个字符的十六进制波形段
+     */
+    public String nextSegment(int frequency, int intensity) {
+        StringBuilder out = new StringBuilder(WaveformEncoder.SEGMENT_HEX_LENGTH);
+        appendSegment(frequency, intensity, out);
+        return out.toString();
+    }
+
+    /**
+     * 将目标轨迹转换为波形段
+     * @param frequencies 每个100毫秒段结束时的目标频率（Hz）
+     * @param intensities 每个100毫秒段结束时的目标强度（0-200）
+     * @return 十六进制波形段，与输入一一对应
+     */
+    public String[] generate(int[] frequencies, int[] intensities) {
+        if (frequencies.length != intensities.length) {
+            throw new IllegalArgumentException("Trajectory lengths do not match");
+        }
+        String[] segments = new String[frequencies.length];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = nextSegment(frequencies[i], intensities[i]);
+        }
+        return segments;
+    }
+
+    /**
+     * 获取上一段终点的频率
+     * @return 频率（Hz），还没有生成过波形段时返回-1
+     */
+    public int getLastFrequency() {
+        return lastFrequency;
+    }
+
+    /**
+     * 获取上一段终点的强度
+     * @return 强度值（0-200），还没有生成过波形段时返回-1
+     */
+    public int getLastIntensity() {
+        return lastIntensity;
+    }
+
+    /**
+     * 重置插值起点，下一段直接从目标值开始
+     */
+    public void reset() {
+        lastFrequency = -1;
+        lastIntensity = -1;
+    }
+}
@@ -0,0 +1,318 @@
+package com.byd.dglab.integration;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * 波形预发送调度器
+ * 在设备端保持一定时长的波形段队列，按设备100毫秒的播放节拍定时补充，而不是在车速采样到达时发送；
+ * 补充的波形段从上一段的终点插值到预测的控制值，使输出平滑，不会在每秒一次的采样之间停顿或跳变
+ *
+ * 预留时长与补充阈值相差不少于一个车速更新间隔，每个通道的补充频率不超过车速更新频率；
+ * 目标值没有变化时已发送的波形仍然有效，推迟到队列接近播完再补充。波形段写入复用的字节缓冲，补充时不分配对象
+ *
+ * 波形命令只能追加，设备不能清空已排队的波形段，强度下降要等队列中的旧波形播放完才生效。
+ * 因此目标强度下降（包括降到0）时不等补充阈值，队列一低于下降预留时长就立即补充，
+ * 并在下降期间把队列限制在{@link Constants#WAVEFORM_DOWNWARD_LOOK_AHEAD_MS}以内，之后的下降和停止最多延迟这么久；
+ * 目标强度回升后恢复完整的预留时长
+ *
+ * 预测值由最近两个控制值线性外推并限制在有效范围内，外推时长不超过一个采样间隔；
+ * 所有方法只能在构造时传入的Handler线程上调用
+ */
+public class WaveformScheduler {
+
+    private static final String TAG = Constants.LOG_TAG + "_Waveform";
+
+    private static final String[] CHANNELS = {Constants.CHANNEL_A, Constants.CHANNEL_B};
+
+    private final Handler handler;
+    private final WaveformSink sink;
+    private final Runnable tick = this::onTick;
+
+    private int lookAheadMs = Constants.WAVEFORM_LOOK_AHEAD_MS;
+    private int refillThresholdMs = Constants.WAVEFORM_REFILL_THRESHOLD_MS;
+
+    // 补充时生成的波形段，发送后复用
+    private final byte[] segmentBuffer =
+            new byte[Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE * WaveformEncoder.SEGMENT_BYTES];
+
+    // 每个通道的波形生成器和最近两个控制值
+    private final WaveformGenerator[] generators = new WaveformGenerator[CHANNELS.length];
+    private final boolean[] hasTarget = new boolean[CHANNELS.length];
+    private final int[] lastFrequency = new int[CHANNELS.length];
+    private final int[] lastIntensity = new int[CHANNELS.length];
+    private final long[] lastUpdateMs = new long[CHANNELS.length];
+    private final boolean[] hasPrevious = new boolean[CHANNELS.length];
+    private final int[] previousFrequency = new int[CHANNELS.length];
+    private final int[] previousIntensity = new int[CHANNELS.length];
+    private final long[] previousUpdateMs = new long[CHANNELS.length];
+
+    // 上次补充之后目标值是否变化
+    private final boolean[] targetChanged = new boolean[CHANNELS.length];
+
+    // 目标强度是否处于下降中（最近一次强度变化为下降）
+    private final boolean[] targetFalling = new boolean[CHANNELS.length];
+
+    // 每个通道已发送的波形段播放到的时间（uptimeMillis），0表示队列为空
+    private final long[] queuedUntilMs = new long[CHANNELS.length];
+
+    private boolean running;
+    private long nextTickMs;
+
+    // 统计
+    private long underrunCount;
+    private long segmentsSent;
+    private long skippedRefills;
+
+    /**
+     * @param handler 运行定时器的Handler
+     * @param sink 波形命令接收方
+     */
+    public WaveformScheduler(Handler handler, WaveformSink sink) {
+        this.handler = handler;
+        this.sink = sink;
+        for (int i = 0; i < CHANNELS.length; i++) {
+            generators[i] = new WaveformGenerator();
+        }
+    }
+
+    /**
+     * 开始定时补充波形
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        nextTickMs = SystemClock.uptimeMillis() + Constants.WAVEFORM_SEGMENT_MS;
+        handler.postAtTime(tick, nextTickMs);
+        Log.d(TAG, "Waveform scheduler started, look-ahead " + lookAheadMs + " ms");
+    }
+
+    /**
+     * 停止定时补充并清空所有通道的状态
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        handler.removeCallbacks(tick);
+        for (int i = 0; i < CHANNELS.length; i++) {
+            clearChannel(i);
+        }
+        Log.d(TAG, "Waveform scheduler stopped, underruns " + underrunCount + ", segments sent " + segmentsSent);
+    }
+
+    /**
+     * 更新通道的目标控制值
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz）
+     * @param intensity 强度值（0-200）
+     * @return 通道由调度器处理返回true，调度器未运行或通道未知时返回false
+     */
+    public boolean updateTarget(String channel, int frequency, int intensity) {
+        int index = indexOf(channel);
+        if (!running || index < 0) {
+            return false;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        if (!hasTarget[index] || frequency != lastFrequency[index] || intensity != lastIntensity[index]) {
+            targetChanged[index] = true;
+        }
+        if (hasTarget[index] && intensity != lastIntensity[index]) {
+            targetFalling[index] = intensity < lastIntensity[index];
+        }
+        hasPrevious[index] = hasTarget[index];
+        previousFrequency[index] = lastFrequency[index];
+        previousIntensity[index] = lastIntensity[index];
+        previousUpdateMs[index] = lastUpdateMs[index];
+
+        hasTarget[index] = true;
+        lastFrequency[index] = frequency;
+        lastIntensity[index] = intensity;
+        lastUpdateMs[index] = now;
+        return true;
+    }
+
+    /**
+     * 定时器：检查每个通道的队列深度，不足时补充到预留时长
+     */
+    private void onTick() {
+        if (!running) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+
+        for (int i = 0; i < CHANNELS.length; i++) {
+            if (!hasTarget[i]) {
+                continue;
+            }
+
+            // 长时间没有新的控制值（例如通道已停用），停止补充，设备播放完队列后停止
+            if (now - lastUpdateMs[i] > Constants.WAVEFORM_TARGET_TIMEOUT_MS) {
+                Log.d(TAG, "Channel " + CHANNELS[i] + " target timed out");
+                clearChannel(i);
+                continue;
+            }
+
+            if (queuedUntilMs[i] == 0) {
+                queuedUntilMs[i] = now;
+            } else if (queuedUntilMs[i] < now) {
+                underrunCount++;
+                Log.w(TAG, "Channel " + CHANNELS[i] + " waveform underrun by " + (now - queuedUntilMs[i]) + " ms");
+                queuedUntilMs[i] = now;
+            }
+
+            long depth = queuedUntilMs[i] - now;
+            int limitMs = lookAheadMs;
+            if (targetFalling[i]) {
+                // 强度下降：已排队的旧波形无法撤回，队列低于下降预留时长后立即补充，不等补充阈值
+                limitMs = Math.min(lookAheadMs, Constants.WAVEFORM_DOWNWARD_LOOK_AHEAD_MS);
+                if (depth >= limitMs) {
+                    continue;
+                }
+            } else if (depth > refillThresholdMs) {
+                continue;
+            }
+            // 目标值没有变化，队列中的波形仍然有效，等到接近播完再补充
+            if (!targetChanged[i] && depth > Math.min(Constants.WAVEFORM_LOW_WATER_MS, refillThresholdMs)) {
+                continue;
+            }
+            // 链路拥塞时不再追加，之后的欠载来自网络而不是设备
+            if (!sink.canSendWaveform()) {
+                skippedRefills++;
+                continue;
+            }
+            refill(i, (int) ((limitMs - depth + Constants.WAVEFORM_SEGMENT_MS - 1)
+                    / Constants.WAVEFORM_SEGMENT_MS));
+        }
+
+        // 按固定节拍推进，不累积调度延迟；错过的节拍直接跳过
+        nextTickMs += Constants.WAVEFORM_SEGMENT_MS;
+        if (nextTickMs <= now) {
+            nextTickMs = now + Constants.WAVEFORM_SEGMENT_MS;
+        }
+        handler.postAtTime(tick, nextTickMs);
+    }
+
+    /**
+     * 生成并发送波形段
+     * @param index 通道序号
+     * @param count 波形段数
+     */
+    private void refill(int index, int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        int position = 0;
+        for (int k = 0; k < count; k++) {
+            long segmentEnd = queuedUntilMs[index] + (long) (k + 1) * Constants.WAVEFORM_SEGMENT_MS;
+            position += generators[index].nextSegment(
+                    predict(index, lastFrequency[index], previousFrequency[index], segmentEnd,
+                            Constants.FREQUENCY_MIN, Constants.FREQUENCY_MAX),
+                    predict(index, lastIntensity[index], previousIntensity[index], segmentEnd,
+                            Constants.INTENSITY_MIN, Constants.INTENSITY_MAX),
+                    segmentBuffer, position);
+        }
+
+        sink.sendWaveformCommand(CHANNELS[index], segmentBuffer, count);
+        queuedUntilMs[index] += (long) count * Constants.WAVEFORM_SEGMENT_MS;
+        targetChanged[index] = false;
+        segmentsSent += count;
+    }
+
+    /**
+     * 由最近两个控制值线性外推目标时间的控制值
+     * 外推时长不超过最近一个采样间隔，之后保持不变；结果限制在[min, max]内，
+     * 作为波形生成器下一段的起点，不会把越界的值带入之后的插值
+     */
+    private int predict(int index, int last, int previous, long timeMs, int min, int max) {
+        long interval = lastUpdateMs[index] - previousUpdateMs[index];
+        if (!hasPrevious[index] || interval <= 0) {
+            return last;
+        }
+        long elapsed = Math.max(0, Math.min(interval, timeMs - lastUpdateMs[index]));
+        int predicted = last + Math.round((float) (last - previous) * elapsed / interval);
+        return Math.max(min, Math.min(max, predicted));
+    }
+
+    private void clearChannel(int index) {
+        hasTarget[index] = false;
+        hasPrevious[index] = false;
+        targetChanged[index] = false;
+        targetFalling[index] = false;
+        queuedUntilMs[index] = 0;
+        generators[index].reset();
+    }
+
+    private static int indexOf(String channel) {
+        for (int i = 0; i < CHANNELS.length; i++) {
+            if (CHANNELS[i].equals(channel)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 设置队列预留时长
+     * @param newLookAheadMs 目标预留时长（毫秒），不超过一条消息能容纳的波形段
+     * @param newRefillThresholdMs 队列低于该时长时补充（毫秒），小于预留时长
+     */
+    public void setLookAhead(int newLookAheadMs, int newRefillThresholdMs) {
+        if (newLookAheadMs < Constants.WAVEFORM_SEGMENT_MS
+                || newLookAheadMs > Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE * Constants.WAVEFORM_SEGMENT_MS
+                || newRefillThresholdMs < 0
+                || newRefillThresholdMs >= newLookAheadMs) {
+            throw new IllegalArgumentException("Invalid look-ahead " + newLookAheadMs
+                    + " ms with refill threshold " + newRefillThresholdMs + " ms");
+        }
+        this.lookAheadMs = newLookAheadMs;
+        this.refillThresholdMs = newRefillThresholdMs;
+    }
+
+    /**
+     * 获取通道在设备端的估计队列深度
+     * @param channel 通道（A或B）
+     * @return 剩余播放时长（毫秒）
+     */
+    public long getQueueDepthMs(String channel) {
+        int index = indexOf(channel);
+        if (index < 0 || queuedUntilMs[index] == 0) {
+            return 0;
+        }
+        return Math.max(0, queuedUntilMs[index] - SystemClock.uptimeMillis());
+    }
+
+    /**
+     * 获取队列播放完毕后才补充的次数
+     * @return 次数
+     */
+    public long getUnderrunCount() {
+        return underrunCount;
+    }
+
+    /**
+     * 获取因链路拥塞跳过补充的次数
+     * @return 次数
+     */
+    public long getSkippedRefillCount() {
+        return skippedRefills;
+    }
+
+    /**
+     * 获取已发送的波形段数
+     * @return 波形段数
+     */
+    public long getSegmentsSent() {
+        return segmentsSent;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
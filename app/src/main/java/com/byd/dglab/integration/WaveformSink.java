@@ -0,0 +1,22 @@
+package com.byd.dglab.integration;
+
+/**
+ * 波形命令接收方接口
+ */
+public interface WaveformSink {
+    /**
+     * 发送V3波形命令
+     * 调用返回后调用方会复用segments数组，接收方需要保留时自行复制
+     * @param channel 通道（A或B）
+     * @param segments 波形段字节（每段100毫秒，{@link WaveformEncoder#SEGMENT_BYTES}字节）
+     * @param count 波形段数
+     */
+    void sendWaveformCommand(String channel, byte[] segments, int count);
+
+    /**
+     * 当前是否可以发送波形命令
+     * 链路拥塞时返回false，调度器跳过本次补充
+     * @return 可以发送时返回true
+     */
+    boolean canSendWaveform();
+}
@@ -1,114 +1,802 @@
 package com.byd.dglab.integration;
 
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.BinaryFrame;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.TextFrame;
 import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.protocols.IProtocol;
+import org.java_websocket.protocols.Protocol;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URI;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * WebSocket服务
  * 负责与DG-LAB SOCKET服务器建立连接并发送控制命令
+ *
+ * 线程模型：编码、发送、心跳、重连和波形调度都在发送线程上执行，界面卡顿不会推迟命令；
+ * 公开方法可以从任意线程调用，不在发送线程上时转交发送线程执行；监听器回调在主线程上执行
  */
-public class WebSocketService {
+public class WebSocketService implements PulseCommandSink, WaveformSink {
 
     private static final String TAG = Constants.LOG_TAG + "_WebSocket";
 
+    /** 拥塞状态变化的响应类型，响应数据为{@link #CONGESTION_CONGESTED}或{@link #CONGESTION_CLEARED} */
+    public static final String RESPONSE_CONGESTION = "congestion";
+    public static final String CONGESTION_CONGESTED = "congested";
+    public static final String CONGESTION_CLEARED = "cleared";
+
     private final ControlCommandListener listener;
+    // 发送线程的Handler
     private final Handler handler;
+    // 主线程Handler，只用于监听器回调
+    private final Handler mainHandler;
+    // 没有传入发送线程时自己创建的线程，release时退出
+    private final HandlerThread ownedThread;
     private final SocketProtocolHelper protocolHelper;
-    private final String serverUrl;
+    private final ResponseParser responseParser = new ResponseParser();
+    private final WaveformScheduler waveformScheduler;
+    private final PulseMailbox pulseMailbox;
+    private final BackpressureMonitor backpressure = new BackpressureMonitor();
+    // 最近一次发送脉冲和波形命令的时间（uptimeMillis），用于拥塞时限制发送频率
+    private long lastPulseSentMs;
+    private long lastWaveformSentMs;
+
+    // 连接保活：JSON心跳和ping/pong往返时延测量
+    private final RttEstimator rttEstimator = new RttEstimator();
+    private final Runnable heartbeatTick = this::onHeartbeatTick;
+    private final Runnable livenessTick = this::onLivenessTick;
+    // 最近一次收到任何数据的时间（uptimeMillis），在WebSocket读线程上写入
+    private volatile long lastReceivedMs;
+    // 等待回应的ping及其发出时间（System.nanoTime）
+    private boolean pingOutstanding;
+    private long pingSentNanos;
+    private int consecutiveMissedPongs;
+    private volatile long missedPongCount;
+    private volatile long deadLinkCount;
+    private boolean waveformScheduling = Constants.WAVEFORM_SCHEDULING_ENABLED;
+
+    // 控制命令编码格式，每次连接时按protocol创建
+    private String protocol = Constants.DEFAULT_PROTOCOL;
+    private CommandCache commandCache;
+    private volatile ProtocolCodec codec;
+    private final byte[] sendBuffer = new byte[Constants.SEND_BUFFER_SIZE];
+
+    // 发送编码命令时复用的帧和负载，只在发送线程上使用；
+    // 压缩扩展读取负载的整个底层数组，负载按命令长度各复用一个正好等长的数组
+    private final ByteBuffer[] payloadsByLength = new ByteBuffer[Constants.SEND_BUFFER_SIZE + 1];
+    private final TextFrame textFrame = new TextFrame();
+    private final BinaryFrame binaryFrame = new BinaryFrame();
+    private final boolean debugLogging = Log.isLoggable(TAG, Log.DEBUG);
+
+    // 最近一次发送的编码命令，主线程回调时才转换为字符串；主线程处理前的多次发送合并为一次回调
+    private final byte[] lastSentCommand = new byte[Constants.SEND_BUFFER_SIZE];
+    private int lastSentLength;
+    private String lastSentType;
+    private boolean lastSentBinary;
+    private boolean sentNotificationPending;
+    private final Runnable sentNotifier = this::deliverSentNotification;
+
+    // 握手时请求的压缩和紧凑格式，下一次连接时生效
+    private boolean compression = Constants.WS_COMPRESSION_ENABLED;
+    private boolean compactWire = Constants.COMPACT_WIRE_ENABLED;
+    // 当前连接协商的结果和发送统计，每次连接时重置
+    private volatile boolean compressionActive;
+    private volatile MeteredDraft activeDraft;
+    private volatile long messagesSent;
+    private volatile long payloadBytesSent;
+    // 服务器地址，依次竞速连接
+    private final List<String> endpoints;
+    // 上一次连上的地址，下一次连接时最先尝试
+    private volatile String activeEndpoint;
+
+    // 当前客户端，WebSocket读线程用它忽略已被替换的旧客户端的回调
+    private volatile WebSocketClient webSocketClient;
+    // 竞速中尚未打开的客户端及其地址，只在发送线程上访问
+    private final List<WebSocketClient> candidates = new ArrayList<>();
+    private List<String> raceOrder = Collections.emptyList();
+    private int nextCandidate;
+    private final Runnable raceTask = this::startNextCandidate;
+    private volatile long failoverCount;
+    private volatile boolean isConnected = false;
+    // 已创建客户端，尚未打开或关闭
+    private boolean isConnecting = false;
+    // 调用connect后为true，断开后自动重连；调用disconnect后为false
+    private volatile boolean autoReconnect = false;
+    private boolean isProbing = false;
+    private volatile ReconnectPolicy reconnectPolicy = new ReconnectPolicy();
+    private final Runnable reconnectTask = this::onReconnectTimer;
+    private volatile int reconnectAttempts = 0;
+
+    // 快速重连：预热DNS缓存和TLS会话，统计连接耗时和断开到第一条命令发出的时间
+    private boolean standbyPrewarm = Constants.STANDBY_PREWARM_ENABLED;
+    private final Runnable prewarmTask = this::onPrewarmTimer;
+    private long connectStartedMs;
+    private long connectedAtMs;
+    // 连接意外断开的时间（uptimeMillis），0表示没有等待恢复的断开
+    private long droppedAtMs;
+    private volatile long lastConnectMs = -1;
+    private volatile long lastTimeToFirstCommandMs = -1;
 
-    private WebSocketClient webSocketClient;
-    private boolean isConnected = false;
-    private int reconnectAttempts = 0;
-    private boolean isReconnecting = false;
+    // 按响应类型处理服务器消息
+    private final ResponseHandler responseHandler = new ResponseHandler() {
+        @Override
+        public void onHeartbeat(String message) {
+            Log.d(TAG, "Heartbeat response received");
+            notifyResponse(Constants.MSG_TYPE_HEARTBEAT, message);
+        }
+
+        @Override
+        public void onServerError(String error, String message) {
+            Log.w(TAG, "Server error response: " + message);
+            notifyResponse(ResponseParser.TYPE_ERROR, message);
+        }
+
+        @Override
+        public void onStrengthFeedback(String channel, int intensity, String message) {
+            Log.d(TAG, "Strength feedback: channel " + channel + ", intensity " + intensity);
+            notifyResponse(Constants.MSG_TYPE_STRENGTH, message);
+        }
+
+        @Override
+        public void onBind(String result, String message) {
+            Log.d(TAG, "Bind result: " + result);
+            notifyResponse(ResponseParser.TYPE_BIND, message);
+        }
+
+        @Override
+        public void onUnknown(String type, String message) {
+            notifyResponse(type, message);
+        }
+    };
 
     public WebSocketService(ControlCommandListener listener) {
         this(listener, Constants.SOCKET_SERVER_URL);
     }
 
     public WebSocketService(ControlCommandListener listener, String serverUrl) {
+        this(listener, serverUrl, null);
+    }
+
+    public WebSocketService(ControlCommandListener listener, String serverUrl, Looper ioLooper) {
+        this(listener, Collections.singletonList(serverUrl), ioLooper);
+    }
+
+    /**
+     * @param listener 监听器，回调在主线程上执行
+     * @param serverUrls 服务器地址，按优先顺序排列；连接时先连第一个，没有及时连上再同时连接下一个
+     * @param ioLooper 发送线程的Looper，可与采样和转换共用；传入null时创建自己的发送线程
+     */
+    public WebSocketService(ControlCommandListener listener, List<String> serverUrls, Looper ioLooper) {
+        if (serverUrls == null || serverUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one server URL is required");
+        }
         this.listener = listener;
-        this.serverUrl = serverUrl;
-        this.handler = new Handler(Looper.getMainLooper());
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(serverUrls));
+        if (ioLooper == null) {
+            ownedThread = new HandlerThread(Constants.IO_THREAD_NAME, Constants.IO_THREAD_PRIORITY);
+            ownedThread.start();
+            ioLooper = ownedThread.getLooper();
+        } else {
+            ownedThread = null;
+        }
+        this.handler = new Handler(ioLooper);
+        this.mainHandler = new Handler(Looper.getMainLooper());
         this.protocolHelper = new SocketProtocolHelper();
+        this.waveformScheduler = new WaveformScheduler(handler, this);
+        this.pulseMailbox = new PulseMailbox(handler, this::deliverPulseCommand);
+        this.codec = ProtocolCodecs.create(protocol, null);
+    }
+
+    /**
+     * 设置脉冲命令缓存
+     * 缓存可以在多个连接之间共享
+     * @param cache 命令缓存，传入null关闭缓存
+     */
+    public void setCommandCache(CommandCache cache) {
+        if (!isIoThread()) {
+            handler.post(() -> setCommandCache(cache));
+            return;
+        }
+        protocolHelper.setCommandCache(cache);
+        commandCache = cache;
+        if (!isConnected) {
+            codec = ProtocolCodecs.create(protocol, cache);
+        }
+    }
+
+    /**
+     * 设置控制命令编码格式
+     * 下一次连接时生效
+     * @param newProtocol 格式名称，见{@link ProtocolCodecs}
+     * @throws IllegalArgumentException 格式名称未知时抛出
+     */
+    public void setProtocol(String newProtocol) {
+        // 在调用线程上检查名称，格式未知时直接抛给调用方
+        ProtocolCodecs.create(newProtocol, null);
+        runOnIoThread(() -> {
+            protocol = newProtocol;
+            if (!isConnected) {
+                codec = ProtocolCodecs.create(newProtocol, commandCache);
+            }
+        });
+    }
+
+    /**
+     * 获取当前连接使用的编码格式
+     * @return 格式名称
+     */
+    public String getProtocol() {
+        return codec.getName();
+    }
+
+    /**
+     * 设置握手时是否请求permessage-deflate压缩
+     * 下一次连接时生效，服务器不支持时不压缩
+     * @param enabled 是否请求压缩
+     */
+    public void setCompression(boolean enabled) {
+        runOnIoThread(() -> compression = enabled);
+    }
+
+    /**
+     * 设置握手时是否提供紧凑JSON子协议
+     * 下一次连接时生效，只在编码格式为V3 JSON时提供；服务器接受时改用{@link ProtocolCodecs#V3_COMPACT}格式
+     * @param enabled 是否提供紧凑格式
+     */
+    public void setCompactWireMode(boolean enabled) {
+        runOnIoThread(() -> compactWire = enabled);
+    }
+
+    /**
+     * 当前连接是否协商了压缩
+     * @return 协商了permessage-deflate时返回true
+     */
+    public boolean isCompressionActive() {
+        return compressionActive;
+    }
+
+    /**
+     * 获取当前连接发送的命令编码后的字节数（压缩前）
+     * @return 字节数
+     */
+    public long getPayloadBytesSent() {
+        return payloadBytesSent;
+    }
+
+    /**
+     * 获取当前连接实际发出的字节数（压缩后，含帧头和控制帧）
+     * @return 字节数，还没有连接成功过时返回0
+     */
+    public long getWireBytesSent() {
+        MeteredDraft draft = activeDraft;
+        return draft != null ? draft.getWireBytes() : 0;
+    }
+
+    /**
+     * 获取当前连接的发送统计（用于日志）
+     * @return 统计信息
+     */
+    public String getWireStats() {
+        long payload = payloadBytesSent;
+        long wire = getWireBytesSent();
+        return String.format("%s, compression %s, %d messages, payload %d B, wire %d B (%.1f%%)",
+                codec.getName(), compressionActive ? "on" : "off", messagesSent, payload, wire,
+                payload > 0 ? wire * 100.0 / payload : 0.0);
+    }
+
+    /**
+     * 启用或关闭波形调度
+     * 启用时脉冲控制值由{@link WaveformScheduler}转换为波形段，按设备播放节拍发送；
+     * 关闭或编码格式不支持波形时每个控制值立即作为脉冲命令发送
+     * @param enabled 是否启用
+     */
+    public void setWaveformScheduling(boolean enabled) {
+        if (!isIoThread()) {
+            handler.post(() -> setWaveformScheduling(enabled));
+            return;
+        }
+        waveformScheduling = enabled;
+        if (enabled && isConnected && codec.supportsWaveform()) {
+            waveformScheduler.start();
+        } else if (!enabled) {
+            waveformScheduler.stop();
+        }
+    }
+
+    /**
+     * 获取波形调度器，用于读取队列深度和欠载次数
+     * 调度器只能在发送线程上访问
+     * @return 波形调度器
+     */
+    public WaveformScheduler getWaveformScheduler() {
+        return waveformScheduler;
+    }
+
+    /**
+     * 获取脉冲命令邮箱，用于读取合并的帧数
+     * @return 脉冲命令邮箱
+     */
+    public PulseMailbox getPulseMailbox() {
+        return pulseMailbox;
+    }
+
+    /**
+     * 获取拥塞监测，用于读取拥塞状态和统计
+     * @return 拥塞监测
+     */
+    public BackpressureMonitor getBackpressureMonitor() {
+        return backpressure;
+    }
+
+    /**
+     * 设置链路拥塞时的处理策略
+     * @param policy 见{@link Constants#BACKPRESSURE_DROP}等
+     */
+    public void setBackpressurePolicy(int policy) {
+        backpressure.setPolicy(policy);
+    }
+
+    /**
+     * 控制帧发送器是否应该加大死区
+     * @return 策略为加大死区且链路拥塞时返回true
+     */
+    public boolean shouldCoarsenDeadband() {
+        return backpressure.getPolicy() == Constants.BACKPRESSURE_COARSEN_DEADBAND && backpressure.isCongested();
+    }
+
+    /**
+     * 设置重连策略
+     * @param policy 重连策略
+     */
+    public void setReconnectPolicy(ReconnectPolicy policy) {
+        runOnIoThread(() -> reconnectPolicy = policy);
+    }
+
+    /**
+     * 获取重连策略，用于读取熔断状态
+     * @return 重连策略
+     */
+    public ReconnectPolicy getReconnectPolicy() {
+        return reconnectPolicy;
     }
 
     /**
      * 连接到DG-LAB服务器
+     * 之后连接断开时按重连策略自动重连，直到调用{@link #disconnect}
      */
     public void connect() {
-        try {
-            if (isConnected) {
-                Log.d(TAG, "Already connected");
+        if (!isIoThread()) {
+            handler.post(this::connect);
+            return;
+        }
+        autoReconnect = true;
+        if (standbyPrewarm) {
+            handler.removeCallbacks(prewarmTask);
+            handler.postDelayed(prewarmTask, Constants.STANDBY_PREWARM_INTERVAL_MS);
+        }
+        openConnection();
+    }
+
+    /**
+     * 启用或关闭备用连接预热
+     * 启用时在后台定期解析服务器地址并完成一次TLS握手，重连时直接使用缓存的地址并恢复TLS会话。
+     * 不保持第二条WebSocket连接，服务器会把它当作另一个客户端
+     * @param enabled 是否启用
+     */
+    public void setStandbyPrewarm(boolean enabled) {
+        runOnIoThread(() -> {
+            standbyPrewarm = enabled;
+            handler.removeCallbacks(prewarmTask);
+            if (enabled) {
+                handler.post(prewarmTask);
+            }
+        });
+    }
+
+    /**
+     * 获取最近一次建立连接的耗时（DNS、TCP、TLS和WebSocket握手）
+     * @return 耗时（毫秒），还没有连接成功过时返回-1
+     */
+    public long getLastConnectMs() {
+        return lastConnectMs;
+    }
+
+    /**
+     * 设置下一次连接时最先尝试的地址，通常是上次运行时连上的地址
+     * @param endpoint 服务器地址，不在地址列表中时忽略
+     */
+    public void setPreferredEndpoint(String endpoint) {
+        runOnIoThread(() -> {
+            if (endpoints.contains(endpoint) && !isConnected) {
+                activeEndpoint = endpoint;
+            }
+        });
+    }
+
+    /**
+     * 获取当前连接或最近一次连上的地址
+     * @return 服务器地址，还没有连接成功过时返回null
+     */
+    public String getActiveEndpoint() {
+        return activeEndpoint;
+    }
+
+    /**
+     * 获取配置的服务器地址
+     * @return 地址列表
+     */
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 获取连接切换到另一个地址的次数
+     * @return 次数
+     */
+    public long getFailoverCount() {
+        return failoverCount;
+    }
+
+    /**
+     * 获取最近一次意外断开到重连后第一条控制命令发出的时间
+     * @return 时间（毫秒），还没有发生过时返回-1
+     */
+    public long getLastTimeToFirstCommandMs() {
+        return lastTimeToFirstCommandMs;
+    }
+
+    /**
+     * 系统报告网络恢复
+     * 清除退避和熔断状态，未连接时立即重连
+     */
+    public void onNetworkAvailable() {
+        runOnIoThread(() -> {
+            reconnectPolicy.onNetworkAvailable();
+            if (!autoReconnect || isConnected || isConnecting) {
                 return;
             }
+            Log.d(TAG, "Network available, reconnecting now");
+            handler.removeCallbacks(reconnectTask);
+            reconnectAttempts++;
+            openConnection();
+        });
+    }
 
-            URI serverUri = URI.create(serverUrl);
-            webSocketClient = new WebSocketClient(serverUri) {
+    /**
+     * 开始一轮竞速连接
+     * 先连接上一次连上的地址，在{@link Constants#ENDPOINT_RACE_DELAY_MS}内没有连上或连接失败时再连接下一个地址，
+     * 最先打开的连接胜出，其余的关闭
+     */
+    private void openConnection() {
+        if (isConnected || isConnecting) {
+            Log.d(TAG, "Already connected");
+            return;
+        }
+        isConnecting = true;
 
-                @Override
-                public void onOpen(ServerHandshake handshakedata) {
-                    Log.d(TAG, "WebSocket connection opened");
-                    isConnected = true;
-                    reconnectAttempts = 0;
-                    isReconnecting = false;
+        // 编码格式在连接期间保持不变
+        codec = ProtocolCodecs.create(protocol, commandCache);
 
-                    // 发送心跳开始
-                    startHeartbeat();
+        connectStartedMs = SystemClock.uptimeMillis();
+        raceOrder = orderedEndpoints();
+        nextCandidate = 0;
+        startNextCandidate();
+    }
 
-                    // 通知监听器
-                    if (listener != null) {
-                        handler.post(() -> listener.onResponseReceived("connection", "opened"));
-                    }
-                }
+    /**
+     * 按优先顺序排列地址：上一次连上的地址排在最前，其余保持配置顺序
+     * @return 地址列表
+     */
+    private List<String> orderedEndpoints() {
+        String preferred = activeEndpoint;
+        if (preferred == null || !endpoints.contains(preferred)) {
+            return endpoints;
+        }
+        List<String> ordered = new ArrayList<>(endpoints.size());
+        ordered.add(preferred);
+        for (String endpoint : endpoints) {
+            if (!endpoint.equals(preferred)) {
+                ordered.add(endpoint);
+            }
+        }
+        return ordered;
+    }
 
-                @Override
-                public void onMessage(String message) {
-                    Log.d(TAG, "Received message: " + message);
-                    handleIncomingMessage(message);
+    /**
+     * 连接竞速顺序中的下一个地址，并在延迟后继续下一个
+     * 没有地址可以尝试且所有连接都已失败时，本轮连接失败
+     */
+    private void startNextCandidate() {
+        handler.removeCallbacks(raceTask);
+        if (!isConnecting) {
+            return;
+        }
+        while (nextCandidate < raceOrder.size()) {
+            String endpoint = raceOrder.get(nextCandidate++);
+            if (startCandidate(endpoint)) {
+                if (nextCandidate < raceOrder.size()) {
+                    handler.postDelayed(raceTask, Constants.ENDPOINT_RACE_DELAY_MS);
                 }
+                return;
+            }
+        }
+        if (candidates.isEmpty()) {
+            onAllCandidatesFailed();
+        }
+    }
 
-                @Override
-                public void onClose(int code, String reason, boolean remote) {
-                    Log.d(TAG, "WebSocket connection closed: " + code + " - " + reason);
-                    isConnected = false;
+    /**
+     * 创建客户端并开始连接一个地址
+     * @param endpoint 服务器地址
+     * @return 已开始连接时返回true
+     */
+    private boolean startCandidate(String endpoint) {
+        try {
+            URI serverUri = URI.create(endpoint);
+            WebSocketClient client = createClient(serverUri, createDraft(), endpoint);
 
-                    // 通知监听器
-                    if (listener != null) {
-                        handler.post(() -> listener.onResponseReceived("connection", "closed"));
-                    }
+            // 关闭WebSocket库自带的连接检测，由startHeartbeat中的ping/pong测量时延并判定断开
+            client.setConnectionLostTimeout(0);
 
-                    // 自动重连
-                    if (!isReconnecting && reconnectAttempts < Constants.MAX_RECONNECT_ATTEMPTS) {
-                        scheduleReconnect();
-                    }
+            // 共享的DNS缓存和TLS会话缓存，重连时省去DNS查询和完整TLS握手
+            client.setDnsResolver(CachingDnsResolver.getShared());
+            if ("wss".equalsIgnoreCase(serverUri.getScheme())) {
+                client.setSocketFactory(TlsSessionCache.getSocketFactory());
+            }
+            candidates.add(client);
+            client.connect();
+
+            Log.d(TAG, "Connecting to " + endpoint + "...");
+            return true;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error connecting to " + endpoint, e);
+            if (listener != null) {
+                mainHandler.post(() -> listener.onError("connection", e.getMessage()));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 创建握手时提供的扩展和子协议
+     * 请求permessage-deflate压缩；V3 JSON格式下还可以提供紧凑格式子协议，服务器都可以拒绝
+     * @return 协议草案
+     */
+    private MeteredDraft createDraft() {
+        List<IExtension> extensions = new ArrayList<>();
+        if (compression) {
+            extensions.add(new CommandDeflateExtension(
+                    Constants.DEFLATE_COMPRESSION_LEVEL, Constants.DEFLATE_THRESHOLD_BYTES));
+        }
+        List<IProtocol> protocols = new ArrayList<>();
+        if (compactWire && ProtocolCodecs.V3_JSON.equals(protocol)) {
+            protocols.add(new Protocol(Constants.COMPACT_SUBPROTOCOL));
+        }
+        // 空子协议：服务器不选择子协议时也接受握手
+        protocols.add(new Protocol(""));
+        return new MeteredDraft(extensions, protocols);
+    }
+
+    private WebSocketClient createClient(URI serverUri, Draft_6455 draft, String endpoint) {
+        return new WebSocketClient(serverUri, draft, null, Constants.CONNECTION_TIMEOUT_MS) {
+
+            @Override
+            public void onOpen(ServerHandshake handshakedata) {
+                Log.d(TAG, "WebSocket connection opened: " + endpoint);
+                WebSocketClient client = this;
+                // 回调在WebSocket读线程上，连接状态切换到发送线程处理
+                handler.post(() -> onCandidateOpened(client, endpoint));
+            }
+
+            @Override
+            public void onMessage(String message) {
+                lastReceivedMs = SystemClock.uptimeMillis();
+                Log.d(TAG, "Received message: " + message);
+                handleIncomingMessage(message);
+            }
+
+            @Override
+            public void onWebsocketPong(WebSocket conn, Framedata f) {
+                long receivedNanos = System.nanoTime();
+                lastReceivedMs = SystemClock.uptimeMillis();
+                handler.post(() -> onPong(receivedNanos));
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                Log.d(TAG, "WebSocket connection closed: " + endpoint + " " + code + " - " + reason);
+                WebSocketClient client = this;
+                if (client == webSocketClient) {
+                    // 立即停止发送，其余状态在发送线程上处理
+                    isConnected = false;
                 }
+                handler.post(() -> onClientClosed(client, endpoint));
+            }
 
-                @Override
-                public void onError(Exception ex) {
-                    Log.e(TAG, "WebSocket error", ex);
+            @Override
+            public void onError(Exception ex) {
+                Log.e(TAG, "WebSocket error: " + endpoint, ex);
 
-                    // 通知监听器
-                    if (listener != null) {
-                        handler.post(() -> listener.onError("websocket", ex.getMessage()));
-                    }
+                // 通知监听器
+                if (listener != null) {
+                    mainHandler.post(() -> listener.onError("websocket", ex.getMessage()));
                 }
-            };
+            }
+        };
+    }
 
-            // 设置连接超时
-            webSocketClient.setConnectionLostTimeout(0);
-            webSocketClient.connect();
+    /**
+     * 竞速中的连接打开：第一个打开的胜出，关闭其余连接
+     * @param client 打开的客户端
+     * @param endpoint 客户端的地址
+     */
+    private void onCandidateOpened(WebSocketClient client, String endpoint) {
+        if (!candidates.remove(client)) {
+            // 已断开或已落败的客户端
+            return;
+        }
+        handler.removeCallbacks(raceTask);
+        closeCandidates();
 
-            Log.d(TAG, "Connecting to DG-LAB server...");
+        String previous = activeEndpoint;
+        if (previous != null && !previous.equals(endpoint)) {
+            failoverCount++;
+            Log.w(TAG, "Failed over from " + previous + " to " + endpoint);
+        }
+        webSocketClient = client;
+        activeEndpoint = endpoint;
+        applyNegotiation(client);
+        isConnecting = false;
+        isConnected = true;
+        connectedAtMs = SystemClock.uptimeMillis();
+        lastConnectMs = connectedAtMs - connectStartedMs;
+        Log.d(TAG, "Connected to " + endpoint + " in " + lastConnectMs + " ms");
+        reconnectAttempts = 0;
+        reconnectPolicy.onConnected();
+        handler.removeCallbacks(reconnectTask);
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error connecting to WebSocket", e);
-            if (listener != null) {
-                handler.post(() -> listener.onError("connection", e.getMessage()));
+        // 发送心跳开始
+        startHeartbeat();
+
+        // 开始按播放节拍补充波形
+        if (waveformScheduling && codec.supportsWaveform()) {
+            waveformScheduler.start();
+        }
+
+        // 断开期间保留的控制帧在新连接上发送
+        pulseMailbox.redeliver();
+
+        // 通知监听器
+        if (listener != null) {
+            mainHandler.post(() -> listener.onResponseReceived("connection", "opened"));
+        }
+    }
+
+    /**
+     * 读取握手协商的压缩扩展和子协议，服务器接受紧凑格式子协议时改用紧凑格式编码
+     * @param client 已打开的客户端
+     */
+    private void applyNegotiation(WebSocketClient client) {
+        messagesSent = 0;
+        payloadBytesSent = 0;
+        activeDraft = client.getDraft() instanceof MeteredDraft ? (MeteredDraft) client.getDraft() : null;
+
+        // 协商结果保存在连接持有的草案副本中
+        Draft negotiated = client.getConnection().getDraft();
+        IExtension extension = null;
+        IProtocol subprotocol = null;
+        if (negotiated instanceof Draft_6455) {
+            extension = ((Draft_6455) negotiated).getExtension();
+            subprotocol = ((Draft_6455) negotiated).getProtocol();
+        }
+        compressionActive = extension instanceof CommandDeflateExtension;
+        if (subprotocol != null && Constants.COMPACT_SUBPROTOCOL.equals(subprotocol.getProvidedProtocol())) {
+            codec = ProtocolCodecs.create(ProtocolCodecs.V3_COMPACT, null);
+        }
+        String compressionMode = !compressionActive ? "off"
+                : ((CommandDeflateExtension) extension).isContextTakeover() ? "on" : "on (no context takeover)";
+        Log.d(TAG, "Negotiated compression " + compressionMode + ", protocol " + codec.getName());
+    }
+
+    /**
+     * 客户端关闭：竞速中的连接失败时立即尝试下一个地址；已建立的连接断开时立即开始新一轮竞速
+     * @param client 关闭的客户端
+     * @param endpoint 客户端的地址
+     */
+    private void onClientClosed(WebSocketClient client, String endpoint) {
+        if (candidates.remove(client)) {
+            Log.w(TAG, "Connection to " + endpoint + " failed");
+            startNextCandidate();
+            return;
+        }
+        if (client != webSocketClient) {
+            // 已被替换或已主动断开的客户端
+            return;
+        }
+        webSocketClient = null;
+        isConnected = false;
+        stopHeartbeat();
+        waveformScheduler.stop();
+        long now = SystemClock.uptimeMillis();
+        backpressure.reset(now);
+
+        // 通知监听器
+        if (listener != null) {
+            mainHandler.post(() -> listener.onResponseReceived("connection", "closed"));
+        }
+
+        // 邮箱中未发送的控制帧保留到新连接上发送
+        if (!autoReconnect) {
+            return;
+        }
+        droppedAtMs = now;
+        if (now - connectedAtMs >= Constants.STABLE_CONNECTION_MS) {
+            // 稳定了一段时间的连接断开，多半是链路或该服务器出了问题，不等待退避直接开始新一轮竞速；
+            // 这一轮全部失败时由onAllCandidatesFailed记录失败，一次断开只计一次
+            Log.d(TAG, "Stable connection to " + endpoint + " dropped, failing over now");
+            reconnectAttempts++;
+            openConnection();
+        } else {
+            // 刚连上就断开，按退避重连，避免服务器反复接受又关闭时不停重连
+            reconnectPolicy.onFailure();
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * 一轮竞速中所有地址都连接失败，按重连策略等待下一轮
+     */
+    private void onAllCandidatesFailed() {
+        isConnecting = false;
+        Log.w(TAG, "All " + raceOrder.size() + " endpoints failed");
+
+        // 通知监听器
+        if (listener != null) {
+            mainHandler.post(() -> listener.onResponseReceived("connection", "closed"));
+        }
+
+        if (autoReconnect) {
+            if (droppedAtMs == 0) {
+                droppedAtMs = SystemClock.uptimeMillis();
+            }
+            reconnectPolicy.onFailure();
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * 关闭竞速中尚未打开的客户端，它们之后的回调会被忽略
+     */
+    private void closeCandidates() {
+        handler.removeCallbacks(raceTask);
+        List<WebSocketClient> losers = new ArrayList<>(candidates);
+        candidates.clear();
+        for (WebSocketClient candidate : losers) {
+            try {
+                candidate.close();
+            } catch (Exception e) {
+                Log.w(TAG, "Error closing losing connection", e);
             }
         }
     }
@@ -117,14 +805,34 @@ public class WebSocketService {
      * 断开连接
      */
     public void disconnect() {
+        if (!isIoThread()) {
+            handler.post(this::disconnect);
+            return;
+        }
         try {
-            if (webSocketClient != null) {
-                webSocketClient.close();
-                webSocketClient = null;
+            autoReconnect = false;
+            droppedAtMs = 0;
+            handler.removeCallbacks(reconnectTask);
+            handler.removeCallbacks(prewarmTask);
+            boolean racing = !candidates.isEmpty();
+            closeCandidates();
+            WebSocketClient client = webSocketClient;
+            webSocketClient = null;
+            if (client != null) {
+                client.close();
+            }
+            if (client != null || racing) {
+                // 旧客户端的关闭回调会被忽略，在这里通知监听器
+                if (listener != null) {
+                    mainHandler.post(() -> listener.onResponseReceived("connection", "closed"));
+                }
             }
             isConnected = false;
-            isReconnecting = false;
+            isConnecting = false;
             stopHeartbeat();
+            waveformScheduler.stop();
+            pulseMailbox.clear();
+            backpressure.reset(SystemClock.uptimeMillis());
 
             Log.d(TAG, "WebSocket disconnected");
 
@@ -139,23 +847,202 @@ public class WebSocketService {
      * @param intensity 强度值（0-200）
      */
     public void sendIntensityCommand(String channel, int intensity) {
-        String command = protocolHelper.generateStrengthCommand(channel, intensity);
-        if (command != null) {
-            sendCommand("strength", command);
+        if (!isIoThread()) {
+            handler.post(() -> sendIntensityCommand(channel, intensity));
+            return;
+        }
+        try {
+            int length = codec.encodeStrength(channel, clampIntensity(intensity), sendBuffer, 0);
+            sendEncoded(Constants.MSG_TYPE_STRENGTH, length);
+        } catch (Exception e) {
+            Log.e(TAG, "Error encoding strength command", e);
         }
     }
 
     /**
      * 发送脉冲控制命令
+     * 控制值先放入通道的邮箱，发送线程只发送每个通道最新的值，发送前的多次更新合并为一次
      * @param channel 通道（A或B）
      * @param frequency 频率（Hz）
      * @param intensity 强度值（0-200）
      */
+    @Override
     public void sendPulseCommand(String channel, int frequency, int intensity) {
-        String command = protocolHelper.generatePulseCommand(channel, frequency, intensity);
-        if (command != null) {
-            sendCommand("pulse", command);
+        pulseMailbox.offer(channel, clampFrequency(frequency), clampIntensity(intensity));
+    }
+
+    /**
+     * 在发送线程上发送邮箱取出的脉冲控制值
+     * @param channel 通道（A或B）
+     * @param frequency 频率（Hz），已限制范围
+     * @param intensity 强度值，已限制范围
+     */
+    private void deliverPulseCommand(String channel, int frequency, int intensity) {
+        // 波形调度模式下只更新目标值，由调度器按播放节拍发送；格式不支持波形时按脉冲命令发送
+        if (waveformScheduling && codec.supportsWaveform()
+                && waveformScheduler.updateTarget(channel, frequency, intensity)) {
+            return;
+        }
+
+        // 重连期间保留在邮箱中，连上后发送该通道届时最新的帧
+        if (!isConnected && autoReconnect) {
+            pulseMailbox.hold(channel, frequency, intensity);
+            return;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        if (!admitPulse(channel, frequency, intensity, now)) {
+            return;
+        }
+
+        try {
+            int length = codec.encodePulse(channel, frequency, intensity, sendBuffer, 0);
+            sendEncoded(Constants.MSG_TYPE_PULSE, length);
+            lastPulseSentMs = now;
+        } catch (Exception e) {
+            Log.e(TAG, "Error encoding pulse command", e);
+        }
+    }
+
+    /**
+     * 按拥塞策略决定脉冲控制帧是否现在发送
+     * 强度归零的帧用于停止输出，始终发送
+     * @return 现在发送返回true；被丢弃或推迟时返回false
+     */
+    private boolean admitPulse(String channel, int frequency, int intensity, long now) {
+        if (!isConnected || webSocketClient == null) {
+            // 由发送路径报告未连接
+            return true;
+        }
+        checkCongestion(now);
+        if (!backpressure.isCongested() || intensity <= Constants.INTENSITY_MIN) {
+            return true;
+        }
+
+        switch (backpressure.getPolicy()) {
+            case Constants.BACKPRESSURE_DROP:
+                backpressure.recordDropped();
+                return false;
+
+            case Constants.BACKPRESSURE_REDUCE_RATE:
+                long wait = lastPulseSentMs + Constants.BACKPRESSURE_REDUCED_INTERVAL_MS - now;
+                if (wait > 0) {
+                    // 放回邮箱，到期时发送该通道届时最新的帧
+                    backpressure.recordDeferred();
+                    pulseMailbox.requeue(channel, frequency, intensity, wait);
+                    return false;
+                }
+                return true;
+
+            default:
+                // 加大死区由上游的控制帧发送器处理
+                return true;
+        }
+    }
+
+    /**
+     * 当前是否可以发送波形命令
+     * 拥塞时按策略跳过补充：丢弃策略下暂停补充，降频策略下按最小发送间隔补充
+     * @return 可以发送时返回true
+     */
+    @Override
+    public boolean canSendWaveform() {
+        if (!isConnected || webSocketClient == null) {
+            return true;
+        }
+        long now = SystemClock.uptimeMillis();
+        checkCongestion(now);
+        if (!backpressure.isCongested()) {
+            return true;
+        }
+
+        switch (backpressure.getPolicy()) {
+            case Constants.BACKPRESSURE_DROP:
+                backpressure.recordDropped();
+                return false;
+
+            case Constants.BACKPRESSURE_REDUCE_RATE:
+                if (now - lastWaveformSentMs < Constants.BACKPRESSURE_REDUCED_INTERVAL_MS) {
+                    backpressure.recordDeferred();
+                    return false;
+                }
+                return true;
+
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 读取发送队列长度并更新拥塞状态，状态变化时通知监听器
+     * @param now 当前时间（uptimeMillis）
+     */
+    private void checkCongestion(long now) {
+        if (!backpressure.update(outgoingQueueSize(), now)) {
+            return;
+        }
+        if (backpressure.isCongested()) {
+            Log.w(TAG, "Outgoing queue congested: " + backpressure.getStats(now));
+            notifyResponse(RESPONSE_CONGESTION, CONGESTION_CONGESTED);
+        } else {
+            Log.d(TAG, "Outgoing queue cleared: " + backpressure.getStats(now));
+            notifyResponse(RESPONSE_CONGESTION, CONGESTION_CLEARED);
+        }
+    }
+
+    /**
+     * 获取WebSocket客户端发送队列中尚未写入网络的帧数
+     * 无法读取队列时根据是否有缓冲数据估计为0或1
+     * @return 帧数
+     */
+    private int outgoingQueueSize() {
+        WebSocket connection = webSocketClient.getConnection();
+        if (connection instanceof WebSocketImpl) {
+            return ((WebSocketImpl) connection).outQueue.size();
         }
+        return webSocketClient.hasBufferedData() ? 1 : 0;
+    }
+
+    /**
+     * 发送V3波形命令
+     * 波形段较多时拆分为多条消息
+     * @param channel 通道（A或B）
+     * @param segments 波形段字节（每段100毫秒，{@link WaveformEncoder#SEGMENT_BYTES}字节）
+     * @param count 波形段数
+     */
+    @Override
+    public void sendWaveformCommand(String channel, byte[] segments, int count) {
+        if (!isIoThread()) {
+            // 调用方会复用数组，跨线程时复制一份
+            byte[] copy = Arrays.copyOf(segments, count * WaveformEncoder.SEGMENT_BYTES);
+            handler.post(() -> sendWaveformCommand(channel, copy, count));
+            return;
+        }
+        if (!codec.supportsWaveform()) {
+            // 调度器只在支持波形的连接上运行，这里只会在格式切换后出现；停止调度，之后的控制值按脉冲命令发送
+            Log.w(TAG, "Protocol " + codec.getName() + " does not support waveform, falling back to pulse commands");
+            waveformScheduler.stop();
+            return;
+        }
+        WaveformCodec waveformCodec = (WaveformCodec) codec;
+        try {
+            for (int offset = 0; offset < count; offset += Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE) {
+                int messageCount = Math.min(Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE, count - offset);
+                int length = waveformCodec.encodeWaveform(channel, segments, offset, messageCount, sendBuffer, 0);
+                sendEncoded(Constants.MSG_TYPE_WAVEFORM, length);
+            }
+            lastWaveformSentMs = SystemClock.uptimeMillis();
+        } catch (Exception e) {
+            Log.e(TAG, "Error encoding waveform command", e);
+        }
+    }
+
+    private static int clampIntensity(int intensity) {
+        return Math.max(Constants.INTENSITY_MIN, Math.min(Constants.INTENSITY_MAX, intensity));
+    }
+
+    private static int clampFrequency(int frequency) {
+        return Math.max(Constants.FREQUENCY_MIN, Math.min(Constants.FREQUENCY_MAX, frequency));
     }
 
     /**
@@ -163,6 +1050,10 @@ public class WebSocketService {
      * @param qrCode 二维码字符串
      */
     public void sendQrCodeCommand(String qrCode) {
+        if (!isIoThread()) {
+            handler.post(() -> sendQrCodeCommand(qrCode));
+            return;
+        }
         String command = protocolHelper.generateQrCodeCommand(qrCode);
         if (command != null) {
             sendCommand("qrCode", command);
@@ -176,27 +1067,144 @@ public class WebSocketService {
      */
     private void sendCommand(String commandType, String commandData) {
         try {
-            if (!isConnected || webSocketClient == null) {
-                Log.w(TAG, "Cannot send command: not connected");
-                if (listener != null) {
-                    handler.post(() -> listener.onError("send", "Not connected"));
-                }
+            if (!checkConnected()) {
                 return;
             }
 
             webSocketClient.send(commandData);
-            Log.d(TAG, "Sent command: " + commandType + " - " + commandData);
+            recordSent(commandData.getBytes(StandardCharsets.UTF_8).length);
+            notifySent(commandType, commandData);
 
-            // 通知监听器
-            if (listener != null) {
-                handler.post(() -> listener.onCommandSent(commandType, commandData));
+        } catch (Exception e) {
+            notifySendError(e);
+        }
+    }
+
+    /**
+     * 发送编码缓冲区中的命令
+     * 文本格式作为文本帧发送，二进制格式作为二进制帧发送；WebSocket库在发送时复制负载，帧和缓冲区可以立即复用。
+     * 只在开启调试日志时构建命令字符串，每次发送不分配对象
+     * @param commandType 命令类型
+     * @param length 编码后的字节数
+     */
+    private void sendEncoded(String commandType, int length) {
+        try {
+            if (!checkConnected()) {
+                return;
             }
 
+            boolean binary = codec.isBinary();
+            DataFrame frame = binary ? binaryFrame : textFrame;
+            frame.setPayload(payloadOf(length));
+            // 压缩扩展会替换负载并设置RSV1，复用前恢复
+            frame.setRSV1(false);
+            webSocketClient.sendFrame(frame);
+            recordSent(length);
+            if (droppedAtMs != 0) {
+                lastTimeToFirstCommandMs = SystemClock.uptimeMillis() - droppedAtMs;
+                droppedAtMs = 0;
+                Log.d(TAG, "First command " + lastTimeToFirstCommandMs + " ms after connection drop");
+            }
+            if (debugLogging) {
+                Log.d(TAG, "Sent command: " + commandType + " - " + describeCommand(sendBuffer, length, binary));
+            }
+            notifyEncodedSent(commandType, length, binary);
+
         } catch (Exception e) {
-            Log.e(TAG, "Error sending command", e);
+            notifySendError(e);
+        }
+    }
+
+    /**
+     * 将编码缓冲区中的命令复制到等长的负载缓冲
+     * 命令长度只有少数几种，每种长度第一次出现时分配
+     */
+    private ByteBuffer payloadOf(int length) {
+        ByteBuffer payload = payloadsByLength[length];
+        if (payload == null) {
+            payload = ByteBuffer.allocate(length);
+            payloadsByLength[length] = payload;
+        }
+        System.arraycopy(sendBuffer, 0, payload.array(), 0, length);
+        payload.clear();
+        return payload;
+    }
+
+    private void recordSent(int payloadBytes) {
+        messagesSent++;
+        payloadBytesSent += payloadBytes;
+    }
+
+    private boolean checkConnected() {
+        if (!isConnected || webSocketClient == null) {
+            Log.w(TAG, "Cannot send command: not connected");
             if (listener != null) {
-                handler.post(() -> listener.onError("send", e.getMessage()));
+                mainHandler.post(() -> listener.onError("send", "Not connected"));
             }
+            return false;
+        }
+        return true;
+    }
+
+    private void notifySent(String commandType, String commandData) {
+        Log.d(TAG, "Sent command: " + commandType + " - " + commandData);
+
+        // 通知监听器
+        if (listener != null) {
+            mainHandler.post(() -> listener.onCommandSent(commandType, commandData));
+        }
+    }
+
+    /**
+     * 记录发送的编码命令并通知监听器
+     * 命令复制到快照缓冲区，主线程还没有处理上一次通知时只替换内容，不再投递新的任务
+     */
+    private void notifyEncodedSent(String commandType, int length, boolean binary) {
+        if (listener == null) {
+            return;
+        }
+        boolean post;
+        synchronized (lastSentCommand) {
+            System.arraycopy(sendBuffer, 0, lastSentCommand, 0, length);
+            lastSentLength = length;
+            lastSentType = commandType;
+            lastSentBinary = binary;
+            post = !sentNotificationPending;
+            sentNotificationPending = true;
+        }
+        if (post) {
+            mainHandler.post(sentNotifier);
+        }
+    }
+
+    private void deliverSentNotification() {
+        String commandType;
+        String commandData;
+        synchronized (lastSentCommand) {
+            sentNotificationPending = false;
+            commandType = lastSentType;
+            commandData = describeCommand(lastSentCommand, lastSentLength, lastSentBinary);
+        }
+        listener.onCommandSent(commandType, commandData);
+    }
+
+    /**
+     * 将编码命令转换为可读字符串
+     * @return 文本格式按UTF-8解码，二进制格式输出十六进制
+     */
+    private static String describeCommand(byte[] command, int length, boolean binary) {
+        if (!binary) {
+            return new String(command, 0, length, StandardCharsets.UTF_8);
+        }
+        StringBuilder hex = new StringBuilder(length * 2);
+        WaveformEncoder.appendHex(command, 0, length, hex);
+        return hex.toString();
+    }
+
+    private void notifySendError(Exception e) {
+        Log.e(TAG, "Error sending command", e);
+        if (listener != null) {
+            mainHandler.post(() -> listener.onError("send", e.getMessage()));
         }
     }
 
@@ -206,74 +1214,289 @@ public class WebSocketService {
      */
     private void handleIncomingMessage(String message) {
         try {
-            Map<String, Object> parsedResponse = protocolHelper.parseJsonResponse(message);
-            if (parsedResponse != null) {
-                String responseType = (String) parsedResponse.get("type");
-
-                // 通知监听器
-                if (listener != null) {
-                    handler.post(() -> listener.onResponseReceived(responseType, message));
-                }
-
-                // 处理特定响应类型
-                if ("error".equals(responseType)) {
-                    Log.w(TAG, "Server error response: " + message);
-                } else if ("heartbeat".equals(responseType)) {
-                    Log.d(TAG, "Heartbeat response received");
-                }
-            }
-
+            responseParser.parse(message, responseHandler);
         } catch (Exception e) {
             Log.e(TAG, "Error handling incoming message", e);
         }
     }
 
+    /**
+     * 通知监听器收到响应
+     * @param responseType 响应类型
+     * @param message 原始消息
+     */
+    private void notifyResponse(String responseType, String message) {
+        if (listener != null) {
+            mainHandler.post(() -> listener.onResponseReceived(responseType, message));
+        }
+    }
+
     /**
      * 调度重连
+     * 等待时间由重连策略决定，熔断状态下到期时只做探测
      */
     private void scheduleReconnect() {
-        if (isReconnecting) return;
+        handler.removeCallbacks(reconnectTask);
+        long delay = reconnectPolicy.nextDelayMs();
+        Log.d(TAG, "Scheduling " + (reconnectPolicy.shouldProbe() ? "probe" : "reconnect attempt " + (reconnectAttempts + 1))
+                + " in " + delay + " ms (circuit " + reconnectPolicy.getStateName()
+                + ", failures " + reconnectPolicy.getConsecutiveFailures() + ")");
+        handler.postDelayed(reconnectTask, delay);
+    }
 
-        isReconnecting = true;
+    private void onReconnectTimer() {
+        if (!autoReconnect || isConnected || isConnecting || isProbing) {
+            return;
+        }
+        if (reconnectPolicy.shouldProbe()) {
+            startProbe();
+            return;
+        }
         reconnectAttempts++;
+        Log.d(TAG, "Attempting to reconnect...");
+        openConnection();
+    }
 
-        Log.d(TAG, "Scheduling reconnect attempt " + reconnectAttempts + " in " +
-                Constants.RECONNECT_INTERVAL_MS + "ms");
+    /**
+     * 熔断期间的可达性探测
+     * 按优先顺序依次探测各地址，任一可达即成功；只建立TCP连接，不做TLS和WebSocket握手。
+     * 阻塞的连接在单独的线程上进行，结果交回发送线程
+     */
+    private void startProbe() {
+        List<String> order = orderedEndpoints();
 
-        handler.postDelayed(() -> {
-            if (!isConnected && reconnectAttempts <= Constants.MAX_RECONNECT_ATTEMPTS) {
-                Log.d(TAG, "Attempting to reconnect...");
-                connect();
-            } else {
-                isReconnecting = false;
+        isProbing = true;
+        new Thread(() -> {
+            boolean reachable = false;
+            for (String endpoint : order) {
+                URI uri = URI.create(endpoint);
+                try (Socket socket = new Socket()) {
+                    InetSocketAddress address = new InetSocketAddress(
+                            CachingDnsResolver.getShared().resolve(uri.getHost()), portOf(uri));
+                    socket.connect(address, Constants.CIRCUIT_PROBE_TIMEOUT_MS);
+                    reachable = true;
+                    break;
+                } catch (Exception e) {
+                    Log.d(TAG, "Probe of " + endpoint + " failed: " + e.getMessage());
+                }
             }
-        }, Constants.RECONNECT_INTERVAL_MS);
+            boolean result = reachable;
+            handler.post(() -> onProbeResult(result));
+        }, Constants.IO_THREAD_NAME + "-probe").start();
     }
 
     /**
-     * 开始心跳
+     * 预热定时器：在后台线程上刷新所有地址的DNS缓存，wss地址同时完成一次TLS握手，
+     * 切换到备用地址时同样不需要完整握手
      */
-    private void startHeartbeat() {
-        handler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                if (isConnected) {
-                    String heartbeatCommand = protocolHelper.generateHeartbeatCommand();
-                    if (heartbeatCommand != null) {
-                        sendCommand("heartbeat", heartbeatCommand);
+    private void onPrewarmTimer() {
+        if (!standbyPrewarm) {
+            return;
+        }
+        new Thread(() -> {
+            for (String endpoint : endpoints) {
+                URI uri = URI.create(endpoint);
+                String host = uri.getHost();
+                try {
+                    if ("wss".equalsIgnoreCase(uri.getScheme())) {
+                        TlsSessionCache.prewarm(host, portOf(uri));
+                    } else {
+                        CachingDnsResolver.getShared().resolve(host);
                     }
-                    // 每30秒发送一次心跳
-                    handler.postDelayed(this, 30000);
+                } catch (Exception e) {
+                    Log.w(TAG, "Prewarm of " + host + " failed: " + e.getMessage());
                 }
             }
-        }, 30000);
+        }, Constants.IO_THREAD_NAME + "-prewarm").start();
+
+        handler.postDelayed(prewarmTask, Constants.STANDBY_PREWARM_INTERVAL_MS);
+    }
+
+    /**
+     * 获取地址中的端口，没有指定时按协议使用默认端口
+     * @param uri 服务器地址
+     * @return 端口
+     */
+    static int portOf(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "wss".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private void onProbeResult(boolean reachable) {
+        isProbing = false;
+        reconnectPolicy.onProbeResult(reachable);
+        Log.d(TAG, "Probe " + (reachable ? "succeeded" : "failed") + ", circuit " + reconnectPolicy.getStateName());
+        if (!autoReconnect || isConnected || isConnecting) {
+            return;
+        }
+        // 探测成功后立即尝试完整连接，失败则等待下一次探测
+        scheduleReconnect();
+    }
+
+    /**
+     * 开始心跳
+     * 同时启动JSON心跳和ping/pong保活检查，第一个ping立即发送以尽快得到往返时延
+     */
+    private void startHeartbeat() {
+        stopHeartbeat();
+        rttEstimator.reset();
+        consecutiveMissedPongs = 0;
+        lastReceivedMs = SystemClock.uptimeMillis();
+        handler.postDelayed(heartbeatTick, Constants.HEARTBEAT_INTERVAL_MS);
+        handler.post(livenessTick);
     }
 
     /**
      * 停止心跳
      */
     private void stopHeartbeat() {
-        // 心跳会自动停止，因为isConnected为false
+        handler.removeCallbacks(heartbeatTick);
+        handler.removeCallbacks(livenessTick);
+        pingOutstanding = false;
+    }
+
+    private void onHeartbeatTick() {
+        if (!isConnected) {
+            return;
+        }
+        String heartbeatCommand = protocolHelper.generateHeartbeatCommand();
+        if (heartbeatCommand != null) {
+            sendCommand("heartbeat", heartbeatCommand);
+        }
+        handler.postDelayed(heartbeatTick, Constants.HEARTBEAT_INTERVAL_MS);
+    }
+
+    /**
+     * 保活检查
+     * 长时间没有收到任何数据时判定连接已断开；等待的pong超时后重新发送ping，否则发送下一个ping
+     */
+    private void onLivenessTick() {
+        if (!isConnected || webSocketClient == null) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        long silentMs = now - lastReceivedMs;
+        if (silentMs >= Constants.DEAD_LINK_TIMEOUT_MS) {
+            declareLinkDead(silentMs);
+            return;
+        }
+
+        long pongTimeout = rttEstimator.getPongTimeoutMs();
+        if (pingOutstanding) {
+            consecutiveMissedPongs++;
+            missedPongCount++;
+            Log.w(TAG, "Pong not received within " + pongTimeout + " ms (" + consecutiveMissedPongs + " missed)");
+        }
+
+        try {
+            // 发送前记录时间：pong可能在sendPing返回之前就已在读线程上收到
+            pingSentNanos = System.nanoTime();
+            webSocketClient.sendPing();
+            pingOutstanding = true;
+        } catch (Exception e) {
+            Log.w(TAG, "Error sending ping", e);
+        }
+
+        // 在pong超时或断开判定时刻再次检查，取较早者
+        long deadline = lastReceivedMs + Constants.DEAD_LINK_TIMEOUT_MS - now;
+        handler.postDelayed(livenessTick, Math.max(0, Math.min(pongTimeout, deadline)));
+    }
+
+    /**
+     * 收到pong，更新往返时延并按链路质量安排下一个ping
+     * @param receivedNanos 收到pong的时间（System.nanoTime）
+     */
+    private void onPong(long receivedNanos) {
+        if (!pingOutstanding || !isConnected) {
+            // 没有等待中的ping，不是对本连接ping的回应
+            return;
+        }
+
+        // 丢失过pong时无法确定这个pong回应的是哪一个ping，不作为样本
+        int missedPongs = consecutiveMissedPongs;
+        if (missedPongs == 0) {
+            rttEstimator.addSample((receivedNanos - pingSentNanos) / 1_000_000.0);
+        } else {
+            Log.d(TAG, "Link responsive again after " + missedPongs + " missed pongs");
+        }
+        pingOutstanding = false;
+        consecutiveMissedPongs = 0;
+
+        // 刚丢失过pong时按最短间隔发送下一个ping，尽快确认链路是否稳定
+        handler.removeCallbacks(livenessTick);
+        handler.postDelayed(livenessTick, rttEstimator.getPingIntervalMs(missedPongs));
+    }
+
+    /**
+     * 判定连接已断开：关闭底层连接，由关闭回调开始重连
+     * @param silentMs 没有收到数据的时长（毫秒）
+     */
+    private void declareLinkDead(long silentMs) {
+        deadLinkCount++;
+        Log.w(TAG, "No data received for " + silentMs + " ms, closing dead connection (" + rttEstimator.getStats() + ")");
+        stopHeartbeat();
+        notifyResponse("connection", "dead");
+        try {
+            webSocketClient.closeConnection(CloseFrame.ABNORMAL_CLOSE, "Ping timeout");
+        } catch (Exception e) {
+            Log.e(TAG, "Error closing dead connection", e);
+        }
+    }
+
+    /**
+     * 获取往返时延估计
+     * @return 往返时延估计
+     */
+    public RttEstimator getRttEstimator() {
+        return rttEstimator;
+    }
+
+    /**
+     * 获取没有按时收到的pong数
+     * @return pong数
+     */
+    public long getMissedPongCount() {
+        return missedPongCount;
+    }
+
+    /**
+     * 获取因没有响应而主动断开的次数
+     * @return 次数
+     */
+    public long getDeadLinkCount() {
+        return deadLinkCount;
+    }
+
+    /**
+     * 断开连接并退出自己创建的发送线程
+     * 之后不能再使用该实例
+     */
+    public void release() {
+        runOnIoThread(() -> {
+            disconnect();
+            handler.removeCallbacksAndMessages(null);
+            if (ownedThread != null) {
+                ownedThread.quitSafely();
+            }
+        });
+    }
+
+    private boolean isIoThread() {
+        return Looper.myLooper() == handler.getLooper();
+    }
+
+    /**
+     * 在发送线程上执行任务，当前已在发送线程上时直接执行
+     * @param task 任务
+     */
+    private void runOnIoThread(Runnable task) {
+        if (isIoThread()) {
+            task.run();
+        } else {
+            handler.post(task);
+        }
     }
 
     /**
@@ -284,6 +1507,15 @@ public class WebSocketService {
         return isConnected;
     }
 
+    /**
+     * 是否接收控制命令
+     * 已连接或断开后正在自动重连时返回true；重连期间的脉冲命令保留在邮箱中，连上后发送最新的帧
+     * @return 是否接收控制命令
+     */
+    public boolean isAcceptingCommands() {
+        return isConnected || autoReconnect;
+    }
+
     /**
      * 获取重连尝试次数
      * @return 重连次数
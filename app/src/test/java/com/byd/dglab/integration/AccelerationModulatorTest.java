@@ -0,0 +1,177 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import java.util.Random;
+
+/**
+ * 导数估计与加减速调制在合成车速斜坡上的测试
+ */
+public class AccelerationModulatorTest {
+
+    /** km/h每秒换算为m/s² */
+    private static final double KMH_PER_SECOND_TO_MS2 = 1 / 3.6;
+
+    private static final long INTERVAL_MS = 100;
+
+    @Test
+    public void estimatorConvergesOnConstantAcceleration() {
+        for (double kmhPerSecond : new double[] {-15, -3.6, 0, 2, 10}) {
+            for (long interval : new long[] {INTERVAL_MS, Constants.UPDATE_INTERVAL_MS}) {
+                DerivativeEstimator estimator = new DerivativeEstimator();
+                for (int i = 0; i <= 200; i++) {
+                    double seconds = i * interval / 1000.0;
+                    estimator.update(100 + kmhPerSecond * seconds, i * interval);
+                }
+                assertEquals(kmhPerSecond * KMH_PER_SECOND_TO_MS2, estimator.getAcceleration(), 1e-6);
+                assertEquals(0, estimator.getJerk(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void estimatorConvergesOnConstantJerk() {
+        // 车速按时间二次变化：加速度线性增加，加加速度恒定
+        double jerk = 1.5;
+        DerivativeEstimator estimator = new DerivativeEstimator();
+        double seconds = 0;
+        for (int i = 0; i <= 300; i++) {
+            seconds = i * INTERVAL_MS / 1000.0;
+            estimator.update(20 + jerk * seconds * seconds / 2, i * INTERVAL_MS);
+        }
+        assertEquals(jerk * seconds * KMH_PER_SECOND_TO_MS2, estimator.getAcceleration(), 1e-6);
+        assertEquals(jerk * KMH_PER_SECOND_TO_MS2, estimator.getJerk(), 1e-6);
+    }
+
+    @Test
+    public void noiseIsNotAmplifiedLikeRawDifference() {
+        Random random = new Random(8);
+        double kmhPerSecond = 5;
+        DerivativeEstimator estimator = new DerivativeEstimator();
+        double maxEstimateError = 0;
+        double maxRawError = 0;
+        double previous = Double.NaN;
+        for (int i = 0; i < 5000; i++) {
+            double seconds = i * INTERVAL_MS / 1000.0;
+            double speed = 60 + kmhPerSecond * seconds + (random.nextDouble() - 0.5);
+            estimator.update(speed, i * INTERVAL_MS);
+            if (i >= 100) {
+                double rawRate = (speed - previous) / (INTERVAL_MS / 1000.0);
+                maxRawError = Math.max(maxRawError, Math.abs(rawRate - kmhPerSecond));
+                maxEstimateError = Math.max(maxEstimateError,
+                        Math.abs(estimator.getAcceleration() / KMH_PER_SECOND_TO_MS2 - kmhPerSecond));
+            }
+            previous = speed;
+        }
+        // ±0.5 km/h的采样噪声经原始差分放大到接近±10 km/h每秒
+        assertTrue("raw " + maxRawError, maxRawError > 8);
+        assertTrue("estimate " + maxEstimateError, maxEstimateError < maxRawError / 2);
+    }
+
+    @Test
+    public void estimatorIgnoresStaleSamplesAndRestartsAfterGap() {
+        DerivativeEstimator estimator = new DerivativeEstimator();
+        for (int i = 0; i <= 100; i++) {
+            estimator.update(50 + 3.6 * i * INTERVAL_MS / 1000.0, i * INTERVAL_MS);
+        }
+        double acceleration = estimator.getAcceleration();
+        assertEquals(1, acceleration, 1e-6);
+
+        // 时间戳不递增的采样被忽略
+        estimator.update(0, 100 * INTERVAL_MS);
+        estimator.update(0, 50 * INTERVAL_MS);
+        assertEquals(acceleration, estimator.getAcceleration(), 0);
+
+        // 间隔过长时从新采样重新开始
+        estimator.update(80, 100 * INTERVAL_MS + Constants.DERIVATIVE_MAX_GAP_MS + 1);
+        assertEquals(0, estimator.getAcceleration(), 0);
+        assertEquals(0, estimator.getJerk(), 0);
+    }
+
+    @Test
+    public void adjustmentFollowsRampAcceleration() {
+        ModulationConfig config = new ModulationConfig(10, -6, 0.3, 25, 0, 0, 0);
+        for (double ms2 : new double[] {-4, -1, -0.2, 0, 0.2, 0.5, 1, 2, 5}) {
+            AccelerationModulator modulator = new AccelerationModulator();
+            int adjustment = 0;
+            for (int i = 0; i <= 200; i++) {
+                double seconds = i * INTERVAL_MS / 1000.0;
+                adjustment = modulator.update(80 + ms2 / KMH_PER_SECOND_TO_MS2 * seconds, i * INTERVAL_MS, config);
+            }
+            assertEquals("acceleration " + ms2, config.adjustmentFor(ms2), adjustment);
+        }
+    }
+
+    @Test
+    public void adjustmentForAppliesDeadbandGainAndClamp() {
+        ModulationConfig config = new ModulationConfig(10, -6, 0.3, 25, 0, 0, 0);
+        // 死区内不调整
+        assertEquals(0, config.adjustmentFor(0.3));
+        assertEquals(0, config.adjustmentFor(-0.3));
+        // 只对超出死区的部分乘以增益
+        assertEquals(7, config.adjustmentFor(1.0));
+        assertEquals(-6, config.adjustmentFor(-1.3));
+        // 调整量不超过上限
+        assertEquals(25, config.adjustmentFor(9));
+        assertEquals(-25, config.adjustmentFor(-9));
+    }
+
+    @Test
+    public void brakePulseFiresOnceForItsDuration() {
+        long pulseMs = 500;
+        ModulationConfig config = new ModulationConfig(0, 0, 0, 0, 3, 40, pulseMs);
+        AccelerationModulator modulator = new AccelerationModulator();
+        long time = 0;
+        double speed = 100;
+
+        // 匀速行驶
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, modulator.update(speed, time += INTERVAL_MS, config));
+        }
+
+        // 以6 m/s²急刹车直到停车，脉冲只在越过阈值后持续pulseMs
+        double kmhPerStep = 6 / KMH_PER_SECOND_TO_MS2 * INTERVAL_MS / 1000.0;
+        long pulseStart = -1;
+        int pulseSamples = 0;
+        int pulseStarts = 0;
+        boolean previousActive = false;
+        while (speed > 0) {
+            speed = Math.max(0, speed - kmhPerStep);
+            int adjustment = modulator.update(speed, time += INTERVAL_MS, config);
+            boolean active = adjustment == 40;
+            assertTrue(adjustment == 0 || active);
+            if (active) {
+                if (!previousActive) {
+                    pulseStarts++;
+                    pulseStart = time;
+                }
+                pulseSamples++;
+                assertTrue(time < pulseStart + pulseMs);
+            }
+            previousActive = active;
+        }
+        assertEquals(1, pulseStarts);
+        assertEquals(pulseMs / INTERVAL_MS, pulseSamples);
+
+        // 停车后恢复匀速，不再触发
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, modulator.update(0, time += INTERVAL_MS, config));
+        }
+    }
+
+    @Test
+    public void disabledConfigNeverAdjusts() {
+        AccelerationModulator modulator = new AccelerationModulator();
+        long time = 0;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, modulator.update(i * 3, time += INTERVAL_MS, ModulationConfig.DISABLED));
+        }
+        for (int i = 100; i > 0; i--) {
+            assertEquals(0, modulator.update(i * 3, time += INTERVAL_MS, ModulationConfig.DISABLED));
+        }
+        // 关闭时仍然持续估计加速度
+        assertTrue(modulator.getEstimator().getAcceleration() < 0);
+    }
+}
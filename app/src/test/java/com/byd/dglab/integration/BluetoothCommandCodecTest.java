@@ -0,0 +1,211 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * B0/BF指令编解码与原有String.format输出的一致性、往返和零分配测试
+ */
+public class BluetoothCommandCodecTest {
+
+    private static final int CASES = 200_000;
+
+    // 通道只取ASCII且不含分隔符和结束符，保证可以往返解码
+    private static final String CHANNEL_CHARS = "ABCDXYZabc0123456789_-";
+
+    @Test
+    public void stringAdaptersMatchLegacyFormat() {
+        Random random = new Random(13);
+        for (int i = 0; i < CASES; i++) {
+            String channel = randomChannel(random);
+            int frequency = randomValue(random);
+            int intensity = randomValue(random);
+            assertEquals(legacyB0(channel, intensity), BluetoothCommandCodec.toB0String(channel, intensity));
+            assertEquals(legacyBF(channel, frequency, intensity),
+                    BluetoothCommandCodec.toBFString(channel, frequency, intensity));
+        }
+        // 原实现中通道为null时输出"null"且不计入校验和
+        assertEquals(legacyB0(null, 120), BluetoothCommandCodec.toB0String(null, 120));
+        assertEquals(legacyBF(null, 50, 120), BluetoothCommandCodec.toBFString(null, 50, 120));
+    }
+
+    @Test
+    public void encodedBytesMatchLegacyFormatAndRoundTrip() {
+        Random random = new Random(31);
+        byte[] buffer = new byte[BluetoothCommandCodec.MAX_BF_LENGTH + 8];
+        BluetoothCommand decoded = new BluetoothCommand();
+        for (int i = 0; i < CASES; i++) {
+            String channel = randomChannel(random);
+            int frequency = randomValue(random);
+            int intensity = randomValue(random);
+            int offset = random.nextInt(8);
+
+            int length = BluetoothCommandCodec.encodeB0(channel, intensity, buffer, offset);
+            assertEquals(legacyB0(channel, intensity), ascii(buffer, offset, length));
+            assertTrue(BluetoothCommandCodec.decode(buffer, offset, length, decoded));
+            assertFalse(decoded.isPulse());
+            assertEquals(channel, decoded.channel);
+            assertEquals(0, decoded.frequency);
+            assertEquals(intensity, decoded.intensity);
+            assertEquals(BluetoothCommandCodec.checksum(channel.charAt(0), intensity), decoded.checksum);
+            assertEquals(legacyB0(channel, intensity), decoded.toString());
+
+            length = BluetoothCommandCodec.encodeBF(channel, frequency, intensity, buffer, offset);
+            assertEquals(legacyBF(channel, frequency, intensity), ascii(buffer, offset, length));
+            assertTrue(BluetoothCommandCodec.decode(buffer, offset, length, decoded));
+            assertTrue(decoded.isPulse());
+            assertEquals(channel, decoded.channel);
+            assertEquals(frequency, decoded.frequency);
+            assertEquals(intensity, decoded.intensity);
+            assertEquals(legacyBF(channel, frequency, intensity), decoded.toString());
+        }
+    }
+
+    @Test
+    public void byteBufferEncodingAdvancesPosition() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 'x');
+        BluetoothCommandCodec.encodeB0(Constants.CHANNEL_A, 7, buffer);
+        BluetoothCommandCodec.encodeBF(Constants.CHANNEL_B, 50, 60, buffer);
+        assertEquals("x" + legacyB0("A", 7) + legacyBF("B", 50, 60),
+                ascii(buffer.array(), 0, buffer.position()));
+        assertEquals("B0,A,7,72;BF,B,50,60,176;", legacyB0("A", 7) + legacyBF("B", 50, 60));
+    }
+
+    @Test
+    public void decodeRejectsMalformedOrCorruptedFrames() {
+        BluetoothCommand decoded = new BluetoothCommand();
+        String[] invalid = {
+                "", ";", "B0;", "B0,A,7,73;", "BF,A,50,60,174;", "B1,A,7,72;", "C0,A,7,72;",
+                "B0,A,7,72", "B0,,7,7;", "B0,A,07,72;", "B0,A,-0,65;", "B0,A,7x,72;", "B0,A,,65;",
+                "BF,A,50,175;", "B0,A,99999999999,0;", "BF,A,50,60,175,1;"
+        };
+        for (String frame : invalid) {
+            byte[] bytes = frame.getBytes(StandardCharsets.US_ASCII);
+            assertFalse(frame, BluetoothCommandCodec.decode(bytes, 0, bytes.length, decoded));
+        }
+
+        // 把一位数字换成另一位数字时，数值变化不是256的倍数，校验和必然不一致
+        Random random = new Random(7);
+        byte[] buffer = new byte[BluetoothCommandCodec.MAX_BF_LENGTH];
+        for (int i = 0; i < 10_000; i++) {
+            int length = BluetoothCommandCodec.encodeBF(Constants.CHANNEL_A,
+                    random.nextInt(Constants.FREQUENCY_MAX + 1), random.nextInt(Constants.INTENSITY_MAX + 1), buffer, 0);
+            byte[] corrupted = buffer.clone();
+            int index = 3 + random.nextInt(length - 4);
+            byte replacement = (byte) ('0' + random.nextInt(10));
+            if (replacement == corrupted[index] || corrupted[index] == ',') {
+                continue;
+            }
+            corrupted[index] = replacement;
+            assertFalse(ascii(corrupted, 0, length), BluetoothCommandCodec.decode(corrupted, 0, length, decoded));
+        }
+    }
+
+    @Test
+    public void encodeAndDecodeDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        byte[] buffer = new byte[BluetoothCommandCodec.MAX_BF_LENGTH];
+        BluetoothCommand decoded = new BluetoothCommand();
+        long checksum = roundTrips(buffer, decoded, CASES);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        checksum += roundTrips(buffer, decoded, CASES);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum > 0);
+        assertTrue("Allocated " + allocated + " bytes for " + CASES + " frames", allocated < 1024);
+    }
+
+    private static long roundTrips(byte[] buffer, BluetoothCommand decoded, int count) {
+        long checksum = 0;
+        for (int i = 0; i < count; i++) {
+            String channel = (i & 1) == 0 ? Constants.CHANNEL_A : Constants.CHANNEL_B;
+            int length = BluetoothCommandCodec.encodeBF(channel, i % 240, i % 201, buffer, 0);
+            if (BluetoothCommandCodec.decode(buffer, 0, length, decoded)) {
+                checksum += decoded.checksum + 1;
+            }
+            length = BluetoothCommandCodec.encodeB0(channel, i % 201, buffer, 0);
+            if (BluetoothCommandCodec.decode(buffer, 0, length, decoded)) {
+                checksum += decoded.checksum + 1;
+            }
+        }
+        return checksum;
+    }
+
+    private static String randomChannel(Random random) {
+        if (random.nextInt(4) > 0) {
+            return random.nextBoolean() ? Constants.CHANNEL_A : Constants.CHANNEL_B;
+        }
+        char[] chars = new char[1 + random.nextInt(3)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = CHANNEL_CHARS.charAt(random.nextInt(CHANNEL_CHARS.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 大部分取协议范围内的值，其余覆盖整个int范围（含负数和边界）
+     */
+    private static int randomValue(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return random.nextInt();
+            case 1:
+                return random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE + random.nextInt(2);
+            case 2:
+                return -random.nextInt(1000);
+            default:
+                return random.nextInt(Constants.FREQUENCY_MAX + 1);
+        }
+    }
+
+    private static String ascii(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 参考实现：改为编解码器之前的String.format和装箱校验和
+     * 原B0格式串少了一个%s，第二个分隔符落到%d上会抛出异常，这里使用修正后的格式串
+     */
+    private static String legacyB0(String channel, int intensity) {
+        int checksum = legacyChecksum(channel, intensity);
+        return String.format("%s%s%s%s%d%s%d%s",
+                Constants.B0_PREFIX, Constants.COMMAND_SEPARATOR, channel, Constants.COMMAND_SEPARATOR,
+                intensity, Constants.COMMAND_SEPARATOR, checksum, Constants.END_MARKER);
+    }
+
+    private static String legacyBF(String channel, int frequency, int intensity) {
+        int checksum = legacyChecksum(channel, frequency, intensity);
+        return String.format("%s%s%s%s%d%s%d%s%d%s",
+                Constants.BF_PREFIX, Constants.COMMAND_SEPARATOR, channel, Constants.COMMAND_SEPARATOR,
+                frequency, Constants.COMMAND_SEPARATOR, intensity, Constants.COMMAND_SEPARATOR,
+                checksum, Constants.END_MARKER);
+    }
+
+    private static int legacyChecksum(Object... params) {
+        int sum = 0;
+        for (Object param : params) {
+            if (param instanceof String) {
+                sum += ((String) param).charAt(0);
+            } else if (param instanceof Integer) {
+                sum += (Integer) param;
+            }
+        }
+        return sum % 256;
+    }
+}
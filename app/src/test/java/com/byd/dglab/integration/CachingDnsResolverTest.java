@@ -0,0 +1,147 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DNS缓存在虚拟时钟上的过期和查询失败时使用过期结果的测试
+ */
+public class CachingDnsResolverTest {
+
+    private static final long TTL_MS = 60_000;
+    private static final String HOST = "ws.example.com";
+
+    private final VirtualClock clock = new VirtualClock();
+    private final FakeDns dns = new FakeDns(clock);
+
+    @Test
+    public void cachedUntilTtlExpires() throws Exception {
+        InetAddress first = address(HOST, 1);
+        dns.records.put(HOST, first);
+
+        assertSame(first, dns.resolve(HOST));
+        assertEquals(1, dns.lookups);
+
+        // 过期之前不再查询，记录变化也看不到
+        dns.records.put(HOST, address(HOST, 2));
+        clock.advance(TTL_MS - 1);
+        assertSame(first, dns.resolve(URI.create("wss://" + HOST + "/ws")));
+        assertEquals(1, dns.lookups);
+        assertEquals(1, dns.getHitCount());
+
+        // 过期后重新查询并缓存新结果
+        clock.advance(1);
+        InetAddress second = dns.resolve(HOST);
+        assertEquals(address(HOST, 2), second);
+        assertEquals(2, dns.lookups);
+        assertSame(second, dns.resolve(HOST));
+        assertEquals(2, dns.lookups);
+        assertEquals(2, dns.getMissCount());
+    }
+
+    @Test
+    public void staleAddressIsUsedWhenLookupFails() throws Exception {
+        InetAddress cached = address(HOST, 1);
+        dns.records.put(HOST, cached);
+        dns.resolve(HOST);
+
+        // 信号差：过期后查询失败，继续使用过期的结果
+        dns.records.remove(HOST);
+        clock.advance(TTL_MS);
+        assertSame(cached, dns.resolve(HOST));
+        assertEquals(1, dns.getStaleCount());
+
+        // 过期结果不会被续期，每次都重新尝试查询
+        assertSame(cached, dns.resolve(HOST));
+        assertEquals(3, dns.lookups);
+        assertEquals(2, dns.getStaleCount());
+
+        // 查询恢复后换成新结果
+        dns.records.put(HOST, address(HOST, 3));
+        assertEquals(address(HOST, 3), dns.resolve(HOST));
+        assertEquals(2, dns.getStaleCount());
+    }
+
+    @Test
+    public void failureWithoutCacheIsReported() throws Exception {
+        try {
+            dns.resolve(HOST);
+            fail("lookup should fail");
+        } catch (UnknownHostException expected) {
+            assertEquals(0, dns.getStaleCount());
+        }
+
+        // 清空缓存后过期结果也不再可用
+        dns.records.put(HOST, address(HOST, 1));
+        dns.resolve(HOST);
+        dns.clear();
+        dns.records.remove(HOST);
+        try {
+            dns.resolve(HOST);
+            fail("lookup should fail after clear");
+        } catch (UnknownHostException expected) {
+            assertEquals(0, dns.getStaleCount());
+        }
+    }
+
+    @Test
+    public void hostsAreCachedSeparately() throws Exception {
+        dns.records.put(HOST, address(HOST, 1));
+        dns.records.put("backup.example.com", address("backup.example.com", 2));
+        dns.resolve(HOST);
+        dns.resolve("backup.example.com");
+        dns.resolve(HOST);
+        assertEquals(2, dns.lookups);
+        assertEquals(address("backup.example.com", 2), dns.resolve("backup.example.com"));
+    }
+
+    private static InetAddress address(String host, int last) throws UnknownHostException {
+        return InetAddress.getByAddress(host, new byte[] {10, 0, 0, (byte) last});
+    }
+
+    /**
+     * 从内存中的记录查询的解析器，不访问网络
+     */
+    private static final class FakeDns extends CachingDnsResolver {
+        final Map<String, InetAddress> records = new HashMap<>();
+        int lookups;
+
+        FakeDns(Clock clock) {
+            super(clock, TTL_MS);
+        }
+
+        @Override
+        protected InetAddress lookup(String host) throws UnknownHostException {
+            lookups++;
+            InetAddress address = records.get(host);
+            if (address == null) {
+                throw new UnknownHostException(host);
+            }
+            return address;
+        }
+    }
+
+    /**
+     * 虚拟时钟，只在测试推进时前进
+     */
+    private static final class VirtualClock implements Clock {
+        long now = 1_000_000;
+
+        @Override
+        public long uptimeMillis() {
+            return now;
+        }
+
+        void advance(long ms) {
+            now += ms;
+        }
+    }
+}
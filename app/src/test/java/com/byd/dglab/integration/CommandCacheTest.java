@@ -0,0 +1,155 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 脉冲命令缓存的时钟淘汰顺序、内存上限、统计和按配置预填充的测试
+ */
+public class CommandCacheTest {
+
+    private static final int FREQUENCY = 50;
+
+    @Test
+    public void clockGivesReferencedEntriesASecondChance() {
+        long entryCost = entryCost();
+        CommandCache cache = new CommandCache(3 * entryCost);
+        long emptyFootprint = cache.getFootprintBytes();
+
+        // 强度10-19的命令长度相同，上限正好容纳3条
+        get(cache, 11);
+        get(cache, 12);
+        get(cache, 13);
+        assertEquals(3, cache.getSize());
+        assertEquals(0, cache.getEvictionCount());
+
+        // 11被访问过，获得二次机会；淘汰最早的未访问条目12
+        get(cache, 11);
+        get(cache, 14);
+        assertEquals(3, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3 * entryCost, cache.getFootprintBytes() - emptyFootprint);
+
+        // 11仍在缓存中，12需要重新生成并淘汰13（11被再次访问）
+        get(cache, 11);
+        assertEquals(2, cache.getHitCount());
+        get(cache, 12);
+        assertEquals(5, cache.getMissCount());
+        assertEquals(2, cache.getEvictionCount());
+
+        // 13已被淘汰，重新生成时淘汰未访问的14；11的访问位已被时钟清除后再次设置
+        get(cache, 13);
+        assertEquals(6, cache.getMissCount());
+        assertEquals(3, cache.getEvictionCount());
+        get(cache, 11);
+        get(cache, 12);
+        get(cache, 13);
+        assertEquals(5, cache.getHitCount());
+        assertEquals(6, cache.getMissCount());
+        assertEquals(5.0 / 11, cache.getHitRatio(), 1e-12);
+        assertTrue(cache.getFootprintBytes() - emptyFootprint <= 3 * entryCost);
+    }
+
+    @Test
+    public void hitsReturnTheSameInstances() {
+        CommandCache cache = new CommandCache();
+        String command = cache.getPulseCommand(Constants.CHANNEL_B, FREQUENCY, 10);
+        byte[] bytes = cache.getPulseCommandBytes(Constants.CHANNEL_B, FREQUENCY, 10);
+        assertSame(command, cache.getPulseCommand(Constants.CHANNEL_B, FREQUENCY, 10));
+        assertSame(bytes, cache.getPulseCommandBytes(Constants.CHANNEL_B, FREQUENCY, 10));
+        assertEquals(new JsonCommandEncoder().encodePulse(Constants.CHANNEL_B, FREQUENCY, 10), command);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(3, cache.getHitCount());
+
+        // 超出范围的组合不缓存
+        assertEquals(null, cache.getPulseCommand("C", FREQUENCY, 10));
+        assertEquals(null, cache.getPulseCommand(Constants.CHANNEL_A, Constants.FREQUENCY_MAX + 1, 10));
+        assertEquals(1, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.getHitRatio(), 0);
+    }
+
+    @Test
+    public void prefillCoversEveryProfileOutputOnBothChannels() {
+        CommandCache cache = new CommandCache();
+        ConversionProfile profile = ConversionProfile.BUILT_IN;
+        cache.prefill(profile);
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(0, cache.getMissCount());
+
+        // 查表可能得到的每个组合在两个通道上都已缓存
+        for (int i = 0; i <= Constants.SPEED_MAX * 64; i++) {
+            double speed = i / 64.0;
+            int intensity = profile.lookupIntensity(speed);
+            int frequency = profile.lookupFrequency(speed);
+            assertNotNull(cache.getPulseCommand(Constants.CHANNEL_A, frequency, intensity));
+            assertNotNull(cache.getPulseCommand(Constants.CHANNEL_B, frequency, intensity));
+            // 小幅的加减速调整量也已覆盖
+            assertNotNull(cache.getPulseCommand(Constants.CHANNEL_B, frequency,
+                    SpeedToControlConverter.adjustIntensity(intensity, -3)));
+        }
+        assertEquals("misses after prefill", 0, cache.getMissCount());
+        long entryBytes = cache.getFootprintBytes() - new CommandCache().getFootprintBytes();
+        assertTrue(entryBytes <= Constants.COMMAND_CACHE_MAX_BYTES);
+    }
+
+    @Test
+    public void prefillStopsAtCapWithoutEvicting() {
+        long entryCost = entryCost();
+        CommandCache cache = new CommandCache(20 * entryCost);
+        cache.prefill(ConversionProfile.BUILT_IN);
+        assertTrue(cache.getSize() > 0);
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+
+        // 从最低车速开始，两个通道交替填充
+        long frame = ConversionProfile.BUILT_IN.getOutputFrames()[0];
+        cache.getPulseCommand(Constants.CHANNEL_A, ControlFrame.frequency(frame), ControlFrame.intensity(frame));
+        cache.getPulseCommand(Constants.CHANNEL_B, ControlFrame.frequency(frame), ControlFrame.intensity(frame));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void outputFramesMatchLookup() {
+        ConversionProfile profile = ConversionProfile.BUILT_IN;
+        long[] frames = profile.getOutputFrames();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i <= Constants.SPEED_MAX * 256; i++) {
+            double speed = i / 256.0;
+            expected.add(ControlFrame.pack(profile.lookupIntensity(speed), profile.lookupFrequency(speed)));
+        }
+        Set<Long> actual = new HashSet<>();
+        for (long frame : frames) {
+            actual.add(frame);
+        }
+        // 细网格取样得到的组合都在其中；跳变点附近的窄区间可能还有网格取不到的组合
+        assertEquals(frames.length, actual.size());
+        assertTrue(actual.containsAll(expected));
+        assertEquals(ControlFrame.pack(profile.lookupIntensity(0), profile.lookupFrequency(0)), frames[0]);
+    }
+
+    private static void get(CommandCache cache, int intensity) {
+        assertNotNull(cache.getPulseCommand(Constants.CHANNEL_A, FREQUENCY, intensity));
+    }
+
+    /**
+     * 测量强度10-19的单个命令的估算内存占用
+     */
+    private static long entryCost() {
+        CommandCache cache = new CommandCache();
+        long before = cache.getFootprintBytes();
+        get(cache, 10);
+        return cache.getFootprintBytes() - before;
+    }
+}
@@ -0,0 +1,98 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 转换配置热替换的并发测试
+ * 采样线程持续转换，另一个线程不断替换转换配置和滤波器参数；
+ * 每个控制帧的强度和频率都必须来自同一个已发布的配置，不能混用新旧配置，也不能出现异常
+ */
+public class ConverterHotSwapTest {
+
+    private static final int PROFILE_COUNT = 8;
+    private static final int SWAPS = 100_000;
+    private static final double SPEED = 50;
+
+    @Test
+    public void framesAlwaysComeFromOnePublishedProfile() throws Exception {
+        // 每个配置的强度和频率都是同一个常数，强度与频率不等即说明混用了两个配置
+        ConversionProfile[] profiles = new ConversionProfile[PROFILE_COUNT];
+        for (int k = 0; k < PROFILE_COUNT; k++) {
+            profiles[k] = constantProfile("p" + k, valueOf(k));
+        }
+        FilterConfig[] filters = {
+                FilterConfig.movingAverage(3),
+                FilterConfig.movingAverage(9),
+                FilterConfig.ema(200),
+                FilterConfig.median(5),
+                FilterConfig.oneEuro(1.0, 0.01, 1.0),
+                FilterConfig.kalman(0.5, 4.0)
+        };
+
+        SpeedToControlConverter converter = new SpeedToControlConverter();
+        converter.setProfile(profiles[0]);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicLong samples = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            long time = 0;
+            while (!done.get() && failure.get() == null) {
+                // 车速恒定，平滑和加减速调制都不改变取值
+                long frame = converter.convert(SPEED, time += 100);
+                int intensity = ControlFrame.intensity(frame);
+                int frequency = ControlFrame.frequency(frame);
+                if (intensity != frequency || intensity < valueOf(0) || intensity > valueOf(PROFILE_COUNT - 1)) {
+                    failure.set("Torn frame: intensity " + intensity + ", frequency " + frequency);
+                }
+                samples.incrementAndGet();
+            }
+        }, "sampler");
+        sampler.start();
+
+        for (int i = 0; i < SWAPS && failure.get() == null; i++) {
+            switch (i % 3) {
+                case 0:
+                    converter.setProfile(profiles[i % PROFILE_COUNT]);
+                    break;
+                case 1:
+                    converter.setFilterConfig(filters[i % filters.length]);
+                    break;
+                default:
+                    converter.publish(converter.getSnapshot()
+                            .withProfile(profiles[(i * 7) % PROFILE_COUNT])
+                            .withFilterConfig(filters[(i * 5) % filters.length]));
+                    break;
+            }
+        }
+        done.set(true);
+        sampler.join(10_000);
+
+        assertNull(failure.get(), failure.get());
+        assertTrue("Sampler made no progress", samples.get() > 0);
+
+        // 停止替换后的下一个采样使用最后发布的配置
+        converter.setProfile(profiles[3]);
+        long frame = converter.convert(SPEED, Long.MAX_VALUE / 2);
+        assertEquals(valueOf(3), ControlFrame.intensity(frame));
+        assertEquals(valueOf(3), ControlFrame.frequency(frame));
+    }
+
+    private static int valueOf(int profileIndex) {
+        return 20 + profileIndex;
+    }
+
+    private static ConversionProfile constantProfile(String name, int value) {
+        double[][] points = {{0, value}, {Constants.SPEED_MAX, value}};
+        return ConversionProfile.compile(new ProfileDefinition(name,
+                new ConversionCurve(ConversionCurve.TYPE_LINEAR, points, 0),
+                new ConversionCurve(ConversionCurve.TYPE_LINEAR, points, 0)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 控制帧发送器的死区、保活和停止帧测试
+ */
+public class FrameEmitterTest {
+
+    private static final long KEEP_ALIVE_MS = 5000;
+
+    private final RecordingSink sink = new RecordingSink();
+
+    @Test
+    public void suppressesChangesInsideDeadband() {
+        FrameEmitter emitter = new FrameEmitter(3, 5, KEEP_ALIVE_MS);
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(50, 40), 0, sink));
+        assertFalse(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(52, 44), 100, sink));
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(53, 40), 200, sink));
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(53, 45), 300, sink));
+
+        // 保活间隔到期后即使没有变化也重新发送
+        assertFalse(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(53, 45), 300 + KEEP_ALIVE_MS - 1, sink));
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(53, 45), 300 + KEEP_ALIVE_MS, sink));
+
+        assertEquals(4, emitter.getSentCount());
+        assertEquals(2, emitter.getSuppressedCount());
+        assertEquals(4, sink.intensities.size());
+    }
+
+    @Test
+    public void dropToZeroIsSentDespiteScaledDeadband() {
+        // 链路拥塞时死区放大，3到0的变化在放大后的死区之内
+        FrameEmitter emitter = new FrameEmitter();
+        emitter.setDeadbandScale(Constants.BACKPRESSURE_DEADBAND_SCALE);
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(3, 10), 0, sink));
+        assertFalse(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(2, 10), 100, sink));
+
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(Constants.INTENSITY_MIN, 10), 200, sink));
+        assertEquals(Constants.INTENSITY_MIN, sink.lastIntensity());
+
+        // 已经为0时重复的停止帧照常抑制
+        assertFalse(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(Constants.INTENSITY_MIN, 12), 300, sink));
+    }
+
+    @Test
+    public void dropToZeroIsSentDespiteUserDeadband() {
+        FrameEmitter emitter = new FrameEmitter(10, 10, KEEP_ALIVE_MS);
+        assertTrue(emitter.emit(Constants.CHANNEL_B, ControlFrame.pack(8, 30), 0, sink));
+        assertTrue(emitter.emit(Constants.CHANNEL_B, ControlFrame.pack(Constants.INTENSITY_MIN, 30), 1, sink));
+        assertEquals(Constants.INTENSITY_MIN, sink.lastIntensity());
+
+        // 从0上升仍受死区限制
+        assertFalse(emitter.emit(Constants.CHANNEL_B, ControlFrame.pack(5, 30), 2, sink));
+    }
+
+    @Test
+    public void channelsAreTrackedSeparately() {
+        FrameEmitter emitter = new FrameEmitter();
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(20, 10), 0, sink));
+        assertTrue(emitter.emit(Constants.CHANNEL_B, ControlFrame.pack(20, 10), 0, sink));
+        assertFalse(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(20, 10), 1, sink));
+
+        // 停用后重新启用的通道立即发送
+        assertFalse(emitter.emit(Constants.CHANNEL_B, ControlFrame.NONE, 2, sink));
+        assertTrue(emitter.emit(Constants.CHANNEL_B, ControlFrame.pack(20, 10), 3, sink));
+
+        // 连接重建后所有通道立即发送
+        emitter.invalidate();
+        assertTrue(emitter.emit(Constants.CHANNEL_A, ControlFrame.pack(20, 10), 4, sink));
+    }
+
+    /**
+     * 记录发送的强度值
+     */
+    private static final class RecordingSink implements PulseCommandSink {
+        final List<Integer> intensities = new ArrayList<>();
+
+        @Override
+        public void sendPulseCommand(String channel, int frequency, int intensity) {
+            intensities.add(intensity);
+        }
+
+        int lastIntensity() {
+            return intensities.get(intensities.size() - 1);
+        }
+    }
+}
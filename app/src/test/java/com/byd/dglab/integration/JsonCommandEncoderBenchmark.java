@@ -0,0 +1,89 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 直接编码与Gson对象树序列化脉冲命令的基准，不随单元测试运行
+ * 运行方式：./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*JsonCommandEncoderBenchmark'
+ */
+public class JsonCommandEncoderBenchmark {
+
+    private static final int COMMANDS = 500_000;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void pulseBenchmark() {
+        JsonCommandEncoder encoder = new JsonCommandEncoder();
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+
+        long encoderNanos = Long.MAX_VALUE;
+        long bytesNanos = Long.MAX_VALUE;
+        long gsonNanos = Long.MAX_VALUE;
+        long encoderChecksum = 0;
+        long bytesChecksum = 0;
+        long gsonChecksum = 0;
+        // 取多轮中的最好成绩，前几轮用于预热
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            encoderChecksum = 0;
+            for (int i = 0; i < COMMANDS; i++) {
+                encoderChecksum += encoder.encodePulse(channel(i), frequency(i), intensity(i)).length();
+            }
+            encoderNanos = Math.min(encoderNanos, System.nanoTime() - start);
+
+            // 发送路径：直接写入复用的字节数组
+            start = System.nanoTime();
+            bytesChecksum = 0;
+            for (int i = 0; i < COMMANDS; i++) {
+                bytesChecksum += encoder.encodePulse(channel(i), frequency(i), intensity(i), out, 0);
+            }
+            bytesNanos = Math.min(bytesNanos, System.nanoTime() - start);
+
+            // 原有路径：构建JsonObject树后gson.toJson，再编码为UTF-8
+            start = System.nanoTime();
+            gsonChecksum = 0;
+            for (int i = 0; i < COMMANDS; i++) {
+                gsonChecksum += gsonPulse(channel(i), frequency(i), intensity(i))
+                        .getBytes(StandardCharsets.UTF_8).length;
+            }
+            gsonNanos = Math.min(gsonNanos, System.nanoTime() - start);
+        }
+
+        assertEquals(gsonChecksum, encoderChecksum);
+        assertEquals(gsonChecksum, bytesChecksum);
+        System.out.printf("encoder %.1f ns/cmd, encoder to bytes %.1f ns/cmd, gson tree %.1f ns/cmd%n",
+                (double) encoderNanos / COMMANDS, (double) bytesNanos / COMMANDS, (double) gsonNanos / COMMANDS);
+    }
+
+    private static String channel(int i) {
+        return (i & 1) == 0 ? Constants.CHANNEL_A : Constants.CHANNEL_B;
+    }
+
+    private static int frequency(int i) {
+        return Constants.FREQUENCY_MIN + (i * 7) % (Constants.FREQUENCY_MAX - Constants.FREQUENCY_MIN + 1);
+    }
+
+    private static int intensity(int i) {
+        return Constants.INTENSITY_MIN + (i * 13) % (Constants.INTENSITY_MAX - Constants.INTENSITY_MIN + 1);
+    }
+
+    /**
+     * 参考实现：改为直接编码之前用Gson对象树生成的命令
+     */
+    private String gsonPulse(String channel, int frequency, int intensity) {
+        JsonObject data = new JsonObject();
+        data.addProperty("channel", channel);
+        data.addProperty("frequency", frequency);
+        data.addProperty("intensity", intensity);
+        JsonObject command = new JsonObject();
+        command.addProperty("type", Constants.MSG_TYPE_PULSE);
+        command.add("data", data);
+        return gson.toJson(command);
+    }
+}
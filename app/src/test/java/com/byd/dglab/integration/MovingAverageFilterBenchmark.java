@@ -0,0 +1,51 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import com.byd.dglab.integration.MovingAverageFilterTest.ReferenceAverage;
+import org.junit.Test;
+import java.util.Random;
+
+/**
+ * 环形缓冲区与装箱队列移动平均的基准，不随单元测试运行
+ * 运行方式：./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*MovingAverageFilterBenchmark'
+ */
+public class MovingAverageFilterBenchmark {
+
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    public void filterBenchmark() {
+        MovingAverageFilter filter = new MovingAverageFilter(Constants.SMOOTHING_WINDOW_SIZE);
+        ReferenceAverage reference = new ReferenceAverage(Constants.SMOOTHING_WINDOW_SIZE);
+        double[] speeds = new double[SAMPLES];
+        Random random = new Random(3L);
+        for (int i = 0; i < speeds.length; i++) {
+            speeds[i] = random.nextDouble() * Constants.SPEED_MAX;
+        }
+
+        long ringNanos = Long.MAX_VALUE;
+        long dequeNanos = Long.MAX_VALUE;
+        double ringChecksum = 0;
+        double dequeChecksum = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            ringChecksum = 0;
+            for (int i = 0; i < speeds.length; i++) {
+                ringChecksum += filter.filter(speeds[i], i * 100L);
+            }
+            ringNanos = Math.min(ringNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            dequeChecksum = 0;
+            for (double speed : speeds) {
+                dequeChecksum += reference.add(speed);
+            }
+            dequeNanos = Math.min(dequeNanos, System.nanoTime() - start);
+        }
+
+        assertEquals(dequeChecksum, ringChecksum, 1e-6 * SAMPLES);
+        System.out.printf("ring buffer %.1f ns/sample, boxed deque %.1f ns/sample%n",
+                (double) ringNanos / SAMPLES, (double) dequeNanos / SAMPLES);
+    }
+}
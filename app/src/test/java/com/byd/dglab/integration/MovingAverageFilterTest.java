@@ -0,0 +1,140 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * 环形缓冲区移动平均滤波器的正确性和零分配测试
+ */
+public class MovingAverageFilterTest {
+
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    public void matchesRecomputedAverage() {
+        for (int windowSize : new int[] {1, 2, 5, 16}) {
+            MovingAverageFilter filter = new MovingAverageFilter(windowSize);
+            ReferenceAverage reference = new ReferenceAverage(windowSize);
+            Random random = new Random(windowSize);
+            for (int i = 0; i < 100_000; i++) {
+                double speed = random.nextDouble() * Constants.SPEED_MAX;
+                assertEquals(reference.add(speed), filter.filter(speed, i * 100L), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void resizeKeepsNewestSamples() {
+        MovingAverageFilter filter = new MovingAverageFilter(5);
+        ReferenceAverage reference = new ReferenceAverage(5);
+        long time = 0;
+        for (int i = 1; i <= 7; i++) {
+            filter.filter(i, time += 100);
+            reference.add(i);
+        }
+
+        // 缩小后只保留最新的3个采样
+        filter.setWindowSize(3);
+        reference.resize(3);
+        assertEquals(3, filter.getCount());
+        assertEquals(reference.add(10), filter.filter(10, time += 100), 1e-12);
+
+        // 扩大后继续积累到新窗口
+        filter.setWindowSize(8);
+        reference.resize(8);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(reference.add(i * 3), filter.filter(i * 3, time += 100), 1e-12);
+        }
+        assertEquals(8, filter.getCount());
+    }
+
+    @Test
+    public void filterDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        MovingAverageFilter filter = new MovingAverageFilter(Constants.SMOOTHING_WINDOW_SIZE);
+        double checksum = run(filter, SAMPLES);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        checksum += run(filter, SAMPLES);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum > 0);
+        // 允许测量本身的少量开销，每个采样分配一个对象就会远超该值
+        assertTrue("Allocated " + allocated + " bytes for " + SAMPLES + " samples", allocated < 1024);
+    }
+
+    @Test
+    public void convertDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        SpeedToControlConverter converter = new SpeedToControlConverter();
+        long checksum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            checksum += converter.convert((i * 37) % 120, i * 100L);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < SAMPLES; i++) {
+            checksum += converter.convert((i * 37) % 120, i * 100L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum != 0);
+        assertTrue("Allocated " + allocated + " bytes for " + SAMPLES + " conversions", allocated < 1024);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static double run(MovingAverageFilter filter, int samples) {
+        double checksum = 0;
+        for (int i = 0; i < samples; i++) {
+            checksum += filter.filter((i * 37) % 120, i * 100L);
+        }
+        return checksum;
+    }
+
+    /**
+     * 参考实现：装箱队列保存窗口，每次重新求和，与改为环形缓冲区之前的做法相同
+     */
+    static final class ReferenceAverage {
+        private final ArrayDeque<Double> samples = new ArrayDeque<>();
+        private int windowSize;
+
+        ReferenceAverage(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        double add(double value) {
+            samples.addLast(value);
+            while (samples.size() > windowSize) {
+                samples.removeFirst();
+            }
+            double sum = 0;
+            for (double sample : samples) {
+                sum += sample;
+            }
+            return sum / samples.size();
+        }
+
+        void resize(int newSize) {
+            windowSize = newSize;
+            while (samples.size() > windowSize) {
+                samples.removeFirst();
+            }
+        }
+    }
+}
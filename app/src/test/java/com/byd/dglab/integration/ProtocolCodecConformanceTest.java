@@ -0,0 +1,359 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 所有控制命令编码格式的一致性测试
+ * 通用约定（名称、帧类型、波形能力、写入范围）对每种格式都检查，之后逐个格式对照参考输出
+ */
+public class ProtocolCodecConformanceTest {
+
+    private static final String[] NAMES = {
+            ProtocolCodecs.V3_JSON, ProtocolCodecs.V3_COMPACT, ProtocolCodecs.V2_BLUETOOTH, ProtocolCodecs.BINARY
+    };
+
+    private static final String[] CHANNELS = {Constants.CHANNEL_A, Constants.CHANNEL_B};
+
+    // 写入范围检查使用的填充字节
+    private static final byte GUARD = (byte) 0xA5;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void factoryReturnsNamedCodecs() {
+        for (String name : NAMES) {
+            ProtocolCodec codec = ProtocolCodecs.create(name, null);
+            assertEquals(name, codec.getName());
+            assertEquals(name, ProtocolCodecs.BINARY.equals(name), codec.isBinary());
+        }
+        try {
+            ProtocolCodecs.create("v4", null);
+            fail("Unknown protocol accepted");
+        } catch (IllegalArgumentException expected) {
+            // 未知格式
+        }
+    }
+
+    @Test
+    public void waveformSupportMatchesInterface() {
+        for (String name : NAMES) {
+            ProtocolCodec codec = ProtocolCodecs.create(name, null);
+            assertEquals(name, codec.supportsWaveform(), codec instanceof WaveformCodec);
+        }
+        // V2蓝牙格式没有波形命令，发送方改为发送脉冲命令
+        assertFalse(ProtocolCodecs.create(ProtocolCodecs.V2_BLUETOOTH, null).supportsWaveform());
+    }
+
+    @Test
+    public void encodersWriteOnlyTheReturnedRange() {
+        Random random = new Random(17);
+        byte[] segments = randomSegments(random, Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE);
+        for (String name : NAMES) {
+            ProtocolCodec codec = ProtocolCodecs.create(name, null);
+            for (int i = 0; i < 1000; i++) {
+                String channel = CHANNELS[random.nextInt(2)];
+                int frequency = Constants.FREQUENCY_MIN
+                        + random.nextInt(Constants.FREQUENCY_MAX - Constants.FREQUENCY_MIN + 1);
+                int intensity = random.nextInt(Constants.INTENSITY_MAX + 1);
+                int offset = random.nextInt(16);
+
+                byte[] atZero = new byte[Constants.SEND_BUFFER_SIZE];
+                byte[] shifted = new byte[Constants.SEND_BUFFER_SIZE];
+                int length = codec.encodeStrength(channel, intensity, atZero, 0);
+                assertWithinRange(name, atZero, 0, codec.encodeStrength(channel, intensity, guarded(shifted), offset),
+                        offset, shifted, length);
+
+                length = codec.encodePulse(channel, frequency, intensity, atZero, 0);
+                assertWithinRange(name, atZero, 0,
+                        codec.encodePulse(channel, frequency, intensity, guarded(shifted), offset),
+                        offset, shifted, length);
+
+                if (codec instanceof WaveformCodec) {
+                    WaveformCodec waveformCodec = (WaveformCodec) codec;
+                    int first = random.nextInt(10);
+                    int count = 1 + random.nextInt(Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE - first);
+                    length = waveformCodec.encodeWaveform(channel, segments, first, count, atZero, 0);
+                    assertWithinRange(name, atZero, 0,
+                            waveformCodec.encodeWaveform(channel, segments, first, count, guarded(shifted), offset),
+                            offset, shifted, length);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void maximumWaveformFitsSendBuffer() {
+        byte[] segments = randomSegments(new Random(1), Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE);
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (String name : NAMES) {
+            ProtocolCodec codec = ProtocolCodecs.create(name, null);
+            if (codec instanceof WaveformCodec) {
+                int length = ((WaveformCodec) codec).encodeWaveform(Constants.CHANNEL_A, segments, 0,
+                        Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE, out, 0);
+                assertTrue(name + " " + length, length <= Constants.SEND_BUFFER_SIZE);
+            }
+        }
+    }
+
+    @Test
+    public void v3MatchesGson() {
+        CommandCache cache = new CommandCache();
+        ProtocolCodec[] codecs = {
+                ProtocolCodecs.create(ProtocolCodecs.V3_JSON, null),
+                ProtocolCodecs.create(ProtocolCodecs.V3_JSON, cache)
+        };
+        SocketProtocolHelper helper = new SocketProtocolHelper();
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (ProtocolCodec codec : codecs) {
+            for (String channel : CHANNELS) {
+                for (int intensity = Constants.INTENSITY_MIN; intensity <= Constants.INTENSITY_MAX; intensity++) {
+                    String expected = gsonStrength(channel, intensity);
+                    assertEquals(expected, text(out, codec.encodeStrength(channel, intensity, out, 0)));
+                    assertEquals(expected, helper.generateStrengthCommand(channel, intensity));
+                    for (int frequency = Constants.FREQUENCY_MIN; frequency <= Constants.FREQUENCY_MAX;
+                            frequency += 7) {
+                        expected = gsonPulse(channel, frequency, intensity);
+                        assertEquals(expected, text(out, codec.encodePulse(channel, frequency, intensity, out, 0)));
+                        assertEquals(expected, helper.generatePulseCommand(channel, frequency, intensity));
+                    }
+                }
+            }
+        }
+        assertTrue(cache.getSize() > 0);
+    }
+
+    @Test
+    public void v3EscapesChannelLikeGson() {
+        ProtocolCodec codec = ProtocolCodecs.create(ProtocolCodecs.V3_JSON, null);
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (String channel : new String[] {"\"", "\\", "<A>", "A&B='x'", "\n\t\u0001", "通道A"}) {
+            assertEquals(gsonStrength(channel, 5), text(out, codec.encodeStrength(channel, 5, out, 0)));
+            assertEquals(gsonPulse(channel, 50, 5), text(out, codec.encodePulse(channel, 50, 5, out, 0)));
+        }
+    }
+
+    @Test
+    public void compactUsesAbbreviatedFields() {
+        ProtocolCodec codec = ProtocolCodecs.create(ProtocolCodecs.V3_COMPACT, null);
+        ProtocolCodec v3 = ProtocolCodecs.create(ProtocolCodecs.V3_JSON, null);
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (String channel : CHANNELS) {
+            for (int intensity = Constants.INTENSITY_MIN; intensity <= Constants.INTENSITY_MAX; intensity += 3) {
+                JsonObject strength = parse(text(out, codec.encodeStrength(channel, intensity, out, 0)));
+                assertEquals("s", strength.get("t").getAsString());
+                assertEquals(channel, strength.getAsJsonObject("d").get("c").getAsString());
+                assertEquals(intensity, strength.getAsJsonObject("d").get("i").getAsInt());
+                assertEquals(2, strength.getAsJsonObject("d").size());
+
+                int frequency = Constants.FREQUENCY_MIN + intensity % (Constants.FREQUENCY_MAX - Constants.FREQUENCY_MIN);
+                int compactLength = codec.encodePulse(channel, frequency, intensity, out, 0);
+                JsonObject pulse = parse(text(out, compactLength));
+                assertEquals("p", pulse.get("t").getAsString());
+                assertEquals(channel, pulse.getAsJsonObject("d").get("c").getAsString());
+                assertEquals(frequency, pulse.getAsJsonObject("d").get("f").getAsInt());
+                assertEquals(intensity, pulse.getAsJsonObject("d").get("i").getAsInt());
+                assertEquals(3, pulse.getAsJsonObject("d").size());
+
+                // 缩写字段名后比完整格式短
+                assertTrue(compactLength < v3.encodePulse(channel, frequency, intensity, out, 0));
+            }
+        }
+    }
+
+    @Test
+    public void v2MatchesBluetoothCommands() {
+        ProtocolCodec codec = ProtocolCodecs.create(ProtocolCodecs.V2_BLUETOOTH, null);
+        SocketProtocolHelper helper = new SocketProtocolHelper();
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        BluetoothCommand decoded = new BluetoothCommand();
+        for (String channel : CHANNELS) {
+            for (int intensity = Constants.INTENSITY_MIN; intensity <= Constants.INTENSITY_MAX; intensity++) {
+                int length = codec.encodeStrength(channel, intensity, out, 0);
+                assertEquals(helper.generateB0Command(channel, intensity), text(out, length));
+                assertTrue(BluetoothCommandCodec.decode(out, 0, length, decoded));
+                assertEquals(intensity, decoded.intensity);
+
+                for (int frequency = Constants.FREQUENCY_MIN; frequency <= Constants.FREQUENCY_MAX; frequency += 7) {
+                    length = codec.encodePulse(channel, frequency, intensity, out, 0);
+                    assertEquals(helper.generateBFCommand(channel, frequency, intensity), text(out, length));
+                    assertTrue(BluetoothCommandCodec.decode(out, 0, length, decoded));
+                    assertEquals(frequency, decoded.frequency);
+                }
+            }
+        }
+        assertEquals("BF,A,50,60,175;", text(out, codec.encodePulse("A", 50, 60, out, 0)));
+        assertEquals("B0,A,7,72;", text(out, codec.encodeStrength("A", 7, out, 0)));
+    }
+
+    @Test
+    public void binaryLayout() {
+        ProtocolCodec codec = ProtocolCodecs.create(ProtocolCodecs.BINARY, null);
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (String channel : CHANNELS) {
+            for (int intensity = Constants.INTENSITY_MIN; intensity <= Constants.INTENSITY_MAX; intensity++) {
+                assertEquals(3, codec.encodeStrength(channel, intensity, out, 0));
+                assertArrayEquals(new byte[] {BinaryProtocolCodec.TYPE_STRENGTH, (byte) channel.charAt(0),
+                        (byte) intensity}, Arrays.copyOf(out, 3));
+                for (int frequency = Constants.FREQUENCY_MIN; frequency <= Constants.FREQUENCY_MAX; frequency++) {
+                    assertEquals(4, codec.encodePulse(channel, frequency, intensity, out, 0));
+                    // 单字节数值按无符号读取
+                    assertEquals(BinaryProtocolCodec.TYPE_PULSE, out[0]);
+                    assertEquals(channel.charAt(0), out[1]);
+                    assertEquals(frequency, out[2] & 0xFF);
+                    assertEquals(intensity, out[3] & 0xFF);
+                }
+            }
+        }
+        codec.encodePulse(Constants.CHANNEL_B, 10, 100, out, 0);
+        assertArrayEquals(new byte[] {0x02, 0x42, 0x0A, 0x64}, Arrays.copyOf(out, 4));
+    }
+
+    @Test
+    public void waveformCommandsCarryTheSegments() {
+        Random random = new Random(3);
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (int round = 0; round < 200; round++) {
+            int count = 1 + random.nextInt(Constants.WAVEFORM_MAX_SEGMENTS_PER_MESSAGE);
+            int first = random.nextInt(4);
+            byte[] segments = randomSegments(random, first + count);
+            String channel = CHANNELS[round % 2];
+            String[] hex = hexSegments(segments, first, count);
+
+            // V3：与Gson序列化及字符串波形段接口一致
+            WaveformCodec v3 = (WaveformCodec) ProtocolCodecs.create(ProtocolCodecs.V3_JSON, null);
+            String expected = gsonWaveform(channel, hex);
+            assertEquals(expected, text(out, v3.encodeWaveform(channel, segments, first, count, out, 0)));
+            assertEquals(expected, new SocketProtocolHelper().generateWaveformCommand(channel, hex, 0, count));
+
+            // 紧凑JSON：缩写字段，波形段相同
+            WaveformCodec compact = (WaveformCodec) ProtocolCodecs.create(ProtocolCodecs.V3_COMPACT, null);
+            JsonObject message = parse(text(out, compact.encodeWaveform(channel, segments, first, count, out, 0)));
+            assertEquals("w", message.get("t").getAsString());
+            assertEquals(channel, message.getAsJsonObject("d").get("c").getAsString());
+            JsonArray compactSegments = message.getAsJsonObject("d").getAsJsonArray("s");
+            assertEquals(count, compactSegments.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(hex[i], compactSegments.get(i).getAsString());
+            }
+
+            // 二进制：类型、通道、段数，之后为原始段字节
+            WaveformCodec binary = (WaveformCodec) ProtocolCodecs.create(ProtocolCodecs.BINARY, null);
+            int length = binary.encodeWaveform(channel, segments, first, count, out, 0);
+            assertEquals(3 + count * WaveformEncoder.SEGMENT_BYTES, length);
+            assertEquals(BinaryProtocolCodec.TYPE_WAVEFORM, out[0]);
+            assertEquals(channel.charAt(0), out[1]);
+            assertEquals(count, out[2] & 0xFF);
+            assertArrayEquals(Arrays.copyOfRange(segments, first * WaveformEncoder.SEGMENT_BYTES,
+                    (first + count) * WaveformEncoder.SEGMENT_BYTES), Arrays.copyOfRange(out, 3, length));
+        }
+    }
+
+    @Test
+    public void asciiOnlyFormatsRejectNonAsciiChannels() {
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        for (String name : new String[] {ProtocolCodecs.V2_BLUETOOTH, ProtocolCodecs.BINARY}) {
+            ProtocolCodec codec = ProtocolCodecs.create(name, null);
+            try {
+                codec.encodePulse("通道", 50, 60, out, 0);
+                fail(name + " accepted a non-ASCII channel");
+            } catch (IllegalArgumentException expected) {
+                // 单字节格式只能表示ASCII通道
+            }
+        }
+    }
+
+    private static void assertWithinRange(String name, byte[] expected, int expectedOffset, int length,
+                                          int offset, byte[] actual, int expectedLength) {
+        assertEquals(name, expectedLength, length);
+        assertArrayEquals(name, Arrays.copyOfRange(expected, expectedOffset, expectedOffset + length),
+                Arrays.copyOfRange(actual, offset, offset + length));
+        for (int i = 0; i < actual.length; i++) {
+            if (i < offset || i >= offset + length) {
+                assertEquals(name + " wrote outside its range at " + i, GUARD, actual[i]);
+            }
+        }
+    }
+
+    private static byte[] guarded(byte[] buffer) {
+        Arrays.fill(buffer, GUARD);
+        return buffer;
+    }
+
+    private static byte[] randomSegments(Random random, int count) {
+        WaveformGenerator generator = new WaveformGenerator();
+        byte[] segments = new byte[count * WaveformEncoder.SEGMENT_BYTES];
+        for (int i = 0; i < count; i++) {
+            generator.nextSegment(Constants.FREQUENCY_MIN + random.nextInt(Constants.FREQUENCY_MAX),
+                    random.nextInt(Constants.INTENSITY_MAX + 1), segments, i * WaveformEncoder.SEGMENT_BYTES);
+        }
+        return segments;
+    }
+
+    private static String[] hexSegments(byte[] segments, int first, int count) {
+        String[] hex = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder out = new StringBuilder();
+            WaveformEncoder.appendHex(segments, (first + i) * WaveformEncoder.SEGMENT_BYTES,
+                    WaveformEncoder.SEGMENT_BYTES, out);
+            hex[i] = out.toString();
+        }
+        return hex;
+    }
+
+    private static String text(byte[] out, int length) {
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject parse(String json) {
+        return JsonParser.parseString(json).getAsJsonObject();
+    }
+
+    /**
+     * 参考实现：改为直接编码之前用Gson对象树生成的命令
+     */
+    private String gsonStrength(String channel, int intensity) {
+        JsonObject data = new JsonObject();
+        data.addProperty("channel", channel);
+        data.addProperty("intensity", intensity);
+        return gsonCommand(Constants.MSG_TYPE_STRENGTH, data);
+    }
+
+    private String gsonPulse(String channel, int frequency, int intensity) {
+        JsonObject data = new JsonObject();
+        data.addProperty("channel", channel);
+        data.addProperty("frequency", frequency);
+        data.addProperty("intensity", intensity);
+        return gsonCommand(Constants.MSG_TYPE_PULSE, data);
+    }
+
+    private String gsonWaveform(String channel, String[] segments) {
+        JsonObject data = new JsonObject();
+        data.addProperty("channel", channel);
+        JsonArray array = new JsonArray();
+        for (String segment : segments) {
+            array.add(segment);
+        }
+        data.add("segments", array);
+        return gsonCommand(Constants.MSG_TYPE_WAVEFORM, data);
+    }
+
+    private String gsonCommand(String type, JsonObject data) {
+        JsonObject command = new JsonObject();
+        command.addProperty("type", type);
+        command.add("data", data);
+        return gson.toJson(command);
+    }
+}
@@ -0,0 +1,218 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import java.util.Random;
+
+/**
+ * 重连退避与熔断在虚拟时钟上的测试
+ */
+public class ReconnectPolicyTest {
+
+    private static final long BASE_MS = 1000;
+    private static final long MAX_MS = 60000;
+    private static final int THRESHOLD = 6;
+    private static final long PROBE_MS = 30000;
+
+    private final VirtualClock clock = new VirtualClock();
+
+    @Test
+    public void backoffCeilingDoublesUpToCap() {
+        // 随机数固定取接近1的值，等待时间即为退避上界
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new FixedRandom(0.999999), BASE_MS, MAX_MS,
+                Integer.MAX_VALUE, PROBE_MS);
+        assertEquals(0, policy.nextDelayMs());
+
+        long[] ceilings = {1000, 2000, 4000, 8000, 16000, 32000, 60000, 60000, 60000};
+        for (long ceiling : ceilings) {
+            policy.onFailure();
+            assertEquals(ceiling, policy.nextDelayMs(), ceiling * 1e-5 + 1);
+        }
+
+        // 随机数取0时立即重连
+        policy = new ReconnectPolicy(clock, new FixedRandom(0), BASE_MS, MAX_MS, Integer.MAX_VALUE, PROBE_MS);
+        policy.onFailure();
+        policy.onFailure();
+        assertEquals(0, policy.nextDelayMs());
+    }
+
+    @Test
+    public void fullJitterIsUniformBelowCeiling() {
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new Random(22), BASE_MS, MAX_MS,
+                Integer.MAX_VALUE, PROBE_MS);
+        for (int failures = 1; failures <= 8; failures++) {
+            policy.onFailure();
+            long ceiling = Math.min(MAX_MS, BASE_MS << (failures - 1));
+            int samples = 20_000;
+            double sum = 0;
+            long below = 0;
+            for (int i = 0; i < samples; i++) {
+                long delay = policy.nextDelayMs();
+                assertTrue(delay >= 0 && delay < ceiling);
+                sum += delay;
+                if (delay < ceiling / 4) {
+                    below++;
+                }
+            }
+            // 均匀分布：均值为上界的一半，四分之一的样本落在最低的四分之一
+            assertEquals(ceiling / 2.0, sum / samples, ceiling * 0.02);
+            assertEquals(0.25, (double) below / samples, 0.02);
+        }
+    }
+
+    @Test
+    public void retriesAreUnlimited() {
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new FixedRandom(0.5), BASE_MS, MAX_MS,
+                Integer.MAX_VALUE, PROBE_MS);
+        for (int i = 0; i < 10_000; i++) {
+            policy.onFailure();
+            long delay = policy.nextDelayMs();
+            assertTrue("delay " + delay + " after " + (i + 1) + " failures", delay >= 0 && delay <= MAX_MS);
+            assertFalse(policy.shouldProbe());
+        }
+        assertEquals(10_000, policy.getConsecutiveFailures());
+        assertEquals(ReconnectPolicy.STATE_CLOSED, policy.getState());
+    }
+
+    @Test
+    public void circuitOpensAndProbesOnVirtualClock() {
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new Random(1), BASE_MS, MAX_MS, THRESHOLD, PROBE_MS);
+        Server server = new Server();
+
+        // 服务器宕机：连续失败达到阈值后熔断
+        int attempts = 0;
+        while (!policy.shouldProbe()) {
+            clock.advance(policy.nextDelayMs());
+            attempts++;
+            policy.onFailure();
+        }
+        assertEquals(THRESHOLD, attempts);
+        assertEquals(ReconnectPolicy.STATE_OPEN, policy.getState());
+        assertEquals(1, policy.getCircuitOpenCount());
+
+        // 熔断期间按固定间隔探测，不再做完整连接
+        assertEquals(PROBE_MS, policy.nextDelayMs());
+        clock.advance(PROBE_MS / 3);
+        assertEquals(PROBE_MS - PROBE_MS / 3, policy.nextDelayMs());
+        clock.advance(PROBE_MS - PROBE_MS / 3);
+        assertEquals(0, policy.nextDelayMs());
+
+        long outageEnd = clock.now + 10 * 60 * 1000;
+        while (clock.now + policy.nextDelayMs() < outageEnd) {
+            assertTrue(policy.shouldProbe());
+            clock.advance(policy.nextDelayMs());
+            policy.onProbeResult(server.isReachable(clock.now, outageEnd));
+        }
+        assertEquals(10 * 60 * 1000 / PROBE_MS, policy.getProbeCount());
+        assertEquals(ReconnectPolicy.STATE_OPEN, policy.getState());
+
+        // 服务器恢复：探测成功后半开，立即尝试一次完整连接
+        clock.advance(policy.nextDelayMs());
+        policy.onProbeResult(server.isReachable(clock.now, outageEnd));
+        assertEquals(ReconnectPolicy.STATE_HALF_OPEN, policy.getState());
+        assertFalse(policy.shouldProbe());
+        assertEquals(0, policy.nextDelayMs());
+
+        policy.onConnected();
+        assertEquals(ReconnectPolicy.STATE_CLOSED, policy.getState());
+        assertEquals(0, policy.getConsecutiveFailures());
+        assertEquals(0, policy.nextDelayMs());
+    }
+
+    @Test
+    public void halfOpenFailureReopensCircuit() {
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new Random(2), BASE_MS, MAX_MS, THRESHOLD, PROBE_MS);
+        for (int i = 0; i < THRESHOLD; i++) {
+            policy.onFailure();
+        }
+        clock.advance(PROBE_MS);
+        policy.onProbeResult(true);
+        assertEquals(ReconnectPolicy.STATE_HALF_OPEN, policy.getState());
+
+        // 探测可达但完整连接失败：重新熔断，从现在开始计算探测间隔
+        clock.advance(1234);
+        policy.onFailure();
+        assertEquals(ReconnectPolicy.STATE_OPEN, policy.getState());
+        assertEquals(2, policy.getCircuitOpenCount());
+        assertEquals(PROBE_MS, policy.nextDelayMs());
+    }
+
+    @Test
+    public void networkAvailableResetsImmediately() {
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new FixedRandom(0.9), BASE_MS, MAX_MS, THRESHOLD,
+                PROBE_MS);
+        for (int i = 0; i < THRESHOLD; i++) {
+            policy.onFailure();
+        }
+        assertTrue(policy.shouldProbe());
+        assertTrue(policy.nextDelayMs() > 0);
+
+        policy.onNetworkAvailable();
+        assertEquals(ReconnectPolicy.STATE_CLOSED, policy.getState());
+        assertFalse(policy.shouldProbe());
+        assertEquals(0, policy.nextDelayMs());
+
+        // 之后的失败从初始间隔重新退避
+        policy.onFailure();
+        assertEquals(900, policy.nextDelayMs());
+    }
+
+    @Test
+    public void probeResultOutsideOpenStateIsOnlyCounted() {
+        ReconnectPolicy policy = new ReconnectPolicy(clock, new Random(3), BASE_MS, MAX_MS, THRESHOLD, PROBE_MS);
+        policy.onProbeResult(true);
+        policy.onProbeResult(false);
+        assertEquals(ReconnectPolicy.STATE_CLOSED, policy.getState());
+        assertEquals(2, policy.getProbeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCapBelowBaseDelay() {
+        new ReconnectPolicy(clock, new Random(), BASE_MS, BASE_MS - 1, THRESHOLD, PROBE_MS);
+    }
+
+    /**
+     * 虚拟时钟，只在测试推进时前进
+     */
+    private static final class VirtualClock implements Clock {
+        long now = 1_000_000;
+
+        @Override
+        public long uptimeMillis() {
+            return now;
+        }
+
+        void advance(long ms) {
+            assertTrue(ms >= 0);
+            now += ms;
+        }
+    }
+
+    /**
+     * 每次返回相同值的随机数来源
+     */
+    private static final class FixedRandom extends Random {
+        private final double value;
+
+        FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return value;
+        }
+    }
+
+    /**
+     * 在给定时间之前不可达的服务器
+     */
+    private static final class Server {
+        boolean isReachable(long now, long outageEnd) {
+            return now >= outageEnd;
+        }
+    }
+}
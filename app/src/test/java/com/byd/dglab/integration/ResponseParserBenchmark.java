@@ -0,0 +1,55 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import com.byd.dglab.integration.ResponseParserTest.RecordingHandler;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式响应解析器与原有Map解析在录制消息上的对比基准，不随单元测试运行
+ * 运行方式：./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*ResponseParserBenchmark'
+ */
+public class ResponseParserBenchmark {
+
+    private static final int MESSAGES = 200_000;
+
+    private final ResponseParser parser = new ResponseParser();
+
+    @Test
+    public void corpusBenchmark() throws IOException {
+        List<String> corpus = ResponseParserTest.loadCorpus();
+        SocketProtocolHelper helper = new SocketProtocolHelper();
+        RecordingHandler handler = new RecordingHandler();
+
+        long streamingNanos = Long.MAX_VALUE;
+        long mapNanos = Long.MAX_VALUE;
+        int streamingChecksum = 0;
+        int mapChecksum = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            streamingChecksum = 0;
+            for (int i = 0; i < MESSAGES; i++) {
+                parser.parse(corpus.get(i % corpus.size()), handler);
+                streamingChecksum += handler.type != null ? handler.type.length() : 0;
+            }
+            streamingNanos = Math.min(streamingNanos, System.nanoTime() - start);
+
+            // 原有路径：解析为Map后取出type
+            start = System.nanoTime();
+            mapChecksum = 0;
+            for (int i = 0; i < MESSAGES; i++) {
+                Map<String, Object> parsed = helper.parseJsonResponse(corpus.get(i % corpus.size()));
+                String type = (String) parsed.get("type");
+                mapChecksum += type != null ? type.length() : 0;
+            }
+            mapNanos = Math.min(mapNanos, System.nanoTime() - start);
+        }
+
+        assertEquals(mapChecksum, streamingChecksum);
+        System.out.printf("streaming parser %.2f us/msg, map parsing %.2f us/msg%n",
+                streamingNanos / 1000.0 / MESSAGES, mapNanos / 1000.0 / MESSAGES);
+    }
+}
@@ -0,0 +1,136 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式响应解析器在录制消息上的分派测试
+ */
+public class ResponseParserTest {
+
+    private final ResponseParser parser = new ResponseParser();
+
+    @Test
+    public void dispatchesByType() {
+        RecordingHandler handler = new RecordingHandler();
+
+        assertTrue(parser.parse("{\"type\":\"heartbeat\",\"timestamp\":1}", handler));
+        assertEquals("heartbeat", handler.last);
+
+        assertTrue(parser.parse("{\"data\":{\"limit\":200,\"intensity\":35,\"channel\":\"B\"},\"type\":\"strength\"}",
+                handler));
+        assertEquals("strength B 35", handler.last);
+
+        assertTrue(parser.parse("{\"type\":\"strength\",\"data\":{\"channel\":\"A\"}}", handler));
+        assertEquals("strength A -1", handler.last);
+
+        assertTrue(parser.parse("{\"type\":\"error\",\"error\":\"bad\",\"message\":\"403\"}", handler));
+        assertEquals("error bad", handler.last);
+        assertTrue(parser.parse("{\"type\":\"error\",\"message\":\"403\"}", handler));
+        assertEquals("error 403", handler.last);
+
+        assertTrue(parser.parse("{\"type\":\"bind\",\"clientId\":\"c\",\"message\":\"200\"}", handler));
+        assertEquals("bind 200", handler.last);
+
+        assertTrue(parser.parse("{\"type\":\"msg\",\"message\":{\"nested\":[1,2,{\"a\":null}]}}", handler));
+        assertEquals("unknown msg", handler.last);
+        assertTrue(parser.parse("{\"message\":\"200\"}", handler));
+        assertEquals("unknown null", handler.last);
+    }
+
+    @Test
+    public void rejectsMalformedMessagesWithoutDispatch() {
+        RecordingHandler handler = new RecordingHandler();
+        String[] invalid = {"", "[]", "{\"type\":\"heartbeat\"", "{\"type\":\"heartbeat\"}{}", "heartbeat",
+                "{\"type\":\"strength\",\"data\":{\"intensity\":1e99}}"};
+        for (String message : invalid) {
+            assertFalse(message, parser.parse(message, handler));
+        }
+        assertEquals(0, handler.count);
+    }
+
+    @Test
+    public void corpusMatchesMapParsing() throws IOException {
+        List<String> corpus = loadCorpus();
+        SocketProtocolHelper helper = new SocketProtocolHelper();
+        RecordingHandler handler = new RecordingHandler();
+        for (String message : corpus) {
+            assertTrue(message, parser.parse(message, handler));
+            Map<String, Object> parsed = helper.parseJsonResponse(message);
+            assertNotNull(message, parsed);
+            assertEquals(message, parsed.get("type"), handler.type);
+        }
+        assertEquals(corpus.size(), handler.count);
+    }
+
+    /**
+     * 加载录制的服务器消息，每行一条
+     */
+    static List<String> loadCorpus() throws IOException {
+        List<String> corpus = new ArrayList<>();
+        InputStream in = ResponseParserTest.class.getResourceAsStream("/response_corpus.txt");
+        assertNotNull("response_corpus.txt not found", in);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    corpus.add(line);
+                }
+            }
+        }
+        assertFalse(corpus.isEmpty());
+        return corpus;
+    }
+
+    /**
+     * 记录最近一次分派结果
+     */
+    static final class RecordingHandler implements ResponseHandler {
+        String type;
+        String last;
+        int count;
+
+        @Override
+        public void onHeartbeat(String message) {
+            record(Constants.MSG_TYPE_HEARTBEAT, "heartbeat");
+        }
+
+        @Override
+        public void onServerError(String error, String message) {
+            record(ResponseParser.TYPE_ERROR, "error " + error);
+        }
+
+        @Override
+        public void onStrengthFeedback(String channel, int intensity, String message) {
+            record(Constants.MSG_TYPE_STRENGTH, "strength " + channel + " " + intensity);
+        }
+
+        @Override
+        public void onBind(String result, String message) {
+            record(ResponseParser.TYPE_BIND, "bind " + result);
+        }
+
+        @Override
+        public void onUnknown(String type, String message) {
+            record(type, "unknown " + type);
+        }
+
+        private void record(String type, String description) {
+            this.type = type;
+            this.last = description;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import java.util.Random;
+
+/**
+ * 查找表与直接计算的基准，不随单元测试运行
+ * 运行方式：./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*SpeedLookupTableBenchmark'
+ */
+public class SpeedLookupTableBenchmark {
+
+    private static final int SAMPLES = 2_000_000;
+
+    @Test
+    public void lookupBenchmark() {
+        ConversionProfile profile = ConversionProfile.BUILT_IN;
+        double[] speeds = new double[SAMPLES];
+        Random random = new Random(1L);
+        for (int i = 0; i < speeds.length; i++) {
+            speeds[i] = random.nextDouble() * Constants.SPEED_MAX;
+        }
+
+        long computeChecksum = 0;
+        long lookupChecksum = 0;
+        long computeNanos = Long.MAX_VALUE;
+        long lookupNanos = Long.MAX_VALUE;
+        // 取多轮中的最好成绩，前几轮用于预热
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            computeChecksum = 0;
+            for (double speed : speeds) {
+                computeChecksum += profile.computeIntensity(speed) + profile.computeFrequency(speed);
+            }
+            computeNanos = Math.min(computeNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            lookupChecksum = 0;
+            for (double speed : speeds) {
+                lookupChecksum += profile.lookupIntensity(speed) + profile.lookupFrequency(speed);
+            }
+            lookupNanos = Math.min(lookupNanos, System.nanoTime() - start);
+        }
+
+        assertEquals(computeChecksum, lookupChecksum);
+        System.out.printf("compute %.1f ns/sample, lookup %.1f ns/sample%n",
+                (double) computeNanos / SAMPLES, (double) lookupNanos / SAMPLES);
+    }
+}
@@ -0,0 +1,120 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import java.util.Random;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * 查找表与直接计算的一致性测试
+ */
+public class SpeedLookupTableTest {
+
+    @Test
+    public void builtInProfileMatchesDirectComputation() {
+        ConversionProfile profile = ConversionProfile.BUILT_IN;
+        for (double speed : testSpeeds()) {
+            assertEquals("intensity at " + speed, profile.computeIntensity(speed), profile.lookupIntensity(speed));
+            assertEquals("frequency at " + speed, profile.computeFrequency(speed), profile.lookupFrequency(speed));
+        }
+    }
+
+    @Test
+    public void nonMonotoneCurveMatchesMapping() {
+        // 整体不单调的曲线，以极值点为分段点即可编译
+        DoubleToIntFunction mapping = speed -> (int) Math.round(100 + 80 * Math.sin(speed / 7.0));
+        double[] extrema = new double[(int) (Constants.SPEED_MAX / (7 * Math.PI)) + 1];
+        for (int k = 0; k < extrema.length; k++) {
+            extrema[k] = 7 * (Math.PI / 2 + k * Math.PI);
+        }
+        SpeedLookupTable table = SpeedLookupTable.compile(mapping, Constants.SPEED_MAX, extrema);
+        for (double speed : testSpeeds()) {
+            double clamped = Math.max(0, Math.min(speed, Constants.SPEED_MAX));
+            if (Double.isNaN(speed)) {
+                continue;
+            }
+            assertEquals("value at " + speed, mapping.applyAsInt(clamped), table.lookup(speed));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSteepCurveIsRejected() {
+        // 每km/h跳变上千次，最高精度下也无法精确表示
+        double[] breakpoints = new double[Constants.SPEED_MAX * 1000];
+        for (int i = 0; i < breakpoints.length; i++) {
+            breakpoints[i] = i / 1000.0;
+        }
+        SpeedLookupTable.compile(speed -> (int) (speed * 1000) % 2, Constants.SPEED_MAX, breakpoints);
+    }
+
+    @Test
+    public void customProfileWithPeaksMatchesDirectComputation() {
+        // 控制点不在默认分桶边界上，峰值恰好在控制点处取整进位，曲线整体不单调
+        String[][] curves = {
+                {"{\"type\":\"linear\",\"points\":[[0,0],[33.3,50.5],[60.1,0],[150,200]]}",
+                        "{\"type\":\"linear\",\"points\":[[0,10],[33.3,100.5],[60.1,10],[150,240]]}"},
+                {"{\"type\":\"spline\",\"points\":[[0,10],[17.7,140],[42.42,20],[99.9,200],[101,0]]}",
+                        "{\"type\":\"spline\",\"points\":[[0,240],[12.34,10],[77.7,180.5],[120,60]]}"},
+                {"{\"type\":\"exponential\",\"shape\":3,\"points\":[[5,200],[55.55,0],[180,150]]}",
+                        "{\"type\":\"exponential\",\"shape\":-2,\"points\":[[0,10],[66.6,240],[199.9,10]]}"},
+        };
+        for (String[] curve : curves) {
+            ConversionProfile profile = ConversionProfileLoader.parse(
+                    "{\"name\":\"peaks\",\"intensity\":" + curve[0] + ",\"frequency\":" + curve[1] + "}");
+            for (double speed : testSpeeds()) {
+                assertEquals(curve[0] + " at " + speed, profile.computeIntensity(speed),
+                        profile.lookupIntensity(speed));
+                assertEquals(curve[1] + " at " + speed, profile.computeFrequency(speed),
+                        profile.lookupFrequency(speed));
+            }
+        }
+    }
+
+    @Test
+    public void profileThatCannotBeCompiledFallsBackToBuiltIn() {
+        // 1/256 km/h内从0跳到200，最高精度下一个桶内有多次跳变
+        String json = "{\"intensity\":{\"points\":[[50,0],[50.00390625,200]]},"
+                + "\"frequency\":{\"points\":[[0,10],[200,240]]}}";
+        try {
+            ConversionProfileLoader.parse(json);
+            fail("profile should be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("intensity"));
+        }
+        assertSame(ConversionProfile.BUILT_IN, ConversionProfileLoader.loadFromJson(json));
+    }
+
+    /**
+     * 测试车速：覆盖范围内的密集网格、分桶边界两侧、随机值和超出范围的值
+     */
+    private static double[] testSpeeds() {
+        int gridPerKmh = 1024;
+        int grid = (Constants.SPEED_MAX + 10) * gridPerKmh;
+        int boundaries = Constants.SPEED_MAX * Constants.LOOKUP_TABLE_BUCKETS_PER_KMH;
+        int randoms = 200_000;
+        double[] speeds = new double[grid + 2 * boundaries + randoms + 5];
+        int n = 0;
+        for (int i = 0; i < grid; i++) {
+            speeds[n++] = (double) i / gridPerKmh;
+        }
+        for (int i = 0; i < boundaries; i++) {
+            double boundary = (double) i / Constants.LOOKUP_TABLE_BUCKETS_PER_KMH;
+            speeds[n++] = Math.nextDown(boundary);
+            speeds[n++] = Math.nextUp(boundary);
+        }
+        Random random = new Random(42L);
+        for (int i = 0; i < randoms; i++) {
+            speeds[n++] = random.nextDouble() * (Constants.SPEED_MAX + 20) - 10;
+        }
+        speeds[n++] = -0.0;
+        speeds[n++] = Double.NaN;
+        speeds[n++] = Double.POSITIVE_INFINITY;
+        speeds[n++] = Double.NEGATIVE_INFINITY;
+        speeds[n++] = Constants.SPEED_MAX;
+        return speeds;
+    }
+}
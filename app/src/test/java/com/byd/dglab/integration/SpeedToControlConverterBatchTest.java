@@ -0,0 +1,91 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 批量转换与逐个转换的一致性测试
+ */
+public class SpeedToControlConverterBatchTest {
+
+    // 超过一个并行分块
+    private static final int SAMPLE_COUNT = 20000;
+
+    @Test
+    public void batchMatchesStreamingForEveryFilter() {
+        FilterConfig[] configs = {
+                FilterConfig.DEFAULT,
+                FilterConfig.movingAverage(Constants.SMOOTHING_WINDOW_SIZE),
+                FilterConfig.ema(300),
+                FilterConfig.median(Constants.MEDIAN_WINDOW_SIZE),
+                FilterConfig.oneEuro(1.0, 0.01, 1.0),
+                FilterConfig.kalman(0.5, 4.0)
+        };
+        for (FilterConfig config : configs) {
+            assertBatchMatchesStreaming(config, true, ForkJoinPool.commonPool());
+            assertBatchMatchesStreaming(config, false, ForkJoinPool.commonPool());
+        }
+    }
+
+    @Test
+    public void parallelMappingMatchesStreaming() {
+        // 多个工作线程同时映射不同分块
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertBatchMatchesStreaming(FilterConfig.DEFAULT, true, pool);
+            assertBatchMatchesStreaming(FilterConfig.oneEuro(1.0, 0.01, 1.0), false, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertBatchMatchesStreaming(FilterConfig config, boolean compiledMode, ForkJoinPool pool) {
+        double[] speeds = new double[SAMPLE_COUNT];
+        long[] timestamps = new long[SAMPLE_COUNT];
+        recordDrive(speeds, timestamps);
+
+        SpeedToControlConverter streaming = new SpeedToControlConverter(config, compiledMode);
+        int[] expectedIntensity = new int[SAMPLE_COUNT];
+        int[] expectedFrequency = new int[SAMPLE_COUNT];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            long frame = streaming.convert(speeds[i], timestamps[i]);
+            expectedIntensity[i] = ControlFrame.intensity(frame);
+            expectedFrequency[i] = ControlFrame.frequency(frame);
+        }
+
+        SpeedToControlConverter batch = new SpeedToControlConverter(config, compiledMode);
+        int[] intensity = new int[SAMPLE_COUNT];
+        int[] frequency = new int[SAMPLE_COUNT];
+        batch.convertBatch(speeds, timestamps, intensity, frequency, pool);
+
+        String label = config.getType() + (compiledMode ? " compiled" : " computed");
+        assertArrayEquals(label + " intensity", expectedIntensity, intensity);
+        assertArrayEquals(label + " frequency", expectedFrequency, frequency);
+
+        // 批量转换后的滤波状态与逐个转换一致
+        long nextStreaming = streaming.convert(42.0, timestamps[SAMPLE_COUNT - 1] + 100);
+        long nextBatch = batch.convert(42.0, timestamps[SAMPLE_COUNT - 1] + 100);
+        assertArrayEquals(label + " state",
+                new int[] {ControlFrame.intensity(nextStreaming), ControlFrame.frequency(nextStreaming)},
+                new int[] {ControlFrame.intensity(nextBatch), ControlFrame.frequency(nextBatch)});
+    }
+
+    /**
+     * 生成一段带噪声的加减速行驶记录，采样间隔不均匀
+     */
+    private static void recordDrive(double[] speeds, long[] timestamps) {
+        Random random = new Random(20240501L);
+        double speed = 0;
+        long time = 1000;
+        for (int i = 0; i < speeds.length; i++) {
+            double target = 60 + 60 * Math.sin(i / 800.0);
+            speed += (target - speed) * 0.05 + random.nextGaussian() * 1.5;
+            speeds[i] = Math.max(0, speed);
+            time += 50 + random.nextInt(150);
+            timestamps[i] = time;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * V3波形生成的金标准文件测试，以及频率查找表和十六进制编解码测试
+ */
+public class WaveformGeneratorTest {
+
+    /** 每条波形命令打包的波形段数 */
+    private static final int SEGMENTS_PER_MESSAGE = 10;
+
+    // 目标轨迹（频率Hz，强度0-200），每行一个100毫秒段：起点、上升、保持、阶跃、越界和往复
+    private static final int[][] TRAJECTORY = {
+            {10, 0},
+            {33, 20}, {56, 40}, {79, 60}, {102, 80}, {125, 100},
+            {148, 120}, {171, 140}, {194, 160}, {217, 180}, {240, 200},
+            {100, 100}, {100, 100}, {100, 100},
+            {20, 200}, {20, 200},
+            {-5, 250}, {300, -10},
+            {60, 100}, {84, 147}, {98, 176}, {98, 176}, {84, 147},
+            {60, 100}, {36, 53}, {22, 24}, {22, 24}, {36, 53},
+    };
+
+    @Test
+    public void framesMatchGoldenFile() throws IOException {
+        List<String> golden = loadGolden();
+        List<String> frames = stringFrames();
+        assertEquals(golden.size(), frames.size());
+        for (int i = 0; i < golden.size(); i++) {
+            assertEquals("frame " + i, golden.get(i), frames.get(i));
+        }
+    }
+
+    @Test
+    public void byteSegmentsMatchGoldenFile() throws IOException {
+        List<String> golden = loadGolden();
+        List<String> frames = byteFrames();
+        assertEquals(golden, frames);
+    }
+
+    @Test
+    public void frequencyTableMatchesFormula() {
+        for (int period = -10; period <= Constants.WAVEFORM_PERIOD_MAX_MS + 10; period++) {
+            int expected;
+            int clamped = Math.max(Constants.WAVEFORM_PERIOD_MIN_MS, Math.min(Constants.WAVEFORM_PERIOD_MAX_MS, period));
+            if (clamped <= 100) {
+                expected = clamped;
+            } else if (clamped <= 600) {
+                expected = (clamped - 100) / 5 + 100;
+            } else {
+                expected = (clamped - 600) / 10 + 200;
+            }
+            assertEquals("period " + period, expected, WaveformEncoder.encodePeriod(period));
+        }
+        // 常用频率的换算：10Hz对应100毫秒周期，1Hz对应1000毫秒周期
+        assertEquals(100, WaveformEncoder.encodeFrequency(10));
+        assertEquals(20, WaveformEncoder.encodeFrequency(50));
+        assertEquals(10, WaveformEncoder.encodeFrequency(Constants.FREQUENCY_MAX));
+        assertEquals(240, WaveformEncoder.encodeFrequency(1));
+        assertEquals(100, WaveformEncoder.encodeIntensity(Constants.INTENSITY_MAX));
+    }
+
+    @Test
+    public void hexCodecMatchesCharacterDigit() {
+        Random random = new Random(15);
+        for (int i = 0; i < 10_000; i++) {
+            byte[] data = new byte[random.nextInt(64)];
+            random.nextBytes(data);
+            StringBuilder hex = new StringBuilder();
+            WaveformEncoder.appendHex(data, 0, data.length, hex);
+            assertEquals(legacyHex(data), hex.toString());
+
+            String mixedCase = random.nextBoolean() ? hex.toString().toLowerCase() : hex.toString();
+            assertArrayEquals(legacyDecode(mixedCase), WaveformEncoder.decodeHex(mixedCase));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeHexRejectsInvalidCharacters() {
+        WaveformEncoder.decodeHex("0A0G");
+    }
+
+    /**
+     * 十六进制字符串波形段经SocketProtocolHelper打包
+     */
+    private static List<String> stringFrames() {
+        String[] segments = new WaveformGenerator().generate(column(0), column(1));
+        SocketProtocolHelper helper = new SocketProtocolHelper();
+        List<String> frames = new ArrayList<>();
+        for (int offset = 0; offset < segments.length; offset += SEGMENTS_PER_MESSAGE) {
+            int count = Math.min(SEGMENTS_PER_MESSAGE, segments.length - offset);
+            frames.add(helper.generateWaveformCommand(Constants.CHANNEL_A, segments, offset, count));
+        }
+        return frames;
+    }
+
+    /**
+     * 字节波形段经发送路径使用的编码器直接打包
+     */
+    private static List<String> byteFrames() {
+        WaveformGenerator generator = new WaveformGenerator();
+        byte[] segments = new byte[TRAJECTORY.length * WaveformEncoder.SEGMENT_BYTES];
+        for (int i = 0; i < TRAJECTORY.length; i++) {
+            generator.nextSegment(TRAJECTORY[i][0], TRAJECTORY[i][1], segments, i * WaveformEncoder.SEGMENT_BYTES);
+        }
+        JsonCommandEncoder encoder = new JsonCommandEncoder();
+        byte[] out = new byte[Constants.SEND_BUFFER_SIZE];
+        List<String> frames = new ArrayList<>();
+        for (int offset = 0; offset < TRAJECTORY.length; offset += SEGMENTS_PER_MESSAGE) {
+            int count = Math.min(SEGMENTS_PER_MESSAGE, TRAJECTORY.length - offset);
+            int length = encoder.encodeWaveform(Constants.CHANNEL_A, segments, offset, count, out, 0);
+            frames.add(new String(out, 0, length, StandardCharsets.UTF_8));
+        }
+        return frames;
+    }
+
+    private static int[] column(int index) {
+        int[] values = new int[TRAJECTORY.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = TRAJECTORY[i][index];
+        }
+        return values;
+    }
+
+    /**
+     * 加载金标准波形命令，每行一条，#开头的行为注释
+     */
+    private static List<String> loadGolden() throws IOException {
+        List<String> golden = new ArrayList<>();
+        InputStream in = WaveformGeneratorTest.class.getResourceAsStream("/waveform_golden.txt");
+        assertNotNull("waveform_golden.txt not found", in);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    golden.add(line);
+                }
+            }
+        }
+        return golden;
+    }
+
+    /**
+     * 参考实现：String.format逐字节编码
+     */
+    private static String legacyHex(byte[] data) {
+        StringBuilder out = new StringBuilder();
+        for (byte b : data) {
+            out.append(String.format("%02X", b & 0xFF));
+        }
+        return out.toString();
+    }
+
+    /**
+     * 参考实现：改为查找表之前的Character.digit循环
+     */
+    private static byte[] legacyDecode(String hexString) {
+        int len = hexString.length();
+        byte[] data = new byte[len / 2];
+        for (int i = 0; i < len; i += 2) {
+            data[i / 2] = (byte) ((Character.digit(hexString.charAt(i), 16) << 4)
+                    + Character.digit(hexString.charAt(i + 1), 16));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,152 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import java.time.Duration;
+
+/**
+ * 波形调度器在暂停的主Looper上的测试
+ * 接收方按设备的方式模拟队列：波形段依次播放，已排队的波形段不能撤回
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class WaveformSchedulerTest {
+
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+
+    private final DeviceQueue device = new DeviceQueue();
+    private WaveformScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new WaveformScheduler(new Handler(Looper.getMainLooper()), device);
+        scheduler.start();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void steadyTargetKeepsFullLookAhead() {
+        for (int i = 0; i < 5; i++) {
+            scheduler.updateTarget(Constants.CHANNEL_A, 50, 100);
+            advance(SAMPLE_INTERVAL_MS);
+        }
+        assertEquals(Constants.WAVEFORM_LOOK_AHEAD_MS, device.maxDepthMs, Constants.WAVEFORM_SEGMENT_MS);
+        assertEquals(0, scheduler.getUnderrunCount());
+        // 补充频率不超过车速更新频率
+        assertTrue(device.messages <= 5);
+    }
+
+    @Test
+    public void decelerationToStopReachesDeviceWithinDownwardLookAhead() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.updateTarget(Constants.CHANNEL_A, 50, 100);
+            advance(SAMPLE_INTERVAL_MS);
+        }
+
+        // 减速：第一次下降之后队列限制在下降预留时长以内
+        scheduler.updateTarget(Constants.CHANNEL_A, 50, 60);
+        advance(SAMPLE_INTERVAL_MS);
+        assertTrue(scheduler.getQueueDepthMs(Constants.CHANNEL_A) <= Constants.WAVEFORM_DOWNWARD_LOOK_AHEAD_MS);
+        device.maxDepthMs = 0;
+        scheduler.updateTarget(Constants.CHANNEL_A, 50, 30);
+        advance(SAMPLE_INTERVAL_MS);
+
+        // 停止：强度为0的波形在下降预留时长加一个补充节拍内开始播放
+        long stopMs = SystemClock.uptimeMillis();
+        scheduler.updateTarget(Constants.CHANNEL_A, 50, Constants.INTENSITY_MIN);
+        advance(SAMPLE_INTERVAL_MS);
+        assertTrue(device.maxDepthMs <= Constants.WAVEFORM_DOWNWARD_LOOK_AHEAD_MS);
+        assertTrue("no zero-intensity segment queued", device.firstSilentEndMs > 0);
+        long latencyMs = device.firstSilentEndMs - stopMs;
+        assertTrue("stop reached the device after " + latencyMs + " ms",
+                latencyMs <= Constants.WAVEFORM_DOWNWARD_LOOK_AHEAD_MS + 2 * Constants.WAVEFORM_SEGMENT_MS);
+        assertEquals(0, scheduler.getUnderrunCount());
+    }
+
+    @Test
+    public void risingTargetRestoresFullLookAhead() {
+        scheduler.updateTarget(Constants.CHANNEL_A, 50, 100);
+        advance(SAMPLE_INTERVAL_MS);
+        scheduler.updateTarget(Constants.CHANNEL_A, 50, 50);
+        advance(SAMPLE_INTERVAL_MS);
+        assertTrue(scheduler.getQueueDepthMs(Constants.CHANNEL_A) <= Constants.WAVEFORM_DOWNWARD_LOOK_AHEAD_MS);
+
+        device.maxDepthMs = 0;
+        scheduler.updateTarget(Constants.CHANNEL_A, 50, 80);
+        advance(SAMPLE_INTERVAL_MS);
+        assertEquals(Constants.WAVEFORM_LOOK_AHEAD_MS, device.maxDepthMs, Constants.WAVEFORM_SEGMENT_MS);
+    }
+
+    @Test
+    public void predictionIsClampedBeforeItBecomesTheNextStartPoint() {
+        // 频率和强度从最大值骤降到最小值：外推会越过下限，预测值和生成器的起点必须限制在有效范围内
+        scheduler.updateTarget(Constants.CHANNEL_A, Constants.FREQUENCY_MAX, Constants.INTENSITY_MAX);
+        advance(SAMPLE_INTERVAL_MS);
+        scheduler.updateTarget(Constants.CHANNEL_A, Constants.FREQUENCY_MIN, Constants.INTENSITY_MIN);
+        advance(3 * SAMPLE_INTERVAL_MS);
+        scheduler.updateTarget(Constants.CHANNEL_A, Constants.FREQUENCY_MIN + 20, 20);
+        advance(2 * SAMPLE_INTERVAL_MS);
+
+        assertEquals(WaveformEncoder.encodeFrequency(Constants.FREQUENCY_MAX), device.minFrequencyCode);
+        assertEquals(WaveformEncoder.encodeFrequency(Constants.FREQUENCY_MIN), device.maxFrequencyCode);
+    }
+
+    private static void advance(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(ms));
+    }
+
+    /**
+     * 模拟设备端的波形队列
+     */
+    private static final class DeviceQueue implements WaveformSink {
+        int messages;
+        long queuedUntilMs;
+        long maxDepthMs;
+        long firstSilentEndMs;
+        int minFrequencyCode = Integer.MAX_VALUE;
+        int maxFrequencyCode = Integer.MIN_VALUE;
+
+        @Override
+        public void sendWaveformCommand(String channel, byte[] segments, int count) {
+            messages++;
+            long now = SystemClock.uptimeMillis();
+            long start = Math.max(queuedUntilMs, now);
+            for (int k = 0; k < count; k++) {
+                int base = k * WaveformEncoder.SEGMENT_BYTES;
+                for (int point = 0; point < Constants.WAVEFORM_POINTS_PER_SEGMENT; point++) {
+                    int frequencyCode = segments[base + point] & 0xFF;
+                    minFrequencyCode = Math.min(minFrequencyCode, frequencyCode);
+                    maxFrequencyCode = Math.max(maxFrequencyCode, frequencyCode);
+                }
+                int lastIntensity = segments[base + WaveformEncoder.SEGMENT_BYTES - 1];
+                if (lastIntensity == 0 && firstSilentEndMs == 0) {
+                    firstSilentEndMs = start + (long) (k + 1) * Constants.WAVEFORM_SEGMENT_MS;
+                }
+            }
+            queuedUntilMs = start + (long) count * Constants.WAVEFORM_SEGMENT_MS;
+            maxDepthMs = Math.max(maxDepthMs, queuedUntilMs - now);
+        }
+
+        @Override
+        public boolean canSendWaveform() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.os.HandlerThread;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * permessage-deflate协商和压缩后实际发出字节数的测试
+ * 本地服务器使用库自带的PerMessageDeflateExtension：服务器不保留自己的压缩上下文，
+ * 客户端没有要求client_no_context_takeover时按保留上下文解压，正好对应{@link CommandDeflateExtension}的请求。
+ * 保留上下文后重复的命令只需几个字节，协商退化为每条消息重置时压缩后的命令反而比原文长
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class WebSocketServiceCompressionTest {
+
+    private static final int PULSES = 100;
+
+    private RecordingServer server;
+    private HandlerThread ioThread;
+    private WebSocketService service;
+
+    @After
+    public void tearDown() throws Exception {
+        if (service != null) {
+            service.disconnect();
+            service.release();
+        }
+        if (ioThread != null) {
+            ioThread.quitSafely();
+        }
+        if (server != null) {
+            server.stop(1000);
+        }
+    }
+
+    @Test
+    public void negotiatedCompressionSendsFewerBytesThanPayload() throws Exception {
+        connect(new Draft_6455(new PerMessageDeflateExtension()), true);
+        assertTrue("compression not negotiated", service.isCompressionActive());
+
+        sendPulses();
+        long payload = service.getPayloadBytesSent();
+        long wire = service.getWireBytesSent();
+        assertTrue(service.getWireStats(), wire < payload);
+    }
+
+    @Test
+    public void resetsContextWhenServerRequiresIt() throws Exception {
+        // 服务器每条消息后重置解压上下文，客户端继续沿用上下文时服务器无法解码后续命令
+        connect(new Draft_6455(new NoClientContextExtension()), true);
+        assertTrue("compression not negotiated", service.isCompressionActive());
+
+        sendPulses();
+    }
+
+    @Test
+    public void uncompressedWhenClientDoesNotOffer() throws Exception {
+        connect(new Draft_6455(new PerMessageDeflateExtension()), false);
+        assertFalse(service.isCompressionActive());
+
+        sendPulses();
+        assertTrue(service.getWireStats(), service.getWireBytesSent() >= service.getPayloadBytesSent());
+    }
+
+    @Test
+    public void uncompressedWhenServerDeclines() throws Exception {
+        connect(new Draft_6455(), true);
+        assertFalse(service.isCompressionActive());
+
+        sendPulses();
+        assertTrue(service.getWireStats(), service.getWireBytesSent() >= service.getPayloadBytesSent());
+    }
+
+    private void connect(Draft serverDraft, boolean compression) throws Exception {
+        server = new RecordingServer(serverDraft);
+        server.start();
+        assertTrue("server did not start", server.started.await(5, TimeUnit.SECONDS));
+
+        ioThread = new HandlerThread("io");
+        ioThread.start();
+        service = new WebSocketService(null, "ws://127.0.0.1:" + server.getPort(), ioThread.getLooper());
+        service.setCompression(compression);
+        service.connect();
+        awaitTrue("not connected", service::isConnected);
+    }
+
+    /**
+     * 逐条发送强度不同的脉冲命令，每条都等服务器解码后再发下一条，避免邮箱合并
+     */
+    private void sendPulses() throws InterruptedException {
+        for (int i = 0; i < PULSES; i++) {
+            int intensity = Constants.INTENSITY_MIN + 1 + i;
+            service.sendPulseCommand(Constants.CHANNEL_A, 50, intensity);
+            int expected = i + 1;
+            awaitTrue("pulse " + intensity + " not received", () -> server.pulses.size() == expected);
+        }
+        assertEquals(PULSES, server.pulses.size());
+        for (int i = 0; i < PULSES; i++) {
+            assertEquals(Constants.INTENSITY_MIN + 1 + i, (int) server.pulses.get(i));
+        }
+        assertTrue(service.getPayloadBytesSent() > 0);
+    }
+
+    private static void awaitTrue(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(message, condition.getAsBoolean());
+    }
+
+    /**
+     * 总是要求客户端不保留压缩上下文的服务器扩展
+     */
+    private static final class NoClientContextExtension extends PerMessageDeflateExtension {
+        @Override
+        public boolean acceptProvidedExtensionAsServer(String inputExtension) {
+            setClientNoContextTakeover(true);
+            return super.acceptProvidedExtensionAsServer(inputExtension);
+        }
+
+        @Override
+        public IExtension copyInstance() {
+            return new NoClientContextExtension();
+        }
+    }
+
+    /**
+     * 按收到的顺序记录脉冲强度的WebSocket服务器
+     */
+    private static final class RecordingServer extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<Integer> pulses = new CopyOnWriteArrayList<>();
+
+        RecordingServer(Draft draft) {
+            super(new InetSocketAddress("127.0.0.1", 0), Collections.singletonList(draft));
+            setReuseAddr(true);
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            JsonObject command = JsonParser.parseString(message).getAsJsonObject();
+            if (Constants.MSG_TYPE_PULSE.equals(command.get("type").getAsString())) {
+                pulses.add(command.getAsJsonObject("data").get("intensity").getAsInt());
+            }
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+        }
+    }
+}
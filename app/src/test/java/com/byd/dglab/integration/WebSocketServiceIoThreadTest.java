@@ -0,0 +1,189 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 主线程被阻塞时控制命令仍然按时发出
+ * 主线程Looper执行一个长时间任务（模拟界面卡顿），期间另一个线程按采样节拍发送脉冲命令，
+ * 本地WebSocket服务器记录每条命令的到达时间
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class WebSocketServiceIoThreadTest {
+
+    private static final int COMMANDS = 20;
+    private static final long COMMAND_INTERVAL_MS = 50;
+    private static final long UI_BLOCK_MS = 3000;
+
+    /** 单条命令从发送到服务器收到的最长时间 */
+    private static final long MAX_LATENCY_MS = 250;
+
+    private RecordingServer server;
+    private WebSocketService service;
+    private final AtomicInteger sentNotifications = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new RecordingServer();
+        server.start();
+        assertTrue("server did not start", server.started.await(5, TimeUnit.SECONDS));
+
+        service = new WebSocketService(new ControlCommandListener() {
+            @Override
+            public void onCommandSent(String commandType, String commandData) {
+                assertSame(Looper.getMainLooper(), Looper.myLooper());
+                sentNotifications.incrementAndGet();
+            }
+
+            @Override
+            public void onResponseReceived(String responseType, String responseData) {
+            }
+
+            @Override
+            public void onError(String errorType, String errorMessage) {
+            }
+        }, "ws://127.0.0.1:" + server.getPort(), null);
+        service.connect();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!service.isConnected() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("not connected", service.isConnected());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (service != null) {
+            service.disconnect();
+            service.release();
+        }
+        if (server != null) {
+            server.stop(1000);
+        }
+    }
+
+    @Test
+    public void commandsGoOutWhileUiLooperIsBlocked() throws Exception {
+        long[] sentAtNanos = new long[COMMANDS];
+        CountDownLatch uiBlocked = new CountDownLatch(1);
+        long[] uiBlockEndNanos = new long[1];
+
+        // 界面卡顿：主线程上的任务长时间不返回
+        new Handler(Looper.getMainLooper()).post(() -> {
+            uiBlocked.countDown();
+            sleep(UI_BLOCK_MS);
+            uiBlockEndNanos[0] = System.nanoTime();
+        });
+
+        // 采样线程按固定节拍发送，每条命令的强度不同，便于在服务器端对应
+        Thread producer = new Thread(() -> {
+            try {
+                uiBlocked.await();
+                for (int i = 0; i < COMMANDS; i++) {
+                    sentAtNanos[i] = System.nanoTime();
+                    service.sendPulseCommand(Constants.CHANNEL_A, 50, intensityOf(i));
+                    sleep(COMMAND_INTERVAL_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "producer");
+        producer.start();
+
+        // 在测试线程（主线程）上执行主Looper，卡顿任务期间主线程不处理其他消息
+        shadowOf(Looper.getMainLooper()).idle();
+        producer.join(5000);
+
+        for (int i = 0; i < COMMANDS; i++) {
+            Long receivedAt = server.receivedAtNanos.get(intensityOf(i));
+            assertNotNull("command " + i + " not received", receivedAt);
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(receivedAt - sentAtNanos[i]);
+            assertTrue("command " + i + " took " + latencyMs + " ms", latencyMs < MAX_LATENCY_MS);
+            // 所有命令都在主线程恢复之前到达
+            assertTrue("command " + i + " waited for the UI thread", receivedAt < uiBlockEndNanos[0]);
+        }
+
+        // 发送通知在主线程恢复后合并送达，不影响发送
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTrue(sentNotifications.get() > 0);
+        assertTrue(sentNotifications.get() <= COMMANDS);
+    }
+
+    private static int intensityOf(int index) {
+        return 10 + index;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录每个强度值的脉冲命令到达时间的服务器
+     */
+    private static final class RecordingServer extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        final ConcurrentHashMap<Integer, Long> receivedAtNanos = new ConcurrentHashMap<>();
+
+        RecordingServer() {
+            super(new InetSocketAddress("127.0.0.1", 0));
+            setReuseAddr(true);
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            long now = System.nanoTime();
+            JsonObject command = JsonParser.parseString(message).getAsJsonObject();
+            if (Constants.MSG_TYPE_PULSE.equals(command.get("type").getAsString())) {
+                int intensity = command.getAsJsonObject("data").get("intensity").getAsInt();
+                receivedAtNanos.putIfAbsent(intensity, now);
+            }
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ping/pong往返时延估计和断开判定在暂停的主Looper上的时序测试
+ * 服务使用主Looper作为发送线程，保活检查的节拍由测试推进模拟时钟控制；
+ * 本地WebSocket服务器可以停止回应ping，模拟丢包和断网
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class WebSocketServiceLivenessTest {
+
+    private PingServer server;
+    private WebSocketService service;
+    private ShadowLooper looper;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new PingServer();
+        server.start();
+        assertTrue("server did not start", server.started.await(5, TimeUnit.SECONDS));
+
+        looper = shadowOf(Looper.getMainLooper());
+        service = new WebSocketService(null, "ws://127.0.0.1:" + server.getPort(), Looper.getMainLooper());
+        service.connect();
+        awaitOnLooper("not connected", service::isConnected);
+
+        // 连接建立后立即发送第一个ping，收到pong得到第一个样本
+        awaitOnLooper("no RTT sample", () -> service.getRttEstimator().getSampleCount() == 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (service != null) {
+            service.disconnect();
+            looper.idle();
+            service.release();
+        }
+        if (server != null) {
+            server.stop(1000);
+        }
+    }
+
+    @Test
+    public void stableLinkUsesLongerPingInterval() throws Exception {
+        // 一个样本时RTTVAR为RTT的一半，间隔在上下限的中点或更长
+        RttEstimator rtt = service.getRttEstimator();
+        assertTrue(rtt.getSmoothedRttMs() >= 0);
+        assertEquals(rtt.getSmoothedRttMs() / 2, rtt.getRttVarianceMs(), 1e-9);
+        long interval = rtt.getPingIntervalMs(0);
+        assertTrue("interval " + interval, interval > Constants.PING_INTERVAL_MIN_MS);
+
+        advance(interval - 1);
+        assertEquals(1, server.pings.get());
+        advance(1);
+        awaitOnLooper("second ping not sent", () -> rtt.getSampleCount() == 2);
+        assertEquals(2, server.pings.get());
+        assertEquals(0, service.getMissedPongCount());
+    }
+
+    @Test
+    public void pongAfterMissUsesShortestPingInterval() throws Exception {
+        RttEstimator rtt = service.getRttEstimator();
+        long timeout = rtt.getPongTimeoutMs();
+        server.answerPings = false;
+
+        // 第二个ping没有回应，超时后计为丢失并重发
+        advance(rtt.getPingIntervalMs(0));
+        awaitTrue("second ping not received", () -> server.pings.get() == 2);
+        server.answerPings = true;
+        advance(timeout);
+        assertEquals(1, service.getMissedPongCount());
+
+        // 丢失后的pong不作为样本，下一个ping按最短间隔发送
+        awaitTrue("third ping not received", () -> server.pings.get() == 3);
+        awaitPosted();
+        assertEquals(1, rtt.getSampleCount());
+        advance(Constants.PING_INTERVAL_MIN_MS - 1);
+        assertEquals(3, server.pings.get());
+        advance(1);
+        awaitTrue("ping not sent at the shortest interval", () -> server.pings.get() == 4);
+    }
+
+    @Test
+    public void silentLinkIsDeclaredDeadExactlyAtTimeout() throws Exception {
+        server.answerPings = false;
+
+        // 最后一次收到数据是第一个pong，之后只有超时重发的ping
+        advance(Constants.DEAD_LINK_TIMEOUT_MS - 1);
+        assertEquals(0, service.getDeadLinkCount());
+        assertTrue(service.isConnected());
+        assertTrue(service.getMissedPongCount() > 1);
+
+        advance(1);
+        assertEquals(1, service.getDeadLinkCount());
+        awaitOnLooper("dead link not closed", () -> !service.isConnected());
+        assertFalse(service.isConnected());
+    }
+
+    /**
+     * 推进模拟时钟并执行到期的任务
+     */
+    private void advance(long ms) {
+        looper.idleFor(Duration.ofMillis(ms));
+    }
+
+    /**
+     * 等待网络线程向主Looper投递任务（如收到pong）并执行，不推进模拟时钟
+     */
+    private void awaitPosted() throws InterruptedException {
+        awaitTrue("nothing posted to the looper", () -> !looper.isIdle());
+        looper.idle();
+    }
+
+    /**
+     * 反复执行主Looper上已到期的任务，直到条件成立，不推进模拟时钟
+     */
+    private void awaitOnLooper(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        looper.idle();
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            looper.idle();
+        }
+        assertTrue(message, condition.getAsBoolean());
+    }
+
+    private static void awaitTrue(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(message, condition.getAsBoolean());
+    }
+
+    /**
+     * 统计收到的ping，可以停止回应pong的服务器
+     */
+    private static final class PingServer extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger pings = new AtomicInteger();
+        volatile boolean answerPings = true;
+
+        PingServer() {
+            super(new InetSocketAddress("127.0.0.1", 0));
+            setReuseAddr(true);
+        }
+
+        @Override
+        public void onWebsocketPing(WebSocket conn, Framedata f) {
+            pings.incrementAndGet();
+            if (answerPings) {
+                super.onWebsocketPing(conn, f);
+            }
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+        }
+    }
+}
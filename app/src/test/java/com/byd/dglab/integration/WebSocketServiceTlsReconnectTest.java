@@ -0,0 +1,313 @@
+package com.byd.dglab.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.ConscryptMode;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowSystemClock;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * 断线重连到本地TLS WebSocket服务器
+ * 测量断开到第一条控制命令发出的时间，并检查重连时恢复了缓存的TLS会话而不是完整握手。
+ * 服务器证书为测试资源中的自签名证书（localhost，密码dglab-test）。
+ * Robolectric默认安装Conscrypt，本地Conscrypt服务器在连接断开后不再接受恢复会话，两端改用JDK的TLS实现
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@LooperMode(LooperMode.Mode.PAUSED)
+@ConscryptMode(ConscryptMode.Mode.OFF)
+public class WebSocketServiceTlsReconnectTest {
+
+    private static final char[] PASSWORD = "dglab-test".toCharArray();
+
+    /** 重连退避：上界1秒，随机数固定为0.5 */
+    private static final long RECONNECT_DELAY_MS = 500;
+
+    private RecordingServer server;
+    private TlsProxy proxy;
+    private HandlerThread ioThread;
+    private WebSocketService service;
+    private ReconnectPolicy policy;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = getClass().getResourceAsStream("/tls_test_server.p12")) {
+            assertNotNull("tls_test_server.p12 not found", in);
+            keyStore.load(in, PASSWORD);
+        }
+
+        // TLS由前置的阻塞式SSLServerSocket终止，恢复的会话沿用原来的会话ID
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        SSLContext serverContext = SSLContext.getInstance("TLS");
+        serverContext.init(keyManagers.getKeyManagers(), null, null);
+        server = new RecordingServer();
+        server.start();
+        assertTrue("server did not start", server.started.await(5, TimeUnit.SECONDS));
+        proxy = new TlsProxy(serverContext, server.getPort());
+
+        // 客户端只信任测试证书
+        KeyStore trusted = KeyStore.getInstance(KeyStore.getDefaultType());
+        trusted.load(null, null);
+        trusted.setCertificateEntry("server", keyStore.getCertificate("server"));
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(trusted);
+        TlsSessionCache.setTrustManagers(trustManagers.getTrustManagers());
+        CachingDnsResolver.getShared().clear();
+
+        ioThread = new HandlerThread("io");
+        ioThread.start();
+        service = new WebSocketService(null, "wss://localhost:" + proxy.getPort(), ioThread.getLooper());
+        policy = new ReconnectPolicy(Clock.SYSTEM, new HalfRandom(), 2 * RECONNECT_DELAY_MS,
+                Constants.RECONNECT_MAX_DELAY_MS, Integer.MAX_VALUE, Constants.CIRCUIT_PROBE_INTERVAL_MS);
+        service.setReconnectPolicy(policy);
+        service.connect();
+        awaitTrue("not connected", service::isConnected);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (service != null) {
+            service.disconnect();
+            service.release();
+        }
+        if (ioThread != null) {
+            ioThread.quitSafely();
+        }
+        if (proxy != null) {
+            proxy.close();
+        }
+        if (server != null) {
+            server.stop(1000);
+        }
+        TlsSessionCache.setTrustManagers(null);
+        CachingDnsResolver.getShared().clear();
+    }
+
+    @Test
+    public void reconnectResumesTlsSessionAndMeasuresTimeToFirstCommand() throws Exception {
+        assertEquals(-1, service.getLastTimeToFirstCommandMs());
+        awaitTrue("server did not see the connection", () -> proxy.sessionCreationTimes.size() == 1);
+        assertTrue(TlsSessionCache.getCachedSessionCount() >= 1);
+        long dnsMisses = CachingDnsResolver.getShared().getMissCount();
+
+        // 服务器断开连接，客户端按退避重连
+        proxy.dropAll();
+        awaitTrue("reconnect not scheduled", () -> policy.getConsecutiveFailures() == 1);
+        assertTrue(!service.isConnected());
+        awaitIoThread();
+
+        // 断开期间的控制帧保留在邮箱中，重连后作为第一条命令发出
+        service.sendPulseCommand(Constants.CHANNEL_A, 50, 77);
+        ShadowSystemClock.advanceBy(Duration.ofMillis(RECONNECT_DELAY_MS));
+        // 后台Looper不一定因模拟时钟推进而醒来，投递一个任务让它检查到期的重连定时
+        awaitIoThread();
+        awaitTrue("command not delivered after reconnect", () -> server.pulses.containsKey(77));
+
+        // 断开后经过的只有退避时间（模拟时钟只在上面推进）
+        assertEquals(RECONNECT_DELAY_MS, service.getLastTimeToFirstCommandMs());
+
+        // 重连恢复了第一次连接的TLS会话（恢复的会话保留原来的创建时间），DNS结果来自缓存
+        assertEquals(2, proxy.sessionCreationTimes.size());
+        assertEquals(proxy.sessionCreationTimes.get(0), proxy.sessionCreationTimes.get(1));
+        assertEquals(dnsMisses, CachingDnsResolver.getShared().getMissCount());
+    }
+
+    /**
+     * 等待发送线程处理完已到期的任务（断开处理、重连定时）
+     */
+    private void awaitIoThread() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        new Handler(ioThread.getLooper()).post(done::countDown);
+        assertTrue("I/O thread is stuck", done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitTrue(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(message, condition.getAsBoolean());
+    }
+
+    /**
+     * 总是返回0.5的随机数来源，退避时间为上界的一半
+     */
+    private static final class HalfRandom extends Random {
+        @Override
+        public double nextDouble() {
+            return 0.5;
+        }
+    }
+
+    /**
+     * 记录收到的脉冲强度的WebSocket服务器
+     */
+    private static final class RecordingServer extends WebSocketServer {
+        final CountDownLatch started = new CountDownLatch(1);
+        final ConcurrentHashMap<Integer, Boolean> pulses = new ConcurrentHashMap<>();
+
+        RecordingServer() {
+            super(new InetSocketAddress("127.0.0.1", 0));
+            setReuseAddr(true);
+        }
+
+        @Override
+        public void onStart() {
+            started.countDown();
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            JsonObject command = JsonParser.parseString(message).getAsJsonObject();
+            if (Constants.MSG_TYPE_PULSE.equals(command.get("type").getAsString())) {
+                pulses.put(command.getAsJsonObject("data").get("intensity").getAsInt(), true);
+            }
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+        }
+    }
+
+    /**
+     * 在WebSocket服务器前终止TLS的代理，记录每个连接的TLS会话创建时间
+     * Java-WebSocket服务器自带的非阻塞TLS通道在恢复会话的简短握手中偶尔停住，这里用阻塞式的SSLServerSocket
+     */
+    private static final class TlsProxy implements Closeable {
+        final List<Long> sessionCreationTimes = new CopyOnWriteArrayList<>();
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+        private final SSLServerSocket serverSocket;
+        private final int targetPort;
+
+        TlsProxy(SSLContext context, int targetPort) throws IOException {
+            this.targetPort = targetPort;
+            serverSocket = (SSLServerSocket) context.getServerSocketFactory()
+                    .createServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            serverSocket.setEnabledProtocols(new String[] {"TLSv1.2"});
+            Thread acceptor = new Thread(this::acceptLoop, "tls-proxy");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        /**
+         * 断开所有连接，模拟网络中断
+         */
+        void dropAll() {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+            sockets.clear();
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(serverSocket);
+            dropAll();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    SSLSocket client = (SSLSocket) serverSocket.accept();
+                    sockets.add(client);
+                    startDaemon(() -> bridge(client));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void bridge(SSLSocket client) {
+            try {
+                client.startHandshake();
+                sessionCreationTimes.add(client.getSession().getCreationTime());
+                Socket target = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                sockets.add(target);
+                startDaemon(() -> pump(target, client));
+                pump(client, target);
+            } catch (IOException e) {
+                closeQuietly(client);
+            }
+        }
+
+        private void pump(Socket from, Socket to) {
+            byte[] buffer = new byte[4096];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                // 任一端断开
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }
+
+        private static void startDaemon(Runnable task) {
+            Thread thread = new Thread(task, "tls-proxy-io");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private static void closeQuietly(Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // 已经关闭
+            }
+        }
+    }
+}